@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api;
+
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+/**
+ * <p>Result of {@link ImageFunction#andThen(ImageFunction)}. The first function is applied and its result is passed to
+ * the second one, afterwards the interim image is closed.</p>
+ * <p>Chaining another function is passed on to the second function, so consecutive {@link PointwiseImageFunction}s
+ * are fused, even if the chain starts with a non pointwise function.</p>
+ *
+ * @param <IN>  type of the input image
+ * @param <MID> type of the interim image
+ * @param <OUT> type of the result image
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+final class ComposedImageFunction<IN, MID, OUT> implements ImageFunction<IN, OUT> {
+    private final ImageFunction<IN, MID> first;
+    private final ImageFunction<MID, OUT> second;
+
+    ComposedImageFunction(ImageFunction<IN, MID> first, ImageFunction<MID, OUT> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public ImageWrapper<OUT> apply(ImageWrapper<IN> in) {
+        return second.andThenCloseInput().apply(first.apply(in));
+    }
+
+    @Override
+    public <X> ImageFunction<IN, X> andThen(ImageFunction<OUT, X> after) {
+        return new ComposedImageFunction<>(first, second.andThen(after));
+    }
+}
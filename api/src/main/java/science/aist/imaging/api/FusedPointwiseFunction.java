@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api;
+
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.jack.general.util.CastUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Sequence of {@link PointwiseImageFunction}s, that is executed in a single pass. Every row of the input is read
+ * once, passed through all stages using row buffers and written to the result image, so no intermediate image is
+ * created.</p>
+ * <p>The intermediate images of an unfused chain store the values with the element type of the stage's provider (e.g.
+ * truncated to short). To get the same result, every intermediate row of a stage, whose provider does not store
+ * doubles, is written to and read back from a single row image of this provider.</p>
+ *
+ * @param <IN>  type of the input image
+ * @param <OUT> type of the result image
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+final class FusedPointwiseFunction<IN, OUT> implements PointwiseImageFunction<IN, OUT> {
+    private final List<PointwiseImageFunction<?, ?>> stages;
+
+    private FusedPointwiseFunction(List<PointwiseImageFunction<?, ?>> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Fuses the two functions, nested fused functions are flattened
+     *
+     * @param first  the first function
+     * @param second the function applied on the result of the first one
+     * @param <IN>   type of the input image
+     * @param <MID>  type of the interim image
+     * @param <OUT>  type of the result image
+     * @return the fused function
+     */
+    static <IN, MID, OUT> FusedPointwiseFunction<IN, OUT> of(PointwiseImageFunction<IN, MID> first, PointwiseImageFunction<MID, OUT> second) {
+        List<PointwiseImageFunction<?, ?>> stages = new ArrayList<>();
+        addStages(stages, first);
+        addStages(stages, second);
+        return new FusedPointwiseFunction<>(stages);
+    }
+
+    private static void addStages(List<PointwiseImageFunction<?, ?>> stages, PointwiseImageFunction<?, ?> function) {
+        if (function instanceof FusedPointwiseFunction) {
+            stages.addAll(((FusedPointwiseFunction<?, ?>) function).stages);
+        } else {
+            stages.add(function);
+        }
+    }
+
+    /**
+     * @return the fused stages in execution order
+     */
+    List<PointwiseImageFunction<?, ?>> getStages() {
+        return stages;
+    }
+
+    @Override
+    public ImageWrapper<OUT> apply(ImageWrapper<IN> imageWrapper) {
+        ImageFactory<OUT> provider = getProvider();
+        if (provider == null) {
+            throw new IllegalStateException("The last stage of a fused function must provide an image factory");
+        }
+
+        // check all stages before the first pixel is touched
+        ChannelType[] types = channelTypes(imageWrapper.getChannelType());
+        int width = imageWrapper.getWidth();
+        int height = imageWrapper.getHeight();
+        ImageWrapper<OUT> result = provider.getImage(height, width, types[stages.size()]);
+
+        ThreadLocal<RowBuffers> buffers = ThreadLocal.withInitial(() -> new RowBuffers(types, width));
+        result.applyColumnFunction((image, y) -> {
+            RowBuffers rowBuffers = buffers.get();
+            imageWrapper.getTile(0, y, width, 1, rowBuffers.in);
+            applyStages(rowBuffers.in, rowBuffers.out, rowBuffers, types, width);
+            image.setTile(0, y, width, 1, rowBuffers.out);
+        }, 0, height, 1, imageWrapper.supportsParallelAccess() && result.supportsParallelAccess());
+
+        return result;
+    }
+
+    @Override
+    public ChannelType getResultChannelType(ChannelType inputType) {
+        return channelTypes(inputType)[stages.size()];
+    }
+
+    @Override
+    public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+        ChannelType[] types = channelTypes(inputType);
+        applyStages(src, dst, new RowBuffers(types, width), types, width);
+    }
+
+    @Override
+    public ImageFactory<OUT> getProvider() {
+        return CastUtils.cast(stages.get(stages.size() - 1).getProvider());
+    }
+
+    private ChannelType[] channelTypes(ChannelType inputType) {
+        ChannelType[] types = new ChannelType[stages.size() + 1];
+        types[0] = inputType;
+        for (int i = 0; i < stages.size(); i++) {
+            types[i + 1] = stages.get(i).getResultChannelType(types[i]);
+        }
+        return types;
+    }
+
+    private void applyStages(double[] src, double[] dst, RowBuffers buffers, ChannelType[] types, int width) {
+        double[] current = src;
+        int last = stages.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            double[] next = i == last ? dst : buffers.interim[i % 2];
+            stages.get(i).applyToRow(current, types[i], next, width);
+            ImageWrapper<?> row = i == last ? null : buffers.rows[i];
+            if (row != null) {
+                row.setTile(0, 0, width, 1, next);
+                row.getTile(0, 0, width, 1, next);
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Row buffers of a single worker. The interim rows are alternately used as source and destination of the stages.
+     */
+    private final class RowBuffers {
+        private final double[] in;
+        private final double[] out;
+        private final double[][] interim;
+        private final ImageWrapper<?>[] rows;
+
+        private RowBuffers(ChannelType[] types, int width) {
+            int channels = 0;
+            rows = new ImageWrapper<?>[stages.size() - 1];
+            for (int i = 0; i < rows.length; i++) {
+                channels = Math.max(channels, types[i + 1].getNumberOfChannels());
+                ImageFactory<?> provider = stages.get(i).getProvider();
+                if (provider != null && provider.getSupportedType() != double[][][].class && provider.getSupportedType() != double[].class) {
+                    rows[i] = provider.getImage(1, width, types[i + 1]);
+                }
+            }
+            in = new double[width * types[0].getNumberOfChannels()];
+            out = new double[width * types[stages.size()].getNumberOfChannels()];
+            interim = new double[][]{new double[width * channels], new double[width * channels]};
+        }
+    }
+}
@@ -79,6 +79,7 @@ public interface ImageFunction<IN, OUT> extends Function<ImageWrapper<IN>, Image
     /**
      * Chains multiple ImageFunctions. The first input function is applied and its result is passed to the after
      * ImageFunction, which will then calculate the final result. The interim image will be automatically closed.
+     * Consecutive {@link PointwiseImageFunction}s within the chain are fused and do not create interim images.
      *
      * @param after the function to apply after this function is applied
      * @param <X>   the resulting type of the applied image functions
@@ -86,6 +87,6 @@ public interface ImageFunction<IN, OUT> extends Function<ImageWrapper<IN>, Image
      * @since 1.2
      */
     default <X> ImageFunction<IN, X> andThen(ImageFunction<OUT, X> after) {
-        return (ImageWrapper<IN> in) -> after.andThenCloseInput().apply(apply(in));
+        return new ComposedImageFunction<>(this, after);
     }
 }
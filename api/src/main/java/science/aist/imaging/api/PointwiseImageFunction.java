@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api;
+
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+
+/**
+ * <p>Image function, where every pixel of the result only depends on the pixel at the same position of the input
+ * (e.g. thresholding, inverting or a color conversion).</p>
+ * <p>Such functions can be fused: chaining two of them with {@link #andThen(ImageFunction)} results in a single
+ * function, that processes the image row by row and passes every row through all stages, without creating the
+ * intermediate images. Other functions (e.g. neighbourhood operations) form the boundaries of such fused blocks.</p>
+ *
+ * @param <IN>  type of the input image
+ * @param <OUT> type of the result image
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public interface PointwiseImageFunction<IN, OUT> extends ImageFunction<IN, OUT> {
+    /**
+     * Calculates the channel type of the result
+     *
+     * @param inputType channel type of the input image
+     * @return channel type of the result image
+     * @throws science.aist.imaging.api.typecheck.TypeException if the input type is not supported
+     */
+    ChannelType getResultChannelType(ChannelType inputType);
+
+    /**
+     * Applies the function to a single row. Both rows are interleaved, i.e. sample c of pixel x is located at
+     * {@code x * channels + c}.
+     *
+     * @param src       the input row with the channels of inputType
+     * @param inputType channel type of the input row
+     * @param dst       the result row with the channels of {@link #getResultChannelType(ChannelType)}
+     * @param width     number of pixels in the row
+     */
+    void applyToRow(double[] src, ChannelType inputType, double[] dst, int width);
+
+    /**
+     * @return factory used to create the result image
+     */
+    ImageFactory<OUT> getProvider();
+
+    /**
+     * Chains the functions like {@link ImageFunction#andThen(ImageFunction)}. If the {@code after} function is
+     * pointwise too, both are fused into one function, which does not create an intermediate image.
+     *
+     * @param after the function to apply after this function is applied
+     * @param <X>   the resulting type of the applied image functions
+     * @return a composed function that first applies this function and then applies the {@code after} function
+     */
+    @Override
+    default <X> ImageFunction<IN, X> andThen(ImageFunction<OUT, X> after) {
+        if (after instanceof PointwiseImageFunction) {
+            return FusedPointwiseFunction.of(this, (PointwiseImageFunction<OUT, X>) after);
+        }
+        return ImageFunction.super.andThen(after);
+    }
+}
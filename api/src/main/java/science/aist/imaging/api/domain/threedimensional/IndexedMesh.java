@@ -0,0 +1,703 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.threedimensional;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import science.aist.jack.math.MathUtils;
+
+import java.util.*;
+
+/**
+ * <p>Mesh of 3D polygons stored in primitive buffers</p>
+ * <p>Every vertex is stored once in a vertex buffer (x, y, z interleaved) and the faces reference the vertices by
+ * their index. The indices of face i are stored in {@link #getFaceIndices()} from {@code faceOffsets[i]} (inclusive)
+ * to {@code faceOffsets[i + 1]} (exclusive), so faces with any number of vertices are supported. Optionally a normal
+ * can be stored per vertex.</p>
+ * <p>Compared to {@link JavaModel3D} shared vertices are not duplicated per face and no object is created per point,
+ * which reduces the memory of large meshes considerably. {@link #toModel()} converts the mesh into a {@link JavaModel3D}
+ * and {@link #asModel()} provides a read-only view of it, which creates the polygons only when they are accessed.</p>
+ * <p>The mesh is immutable: transformations return a new instance, which shares the face buffers with this one. The
+ * buffer getters return the internal arrays, which must not be modified.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class IndexedMesh {
+    private static final double[] IDENTITY = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+
+    private final double[] vertices;
+    private final int[] faceOffsets;
+    private final int[] faceIndices;
+    private final double[] normals;
+
+    /**
+     * Creates a mesh without normals
+     *
+     * @param vertices    vertex buffer (x, y, z interleaved)
+     * @param faceOffsets start of every face in faceIndices, followed by the length of faceIndices
+     * @param faceIndices vertex indices of all faces
+     */
+    public IndexedMesh(@NonNull double[] vertices, @NonNull int[] faceOffsets, @NonNull int[] faceIndices) {
+        this(vertices, faceOffsets, faceIndices, null);
+    }
+
+    /**
+     * Creates a mesh
+     *
+     * @param vertices    vertex buffer (x, y, z interleaved)
+     * @param faceOffsets start of every face in faceIndices, followed by the length of faceIndices
+     * @param faceIndices vertex indices of all faces
+     * @param normals     normal buffer (x, y, z interleaved, one normal per vertex) or null
+     */
+    public IndexedMesh(@NonNull double[] vertices, @NonNull int[] faceOffsets, @NonNull int[] faceIndices, double[] normals) {
+        if (vertices.length % 3 != 0) {
+            throw new IllegalArgumentException("Vertex buffer length must be a multiple of 3");
+        }
+        if (faceOffsets.length == 0 || faceOffsets[0] != 0 || faceOffsets[faceOffsets.length - 1] != faceIndices.length) {
+            throw new IllegalArgumentException("Face offsets must start with 0 and end with the number of face indices");
+        }
+        if (normals != null && normals.length != vertices.length) {
+            throw new IllegalArgumentException("Normal buffer must contain one normal per vertex");
+        }
+        int numberOfVertices = vertices.length / 3;
+        for (int index : faceIndices) {
+            if (index < 0 || index >= numberOfVertices) {
+                throw new IllegalArgumentException("Face index out of range: " + index);
+            }
+        }
+        this.vertices = vertices;
+        this.faceOffsets = faceOffsets;
+        this.faceIndices = faceIndices;
+        this.normals = normals;
+    }
+
+    /**
+     * Creates a triangle mesh
+     *
+     * @param vertices        vertex buffer (x, y, z interleaved)
+     * @param triangleIndices three vertex indices per triangle
+     * @return the mesh
+     */
+    public static IndexedMesh ofTriangles(@NonNull double[] vertices, @NonNull int[] triangleIndices) {
+        if (triangleIndices.length % 3 != 0) {
+            throw new IllegalArgumentException("Triangle index buffer length must be a multiple of 3");
+        }
+        int[] offsets = new int[triangleIndices.length / 3 + 1];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = i * 3;
+        }
+        return new IndexedMesh(vertices, offsets, triangleIndices);
+    }
+
+    /**
+     * Creates an indexed mesh from the given model. Points of the model, which are positional equal (see
+     * {@link JavaPoint3D#positionalEqual(JavaPoint3D, double)}), are merged into the first of them.
+     *
+     * @param model   the model
+     * @param epsilon epsilon used to merge the points; if it is not positive only identical points are merged
+     * @return the mesh
+     */
+    public static IndexedMesh of(@NonNull JavaModel3D model, double epsilon) {
+        Builder builder = builder();
+        // points are hashed into cells of the size epsilon, so positional equal points are in neighbouring cells
+        Map<Cell, List<Integer>> cells = new HashMap<>();
+        int[] face = new int[8];
+        for (JavaPolygon3D polygon : model.getMesh()) {
+            List<JavaPoint3D> points = polygon.getPoints();
+            if (face.length < points.size()) {
+                face = new int[points.size()];
+            }
+            for (int i = 0; i < points.size(); i++) {
+                face[i] = findOrAdd(builder, cells, points.get(i), epsilon);
+            }
+            builder.addFace(Arrays.copyOf(face, points.size()));
+        }
+        return builder.build();
+    }
+
+    private static int findOrAdd(Builder builder, Map<Cell, List<Integer>> cells, JavaPoint3D point, double epsilon) {
+        double x = point.getX();
+        double y = point.getY();
+        double z = point.getZ();
+        if (epsilon <= 0) {
+            return builder.addUniqueVertex(x, y, z);
+        }
+
+        long cx = (long) Math.floor(x / epsilon);
+        long cy = (long) Math.floor(y / epsilon);
+        long cz = (long) Math.floor(z / epsilon);
+        int found = -1;
+        for (long i = cx - 1; i <= cx + 1; i++) {
+            for (long j = cy - 1; j <= cy + 1; j++) {
+                for (long k = cz - 1; k <= cz + 1; k++) {
+                    List<Integer> candidates = cells.get(new Cell(i, j, k));
+                    if (candidates == null) {
+                        continue;
+                    }
+                    for (int candidate : candidates) {
+                        if ((found < 0 || candidate < found) &&
+                                MathUtils.equals(builder.vertices[candidate * 3], x, epsilon) &&
+                                MathUtils.equals(builder.vertices[candidate * 3 + 1], y, epsilon) &&
+                                MathUtils.equals(builder.vertices[candidate * 3 + 2], z, epsilon)) {
+                            found = candidate;
+                        }
+                    }
+                }
+            }
+        }
+        if (found < 0) {
+            found = builder.addVertex(x, y, z);
+            cells.computeIfAbsent(new Cell(cx, cy, cz), c -> new ArrayList<>(1)).add(found);
+        }
+        return found;
+    }
+
+    /**
+     * @return a new builder for an indexed mesh
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a mesh of builders, which were filled independently (e.g. by parsing chunks of a file in parallel). The
+     * vertices, normals and faces are concatenated in the given order. The face indices are not changed, so they must
+     * already reference the vertices of the concatenated builders.
+     *
+     * @param parts the builders
+     * @return the mesh
+     */
+    public static IndexedMesh concat(@NonNull List<Builder> parts) {
+        int vertexLength = 0;
+        int normalLength = 0;
+        int numberOfFaces = 0;
+        int faceIndexLength = 0;
+        for (Builder part : parts) {
+            vertexLength += part.vertexLength;
+            normalLength += part.normalLength;
+            numberOfFaces += part.numberOfFaces;
+            faceIndexLength += part.faceIndexLength;
+        }
+        if (normalLength != 0 && normalLength != vertexLength) {
+            throw new IllegalStateException("Either no or all vertices must have a normal");
+        }
+
+        double[] vertices = new double[vertexLength];
+        double[] normals = normalLength == 0 ? null : new double[normalLength];
+        int[] faceOffsets = new int[numberOfFaces + 1];
+        int[] faceIndices = new int[faceIndexLength];
+        vertexLength = 0;
+        numberOfFaces = 0;
+        faceIndexLength = 0;
+        for (Builder part : parts) {
+            System.arraycopy(part.vertices, 0, vertices, vertexLength, part.vertexLength);
+            if (normals != null) {
+                if (part.normalLength != part.vertexLength) {
+                    throw new IllegalStateException("Either no or all vertices must have a normal");
+                }
+                System.arraycopy(part.normals, 0, normals, vertexLength, part.normalLength);
+            }
+            System.arraycopy(part.faceIndices, 0, faceIndices, faceIndexLength, part.faceIndexLength);
+            for (int i = 1; i <= part.numberOfFaces; i++) {
+                faceOffsets[numberOfFaces + i] = faceIndexLength + part.faceOffsets[i];
+            }
+            vertexLength += part.vertexLength;
+            numberOfFaces += part.numberOfFaces;
+            faceIndexLength += part.faceIndexLength;
+        }
+        return new IndexedMesh(vertices, faceOffsets, faceIndices, normals);
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int getNumberOfVertices() {
+        return vertices.length / 3;
+    }
+
+    /**
+     * @return the number of faces
+     */
+    public int getNumberOfFaces() {
+        return faceOffsets.length - 1;
+    }
+
+    /**
+     * @param face index of the face
+     * @return the number of vertices of the face
+     */
+    public int getFaceSize(int face) {
+        return faceOffsets[face + 1] - faceOffsets[face];
+    }
+
+    /**
+     * @param face   index of the face
+     * @param corner index of the vertex in the face
+     * @return the index of the vertex in the vertex buffer
+     */
+    public int getVertexIndex(int face, int corner) {
+        return faceIndices[faceOffsets[face] + corner];
+    }
+
+    /**
+     * @param vertex index of the vertex
+     * @return x coordinate of the vertex
+     */
+    public double getX(int vertex) {
+        return vertices[vertex * 3];
+    }
+
+    /**
+     * @param vertex index of the vertex
+     * @return y coordinate of the vertex
+     */
+    public double getY(int vertex) {
+        return vertices[vertex * 3 + 1];
+    }
+
+    /**
+     * @param vertex index of the vertex
+     * @return z coordinate of the vertex
+     */
+    public double getZ(int vertex) {
+        return vertices[vertex * 3 + 2];
+    }
+
+    /**
+     * @param vertex index of the vertex
+     * @return a new point with the coordinates of the vertex
+     */
+    public JavaPoint3D getVertex(int vertex) {
+        return new JavaPoint3D(getX(vertex), getY(vertex), getZ(vertex));
+    }
+
+    /**
+     * @return true iff a normal is stored per vertex
+     */
+    public boolean hasNormals() {
+        return normals != null;
+    }
+
+    /**
+     * @param vertex index of the vertex
+     * @return a new point with the normal of the vertex
+     * @throws IllegalStateException if the mesh has no normals
+     */
+    public JavaPoint3D getNormal(int vertex) {
+        if (normals == null) {
+            throw new IllegalStateException("Mesh has no normals");
+        }
+        return new JavaPoint3D(normals[vertex * 3], normals[vertex * 3 + 1], normals[vertex * 3 + 2]);
+    }
+
+    /**
+     * @return the vertex buffer (x, y, z interleaved); must not be modified
+     */
+    public double[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return the start of every face in {@link #getFaceIndices()} followed by its length; must not be modified
+     */
+    public int[] getFaceOffsets() {
+        return faceOffsets;
+    }
+
+    /**
+     * @return the vertex indices of all faces; must not be modified
+     */
+    public int[] getFaceIndices() {
+        return faceIndices;
+    }
+
+    /**
+     * @return the normal buffer (x, y, z interleaved) or null; must not be modified
+     */
+    public double[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * Applies the given affine transformation to all vertices (and the normals)
+     *
+     * @param matrix 3x4 matrix in row-major order (3x3 linear part with the translation as last column)
+     * @return a new instance holding the transformed mesh
+     */
+    public IndexedMesh transform(@NonNull double[] matrix) {
+        if (matrix.length != 12) {
+            throw new IllegalArgumentException("Affine transformation must be given as 3x4 matrix");
+        }
+        double[] linear = {
+                matrix[0], matrix[1], matrix[2],
+                matrix[4], matrix[5], matrix[6],
+                matrix[8], matrix[9], matrix[10]
+        };
+        return transform(linear, new JavaPoint3D(0, 0, 0), new JavaPoint3D(matrix[3], matrix[7], matrix[11]));
+    }
+
+    /**
+     * Moves the mesh by the given vector
+     *
+     * @param vector the vector used for moving the mesh
+     * @return a new instance holding the moved mesh
+     */
+    public IndexedMesh move(@NonNull JavaPoint3D vector) {
+        return transform(IDENTITY, new JavaPoint3D(0, 0, 0), vector);
+    }
+
+    /**
+     * Rotates the mesh around the given origin (see {@link JavaPoint3D#rotate(JavaPoint3D, double, double, double)})
+     *
+     * @param origin origin point around which will be rotated.
+     * @param roll   Rotation around x-axis (in degrees)
+     * @param pitch  Rotation around y-axis (in degrees)
+     * @param yaw    Rotation around z-axis (in degrees)
+     * @return a new instance holding the rotated mesh
+     */
+    public IndexedMesh rotate(@NonNull JavaPoint3D origin, double roll, double pitch, double yaw) {
+        double cosa = Math.cos(Math.toRadians(yaw));
+        double sina = Math.sin(Math.toRadians(yaw));
+        double cosb = Math.cos(Math.toRadians(pitch));
+        double sinb = Math.sin(Math.toRadians(pitch));
+        double cosc = Math.cos(Math.toRadians(roll));
+        double sinc = Math.sin(Math.toRadians(roll));
+
+        double[] rotation = {
+                cosa * cosb, cosa * sinb * sinc - sina * cosc, cosa * sinb * cosc + sina * sinc,
+                sina * cosb, sina * sinb * sinc + cosa * cosc, sina * sinb * cosc - cosa * sinc,
+                -sinb, cosb * sinc, cosb * cosc
+        };
+        return transform(rotation, origin, origin);
+    }
+
+    /**
+     * Scales the mesh around the given center
+     *
+     * @param scaleFactors vector containing the scale values
+     * @param scaleCenter  the scaleCenter
+     * @return a new instance holding the scaled mesh
+     */
+    public IndexedMesh scale(@NonNull JavaPoint3D scaleFactors, @NonNull JavaPoint3D scaleCenter) {
+        double[] scale = {
+                scaleFactors.getX(), 0, 0,
+                0, scaleFactors.getY(), 0,
+                0, 0, scaleFactors.getZ()
+        };
+        return transform(scale, scaleCenter, scaleCenter);
+    }
+
+    /**
+     * Calculates linear * (vertex - origin) + translation for all vertices and transforms the normals with the
+     * inverse transpose of the linear part
+     */
+    private IndexedMesh transform(double[] linear, JavaPoint3D origin, JavaPoint3D translation) {
+        double ox = origin.getX();
+        double oy = origin.getY();
+        double oz = origin.getZ();
+        double tx = translation.getX();
+        double ty = translation.getY();
+        double tz = translation.getZ();
+
+        double[] transformed = new double[vertices.length];
+        for (int i = 0; i < vertices.length; i += 3) {
+            double x = vertices[i] - ox;
+            double y = vertices[i + 1] - oy;
+            double z = vertices[i + 2] - oz;
+            transformed[i] = linear[0] * x + linear[1] * y + linear[2] * z + tx;
+            transformed[i + 1] = linear[3] * x + linear[4] * y + linear[5] * z + ty;
+            transformed[i + 2] = linear[6] * x + linear[7] * y + linear[8] * z + tz;
+        }
+
+        double[] transformedNormals = null;
+        if (normals != null) {
+            if (linear == IDENTITY) {
+                transformedNormals = normals;
+            } else {
+                transformedNormals = new double[normals.length];
+                // cofactor matrix = inverse transpose * determinant; the normals are normalized anyway
+                double[] c = {
+                        linear[4] * linear[8] - linear[5] * linear[7],
+                        linear[5] * linear[6] - linear[3] * linear[8],
+                        linear[3] * linear[7] - linear[4] * linear[6],
+                        linear[2] * linear[7] - linear[1] * linear[8],
+                        linear[0] * linear[8] - linear[2] * linear[6],
+                        linear[1] * linear[6] - linear[0] * linear[7],
+                        linear[1] * linear[5] - linear[2] * linear[4],
+                        linear[2] * linear[3] - linear[0] * linear[5],
+                        linear[0] * linear[4] - linear[1] * linear[3]
+                };
+                double determinant = linear[0] * c[0] + linear[1] * c[1] + linear[2] * c[2];
+                double sign = determinant < 0 ? -1 : 1;
+                for (int i = 0; i < normals.length; i += 3) {
+                    double x = normals[i];
+                    double y = normals[i + 1];
+                    double z = normals[i + 2];
+                    double nx = c[0] * x + c[1] * y + c[2] * z;
+                    double ny = c[3] * x + c[4] * y + c[5] * z;
+                    double nz = c[6] * x + c[7] * y + c[8] * z;
+                    double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+                    double factor = length == 0 ? 0 : sign / length;
+                    transformedNormals[i] = nx * factor;
+                    transformedNormals[i + 1] = ny * factor;
+                    transformedNormals[i + 2] = nz * factor;
+                }
+            }
+        }
+        return new IndexedMesh(transformed, faceOffsets, faceIndices, transformedNormals);
+    }
+
+    /**
+     * Creates a model containing the polygons of the mesh. The polygon list of the model is modifiable and independent
+     * of the mesh. The point of a shared vertex is created once and used by all polygons containing it.
+     *
+     * @return the model
+     */
+    public JavaModel3D toModel() {
+        JavaPoint3D[] points = new JavaPoint3D[getNumberOfVertices()];
+        List<JavaPolygon3D> polygons = new ArrayList<>(getNumberOfFaces());
+        for (int face = 0; face < getNumberOfFaces(); face++) {
+            int size = getFaceSize(face);
+            List<JavaPoint3D> polygon = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int vertex = getVertexIndex(face, i);
+                if (points[vertex] == null) {
+                    points[vertex] = getVertex(vertex);
+                }
+                polygon.add(points[vertex]);
+            }
+            polygons.add(new JavaPolygon3D(polygon));
+        }
+        return new JavaModel3D(polygons);
+    }
+
+    /**
+     * Creates a model view of the mesh. The polygons of the model are created from the buffers whenever they are
+     * accessed; they are not cached. The polygon list of the view can not be modified, use {@link #toModel()} for a
+     * modifiable model.
+     *
+     * @return the model view
+     */
+    public JavaModel3D asModel() {
+        return new JavaModel3D(new PolygonView());
+    }
+
+    /**
+     * List of polygons created on access from the buffers of the mesh
+     */
+    private final class PolygonView extends AbstractList<JavaPolygon3D> implements RandomAccess {
+        @Override
+        public JavaPolygon3D get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int size = getFaceSize(index);
+            List<JavaPoint3D> points = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                points.add(getVertex(getVertexIndex(index, i)));
+            }
+            return new JavaPolygon3D(points);
+        }
+
+        @Override
+        public int size() {
+            return getNumberOfFaces();
+        }
+    }
+
+    /**
+     * Cell of the grid used to find positional equal points
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static final class Cell {
+        private final long x;
+        private final long y;
+        private final long z;
+    }
+
+    /**
+     * <p>Builder for an indexed mesh, which collects the vertices and faces in growing primitive buffers</p>
+     */
+    public static final class Builder {
+        private double[] vertices = new double[3 * 64];
+        private int vertexLength = 0;
+        private double[] normals = new double[0];
+        private int normalLength = 0;
+        private int[] faceOffsets = new int[65];
+        private int numberOfFaces = 0;
+        private int[] faceIndices = new int[3 * 64];
+        private int faceIndexLength = 0;
+        private int[] uniqueVertices;
+        private int numberOfUniqueVertices = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a vertex
+         *
+         * @param x x coordinate
+         * @param y y coordinate
+         * @param z z coordinate
+         * @return the index of the vertex
+         */
+        public int addVertex(double x, double y, double z) {
+            if (vertexLength + 3 > vertices.length) {
+                vertices = Arrays.copyOf(vertices, vertices.length * 2);
+            }
+            vertices[vertexLength++] = x;
+            vertices[vertexLength++] = y;
+            vertices[vertexLength++] = z;
+            return vertexLength / 3 - 1;
+        }
+
+        /**
+         * Adds a vertex, if no identical vertex was added with this method before
+         *
+         * @param x x coordinate
+         * @param y y coordinate
+         * @param z z coordinate
+         * @return the index of the new or the already existing vertex
+         */
+        public int addUniqueVertex(double x, double y, double z) {
+            // open addressing hash table containing the index + 1 of the unique vertices
+            if (uniqueVertices == null || (numberOfUniqueVertices + 1) * 2 > uniqueVertices.length) {
+                rehashUniqueVertices();
+            }
+            int mask = uniqueVertices.length - 1;
+            int slot = hash(x, y, z) & mask;
+            while (uniqueVertices[slot] != 0) {
+                int index = uniqueVertices[slot] - 1;
+                if (identical(vertices[index * 3], x) && identical(vertices[index * 3 + 1], y) && identical(vertices[index * 3 + 2], z)) {
+                    return index;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int index = addVertex(x, y, z);
+            uniqueVertices[slot] = index + 1;
+            numberOfUniqueVertices++;
+            return index;
+        }
+
+        private void rehashUniqueVertices() {
+            int[] old = uniqueVertices;
+            uniqueVertices = new int[old == null ? 256 : old.length * 2];
+            if (old == null) {
+                return;
+            }
+            int mask = uniqueVertices.length - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    int index = (entry - 1) * 3;
+                    int slot = hash(vertices[index], vertices[index + 1], vertices[index + 2]) & mask;
+                    while (uniqueVertices[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    uniqueVertices[slot] = entry;
+                }
+            }
+        }
+
+        private static boolean identical(double a, double b) {
+            return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+        }
+
+        private static int hash(double x, double y, double z) {
+            long h = Double.doubleToLongBits(x);
+            h = h * 31 + Double.doubleToLongBits(y);
+            h = h * 31 + Double.doubleToLongBits(z);
+            h *= 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Adds the normal of the next vertex without a normal. Either no or all vertices must have a normal.
+         *
+         * @param x x component
+         * @param y y component
+         * @param z z component
+         * @return this builder
+         */
+        public Builder addNormal(double x, double y, double z) {
+            if (normalLength + 3 > normals.length) {
+                normals = Arrays.copyOf(normals, Math.max(vertices.length, normals.length * 2));
+            }
+            normals[normalLength++] = x;
+            normals[normalLength++] = y;
+            normals[normalLength++] = z;
+            return this;
+        }
+
+        /**
+         * Adds a face
+         *
+         * @param indices the indices of the vertices of the face
+         * @return this builder
+         */
+        public Builder addFace(int... indices) {
+            if (faceIndexLength + indices.length > faceIndices.length) {
+                faceIndices = Arrays.copyOf(faceIndices, Math.max(faceIndices.length * 2, faceIndexLength + indices.length));
+            }
+            System.arraycopy(indices, 0, faceIndices, faceIndexLength, indices.length);
+            faceIndexLength += indices.length;
+            if (numberOfFaces + 2 > faceOffsets.length) {
+                faceOffsets = Arrays.copyOf(faceOffsets, faceOffsets.length * 2);
+            }
+            faceOffsets[++numberOfFaces] = faceIndexLength;
+            return this;
+        }
+
+        /**
+         * Adds a triangle
+         *
+         * @param a index of the first vertex
+         * @param b index of the second vertex
+         * @param c index of the third vertex
+         * @return this builder
+         */
+        public Builder addTriangle(int a, int b, int c) {
+            if (faceIndexLength + 3 > faceIndices.length) {
+                faceIndices = Arrays.copyOf(faceIndices, faceIndices.length * 2);
+            }
+            faceIndices[faceIndexLength++] = a;
+            faceIndices[faceIndexLength++] = b;
+            faceIndices[faceIndexLength++] = c;
+            if (numberOfFaces + 2 > faceOffsets.length) {
+                faceOffsets = Arrays.copyOf(faceOffsets, faceOffsets.length * 2);
+            }
+            faceOffsets[++numberOfFaces] = faceIndexLength;
+            return this;
+        }
+
+        /**
+         * @return the number of vertices added so far
+         */
+        public int getNumberOfVertices() {
+            return vertexLength / 3;
+        }
+
+        /**
+         * @return the mesh containing the added vertices and faces
+         */
+        public IndexedMesh build() {
+            if (normalLength != 0 && normalLength != vertexLength) {
+                throw new IllegalStateException("Either no or all vertices must have a normal");
+            }
+            return new IndexedMesh(
+                    Arrays.copyOf(vertices, vertexLength),
+                    Arrays.copyOf(faceOffsets, numberOfFaces + 1),
+                    Arrays.copyOf(faceIndices, faceIndexLength),
+                    normalLength == 0 ? null : Arrays.copyOf(normals, normalLength));
+        }
+    }
+}
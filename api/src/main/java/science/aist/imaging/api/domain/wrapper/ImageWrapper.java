@@ -13,7 +13,6 @@ import science.aist.imaging.api.domain.color.Color;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 
 import java.io.Serializable;
-import java.util.stream.IntStream;
 
 /**
  * <p>Wrapper interface containing the implemented image-container class</p>
@@ -131,6 +130,97 @@ public interface ImageWrapper<I> extends AutoCloseable, Serializable {
         setValues(x, y, color.getChannels());
     }
 
+    /**
+     * Reads the values of one channel for a whole row of the image.
+     * Per default this is based on {@link ImageWrapper#getTile(int, int, int, int, double[])}.
+     *
+     * @param y       the y-coordinate of the row
+     * @param channel the channel which should be read
+     * @param dst     array with at least {@link ImageWrapper#getWidth()} elements the row is written to;
+     *                if null a new array is created
+     * @return the array containing the values of the row
+     * @since 2.1
+     */
+    default double[] getRow(int y, int channel, double[] dst) {
+        int width = getWidth();
+        int channels = getChannels();
+        double[] tile = getTile(0, y, width, 1, null);
+        double[] res = dst == null ? new double[width] : dst;
+        for (int x = 0; x < width; x++) {
+            res[x] = tile[x * channels + channel];
+        }
+        return res;
+    }
+
+    /**
+     * Sets the values of one channel for a whole row of the image.
+     * Implementations should override this method if the wrapped image allows to access multiple pixels at once.
+     *
+     * @param y       the y-coordinate of the row
+     * @param channel the channel which should be set
+     * @param src     array with at least {@link ImageWrapper#getWidth()} elements containing the new values of the row
+     * @since 2.1
+     */
+    default void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        for (int x = 0; x < width; x++) {
+            setValue(x, y, channel, src[x]);
+        }
+    }
+
+    /**
+     * Reads all channels of the rectangular image segment starting at (x, y) with the given size.
+     * The values are stored row by row with interleaved channels, so the value of pixel (x + i, y + j) and channel c
+     * is located at {@code (j * width + i) * getChannels() + c}.
+     * Implementations should override this method if the wrapped image allows to access multiple pixels at once.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param dst    array with at least {@code width * height * getChannels()} elements the segment is written to;
+     *               if null a new array is created
+     * @return the array containing the values of the segment
+     * @since 2.1
+     */
+    default double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                for (int c = 0; c < channels; c++) {
+                    res[idx++] = getValue(i, j, c);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sets all channels of the rectangular image segment starting at (x, y) with the given size.
+     * The layout of src is the same as for {@link ImageWrapper#getTile(int, int, int, int, double[])}.
+     * Implementations should override this method if the wrapped image allows to access multiple pixels at once.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param src    array with at least {@code width * height * getChannels()} elements containing the new values
+     * @since 2.1
+     */
+    default void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                for (int c = 0; c < channels; c++) {
+                    setValue(i, j, c, src[idx++]);
+                }
+            }
+        }
+    }
+
     /**
      * @return true iff the image wrapper supports parallel write access. Else false
      */
@@ -199,9 +289,10 @@ public interface ImageWrapper<I> extends AutoCloseable, Serializable {
             throw new IllegalArgumentException("StrideX illegal " + strideX);
         }
 
+        int channels = getChannels();
         applyColumnFunction((image, y) -> {
             for (int x = startX; x < endX; x += strideX) {
-                for (int c = 0; c < getChannels(); c++) {
+                for (int c = 0; c < channels; c++) {
                     function.apply(this, x, y, c);
                 }
             }
@@ -210,7 +301,7 @@ public interface ImageWrapper<I> extends AutoCloseable, Serializable {
 
 
     /**
-     * Function that is applied for a given column
+     * Function that is applied for a given column. The rows are executed by the {@link PixelExecutor}.
      *
      * @param function      to be applied
      * @param start         start column
@@ -235,21 +326,7 @@ public interface ImageWrapper<I> extends AutoCloseable, Serializable {
             throw new IllegalArgumentException("ImageWrapper does not support parallel access!");
         }
 
-        int wY = end - start;
-
-        IntStream stream;
-        if (wY % stride != 0) {
-            stream = IntStream.rangeClosed(0, wY / stride);
-        } else {
-            stream = IntStream.range(0, wY / stride);
-        }
-
-        stream = stream.map(y -> y * stride + start);
-        if (applyParallel) {
-            stream = stream.parallel();
-        }
-
-        stream.forEach(y -> function.apply(this, y));
+        PixelExecutor.forEachRow(start, end, stride, getWidth() * getChannels(), applyParallel, y -> function.apply(this, y));
     }
 
     /**
@@ -258,7 +335,15 @@ public interface ImageWrapper<I> extends AutoCloseable, Serializable {
      * @param wrapper target
      */
     default void copyTo(ImageWrapper<?> wrapper) {
-        wrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, this.getValue(x, y, c)));
+        int width = wrapper.getWidth();
+        if (wrapper.getChannels() != getChannels() || width > getWidth() || wrapper.getHeight() > getHeight()) {
+            wrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, this.getValue(x, y, c)));
+            return;
+        }
+
+        // move whole rows, so wrappers with bulk access don't need a call per sample
+        wrapper.applyColumnFunction((image, y) -> image.setTile(0, y, width, 1, this.getTile(0, y, width, 1, null)),
+                0, wrapper.getHeight(), 1, wrapper.supportsParallelAccess());
     }
 
     /**
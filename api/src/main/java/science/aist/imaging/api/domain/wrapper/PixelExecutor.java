@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Executes row based image operations. This is the single place where the imaging functions decide whether and how
+ * rows (see {@link ImageWrapper#applyColumnFunction(ColumnFunction, int, int, int, boolean)}) or other independent tasks
+ * are processed in parallel.</p>
+ * <ul>
+ * <li>Rows are grouped into bands of about {@link PixelExecutor#getBandSize()} samples, so a task processes a cache
+ * friendly block of rows instead of a single row.</li>
+ * <li>Operations with less than {@link PixelExecutor#getSerialThreshold()} samples are executed on the calling thread,
+ * where the fork/join overhead would dominate.</li>
+ * <li>Parallel operations are executed on the configured pool (default: {@link ForkJoinPool#commonPool()}). So e.g. a
+ * server can bound the CPU usage of the imaging operations by setting a pool with a limited parallelism, without
+ * affecting other users of the common pool.</li>
+ * </ul>
+ * <p>Parallel execution must only be requested, if all images written by the row function support parallel access
+ * ({@link ImageWrapper#supportsParallelAccess()}).</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public final class PixelExecutor {
+    private static volatile ForkJoinPool pool = null;
+    private static volatile int serialThreshold = 1 << 14;
+    private static volatile int bandSize = 1 << 15;
+
+    private PixelExecutor() {
+    }
+
+    /**
+     * @return the pool used for parallel operations
+     */
+    public static ForkJoinPool getPool() {
+        ForkJoinPool p = pool;
+        return p == null ? ForkJoinPool.commonPool() : p;
+    }
+
+    /**
+     * @param pool the pool used for parallel operations; null to use the common pool
+     */
+    public static void setPool(ForkJoinPool pool) {
+        PixelExecutor.pool = pool;
+    }
+
+    /**
+     * @return minimum number of samples of an operation to execute it in parallel
+     */
+    public static int getSerialThreshold() {
+        return serialThreshold;
+    }
+
+    /**
+     * @param serialThreshold minimum number of samples of an operation to execute it in parallel
+     */
+    public static void setSerialThreshold(int serialThreshold) {
+        PixelExecutor.serialThreshold = Math.max(serialThreshold, 0);
+    }
+
+    /**
+     * @return number of samples processed by one task
+     */
+    public static int getBandSize() {
+        return bandSize;
+    }
+
+    /**
+     * @param bandSize number of samples processed by one task
+     */
+    public static void setBandSize(int bandSize) {
+        PixelExecutor.bandSize = Math.max(bandSize, 1);
+    }
+
+    /**
+     * Applies the function for the rows start, start + stride, ... &lt; end
+     *
+     * @param start     first row
+     * @param end       end row (exclusive)
+     * @param stride    distance between two processed rows
+     * @param rowLength number of samples processed per row, which is used to size the bands
+     * @param parallel  flag if the rows may be processed in parallel
+     * @param function  function applied for every row
+     */
+    public static void forEachRow(int start, int end, int stride, int rowLength, boolean parallel, IntConsumer function) {
+        if (stride < 1) {
+            throw new IllegalArgumentException("Stride illegal " + stride);
+        }
+        int count = end <= start ? 0 : (end - start + stride - 1) / stride;
+        if (count == 0) {
+            return;
+        }
+
+        long samples = (long) count * Math.max(rowLength, 1);
+        if (!parallel || count == 1 || samples < serialThreshold || getParallelism() < 2) {
+            for (int i = 0; i < count; i++) {
+                function.accept(start + i * stride);
+            }
+            return;
+        }
+
+        int rowsPerBand = Math.max(1, bandSize / Math.max(rowLength, 1));
+        invoke(new BandTask(0, (count + rowsPerBand - 1) / rowsPerBand, rowsPerBand, count, start, stride, function));
+    }
+
+    /**
+     * Applies the function for the tasks 0, 1, ... &lt; count. In contrast to
+     * {@link PixelExecutor#forEachRow(int, int, int, int, boolean, IntConsumer)} every task is executed on its own,
+     * so this is meant for coarse grained tasks like the chunks of a file or the slices of a parallel reduction
+     * (see {@link PixelExecutor#getParallelism()}).
+     *
+     * @param count    number of tasks
+     * @param parallel flag if the tasks may be executed in parallel
+     * @param function function applied for every task
+     */
+    public static void forEachTask(int count, boolean parallel, IntConsumer function) {
+        if (!parallel || count < 2 || getParallelism() < 2) {
+            for (int i = 0; i < count; i++) {
+                function.accept(i);
+            }
+            return;
+        }
+        invoke(new BandTask(0, count, 1, count, 0, 1, function));
+    }
+
+    /**
+     * @return number of tasks the pool executes in parallel; reductions should create at most this number of
+     * partial results
+     */
+    public static int getParallelism() {
+        return getPool().getParallelism();
+    }
+
+    private static void invoke(BandTask task) {
+        ForkJoinPool p = getPool();
+        if (ForkJoinTask.getPool() == p) {
+            // already running in the pool, so the bands are forked into the current pool
+            task.invoke();
+        } else {
+            p.invoke(task);
+        }
+    }
+
+    /**
+     * Processes the bands [fromBand, toBand) by splitting them in halves
+     */
+    private static final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromBand;
+        private final int toBand;
+        private final int rowsPerBand;
+        private final int count;
+        private final int start;
+        private final int stride;
+        private final transient IntConsumer function;
+
+        private BandTask(int fromBand, int toBand, int rowsPerBand, int count, int start, int stride, IntConsumer function) {
+            this.fromBand = fromBand;
+            this.toBand = toBand;
+            this.rowsPerBand = rowsPerBand;
+            this.count = count;
+            this.start = start;
+            this.stride = stride;
+            this.function = function;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBand - fromBand > 1) {
+                int mid = (fromBand + toBand) >>> 1;
+                invokeAll(new BandTask(fromBand, mid, rowsPerBand, count, start, stride, function),
+                        new BandTask(mid, toBand, rowsPerBand, count, start, stride, function));
+                return;
+            }
+            int end = Math.min((fromBand + 1) * rowsPerBand, count);
+            for (int i = fromBand * rowsPerBand; i < end; i++) {
+                function.accept(start + i * stride);
+            }
+        }
+    }
+}
@@ -87,6 +87,16 @@ public class SubImageWrapper<I> implements ImageWrapper<I> {
         reference.setValue(x + startX, y + startY, channel, val);
     }
 
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        return reference.getTile(x + startX, y + startY, width, height, dst);
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        reference.setTile(x + startX, y + startY, width, height, src);
+    }
+
     @Override
     public int getChannels() {
         return reference.getChannels();
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import lombok.Getter;
+import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+
+import java.util.Objects;
+
+/**
+ * <p>Base class for image wrappers backed by one contiguous, row-major primitive array.</p>
+ * <p>The sample of pixel (x, y) in channel c is located at {@code offset + y * stride + x * channels + c}.
+ * The stride is the number of array elements between two consecutive rows and is at least {@code width * channels},
+ * which allows to wrap padded buffers (e.g. from native libraries) without copying them.</p>
+ *
+ * @param <I> Type of the wrapped primitive array
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@Getter
+public abstract class AbstractFlatImage<I> extends AbstractImageWrapper<I> {
+    private final int width;
+    private final int height;
+    /**
+     * Number of array elements between the start of two consecutive rows
+     */
+    private final int stride;
+    /**
+     * Index of the first sample of the image within the wrapped array
+     */
+    private final int offset;
+    /**
+     * Cached number of channels, so the index calculation does not need to go over the channel type
+     */
+    protected final int channels;
+
+    AbstractFlatImage(int width, int height, ChannelType channel, I image, int length, int stride, int offset) {
+        super(image);
+        int c = channel.getNumberOfChannels();
+        if (width < 0 || height < 0 || c < 1) {
+            throw new IllegalArgumentException("Image dimensions illegal: " + width + "x" + height + "x" + c);
+        }
+        if (stride < width * c) {
+            throw new IllegalArgumentException("Stride " + stride + " is smaller than a single row (" + width * c + ")");
+        }
+        if (offset < 0 || (height > 0 && offset + (long) (height - 1) * stride + (long) width * c > length)) {
+            throw new IllegalArgumentException("Given array (length " + length + ") is too small for the image");
+        }
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.offset = offset;
+        this.channels = c;
+        this.channelType = channel;
+    }
+
+    /**
+     * Calculates the position of the given sample in the wrapped array
+     *
+     * @param x       the x-coordinate of the pixel
+     * @param y       the y-coordinate of the pixel
+     * @param channel the channel of the pixel
+     * @return index of the sample in the wrapped array
+     */
+    public int index(int x, int y, int channel) {
+        return offset + y * stride + x * channels + channel;
+    }
+
+    /**
+     * @return true iff the wrapped array contains exactly the image data without any padding (i.e. it can be
+     * processed as one single block)
+     */
+    public boolean isContinuous() {
+        return offset == 0 && stride == width * channels;
+    }
+
+    /**
+     * Reads the sample at the given position of the wrapped array
+     *
+     * @param index position in the wrapped array
+     * @return value of the sample
+     */
+    protected abstract double get(int index);
+
+    /**
+     * Sets the sample at the given position of the wrapped array
+     *
+     * @param index position in the wrapped array
+     * @param val   new value of the sample
+     */
+    protected abstract void set(int index, double val);
+
+    @Override
+    public int getChannels() {
+        return channels;
+    }
+
+    @Override
+    public double getValue(int x, int y, int channel) {
+        return get(index(x, y, channel));
+    }
+
+    @Override
+    public void setValue(int x, int y, int channel, double val) {
+        set(index(x, y, channel), val);
+    }
+
+    @Override
+    public double[] getValues(int x, int y) {
+        double[] result = new double[channels];
+        int idx = index(x, y, 0);
+        for (int c = 0; c < channels; c++) {
+            result[c] = get(idx + c);
+        }
+        return result;
+    }
+
+    @Override
+    public void setValues(int x, int y, double[] values) {
+        int idx = index(x, y, 0);
+        for (int c = 0; c < channels; c++) {
+            set(idx + c, values[c]);
+        }
+    }
+
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        double[] res = dst == null ? new double[width] : dst;
+        int idx = index(0, y, channel);
+        for (int x = 0; x < width; x++, idx += channels) {
+            res[x] = get(idx);
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int idx = index(0, y, channel);
+        for (int x = 0; x < width; x++, idx += channels) {
+            set(idx, src[x]);
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int rowLength = width * channels;
+        double[] res = dst == null ? new double[rowLength * height] : dst;
+        for (int j = 0; j < height; j++) {
+            int idx = index(x, y + j, 0);
+            int offs = j * rowLength;
+            for (int i = 0; i < rowLength; i++) {
+                res[offs + i] = get(idx + i);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int rowLength = width * channels;
+        for (int j = 0; j < height; j++) {
+            int idx = index(x, y + j, 0);
+            int offs = j * rowLength;
+            for (int i = 0; i < rowLength; i++) {
+                set(idx + i, src[offs + i]);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsParallelAccess() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AbstractFlatImage<?> that = (AbstractFlatImage<?>) o;
+        if (that.width != width || that.height != height || that.getChannelType() != getChannelType()) {
+            return false;
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < channels; c++) {
+                    if (Double.compare(getValue(x, y, c), that.getValue(x, y, c)) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // only the visible pixels are hashed, so views with a different stride or offset agree with equals
+        int res = Objects.hash(width, height, getChannelType());
+        int rowLength = width * channels;
+        for (int y = 0; y < height; y++) {
+            int idx = index(0, y, 0);
+            for (int i = 0; i < rowLength; i++) {
+                res = 31 * res + Double.hashCode(get(idx + i));
+            }
+        }
+        return res;
+    }
+}
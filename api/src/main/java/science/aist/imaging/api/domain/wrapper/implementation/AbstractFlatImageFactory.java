@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+import java.lang.reflect.Array;
+
+/**
+ * <p>Base {@link ImageFactory} for images which are backed by one flat primitive array (see {@link AbstractFlatImage})</p>
+ *
+ * @param <I> Type of the wrapped primitive array
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public abstract class AbstractFlatImageFactory<I> implements ImageFactory<I> {
+
+    /**
+     * Wraps the given array without copying it
+     *
+     * @param height  height of the image
+     * @param width   width of the image
+     * @param channel channel type of the image
+     * @param image   the data which should be encapsulated in the image
+     * @param stride  number of array elements between two consecutive rows
+     * @param offset  index of the first sample of the image within the array
+     * @return image with the given properties
+     */
+    public abstract AbstractFlatImage<I> getImage(int height, int width, ChannelType channel, I image, int stride, int offset);
+
+    /**
+     * Wraps the given array without copying it; the array is expected to contain the rows without any padding
+     *
+     * @param height  height of the image
+     * @param width   width of the image
+     * @param channel channel type of the image
+     * @param image   the data which should be encapsulated in the image
+     * @return image with the given properties
+     */
+    @Override
+    public AbstractFlatImage<I> getImage(int height, int width, ChannelType channel, I image) {
+        return getImage(height, width, channel, image, width * channel.getNumberOfChannels(), 0);
+    }
+
+    /**
+     * A flat array does not carry any information about the shape of the image. So the given array is interpreted as a
+     * single greyscale row. Prefer {@link AbstractFlatImageFactory#getImage(int, int, ChannelType, Object)}.
+     *
+     * @param image the data which should be encapsulated in the image
+     * @return image with height 1 and the length of the array as width
+     */
+    @Override
+    public ImageWrapper<I> getImage(I image) {
+        return getImage(1, Array.getLength(image), ChannelType.GREYSCALE, image);
+    }
+}
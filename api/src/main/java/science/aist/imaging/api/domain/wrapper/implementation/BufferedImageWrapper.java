@@ -9,25 +9,183 @@
 
 package science.aist.imaging.api.domain.wrapper.implementation;
 
-import lombok.AccessLevel;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 /**
  * <p>Wrapper of an buffered image</p>
+ * <p>For the common 8 bit per sample types ({@link BufferedImage#TYPE_3BYTE_BGR}, {@link BufferedImage#TYPE_4BYTE_ABGR},
+ * {@link BufferedImage#TYPE_BYTE_GRAY}, {@link BufferedImage#TYPE_INT_RGB}, {@link BufferedImage#TYPE_INT_ARGB} and
+ * {@link BufferedImage#TYPE_INT_BGR}) the pixels are accessed directly on the data buffer of the raster, using a channel
+ * mapping which is calculated once when the wrapper is created. All other types are accessed using
+ * {@link BufferedImage#getRGB(int, int)} and {@link BufferedImage#setRGB(int, int, int)}.</p>
  *
  * @author Christoph Praschl
  * @since 1.0
  */
-@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public class BufferedImageWrapper implements ImageWrapper<BufferedImage> {
-    @NonNull
-    private transient BufferedImage image;
+    /**
+     * Converts the linear grey samples of {@link BufferedImage#TYPE_BYTE_GRAY} to the sRGB values returned by
+     * {@link BufferedImage#getRGB(int, int)}, so the raster access returns the same values as the color model
+     */
+    private static final int[] GREY_TO_RGB = new int[256];
+    /**
+     * Inverse of {@link BufferedImageWrapper#GREY_TO_RGB} as used by {@link BufferedImage#setRGB(int, int, int)}
+     */
+    private static final byte[] RGB_TO_GREY = new byte[256];
+
+    static {
+        ColorModel greyModel = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY).getColorModel();
+        for (int i = 0; i < 256; i++) {
+            GREY_TO_RGB[i] = greyModel.getRed(i);
+            RGB_TO_GREY[i] = ((byte[]) greyModel.getDataElements(0xFF000000 | (i << 16) | (i << 8) | i, null))[0];
+        }
+    }
+
+    private final transient BufferedImage image;
+    private final transient BufferedImageType type;
+    /**
+     * Data of the raster if it is backed by a {@link DataBufferByte}, else null
+     */
+    private final transient byte[] byteData;
+    /**
+     * True if byte samples need to be converted using {@link BufferedImageWrapper#GREY_TO_RGB} and
+     * {@link BufferedImageWrapper#RGB_TO_GREY}
+     */
+    private final transient boolean grey;
+    /**
+     * Data of the raster if it is backed by a {@link DataBufferInt}, else null
+     */
+    private final transient int[] intData;
+    /**
+     * Index of pixel (0, 0) in the data array
+     */
+    private final transient int base;
+    private final transient int scanlineStride;
+    private final transient int pixelStride;
+    /**
+     * For every channel of the wrapper either the offset of the sample within a pixel (byte data) or the bit offset of
+     * the sample within the packed pixel (int data)
+     */
+    private final transient int[] channelOffsets;
+
+    BufferedImageWrapper(@NonNull BufferedImage image) {
+        this.image = image;
+        this.type = BufferedImageType.getForId(image.getType());
+        this.grey = type == BufferedImageType.TYPE_BYTE_GRAY;
+
+        WritableRaster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int[] bands = getRasterBands(type);
+        int translateX = raster.getSampleModelTranslateX();
+        int translateY = raster.getSampleModelTranslateY();
+
+        if (bands != null && dataBuffer.getNumBanks() == 1 && dataBuffer instanceof DataBufferByte && sampleModel instanceof ComponentSampleModel) {
+            ComponentSampleModel csm = (ComponentSampleModel) sampleModel;
+            byteData = ((DataBufferByte) dataBuffer).getData();
+            intData = null;
+            scanlineStride = csm.getScanlineStride();
+            pixelStride = csm.getPixelStride();
+            channelOffsets = new int[bands.length];
+            for (int c = 0; c < bands.length; c++) {
+                channelOffsets[c] = csm.getBandOffsets()[bands[c]];
+            }
+        } else if (bands != null && dataBuffer.getNumBanks() == 1 && dataBuffer instanceof DataBufferInt && sampleModel instanceof SinglePixelPackedSampleModel) {
+            SinglePixelPackedSampleModel sppsm = (SinglePixelPackedSampleModel) sampleModel;
+            byteData = null;
+            intData = ((DataBufferInt) dataBuffer).getData();
+            scanlineStride = sppsm.getScanlineStride();
+            pixelStride = 1;
+            channelOffsets = new int[bands.length];
+            for (int c = 0; c < bands.length; c++) {
+                channelOffsets[c] = sppsm.getBitOffsets()[bands[c]];
+            }
+        } else {
+            byteData = null;
+            intData = null;
+            scanlineStride = 0;
+            pixelStride = 0;
+            channelOffsets = null;
+        }
+        base = dataBuffer.getOffset() - translateY * scanlineStride - translateX * pixelStride;
+    }
+
+    /**
+     * Returns the raster band of every wrapper channel for the types which support direct raster access
+     *
+     * @param type the type of the image
+     * @return raster band for every channel in the order of the wrapper channels, or null if the type is accessed
+     * using getRGB/setRGB
+     */
+    private static int[] getRasterBands(BufferedImageType type) {
+        switch (type) {
+            case TYPE_3BYTE_BGR:
+            case TYPE_INT_BGR:
+                return new int[]{2, 1, 0};
+            case TYPE_4BYTE_ABGR:
+                return new int[]{2, 1, 0, 3};
+            case TYPE_BYTE_GRAY:
+                return new int[]{0};
+            case TYPE_INT_RGB:
+                return new int[]{0, 1, 2};
+            case TYPE_INT_ARGB:
+                return new int[]{0, 1, 2, 3};
+            default:
+                // premultiplied, packed short, binary, indexed and custom types are converted by the color model
+                return null;
+        }
+    }
+
+    /**
+     * Reads a sample directly from the data buffer of the raster
+     *
+     * @param pixel   index of the pixel in the data array
+     * @param channel the channel of the wrapper
+     * @return value of the sample
+     */
+    private int readSample(int pixel, int channel) {
+        if (byteData == null) {
+            return (intData[pixel] >>> channelOffsets[channel]) & 0xFF;
+        }
+        int sample = byteData[pixel + channelOffsets[channel]] & 0xFF;
+        return grey ? GREY_TO_RGB[sample] : sample;
+    }
+
+    /**
+     * Writes a sample directly to the data buffer of the raster
+     *
+     * @param pixel   index of the pixel in the data array
+     * @param channel the channel of the wrapper
+     * @param value   value in the range [0, 255]
+     */
+    private void writeSample(int pixel, int channel, int value) {
+        if (byteData == null) {
+            int shift = channelOffsets[channel];
+            intData[pixel] = (intData[pixel] & ~(0xFF << shift)) | (value << shift);
+        } else {
+            byteData[pixel + channelOffsets[channel]] = grey ? RGB_TO_GREY[value] : (byte) value;
+        }
+    }
+
+    /**
+     * @return true iff the samples are read from and written to the data buffer of the raster directly
+     */
+    private boolean isRasterAccess() {
+        return channelOffsets != null;
+    }
 
     @Override
     public BufferedImage getImage() {
@@ -46,7 +204,7 @@ public class BufferedImageWrapper implements ImageWrapper<BufferedImage> {
 
     @Override
     public ChannelType getChannelType() {
-        return BufferedImageType.getForId(image.getType()).getAssociatedType();
+        return type.getAssociatedType();
     }
 
     @Override
@@ -66,7 +224,10 @@ public class BufferedImageWrapper implements ImageWrapper<BufferedImage> {
     @SuppressWarnings({"java:S131"})
     @Override
     public double getValue(int x, int y, int channel) {
-        BufferedImageType type = BufferedImageType.getForId(image.getType());
+        if (isRasterAccess() && channel >= 0 && channel < channelOffsets.length) {
+            return readSample(base + y * scanlineStride + x * pixelStride, channel);
+        }
+
         Color c = new Color(image.getRGB(x, y));
 
         switch (type) {
@@ -154,7 +315,11 @@ public class BufferedImageWrapper implements ImageWrapper<BufferedImage> {
             value = (int) val;
         }
 
-        BufferedImageType type = BufferedImageType.getForId(image.getType());
+        if (isRasterAccess() && channel >= 0 && channel < channelOffsets.length) {
+            writeSample(base + y * scanlineStride + x * pixelStride, channel, value);
+            return;
+        }
+
         Color c = new Color(image.getRGB(x, y));
 
         Color newColor = null;
@@ -241,6 +406,158 @@ public class BufferedImageWrapper implements ImageWrapper<BufferedImage> {
         image.setRGB(x, y, newColor.getRGB());
     }
 
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        int channels = getChannels();
+        double[] tile = getTile(0, y, width, 1, null);
+        for (int x = 0; x < width; x++) {
+            tile[x * channels + channel] = src[x];
+        }
+        setTile(0, y, width, 1, tile);
+    }
+
+    /**
+     * Reads the given image segment with one bulk {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)} call.
+     * Note: Channels are based on the {@link ImageWrapper#getChannelType()} NOT on the actual {@link BufferedImage#getType()}
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param dst    array the segment is written to; if null a new array is created
+     * @return the array containing the values of the segment
+     */
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        if (isRasterAccess()) {
+            int channels = channelOffsets.length;
+            double[] res = dst == null ? new double[width * height * channels] : dst;
+            int idx = 0;
+            for (int j = y; j < y + height; j++) {
+                int pixel = base + j * scanlineStride + x * pixelStride;
+                for (int i = 0; i < width; i++, pixel += pixelStride) {
+                    for (int c = 0; c < channels; c++) {
+                        res[idx++] = readSample(pixel, c);
+                    }
+                }
+            }
+            return res;
+        }
+
+        int[] shifts = getChannelShifts();
+        int channels = shifts.length;
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int[] argb = image.getRGB(x, y, width, height, null, 0, width);
+        int idx = 0;
+        for (int pixel : argb) {
+            for (int shift : shifts) {
+                res[idx++] = (pixel >> shift) & 0xFF;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sets the given image segment with one bulk {@link BufferedImage#setRGB(int, int, int, int, int[], int, int)} call.
+     * Note: Channels are based on the {@link ImageWrapper#getChannelType()} NOT on the actual {@link BufferedImage#getType()}
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param src    array containing the new values of the segment
+     */
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        if (isRasterAccess()) {
+            int channels = channelOffsets.length;
+            int idx = 0;
+            for (int j = y; j < y + height; j++) {
+                int pixel = base + j * scanlineStride + x * pixelStride;
+                for (int i = 0; i < width; i++, pixel += pixelStride) {
+                    for (int c = 0; c < channels; c++) {
+                        writeSample(pixel, c, toByte(src[idx++]));
+                    }
+                }
+            }
+            return;
+        }
+
+        int[] shifts = getChannelShifts();
+        int channels = shifts.length;
+        int[] argb = new int[width * height];
+        boolean hasAlpha = channels == 4;
+        for (int i = 0, idx = 0; i < argb.length; i++, idx += channels) {
+            int pixel = hasAlpha ? 0 : 0xFF000000;
+            if (channels == 1) {
+                int value = toByte(src[idx]);
+                pixel |= (value << 16) | (value << 8) | value;
+            } else {
+                for (int c = 0; c < channels; c++) {
+                    pixel |= toByte(src[idx + c]) << shifts[c];
+                }
+            }
+            argb[i] = pixel;
+        }
+        image.setRGB(x, y, width, height, argb, 0, width);
+    }
+
+    /**
+     * Rounds and clamps the given value to [0, 255]
+     *
+     * @param val value to be converted
+     * @return the converted value
+     */
+    private static int toByte(double val) {
+        val = val + 0.5;
+        if (val < 0) {
+            return 0;
+        } else if (val > 255) {
+            return 255;
+        } else {
+            return (int) val;
+        }
+    }
+
+    /**
+     * Returns the bit shift of every wrapper channel within a packed ARGB value
+     *
+     * @return bit shifts in the order of the wrapper channels
+     */
+    private int[] getChannelShifts() {
+        switch (type) {
+            case TYPE_3BYTE_BGR:
+            case TYPE_INT_BGR:
+                return new int[]{0, 8, 16};
+            case TYPE_4BYTE_ABGR:
+            case TYPE_4BYTE_ABGR_PRE:
+                return new int[]{0, 8, 16, 24};
+            case TYPE_BYTE_BINARY:
+            case TYPE_BYTE_GRAY:
+            case TYPE_USHORT_GRAY:
+                return new int[]{16};
+            case TYPE_USHORT_555_RGB:
+            case TYPE_USHORT_565_RGB:
+            case TYPE_INT_RGB:
+                return new int[]{16, 8, 0};
+            case TYPE_INT_ARGB:
+            case TYPE_INT_ARGB_PRE:
+                return new int[]{16, 8, 0, 24};
+            default:
+                throw new IllegalArgumentException("Can't access the channels of the wrapped image of type " + type);
+        }
+    }
+
+    /**
+     * @return true if the pixels are accessed directly on the raster, as in this case every row can be written
+     * independently
+     */
+    @Override
+    public boolean supportsParallelAccess() {
+        return isRasterAccess();
+    }
+
     @Override
     public Class<BufferedImage> getSupportedType() {
         return BufferedImage.class;
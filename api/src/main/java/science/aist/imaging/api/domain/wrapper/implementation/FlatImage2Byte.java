@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+
+/**
+ * <p>Image wrapper for images with 2 byte precision stored in one flat, row-major {@code short[]}</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class FlatImage2Byte extends AbstractFlatImage<short[]> {
+
+    FlatImage2Byte(int width, int height, ChannelType channel) {
+        this(width, height, channel, new short[width * height * channel.getNumberOfChannels()]);
+    }
+
+    FlatImage2Byte(int width, int height, ChannelType channel, short[] image) {
+        this(width, height, channel, image, width * channel.getNumberOfChannels(), 0);
+    }
+
+    FlatImage2Byte(int width, int height, ChannelType channel, short[] image, int stride, int offset) {
+        super(width, height, channel, image, image.length, stride, offset);
+    }
+
+    @Override
+    protected double get(int index) {
+        return image[index];
+    }
+
+    @Override
+    protected void set(int index, double val) {
+        image[index] = (short) val;
+    }
+
+    @Override
+    public Class<short[]> getSupportedType() {
+        return short[].class;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+
+/**
+ * <p>Image wrapper for images with 8 byte precision stored in one flat, row-major {@code double[]}</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class FlatImage8Byte extends AbstractFlatImage<double[]> {
+
+    FlatImage8Byte(int width, int height, ChannelType channel) {
+        this(width, height, channel, new double[width * height * channel.getNumberOfChannels()]);
+    }
+
+    FlatImage8Byte(int width, int height, ChannelType channel, double[] image) {
+        this(width, height, channel, image, width * channel.getNumberOfChannels(), 0);
+    }
+
+    FlatImage8Byte(int width, int height, ChannelType channel, double[] image, int stride, int offset) {
+        super(width, height, channel, image, image.length, stride, offset);
+    }
+
+    @Override
+    protected double get(int index) {
+        return image[index];
+    }
+
+    @Override
+    protected void set(int index, double val) {
+        image[index] = val;
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int rowLength = width * channels;
+        double[] res = dst == null ? new double[rowLength * height] : dst;
+        for (int j = 0; j < height; j++) {
+            System.arraycopy(image, index(x, y + j, 0), res, j * rowLength, rowLength);
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int rowLength = width * channels;
+        for (int j = 0; j < height; j++) {
+            System.arraycopy(src, j * rowLength, image, index(x, y + j, 0), rowLength);
+        }
+    }
+
+    @Override
+    public Class<double[]> getSupportedType() {
+        return double[].class;
+    }
+}
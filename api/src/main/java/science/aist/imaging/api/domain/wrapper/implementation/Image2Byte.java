@@ -118,4 +118,52 @@ public class Image2Byte extends AbstractImageWrapper<short[][][]> {
 
         image[y][x] = result;
     }
+
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        double[] res = dst == null ? new double[width] : dst;
+        short[][] row = image[y];
+        for (int x = 0; x < width; x++) {
+            res[x] = row[x][channel];
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        short[][] row = image[y];
+        for (int x = 0; x < width; x++) {
+            row[x][channel] = (short) src[x];
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                short[] pixel = image[j][i];
+                for (int c = 0; c < channels; c++) {
+                    res[idx++] = pixel[c];
+                }
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                short[] pixel = image[j][i];
+                for (int c = 0; c < channels; c++) {
+                    pixel[c] = (short) src[idx++];
+                }
+            }
+        }
+    }
 }
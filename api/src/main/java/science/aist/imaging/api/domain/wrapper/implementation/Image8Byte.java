@@ -106,4 +106,48 @@ public class Image8Byte extends AbstractImageWrapper<double[][][]> {
     public void setValues(int x, int y, double[] values) {
         image[y][x] = values;
     }
+
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        double[] res = dst == null ? new double[width] : dst;
+        double[][] row = image[y];
+        for (int x = 0; x < width; x++) {
+            res[x] = row[x][channel];
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        double[][] row = image[y];
+        for (int x = 0; x < width; x++) {
+            row[x][channel] = src[x];
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                System.arraycopy(image[j][i], 0, res, idx, channels);
+                idx += channels;
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = x; i < x + width; i++) {
+                System.arraycopy(src, idx, image[j][i], 0, channels);
+                idx += channels;
+            }
+        }
+    }
 }
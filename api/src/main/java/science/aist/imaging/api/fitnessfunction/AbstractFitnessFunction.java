@@ -35,6 +35,7 @@ public abstract class AbstractFitnessFunction implements ToDoubleBiFunction<Imag
     @Getter
     protected boolean isLowerErrorValueBetter;
 
+    @Getter
     protected JavaRectangle2D roi;
 
     @Override
@@ -50,8 +50,18 @@ public class TypeChecker implements Consumer<ImageWrapper<?>> {
      */
     @Override
     public void accept(ImageWrapper<?> imageWrapper) {
-        if (!supportedTypes.contains(imageWrapper.getChannelType())) {
-            throw new TypeException(supportedTypes, imageWrapper.getChannelType());
+        check(imageWrapper.getChannelType());
+    }
+
+    /**
+     * Checks if the channel type is one of the supported types
+     *
+     * @param channelType the channel type
+     * @throws TypeException if the channel type is not one of the supported types
+     */
+    public void check(ChannelType channelType) {
+        if (!supportedTypes.contains(channelType)) {
+            throw new TypeException(supportedTypes, channelType);
         }
     }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.threedimensional;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+/**
+ * <p>Test class for {@link IndexedMesh}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class IndexedMeshTest {
+
+    /**
+     * @return two triangles sharing an edge
+     */
+    private IndexedMesh getSample() {
+        return IndexedMesh.ofTriangles(
+                new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0},
+                new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    @Test
+    public void testOf() {
+        // given
+        JavaModel3D model = new JavaModel3D(Arrays.asList(
+                new JavaPolygon3D(new JavaPoint3D(0, 0, 0), new JavaPoint3D(1, 0, 0), new JavaPoint3D(1, 1, 0)),
+                new JavaPolygon3D(new JavaPoint3D(0.00001, 0, 0), new JavaPoint3D(1, 1, 0), new JavaPoint3D(0, 1, 0))));
+
+        // when
+        IndexedMesh mesh = IndexedMesh.of(model, 0.0001);
+
+        // then
+        Assert.assertEquals(mesh.getNumberOfVertices(), 4);
+        Assert.assertEquals(mesh.getNumberOfFaces(), 2);
+        Assert.assertEquals(mesh.getFaceIndices(), new int[]{0, 1, 2, 0, 2, 3});
+        Assert.assertEquals(mesh.getVertex(0), new JavaPoint3D(0, 0, 0));
+    }
+
+    @Test
+    public void testOfWithoutEpsilon() {
+        // given
+        JavaModel3D model = new JavaModel3D(Arrays.asList(
+                new JavaPolygon3D(new JavaPoint3D(0, 0, 0), new JavaPoint3D(1, 0, 0), new JavaPoint3D(1, 1, 0)),
+                new JavaPolygon3D(new JavaPoint3D(0.00001, 0, 0), new JavaPoint3D(1, 1, 0), new JavaPoint3D(0, 1, 0))));
+
+        // when
+        IndexedMesh mesh = IndexedMesh.of(model, 0);
+
+        // then
+        Assert.assertEquals(mesh.getNumberOfVertices(), 5);
+        Assert.assertEquals(mesh.getFaceIndices(), new int[]{0, 1, 2, 3, 2, 4});
+    }
+
+    @Test
+    public void testAsModel() {
+        // given
+        IndexedMesh mesh = getSample();
+
+        // when
+        JavaModel3D model = mesh.asModel();
+
+        // then
+        Assert.assertEquals(model.getMesh().size(), 2);
+        Assert.assertEquals(model.getMesh().get(1), new JavaPolygon3D(new JavaPoint3D(0, 0, 0), new JavaPoint3D(1, 1, 0), new JavaPoint3D(0, 1, 0)));
+        Assert.assertEquals(model.getPoints().size(), 6);
+    }
+
+    @Test
+    public void testToModel() {
+        // given
+        IndexedMesh mesh = getSample();
+
+        // when
+        JavaModel3D model = mesh.toModel();
+        model.getMesh().add(new JavaPolygon3D(new JavaPoint3D(0, 0, 1), new JavaPoint3D(1, 0, 1), new JavaPoint3D(1, 1, 1)));
+
+        // then
+        Assert.assertEquals(model.getMesh().size(), 3);
+        Assert.assertEquals(model.getMesh().subList(0, 2), mesh.asModel().getMesh());
+        Assert.assertSame(model.getMesh().get(0).getPoints().get(0), model.getMesh().get(1).getPoints().get(0));
+        Assert.assertEquals(mesh.getNumberOfFaces(), 2);
+    }
+
+    @Test
+    public void testMove() {
+        // given
+        IndexedMesh mesh = getSample();
+        JavaPoint3D moveVector = new JavaPoint3D(1, -2, 5);
+
+        // when
+        IndexedMesh moved = mesh.move(moveVector);
+
+        // then
+        Assert.assertSame(moved.getFaceIndices(), mesh.getFaceIndices());
+        for (int i = 0; i < mesh.getNumberOfVertices(); i++) {
+            Assert.assertEquals(moved.getVertex(i), mesh.getVertex(i).add(moveVector));
+        }
+    }
+
+    @Test
+    public void testRotate() {
+        // given
+        IndexedMesh mesh = getSample();
+        JavaPoint3D origin = new JavaPoint3D(0.5, 0.5, 0);
+
+        // when
+        IndexedMesh rotated = mesh.rotate(origin, 90, 90, 90);
+
+        // then
+        for (int i = 0; i < mesh.getNumberOfVertices(); i++) {
+            Assert.assertEquals(rotated.getVertex(i), mesh.getVertex(i).rotate(origin, 90, 90, 90));
+        }
+    }
+
+    @Test
+    public void testScale() {
+        // given
+        IndexedMesh mesh = getSample();
+
+        // when
+        IndexedMesh scaled = mesh.scale(new JavaPoint3D(2, 3, 1), new JavaPoint3D(1, 1, 0));
+
+        // then
+        Assert.assertEquals(scaled.getVertex(0), new JavaPoint3D(-1, -2, 0));
+        Assert.assertEquals(scaled.getVertex(2), new JavaPoint3D(1, 1, 0));
+    }
+
+    @Test
+    public void testTransformNormals() {
+        // given
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        builder.addVertex(0, 0, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(1, 0, 0);
+        builder.addNormal(1, 0, 0);
+        builder.addVertex(0, 1, 0);
+        builder.addNormal(0, 1, 0);
+        IndexedMesh mesh = builder.addFace(0, 1, 2).build();
+
+        // when
+        IndexedMesh transformed = mesh.transform(new double[]{
+                0, -1, 0, 4,
+                1, 0, 0, 0,
+                0, 0, 2, 0
+        });
+
+        // then
+        Assert.assertEquals(transformed.getVertex(1), new JavaPoint3D(4, 1, 0));
+        Assert.assertEquals(transformed.getNormal(0), new JavaPoint3D(0, 0, 1));
+        Assert.assertEquals(transformed.getNormal(1), new JavaPoint3D(0, 1, 0));
+        Assert.assertEquals(transformed.getNormal(2), new JavaPoint3D(-1, 0, 0));
+    }
+
+    @Test
+    public void testBuilder() {
+        // given
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            builder.addVertex(i, i, i);
+        }
+        for (int i = 0; i < 98; i++) {
+            builder.addFace(i, i + 1, i + 2);
+        }
+        builder.addFace(0, 1, 2, 3);
+        IndexedMesh mesh = builder.build();
+
+        // then
+        Assert.assertEquals(mesh.getNumberOfVertices(), 100);
+        Assert.assertEquals(mesh.getNumberOfFaces(), 99);
+        Assert.assertEquals(mesh.getFaceSize(98), 4);
+        Assert.assertEquals(mesh.getVertexIndex(97, 2), 99);
+        Assert.assertFalse(mesh.hasNormals());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidFaceIndex() {
+        // given
+        double[] vertices = {0, 0, 0, 1, 0, 0};
+
+        // when
+        IndexedMesh.ofTriangles(vertices, new int[]{0, 1, 2});
+
+        // then
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>Test class for {@link PixelExecutor}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class PixelExecutorTest {
+    private final int defaultSerialThreshold = PixelExecutor.getSerialThreshold();
+    private final int defaultBandSize = PixelExecutor.getBandSize();
+
+    @AfterMethod
+    public void reset() {
+        PixelExecutor.setPool(null);
+        PixelExecutor.setSerialThreshold(defaultSerialThreshold);
+        PixelExecutor.setBandSize(defaultBandSize);
+    }
+
+    @Test
+    public void testForEachRowStride() {
+        // given
+        AtomicIntegerArray visits = new AtomicIntegerArray(20);
+
+        // when
+        PixelExecutor.forEachRow(3, 18, 4, 10, false, visits::incrementAndGet);
+
+        // then
+        for (int y = 0; y < visits.length(); y++) {
+            Assert.assertEquals(visits.get(y), y == 3 || y == 7 || y == 11 || y == 15 ? 1 : 0, "row " + y);
+        }
+    }
+
+    @Test
+    public void testForEachRowEmpty() {
+        // given
+        AtomicIntegerArray visits = new AtomicIntegerArray(1);
+
+        // when
+        PixelExecutor.forEachRow(5, 5, 1, 10, true, y -> visits.incrementAndGet(0));
+
+        // then
+        Assert.assertEquals(visits.get(0), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testForEachRowIllegalStride() {
+        // given
+
+        // when
+        PixelExecutor.forEachRow(0, 10, 0, 10, false, y -> {
+        });
+
+        // then
+    }
+
+    @Test
+    public void testForEachRowSerialFastPath() {
+        // given
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        // when
+        PixelExecutor.forEachRow(0, 10, 1, 10, true, y -> threads.add(Thread.currentThread()));
+
+        // then
+        Assert.assertEquals(threads, Collections.singleton(Thread.currentThread()));
+    }
+
+    @Test
+    public void testForEachRowCustomPool() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PixelExecutor.setPool(pool);
+        PixelExecutor.setSerialThreshold(0);
+        PixelExecutor.setBandSize(1);
+        AtomicIntegerArray visits = new AtomicIntegerArray(101);
+        Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+        // when
+        PixelExecutor.forEachRow(0, 101, 1, 1, true, y -> {
+            visits.incrementAndGet(y);
+            Thread thread = Thread.currentThread();
+            pools.add(thread instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread) thread).getPool() : ForkJoinPool.commonPool());
+        });
+
+        // then
+        for (int y = 0; y < visits.length(); y++) {
+            Assert.assertEquals(visits.get(y), 1, "row " + y);
+        }
+        Assert.assertEquals(pools, Collections.singleton(pool));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testForEachTaskCustomPool() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(2);
+        PixelExecutor.setPool(pool);
+        AtomicIntegerArray visits = new AtomicIntegerArray(7);
+        Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+        // when
+        PixelExecutor.forEachTask(7, true, i -> {
+            visits.incrementAndGet(i);
+            Thread thread = Thread.currentThread();
+            pools.add(thread instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread) thread).getPool() : ForkJoinPool.commonPool());
+        });
+
+        // then
+        for (int i = 0; i < visits.length(); i++) {
+            Assert.assertEquals(visits.get(i), 1, "task " + i);
+        }
+        Assert.assertEquals(pools, Collections.singleton(pool));
+        Assert.assertEquals(PixelExecutor.getParallelism(), 2);
+        pool.shutdown();
+    }
+}
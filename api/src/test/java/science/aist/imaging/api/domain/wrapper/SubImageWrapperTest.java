@@ -88,5 +88,16 @@ public class SubImageWrapperTest {
         }
     }
 
+    @Test
+    public void testGetTile() {
+        // given
+        ImageWrapper<short[][][]> sample = getSampleImage();
+        SubImageWrapper<short[][][]> subImage = new SubImageWrapper<>(sample, 50, 50, 100, 100);
 
+        // when
+        double[] tile = subImage.getTile(10, 20, 3, 1, null);
+
+        // then
+        Assert.assertEquals(tile, new double[]{60, 61, 62});
+    }
 }
@@ -106,4 +106,92 @@ public class BufferedImageWrapperTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSetTile() {
+        // given
+        ImageWrapper<BufferedImage> bufferedImage = ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(10, 10, ChannelType.BGR);
+        double[] tile = {1, 2, 3, 4, 5, 6};
+
+        // when
+        bufferedImage.setTile(4, 5, 1, 2, tile);
+
+        // then
+        Assert.assertEquals(bufferedImage.getValues(4, 5), new double[]{1, 2, 3});
+        Assert.assertEquals(bufferedImage.getValues(4, 6), new double[]{4, 5, 6});
+        Assert.assertEquals(bufferedImage.getTile(4, 5, 1, 2, null), tile);
+    }
+
+    @Test
+    public void testCopyTo() {
+        // given
+        Random r = new Random(42);
+        ImageWrapper<BufferedImage> bufferedImage = ImageFactoryFactory.getImageFactory(BufferedImage.class).getRandomImage(20, 10, ChannelType.RGB, r, 0, 255, false);
+        ImageWrapper<double[][][]> target = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(20, 10, ChannelType.RGB);
+
+        // when
+        bufferedImage.copyTo(target);
+
+        // then
+        for (int x = 0; x < target.getWidth(); x++) {
+            for (int y = 0; y < target.getHeight(); y++) {
+                Assert.assertEquals(target.getValues(x, y), bufferedImage.getValues(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testGetValueRaster() {
+        // given
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR);
+        image.setRGB(3, 4, new java.awt.Color(10, 20, 30).getRGB());
+        ImageWrapper<BufferedImage> bufferedImage = ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(image);
+
+        // when
+        double[] values = bufferedImage.getValues(3, 4);
+
+        // then
+        Assert.assertEquals(values, new double[]{30, 20, 10});
+    }
+
+    @Test
+    public void testSetValueRaster() {
+        // given
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        ImageWrapper<BufferedImage> bufferedImage = ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(image);
+
+        // when
+        bufferedImage.setValues(3, 4, new double[]{10, 20, 30, 40});
+
+        // then
+        Assert.assertEquals(image.getRGB(3, 4), new java.awt.Color(10, 20, 30, 40).getRGB());
+    }
+
+    @Test
+    public void testGetValueSubimage() {
+        // given
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(5, 6, new java.awt.Color(10, 20, 30).getRGB());
+        ImageWrapper<BufferedImage> bufferedImage = ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(image.getSubimage(2, 3, 5, 5));
+
+        // when
+        double[] values = bufferedImage.getValues(3, 3);
+
+        // then
+        Assert.assertEquals(values, new double[]{10, 20, 30});
+    }
+
+    @Test
+    public void testSupportsParallelAccess() {
+        // given
+        ImageFactory<BufferedImage> factory = ImageFactoryFactory.getImageFactory(BufferedImage.class);
+
+        // when
+        boolean raster = factory.getImage(new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY)).supportsParallelAccess();
+        boolean colorModel = factory.getImage(new BufferedImage(10, 10, BufferedImage.TYPE_USHORT_565_RGB)).supportsParallelAccess();
+
+        // then
+        Assert.assertTrue(raster);
+        Assert.assertFalse(colorModel);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+/**
+ * <p>Tests {@link FlatImage1Byte}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class FlatImage1ByteTest {
+    @Test
+    void testGetValueUnsigned() {
+        // given
+        ImageWrapper<byte[]> imageWrapper = ImageFactoryFactory.getImageFactory(byte[].class).getImage(10, 10, ChannelType.GREYSCALE);
+        imageWrapper.getImage()[5 * 10 + 6] = (byte) 200;
+
+        // when
+        double val = imageWrapper.getValue(6, 5, 0);
+
+        // then
+        Assert.assertEquals(val, 200.0);
+    }
+
+    @Test
+    void testSetValue() {
+        // given
+        ImageWrapper<byte[]> imageWrapper = ImageFactoryFactory.getImageFactory(byte[].class).getImage(10, 10, ChannelType.BGR);
+
+        // when
+        imageWrapper.setValue(6, 5, 1, 255);
+
+        // then
+        Assert.assertEquals(imageWrapper.getImage()[5 * 30 + 6 * 3 + 1], (byte) 255);
+        Assert.assertEquals(imageWrapper.getValue(6, 5, 1), 255.0);
+    }
+
+    @Test
+    void testGetImageWithoutShape() {
+        // given
+        byte[] data = {1, 2, 3};
+
+        // when
+        ImageWrapper<byte[]> imageWrapper = ImageFactoryFactory.getImageFactory(byte[].class).getImage(data);
+
+        // then
+        Assert.assertEquals(imageWrapper.getWidth(), 3);
+        Assert.assertEquals(imageWrapper.getHeight(), 1);
+        Assert.assertEquals(imageWrapper.getChannelType(), ChannelType.GREYSCALE);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.api.domain.wrapper.implementation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+/**
+ * <p>Tests {@link FlatImage8Byte}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class FlatImage8ByteTest {
+    @Test
+    void testGetValue() {
+        // given
+        ImageWrapper<double[]> imageWrapper = ImageFactoryFactory.getImageFactory(double[].class).getImage(10, 10, ChannelType.RGB);
+        imageWrapper.getImage()[5 * 30 + 6 * 3 + 2] = 42;
+
+        // when
+        double val = imageWrapper.getValue(6, 5, 2);
+
+        // then
+        Assert.assertEquals(val, 42.0);
+    }
+
+    @Test
+    void testSetValue() {
+        // given
+        ImageWrapper<double[]> imageWrapper = ImageFactoryFactory.getImageFactory(double[].class).getImage(10, 10, ChannelType.RGB);
+
+        // when
+        imageWrapper.setValue(6, 5, 2, 42);
+
+        // then
+        Assert.assertEquals(imageWrapper.getImage()[5 * 30 + 6 * 3 + 2], 42.0);
+    }
+
+    @Test
+    void testGetImageWithStride() {
+        // given
+        double[] data = {
+                1, 2, -1,
+                3, 4, -1
+        };
+
+        // when
+        FlatImage8Byte imageWrapper = new FlatImage8ByteFactory().getImage(2, 2, ChannelType.GREYSCALE, data, 3, 0);
+
+        // then
+        Assert.assertFalse(imageWrapper.isContinuous());
+        Assert.assertEquals(imageWrapper.getValue(0, 1, 0), 3.0);
+        Assert.assertEquals(imageWrapper.getValue(1, 1, 0), 4.0);
+    }
+
+    @Test
+    void testEqualsAndHashCodeWithStride() {
+        // given
+        double[] padded = {
+                -1, 1, 2, -1,
+                -1, 3, 4, -1
+        };
+        double[] continuous = {1, 2, 3, 4};
+
+        // when
+        FlatImage8Byte view = new FlatImage8ByteFactory().getImage(2, 2, ChannelType.GREYSCALE, padded, 4, 1);
+        ImageWrapper<double[]> image = new FlatImage8ByteFactory().getImage(2, 2, ChannelType.GREYSCALE, continuous);
+
+        // then
+        Assert.assertEquals(view, image);
+        Assert.assertEquals(view.hashCode(), image.hashCode());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    void testGetImageTooSmall() {
+        // given
+        double[] data = new double[11];
+
+        // when
+        new FlatImage8ByteFactory().getImage(2, 2, ChannelType.RGB, data);
+
+        // then exception
+    }
+
+    @Test
+    void testSetValues() {
+        // given
+        ImageWrapper<double[]> imageWrapper = ImageFactoryFactory.getImageFactory(double[].class).getImage(2, 2, ChannelType.RGB);
+
+        // when
+        imageWrapper.setValues(1, 1, new double[]{1, 2, 3});
+
+        // then
+        Assert.assertEquals(imageWrapper.getValues(1, 1), new double[]{1, 2, 3});
+        Assert.assertEquals(imageWrapper.getValues(0, 1), new double[]{0, 0, 0});
+    }
+}
@@ -46,4 +46,46 @@ public class Image8ByteTest {
         // then
         Assert.assertEquals(imageWrapper.getImage()[5][6][2], 42.0);
     }
+
+    @Test
+    void testGetRow() {
+        // given
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(2, 3, ChannelType.RGB);
+        imageWrapper.getImage()[1][0][1] = 1;
+        imageWrapper.getImage()[1][2][1] = 3;
+
+        // when
+        double[] row = imageWrapper.getRow(1, 1, null);
+
+        // then
+        Assert.assertEquals(row, new double[]{1, 0, 3});
+    }
+
+    @Test
+    void testGetTile() {
+        // given
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(4, 4, ChannelType.GREYSCALE);
+        imageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, y * 4 + x));
+
+        // when
+        double[] tile = imageWrapper.getTile(1, 2, 2, 2, null);
+
+        // then
+        Assert.assertEquals(tile, new double[]{9, 10, 13, 14});
+    }
+
+    @Test
+    void testSetTile() {
+        // given
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(4, 4, ChannelType.RGB);
+        double[] tile = {1, 2, 3, 4, 5, 6};
+
+        // when
+        imageWrapper.setTile(2, 3, 2, 1, tile);
+
+        // then
+        Assert.assertEquals(imageWrapper.getValues(2, 3), new double[]{1, 2, 3});
+        Assert.assertEquals(imageWrapper.getValues(3, 3), new double[]{4, 5, 6});
+        Assert.assertEquals(imageWrapper.getValues(1, 3), new double[]{0, 0, 0});
+    }
 }
@@ -55,4 +55,21 @@ public class ImageFactoryFactoryTest {
         // then
         Assert.assertEquals(imageFactory.getClass(), BufferedImageFactory.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetImageFactoryFlat() {
+        // given
+
+        // when
+        ImageFactory<byte[]> byteFactory = ImageFactoryFactory.getImageFactory(byte[].class);
+        ImageFactory<short[]> shortFactory = ImageFactoryFactory.getImageFactory(short[].class);
+        ImageFactory<float[]> floatFactory = ImageFactoryFactory.getImageFactory(float[].class);
+        ImageFactory<double[]> doubleFactory = ImageFactoryFactory.getImageFactory(double[].class);
+
+        // then
+        Assert.assertEquals(byteFactory.getClass(), FlatImage1ByteFactory.class);
+        Assert.assertEquals(shortFactory.getClass(), FlatImage2ByteFactory.class);
+        Assert.assertEquals(floatFactory.getClass(), FlatImage4ByteFactory.class);
+        Assert.assertEquals(doubleFactory.getClass(), FlatImage8ByteFactory.class);
+    }
+}
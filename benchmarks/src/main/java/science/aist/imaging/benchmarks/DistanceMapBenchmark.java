@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.core.imageprocessing.distance.ChamferDistanceMapFunction;
+import science.aist.imaging.core.imageprocessing.distance.EuclideanDistanceMapFunction;
+import science.aist.imaging.core.imageprocessing.distance.ManhattanDistanceMetric;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link ChamferDistanceMapFunction} and {@link EuclideanDistanceMapFunction} for a binary image, in which
+ * about one percent of the pixels are contour pixels</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceMapBenchmark {
+    @Param({"IMAGE_8BYTE", "IMAGE_2BYTE", "FLAT_IMAGE_1BYTE"})
+    private ImageBackend backend;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    private ImageWrapper<Object> contour;
+    private ChamferDistanceMapFunction<double[][][]> chamferDistanceMapFunction;
+    private EuclideanDistanceMapFunction<double[][][]> euclideanDistanceMapFunction;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        contour = backend.<Object>getFactory().getImage(size, size, ChannelType.BINARY);
+        // sequential, so every pixel gets the same value in every run
+        contour.applyFunction((i, x, y, c) -> i.setValue(x, y, c, random.nextInt(100) == 0 ? 0 : 255), false);
+        chamferDistanceMapFunction = new ChamferDistanceMapFunction<>(0, new ManhattanDistanceMetric(), ImageBackend.IMAGE_8BYTE.getFactory());
+        euclideanDistanceMapFunction = new EuclideanDistanceMapFunction<>(0, ImageBackend.IMAGE_8BYTE.getFactory());
+    }
+
+    @TearDown
+    public void tearDown() {
+        contour.close();
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> chamfer() {
+        return chamferDistanceMapFunction.apply(contour);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> euclidean() {
+        return euclideanDistanceMapFunction.apply(contour);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.core.imageprocessing.filter.ConvolveFunction;
+import science.aist.imaging.core.imageprocessing.filter.lowpass.GaussFilterFunction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link ConvolveFunction} with a box kernel (summed-area table), a separable kernel and a general kernel
+ * as well as {@link GaussFilterFunction}. The results are always {@link ImageBackend#IMAGE_8BYTE} images, so only the
+ * backend of the source image changes.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterBenchmark {
+    private static final double[][] BOX = {
+            {1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 1}
+    };
+    private static final double[][] SOBEL = {
+            {-1, 0, 1},
+            {-2, 0, 2},
+            {-1, 0, 1}
+    };
+    private static final double[][] LAPLACE = {
+            {0, 1, 0},
+            {1, -4, 1},
+            {0, 1, 0}
+    };
+
+    @Param({"IMAGE_8BYTE", "IMAGE_2BYTE", "FLAT_IMAGE_8BYTE", "OPENCV"})
+    private ImageBackend backend;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    @Param({"GREYSCALE", "RGB"})
+    private ChannelType channelType;
+
+    private ImageWrapper<Object> image;
+    private ConvolveFunction<Object, double[][][]> convolveFunction;
+    // the sums of the derivative kernels are zero, so they must not be normalized
+    private ConvolveFunction<Object, double[][][]> derivativeFunction;
+    private GaussFilterFunction<Object, double[][][]> gaussFilterFunction;
+
+    @Setup
+    public void setup() {
+        image = backend.createRandomImage(size, channelType);
+        ImageFactory<double[][][]> provider = ImageBackend.IMAGE_8BYTE.getFactory();
+        convolveFunction = new ConvolveFunction<>(provider);
+        derivativeFunction = new ConvolveFunction<>(provider);
+        derivativeFunction.setNormalize(false);
+        gaussFilterFunction = new GaussFilterFunction<>(provider);
+        gaussFilterFunction.setSigma(2);
+        gaussFilterFunction.setRadius(4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        image.close();
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> convolveBox() {
+        return convolveFunction.apply(image, BOX);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> convolveSeparable() {
+        return derivativeFunction.apply(image, SOBEL);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> convolveGeneral() {
+        return derivativeFunction.apply(image, LAPLACE);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> gauss() {
+        return gaussFilterFunction.apply(image);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.core.imageprocessing.houghspace.HoughSpaceLines;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the parallel voting into {@link HoughSpaceLines} and the peak search in the resulting hough space. One
+ * percent of the pixels vote for all rotations in steps of one degree.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HoughSpaceBenchmark {
+    @Param({"256", "1024"})
+    private int size;
+
+    private int[] xs;
+    private int[] ys;
+    private HoughSpaceLines houghSpace;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        int count = size * size / 100;
+        xs = new int[count];
+        ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = random.nextInt(size);
+            ys[i] = random.nextInt(size);
+        }
+        houghSpace = vote();
+    }
+
+    @Benchmark
+    public HoughSpaceLines vote() {
+        return HoughSpaceLines.vote(size, size, 180, 0, 1, xs.length, (space, i) -> {
+            for (int r = 0; r < space.getNumOfRotations(); r++) {
+                space.addHoughSpaceValue(xs[i], ys[i], r, 1);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<double[]> peaks() {
+        return houghSpace.getPeaks(10, 5);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the pixel access of the {@link ImageWrapper} implementations: single values, whole rows and the
+ * iteration using {@link ImageWrapper#applyFunction}</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImageAccessBenchmark {
+    @Param({"IMAGE_8BYTE", "IMAGE_2BYTE", "FLAT_IMAGE_8BYTE", "FLAT_IMAGE_1BYTE", "BUFFERED_IMAGE", "OPENCV"})
+    private ImageBackend backend;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    @Param({"GREYSCALE", "RGB"})
+    private ChannelType channelType;
+
+    private ImageWrapper<Object> image;
+    private double[] row;
+
+    @Setup
+    public void setup() {
+        image = backend.createRandomImage(size, channelType);
+        row = new double[size];
+    }
+
+    @TearDown
+    public void tearDown() {
+        image.close();
+    }
+
+    @Benchmark
+    public double getValue() {
+        double sum = 0;
+        int channels = image.getChannels();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                for (int c = 0; c < channels; c++) {
+                    sum += image.getValue(x, y, c);
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ImageWrapper<Object> setValue() {
+        int channels = image.getChannels();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                for (int c = 0; c < channels; c++) {
+                    image.setValue(x, y, c, (x + y) & 0xFF);
+                }
+            }
+        }
+        return image;
+    }
+
+    @Benchmark
+    public double getRow() {
+        double sum = 0;
+        int channels = image.getChannels();
+        for (int y = 0; y < size; y++) {
+            for (int c = 0; c < channels; c++) {
+                image.getRow(y, c, row);
+                sum += row[size - 1];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public ImageWrapper<Object> applyFunction() {
+        image.applyFunction((i, x, y, c) -> i.setValue(x, y, c, 255 - i.getValue(x, y, c)));
+        return image;
+    }
+}
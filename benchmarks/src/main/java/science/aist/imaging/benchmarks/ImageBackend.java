@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import aist.science.aistcv.AistCVLoader;
+import org.opencv.core.Mat;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.jack.general.util.CastUtils;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * <p>Image wrapper implementations the benchmarks are parameterised with</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public enum ImageBackend {
+    IMAGE_8BYTE(double[][][].class),
+    IMAGE_2BYTE(short[][][].class),
+    FLAT_IMAGE_8BYTE(double[].class),
+    FLAT_IMAGE_1BYTE(byte[].class),
+    BUFFERED_IMAGE(BufferedImage.class),
+    OPENCV(Mat.class);
+
+    private final Class<?> type;
+
+    ImageBackend(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * @param <T> type of the wrapped images
+     * @return the factory of the backend
+     */
+    public <T> ImageFactory<T> getFactory() {
+        if (this == OPENCV) {
+            AistCVLoader.loadShared();
+        }
+        return CastUtils.cast(ImageFactoryFactory.getImageFactory(type));
+    }
+
+    /**
+     * Creates an image with reproducible random values between 0 and 255
+     *
+     * @param size        width and height of the image
+     * @param channelType channel type of the image
+     * @param <T>         type of the wrapped image
+     * @return the image
+     */
+    public <T> ImageWrapper<T> createRandomImage(int size, ChannelType channelType) {
+        ImageWrapper<T> image = this.<T>getFactory().getImage(size, size, channelType);
+        Random random = new Random(size);
+        double max = channelType == ChannelType.BINARY ? 1 : 256;
+        // sequential, so every pixel gets the same value in every run
+        image.applyFunction((i, x, y, c) -> {
+            double value = Math.floor(random.nextDouble() * max);
+            i.setValue(x, y, c, channelType == ChannelType.BINARY ? value * 255 : value);
+        }, false);
+        return image;
+    }
+}
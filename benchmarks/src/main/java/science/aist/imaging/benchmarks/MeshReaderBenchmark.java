@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.mesh.storage.MeshReader;
+import science.aist.imaging.mesh.storage.MeshWriter;
+import science.aist.imaging.mesh.storage.obj.ObjReader;
+import science.aist.imaging.mesh.storage.obj.ObjWriter;
+import science.aist.imaging.mesh.storage.off.OffReader;
+import science.aist.imaging.mesh.storage.off.OffWriter;
+import science.aist.imaging.mesh.storage.ply.PlyReader;
+import science.aist.imaging.mesh.storage.ply.PlyWriter;
+import science.aist.imaging.mesh.storage.stl.StlReader;
+import science.aist.imaging.mesh.storage.stl.StlWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>Measures the mesh readers for a triangulated grid, which is written to a temporary file in every format</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class MeshReaderBenchmark {
+    /**
+     * Mesh formats with the reader and the writer used to create the file
+     */
+    public enum Format {
+        OBJ(ObjReader::new, ObjWriter::new),
+        OFF(OffReader::new, OffWriter::new),
+        PLY(PlyReader::new, PlyWriter::new),
+        PLY_BINARY(PlyReader::new, () -> {
+            PlyWriter writer = new PlyWriter();
+            writer.setBinary(true);
+            return writer;
+        }),
+        STL(StlReader::new, StlWriter::new),
+        STL_BINARY(StlReader::new, () -> {
+            StlWriter writer = new StlWriter();
+            writer.setBinary(true);
+            return writer;
+        });
+
+        private final Supplier<MeshReader> reader;
+        private final Supplier<MeshWriter> writer;
+
+        Format(Supplier<MeshReader> reader, Supplier<MeshWriter> writer) {
+            this.reader = reader;
+            this.writer = writer;
+        }
+    }
+
+    @Param({"OBJ", "OFF", "PLY", "PLY_BINARY", "STL", "STL_BINARY"})
+    private Format format;
+
+    /**
+     * Number of vertices per side of the grid
+     */
+    @Param({"100", "500"})
+    private int gridSize;
+
+    private MeshReader reader;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                builder.addVertex(x * 0.25, y * 0.25, Math.sin(x * 0.1) * Math.cos(y * 0.1));
+            }
+        }
+        for (int y = 0; y < gridSize - 1; y++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int index = y * gridSize + x;
+                builder.addTriangle(index, index + 1, index + gridSize);
+                builder.addTriangle(index + 1, index + gridSize + 1, index + gridSize);
+            }
+        }
+
+        file = Files.createTempFile("mesh", "." + format.name().toLowerCase()).toFile();
+        if (!format.writer.get().write(builder.build(), file)) {
+            throw new IllegalStateException("Could not write " + file);
+        }
+        reader = format.reader.get();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public Optional<IndexedMesh> read() {
+        return reader.readIndexed(file);
+    }
+}
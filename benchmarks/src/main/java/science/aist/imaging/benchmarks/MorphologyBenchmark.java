@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.core.imageprocessing.segmentation.morph.GenericMorphFunction;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link GenericMorphFunction}, which processes binary images bit-packed and all others generically</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MorphologyBenchmark {
+    @Param({"IMAGE_8BYTE", "IMAGE_2BYTE", "FLAT_IMAGE_1BYTE"})
+    private ImageBackend backend;
+
+    @Param({"256", "1024"})
+    private int size;
+
+    @Param({"BINARY", "GREYSCALE"})
+    private ChannelType channelType;
+
+    private ImageWrapper<Object> image;
+    private GenericMorphFunction<Object, short[][][]> morphFunction;
+
+    @Setup
+    public void setup() {
+        image = backend.createRandomImage(size, channelType);
+        morphFunction = new GenericMorphFunction<>(ImageBackend.IMAGE_2BYTE.getFactory(), 5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        image.close();
+    }
+
+    @Benchmark
+    public ImageWrapper<short[][][]> morph() {
+        return morphFunction.apply(image);
+    }
+}
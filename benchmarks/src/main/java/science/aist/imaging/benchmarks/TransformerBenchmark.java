@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.benchmarks;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.*;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.core.imageprocessing.transformers.GenericImageWrapperTransformer;
+import science.aist.imaging.core.imageprocessing.transformers.Image2ByteToImage8ByteTransformer;
+import science.aist.imaging.core.imageprocessing.transformers.Image8ByteToFlatImage8ByteTransformer;
+import science.aist.imaging.opencv.imageprocessing.transformers.OpenCVImageWrapperImage2ByteTransformer;
+import science.aist.imaging.opencv.imageprocessing.transformers.OpenCVImageWrapperImage8ByteTransformer;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the transformers between the image wrapper implementations</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformerBenchmark {
+    @Param({"256", "1024"})
+    private int size;
+
+    @Param({"GREYSCALE", "RGB"})
+    private ChannelType channelType;
+
+    private ImageWrapper<double[][][]> image8Byte;
+    private ImageWrapper<short[][][]> image2Byte;
+    private ImageWrapper<Mat> mat;
+
+    private final Image2ByteToImage8ByteTransformer image2ByteToImage8Byte = new Image2ByteToImage8ByteTransformer();
+    private final Image8ByteToFlatImage8ByteTransformer image8ByteToFlat = new Image8ByteToFlatImage8ByteTransformer();
+    private final OpenCVImageWrapperImage8ByteTransformer openCVToImage8Byte = new OpenCVImageWrapperImage8ByteTransformer();
+    private final OpenCVImageWrapperImage2ByteTransformer openCVToImage2Byte = new OpenCVImageWrapperImage2ByteTransformer();
+    private GenericImageWrapperTransformer<BufferedImage, double[][][]> bufferedImageToImage8Byte;
+
+    @Setup
+    public void setup() {
+        image8Byte = ImageBackend.IMAGE_8BYTE.createRandomImage(size, channelType);
+        image2Byte = ImageBackend.IMAGE_2BYTE.createRandomImage(size, channelType);
+        mat = ImageBackend.OPENCV.createRandomImage(size, channelType);
+        bufferedImageToImage8Byte = new GenericImageWrapperTransformer<>(ImageBackend.BUFFERED_IMAGE.getFactory(), ImageBackend.IMAGE_8BYTE.getFactory());
+    }
+
+    @TearDown
+    public void tearDown() {
+        mat.close();
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> image2ByteToImage8Byte() {
+        return image2ByteToImage8Byte.transformFrom(image2Byte);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[]> image8ByteToFlatImage8Byte() {
+        return image8ByteToFlat.transformFrom(image8Byte);
+    }
+
+    @Benchmark
+    public ImageWrapper<BufferedImage> image8ByteToBufferedImage() {
+        return bufferedImageToImage8Byte.transformTo(image8Byte);
+    }
+
+    @Benchmark
+    public ImageWrapper<double[][][]> openCVToImage8Byte() {
+        return openCVToImage8Byte.transformFrom(mat);
+    }
+
+    @Benchmark
+    public ImageWrapper<Mat> image8ByteToOpenCV() {
+        ImageWrapper<Mat> result = openCVToImage8Byte.transformTo(image8Byte);
+        // the native memory of the mat would otherwise only be released by the garbage collector
+        result.close();
+        return result;
+    }
+
+    @Benchmark
+    public ImageWrapper<short[][][]> openCVToImage2Byte() {
+        return openCVToImage2Byte.transformFrom(mat);
+    }
+}
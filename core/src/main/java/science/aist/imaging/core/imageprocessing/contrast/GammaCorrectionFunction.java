@@ -9,36 +9,88 @@
 
 package science.aist.imaging.core.imageprocessing.contrast;
 
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import science.aist.imaging.api.ImageFunction;
+import science.aist.imaging.api.PointwiseImageFunction;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.core.imageprocessing.transformation.ValueTransformationFunction;
 
 import java.util.function.BiFunction;
-import java.util.stream.IntStream;
 
 /**
  * <p>Gamma correction implementation</p>
+ * <p>If the function is fused with other pointwise functions, the correction is applied as lookup table like in
+ * {@link ValueTransformationFunction}, independent of the configured transformationFunction.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
  */
 @Setter
-public class GammaCorrectionFunction<P, T> implements ImageFunction<P, T> {
+public class GammaCorrectionFunction<P, T> implements PointwiseImageFunction<P, T> {
     private static final int MAX_VAL = 255;
     private double gamma = 1;
     private BiFunction<ImageWrapper<P>, int[], ImageWrapper<T>> transformationFunction;
+    @Getter
+    private final ImageFactory<T> provider;
+    /**
+     * Lookup table implementation used when the function is fused
+     */
+    private final ValueTransformationFunction<P, T> lookup;
+
+    /**
+     * Lookup table of the last used gamma value, which is reused for every row of a fused function
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile CachedLookup cached;
 
     public GammaCorrectionFunction(@NonNull ImageFactory<T> provider) {
-        this.transformationFunction = new ValueTransformationFunction<>(provider);
+        this.provider = provider;
+        this.lookup = new ValueTransformationFunction<>(provider);
+        this.transformationFunction = lookup;
     }
 
     @Override
     public ImageWrapper<T> apply(ImageWrapper<P> imageWrapper) {
-        int[] transferFunction = new int[MAX_VAL + 1];
-        IntStream.rangeClosed(0, MAX_VAL).parallel().forEach(i -> transferFunction[i] = (short) (Math.pow((double) i / ((double) MAX_VAL), gamma) * (double) MAX_VAL + 0.5));
-        return transformationFunction.apply(imageWrapper, transferFunction);
+        return transformationFunction.apply(imageWrapper, cachedLookup().transferFunction);
+    }
+
+    @Override
+    public ChannelType getResultChannelType(ChannelType inputType) {
+        return cachedLookup().function.getResultChannelType(inputType);
+    }
+
+    @Override
+    public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+        cachedLookup().function.applyToRow(src, inputType, dst, width);
+    }
+
+    /**
+     * @return the lookup table of the current gamma value; it is only created again after the gamma value changed
+     */
+    private CachedLookup cachedLookup() {
+        double currentGamma = gamma;
+        CachedLookup res = cached;
+        if (res == null || Double.compare(res.gamma, currentGamma) != 0) {
+            // concurrent calls may create the same table twice, which is cheaper than synchronizing every row
+            int[] transferFunction = new int[MAX_VAL + 1];
+            for (int i = 0; i <= MAX_VAL; i++) {
+                transferFunction[i] = (short) (Math.pow((double) i / ((double) MAX_VAL), currentGamma) * (double) MAX_VAL + 0.5);
+            }
+            res = new CachedLookup(currentGamma, transferFunction, lookup.with(transferFunction));
+            cached = res;
+        }
+        return res;
+    }
+
+    @RequiredArgsConstructor
+    private static final class CachedLookup {
+        private final double gamma;
+        private final int[] transferFunction;
+        private final PointwiseImageFunction<?, ?> function;
     }
 }
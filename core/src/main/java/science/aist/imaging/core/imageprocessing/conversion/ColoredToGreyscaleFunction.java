@@ -9,10 +9,11 @@
 
 package science.aist.imaging.core.imageprocessing.conversion;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import science.aist.imaging.api.ImageFunction;
+import science.aist.imaging.api.PointwiseImageFunction;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
@@ -20,7 +21,6 @@ import science.aist.imaging.api.typecheck.TypeChecker;
 import science.aist.imaging.core.imageprocessing.conversion.greyscale.GreyscaleLuminosityConverter;
 
 import java.util.Arrays;
-import java.util.stream.IntStream;
 
 /**
  * <p>Converts a Colored Image into a Greyscale one</p>
@@ -30,12 +30,13 @@ import java.util.stream.IntStream;
  */
 @Setter
 @RequiredArgsConstructor
-public class ColoredToGreyscaleFunction<I, T> implements ImageFunction<I, T> {
+public class ColoredToGreyscaleFunction<I, T> implements PointwiseImageFunction<I, T> {
 
     /**
      * The supported types for this function
      */
     private static final TypeChecker typeChecker = new TypeChecker(Arrays.asList(ChannelType.GREYSCALE, ChannelType.BINARY, ChannelType.BGRA, ChannelType.RGBA, ChannelType.RGB, ChannelType.BGR));
+    @Getter
     @NonNull
     private ImageFactory<T> provider;
     /**
@@ -66,15 +67,34 @@ public class ColoredToGreyscaleFunction<I, T> implements ImageFunction<I, T> {
         ImageWrapper<T> result = provider.getImage(height, width, ChannelType.GREYSCALE);
 
 
-        IntStream.range(0, height).parallel().forEach(y -> {
+        result.applyColumnFunction((image, y) -> {
             for (int x = 0; x < width; x++) {
-                result.setValue(x, y, 0, colorToGreyscaleConv(type, imageWrapper.getValues(x, y)));
+                image.setValue(x, y, 0, colorToGreyscaleConv(type, imageWrapper.getValues(x, y)));
             }
-        });
+        }, 0, height, 1, result.supportsParallelAccess());
 
         return result;
     }
 
+    @Override
+    public ChannelType getResultChannelType(ChannelType inputType) {
+        typeChecker.check(inputType);
+        return inputType == ChannelType.BINARY ? ChannelType.BINARY : ChannelType.GREYSCALE;
+    }
+
+    @Override
+    public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+        int channels = inputType.getNumberOfChannels();
+        if (channels == 1) {
+            System.arraycopy(src, 0, dst, 0, width);
+            return;
+        }
+        boolean bgr = inputType == ChannelType.BGR || inputType == ChannelType.BGRA;
+        for (int x = 0, i = 0; x < width; x++, i += channels) {
+            dst[x] = bgr ? colorToGreyScale.toGreyscale(src[i + 2], src[i + 1], src[i]) : colorToGreyScale.toGreyscale(src[i], src[i + 1], src[i + 2]);
+        }
+    }
+
     private double colorToGreyscaleConv(ChannelType type, double[] color) {
         return type == ChannelType.BGR || type == ChannelType.BGRA ? colorToGreyScale.toGreyscale(color[2], color[1], color[0]) : colorToGreyScale.toGreyscale(color[0], color[1], color[2]);
     }
@@ -20,7 +20,6 @@ import science.aist.imaging.core.imageprocessing.transformers.GenericImageWrappe
 import science.aist.imaging.core.imageprocessing.transformers.RGB2BGRTransformer;
 import science.aist.imaging.core.imageprocessing.transformers.RGB2RGBATransformer;
 
-import java.util.stream.IntStream;
 
 /**
  * <p>This class tries to convert any 2ByteImage to a RGB Image.</p>
@@ -52,13 +51,14 @@ public class ToRGBFunction<P, T> implements ImageFunction<P, T> {
         int width = input.getWidth();
         ImageWrapper<T> rgbImageWrapper = tProvider.getImage(height, width, ChannelType.RGB);
 
-        IntStream.range(0, input.getHeight()).parallel().forEach(y -> {
-            for (int x = 0; x < input.getWidth(); x++) {
+        rgbImageWrapper.applyColumnFunction((image, y) -> {
+            for (int x = 0; x < width; x++) {
+                double value = input.getValue(x, y, 0);
                 for (int c = 0; c < 3; c++) {
-                    rgbImageWrapper.setValue(x, y, c, input.getValue(x, y, 0));
+                    image.setValue(x, y, c, value);
                 }
             }
-        });
+        }, 0, height, 1, rgbImageWrapper.supportsParallelAccess());
 
         return rgbImageWrapper;
     };
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.distance;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>Result of the {@link EuclideanDistanceMapFunction} containing the exact squared euclidean distance of every pixel
+ * to the closest contour pixel as well as the position of this contour pixel.</p>
+ * <p>Both are stored row by row in flat arrays, so the values of pixel (x, y) are located at {@code y * width + x}.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class EuclideanDistanceMap {
+    private final int width;
+    private final int height;
+    /**
+     * Squared distance to the closest contour pixel; {@link Double#MAX_VALUE} if the image does not contain any contour pixel
+     */
+    private final double[] squaredDistances;
+    /**
+     * Index ({@code y * width + x}) of the closest contour pixel; -1 if the image does not contain any contour pixel
+     */
+    private final int[] nearestFeatures;
+
+    /**
+     * @param x the x-coordinate of the pixel
+     * @param y the y-coordinate of the pixel
+     * @return the euclidean distance of the given pixel to the closest contour pixel
+     */
+    public double getDistance(int x, int y) {
+        double squared = squaredDistances[y * width + x];
+        return squared == Double.MAX_VALUE ? squared : Math.sqrt(squared);
+    }
+
+    /**
+     * @param x the x-coordinate of the pixel
+     * @param y the y-coordinate of the pixel
+     * @return the squared euclidean distance of the given pixel to the closest contour pixel
+     */
+    public double getSquaredDistance(int x, int y) {
+        return squaredDistances[y * width + x];
+    }
+
+    /**
+     * @param x the x-coordinate of the pixel
+     * @param y the y-coordinate of the pixel
+     * @return the x-coordinate of the closest contour pixel or -1 if there is none
+     */
+    public int getNearestFeatureX(int x, int y) {
+        int idx = nearestFeatures[y * width + x];
+        return idx < 0 ? -1 : idx % width;
+    }
+
+    /**
+     * @param x the x-coordinate of the pixel
+     * @param y the y-coordinate of the pixel
+     * @return the y-coordinate of the closest contour pixel or -1 if there is none
+     */
+    public int getNearestFeatureY(int x, int y) {
+        int idx = nearestFeatures[y * width + x];
+        return idx < 0 ? -1 : idx / width;
+    }
+}
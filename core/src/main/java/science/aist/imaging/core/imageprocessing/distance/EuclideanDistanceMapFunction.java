@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.distance;
+
+import lombok.NonNull;
+import lombok.Setter;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.api.typecheck.TypeChecker;
+
+
+/**
+ * <p>Implementation of the exact euclidean distance transform by Felzenszwalb and Huttenlocher.</p>
+ * <p>The transformation is separated into a vertical pass, which calculates for every pixel the closest contour pixel in
+ * its column, and a horizontal pass, which calculates the lower envelope of the parabolas {@code (x - q)² + g(q)²}
+ * given by the results of the first pass. Both passes are linear in the number of pixels, and the columns respectively
+ * rows are processed in parallel on flat arrays.</p>
+ * <p>In contrast to the {@link ChamferDistanceMapFunction} the result is the exact euclidean distance. Additionally
+ * {@link EuclideanDistanceMapFunction#computeDistanceMap(ImageWrapper)} provides the closest contour pixel of every
+ * pixel.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class EuclideanDistanceMapFunction<T> extends AbstractDistanceMapFunction<T> {
+    private static final TypeChecker typeChecker = new TypeChecker(ChannelType.BINARY);
+
+    @NonNull
+    private final ImageFactory<T> provider;
+
+    /**
+     * If true the squared distances are returned by {@link EuclideanDistanceMapFunction#apply(ImageWrapper)}
+     */
+    @Setter
+    private boolean squared = false;
+
+    public EuclideanDistanceMapFunction(double contourColour, @NonNull ImageFactory<T> provider) {
+        super(contourColour, new EuclidianDistanceMetric());
+        this.provider = provider;
+    }
+
+    @Override
+    public ImageWrapper<T> apply(ImageWrapper<?> imageWrapper) {
+        EuclideanDistanceMap distanceMap = computeDistanceMap(imageWrapper);
+        int width = distanceMap.getWidth();
+        double[] squaredDistances = distanceMap.getSquaredDistances();
+
+        ImageWrapper<T> result = provider.getImage(distanceMap.getHeight(), width, ChannelType.GREYSCALE);
+        result.applyColumnFunction((image, y) -> {
+            double[] row = new double[width];
+            for (int x = 0; x < width; x++) {
+                double value = squaredDistances[y * width + x];
+                row[x] = squared || value == Double.MAX_VALUE ? value : Math.sqrt(value);
+            }
+            image.setRow(y, 0, row);
+        }, 0, distanceMap.getHeight(), 1, result.supportsParallelAccess());
+        return result;
+    }
+
+    /**
+     * Calculates the squared euclidean distance and the closest contour pixel for every pixel of the given image
+     *
+     * @param imageWrapper binary image containing the contour pixels
+     * @return the distance map
+     */
+    public EuclideanDistanceMap computeDistanceMap(ImageWrapper<?> imageWrapper) {
+        typeChecker.accept(imageWrapper);
+        int width = imageWrapper.getWidth();
+        int height = imageWrapper.getHeight();
+
+        boolean[] contour = new boolean[width * height];
+        imageWrapper.applyColumnFunction((image, y) -> {
+            double[] row = image.getRow(y, 0, null);
+            for (int x = 0; x < width; x++) {
+                contour[y * width + x] = (int) row[x] == contourColour;
+            }
+        }, 0, height, 1, imageWrapper.supportsParallelAccess());
+
+        // vertical pass: closest contour pixel within the column
+        double[] columnDistances = new double[width * height];
+        int[] columnFeatures = new int[width * height];
+        PixelExecutor.forEachRow(0, width, 1, height, true, x -> {
+            int last = -1;
+            for (int y = 0; y < height; y++) {
+                if (contour[y * width + x]) {
+                    last = y;
+                }
+                columnFeatures[y * width + x] = last;
+            }
+            int next = -1;
+            for (int y = height - 1; y >= 0; y--) {
+                int idx = y * width + x;
+                if (contour[idx]) {
+                    next = y;
+                }
+                int prev = columnFeatures[idx];
+                int closest = prev < 0 || (next >= 0 && next - y < y - prev) ? next : prev;
+                columnFeatures[idx] = closest;
+                columnDistances[idx] = closest < 0 ? Double.MAX_VALUE : (double) (y - closest) * (y - closest);
+            }
+        });
+
+        // horizontal pass: lower envelope of the parabolas of the row
+        double[] squaredDistances = new double[width * height];
+        int[] nearestFeatures = new int[width * height];
+        PixelExecutor.forEachRow(0, height, 1, width, true, y -> {
+            int offset = y * width;
+            int[] v = new int[width];
+            double[] z = new double[width + 1];
+            int k = -1;
+            for (int q = 0; q < width; q++) {
+                double f = columnDistances[offset + q];
+                if (f == Double.MAX_VALUE) {
+                    // no contour pixel in this column, so it does not contribute to the envelope
+                    continue;
+                }
+                if (k < 0) {
+                    k = 0;
+                    v[0] = q;
+                    z[0] = Double.NEGATIVE_INFINITY;
+                    z[1] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                double s = intersection(columnDistances, offset, v[k], q);
+                while (s <= z[k]) {
+                    k--;
+                    s = intersection(columnDistances, offset, v[k], q);
+                }
+                k++;
+                v[k] = q;
+                z[k] = s;
+                z[k + 1] = Double.POSITIVE_INFINITY;
+            }
+
+            if (k < 0) {
+                for (int x = 0; x < width; x++) {
+                    squaredDistances[offset + x] = Double.MAX_VALUE;
+                    nearestFeatures[offset + x] = -1;
+                }
+                return;
+            }
+
+            k = 0;
+            for (int x = 0; x < width; x++) {
+                while (z[k + 1] < x) {
+                    k++;
+                }
+                int q = v[k];
+                squaredDistances[offset + x] = (double) (x - q) * (x - q) + columnDistances[offset + q];
+                nearestFeatures[offset + x] = columnFeatures[offset + q] * width + q;
+            }
+        });
+
+        return new EuclideanDistanceMap(width, height, squaredDistances, nearestFeatures);
+    }
+
+    /**
+     * Calculates the x-coordinate of the intersection of the parabolas rooted at p and q
+     *
+     * @param f      squared distances of the vertical pass
+     * @param offset index of the first pixel of the row
+     * @param p      column of the first parabola
+     * @param q      column of the second parabola (q &gt; p)
+     * @return the x-coordinate of the intersection
+     */
+    private static double intersection(double[] f, int offset, int p, int q) {
+        return ((f[offset + q] + (double) q * q) - (f[offset + p] + (double) p * p)) / (2.0 * (q - p));
+    }
+}
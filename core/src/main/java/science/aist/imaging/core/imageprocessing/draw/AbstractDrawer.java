@@ -45,6 +45,42 @@ public abstract class AbstractDrawer<I, T> implements BiConsumer<ImageWrapper<I>
         points.addAll(addPoints);
     }
 
+    /**
+     * Draws the given spans with the current color. If a thickness is set, the spans are dilated by it (which is
+     * equal to {@link AbstractDrawer#addOffsetPoints(Set, int)}). Every span is written as one tile.
+     *
+     * @param iImageWrapper the image to draw on
+     * @param spans         the spans to draw
+     */
+    protected void drawSpans(ImageWrapper<I> iImageWrapper, ScanlineSpans spans) {
+        int width = iImageWrapper.getWidth();
+        int height = iImageWrapper.getHeight();
+        int channels = iImageWrapper.getChannels();
+
+        if (color.length != channels) {
+            throw new IllegalArgumentException("Given color does not fit for the expected channel type");
+        }
+
+        ScanlineSpans toDraw = thickness > 0 ? spans.dilate(thickness) : spans;
+
+        // one row filled with the color, of which the first (span length * channels) values are written
+        double[] run = new double[width * channels];
+        for (int i = 0; i < run.length; i++) {
+            run[i] = color[i % channels];
+        }
+
+        for (int y = Math.max(toDraw.getStartY(), 0); y < Math.min(toDraw.getEndY(), height); y++) {
+            int[] rowSpans = toDraw.getSpans(y);
+            for (int i = 0; i < rowSpans.length; i += 2) {
+                int from = Math.max(rowSpans[i], 0);
+                int to = Math.min(rowSpans[i + 1], width - 1);
+                if (from <= to) {
+                    iImageWrapper.setTile(from, y, to - from + 1, 1, run);
+                }
+            }
+        }
+    }
+
     protected void drawPoints(ImageWrapper<I> iImageWrapper, Collection<JavaPoint2D> points) {
         int width = iImageWrapper.getWidth();
         int height = iImageWrapper.getHeight();
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.draw;
+
+import lombok.Getter;
+import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
+import science.aist.imaging.api.domain.twodimensional.JavaPolygon2D;
+import science.aist.imaging.api.domain.twodimensional.JavaRectangle2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>Set of pixels represented as horizontal runs (spans) per image row.</p>
+ * <p>Every span is given by its first and last x-coordinate (both inclusive). The spans of a row may overlap; they
+ * are sorted and merged by {@link ScanlineSpans#getSpans(int)}. In contrast to a set of points the memory only
+ * depends on the number of spans and not on the number of pixels.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class ScanlineSpans {
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * first row (inclusive)
+     */
+    @Getter
+    private final int startY;
+    /**
+     * last row (exclusive)
+     */
+    @Getter
+    private final int endY;
+    private final int[][] rows;
+    private final int[] sizes;
+
+    /**
+     * @param startY first row (inclusive)
+     * @param endY   last row (exclusive)
+     */
+    public ScanlineSpans(int startY, int endY) {
+        this.startY = startY;
+        this.endY = Math.max(startY, endY);
+        this.rows = new int[this.endY - startY][];
+        this.sizes = new int[this.endY - startY];
+    }
+
+    /**
+     * Adds a span; spans of rows outside of [startY, endY) are ignored
+     *
+     * @param y     the row
+     * @param fromX first x-coordinate (inclusive)
+     * @param toX   last x-coordinate (inclusive)
+     */
+    public void add(int y, int fromX, int toX) {
+        if (y < startY || y >= endY || toX < fromX) {
+            return;
+        }
+        int r = y - startY;
+        int[] row = rows[r];
+        if (row == null) {
+            row = new int[4];
+            rows[r] = row;
+        } else if (sizes[r] + 2 > row.length) {
+            row = Arrays.copyOf(row, row.length * 2);
+            rows[r] = row;
+        }
+        row[sizes[r]++] = fromX;
+        row[sizes[r]++] = toX;
+    }
+
+    /**
+     * Adds the pixels of the line between the two points using the Bresenham algorithm (see
+     * {@link science.aist.imaging.api.domain.twodimensional.JavaLine2D#getBresenham()}). Consecutive pixels of the same
+     * row are added as one span.
+     *
+     * @param x0 x-coordinate of the start point
+     * @param y0 y-coordinate of the start point
+     * @param x1 x-coordinate of the end point
+     * @param y1 y-coordinate of the end point
+     */
+    public void addLine(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int sx = x0 < x1 ? 1 : -1;
+        int dy = Math.abs(y1 - y0);
+        int sy = y0 < y1 ? 1 : -1;
+        int err = (dx > dy ? dx : -dy) / 2;
+        int e2;
+
+        int runStart = x0;
+        while (true) {
+            if (x0 == x1 && y0 == y1) {
+                add(y0, Math.min(runStart, x0), Math.max(runStart, x0));
+                break;
+            }
+            e2 = err;
+            int prevX = x0;
+            int prevY = y0;
+            if (e2 > -dx) {
+                err -= dy;
+                x0 += sx;
+            }
+            if (e2 < dy) {
+                err += dx;
+                y0 += sy;
+            }
+            if (y0 != prevY) {
+                add(prevY, Math.min(runStart, prevX), Math.max(runStart, prevX));
+                runStart = x0;
+            }
+        }
+    }
+
+    /**
+     * @param y the row
+     * @return the sorted, non-overlapping spans of the row as pairs (fromX, toX)
+     */
+    public int[] getSpans(int y) {
+        if (y < startY || y >= endY || rows[y - startY] == null) {
+            return EMPTY;
+        }
+        int r = y - startY;
+        return merge(rows[r], sizes[r]);
+    }
+
+    /**
+     * Creates the spans of all pixels, which are within the square of the given radius around one of the pixels
+     * of this spans (i.e. a dilation with a (2 * radius + 1)² square)
+     *
+     * @param radius the radius
+     * @return the dilated spans
+     */
+    public ScanlineSpans dilate(int radius) {
+        ScanlineSpans res = new ScanlineSpans(startY - radius, endY + radius);
+        for (int y = startY; y < endY; y++) {
+            int[] spans = getSpans(y);
+            for (int yOffset = -radius; yOffset <= radius; yOffset++) {
+                for (int i = 0; i < spans.length; i += 2) {
+                    res.add(y + yOffset, spans[i] - radius, spans[i + 1] + radius);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * <p>Creates the spans of the area of the polygon using a scanline fill with an active edge table.</p>
+     * <p>The result contains the same pixels as {@link JavaPolygon2D#getAreaPoints()}: all pixels within the bounding
+     * box (right and bottom border exclusive), which are inside the polygon (even-odd rule) or on one of its lines.</p>
+     *
+     * @param polygon the polygon
+     * @return the spans of the polygon's area
+     */
+    public static ScanlineSpans fromPolygon(JavaPolygon2D polygon) {
+        JavaRectangle2D bb = polygon.getBoundingBox();
+        if (bb == null) {
+            return new ScanlineSpans(0, 0);
+        }
+        int minX = bb.getTopLeft().getIntX();
+        int maxX = bb.getBottomRight().getIntX() - 1;
+        ScanlineSpans res = new ScanlineSpans(bb.getTopLeft().getIntY(), bb.getBottomRight().getIntY());
+
+        List<JavaPoint2D> points = polygon.getPoints();
+        int n = points.size();
+        // edges as (x0, y0, x1, y1) sorted by the first row they are active in
+        List<double[]> edges = new ArrayList<>(n);
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            JavaPoint2D a = points.get(j);
+            JavaPoint2D b = points.get(i);
+            edges.add(new double[]{a.getX(), a.getY(), b.getX(), b.getY()});
+            addPixelsOnLine(res, a, b, minX, maxX);
+        }
+
+        if (n >= 3) {
+            // an edge crosses the row y iff min(y0, y1) <= y < max(y0, y1) (same rule as the even-odd test)
+            edges.removeIf(e -> e[1] == e[3]);
+            edges.sort(Comparator.comparingDouble(e -> Math.min(e[1], e[3])));
+            List<double[]> active = new ArrayList<>();
+            double[] crossings = new double[n];
+            int next = 0;
+            for (int y = res.startY; y < res.endY; y++) {
+                while (next < edges.size() && Math.ceil(Math.min(edges.get(next)[1], edges.get(next)[3])) <= y) {
+                    active.add(edges.get(next++));
+                }
+                final int row = y;
+                active.removeIf(e -> Math.max(e[1], e[3]) <= row);
+
+                int count = 0;
+                for (double[] e : active) {
+                    crossings[count++] = (e[2] - e[0]) * (y - e[1]) / (e[3] - e[1]) + e[0];
+                }
+                Arrays.sort(crossings, 0, count);
+                // a pixel x is inside, iff an odd number of crossings is right of it, i.e. c[2k] <= x < c[2k + 1]
+                for (int i = 0; i + 1 < count; i += 2) {
+                    int from = Math.max((int) Math.ceil(crossings[i]), minX);
+                    int to = Math.min((int) Math.ceil(crossings[i + 1]) - 1, maxX);
+                    res.add(y, from, to);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Adds all integer pixels, which are exactly on the line between a and b
+     */
+    private static void addPixelsOnLine(ScanlineSpans res, JavaPoint2D a, JavaPoint2D b, int minX, int maxX) {
+        double ax = a.getX();
+        double ay = a.getY();
+        double bx = b.getX();
+        double by = b.getY();
+        int fromY = Math.max((int) Math.ceil(Math.min(ay, by)), res.startY);
+        int toY = Math.min((int) Math.floor(Math.max(ay, by)), res.endY - 1);
+        for (int y = fromY; y <= toY; y++) {
+            if (ay == by) {
+                res.add(y, Math.max((int) Math.ceil(Math.min(ax, bx)), minX), Math.min((int) Math.floor(Math.max(ax, bx)), maxX));
+            } else {
+                double x = (bx - ax) * (y - ay) / (by - ay) + ax;
+                long rounded = Math.round(x);
+                // same tolerance as JavaLine2D.isPointOnLine
+                double cross = (y - ay) * (bx - ax) - (rounded - ax) * (by - ay);
+                if (Math.abs(cross) <= 0.000000001 && rounded >= minX && rounded <= maxX) {
+                    res.add(y, (int) rounded, (int) rounded);
+                }
+            }
+        }
+    }
+
+    private static int[] merge(int[] row, int size) {
+        long[] sorted = new long[size / 2];
+        for (int i = 0; i < size; i += 2) {
+            sorted[i / 2] = ((long) row[i] << 32) | (row[i + 1] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(sorted);
+
+        int[] res = new int[size];
+        int count = 0;
+        for (long span : sorted) {
+            int from = (int) (span >> 32);
+            int to = (int) span;
+            if (count > 0 && from <= res[count - 1] + 1) {
+                res[count - 1] = Math.max(res[count - 1], to);
+            } else {
+                res[count++] = from;
+                res[count++] = to;
+            }
+        }
+        return count == size ? res : Arrays.copyOf(res, count);
+    }
+}
@@ -13,9 +13,7 @@ import science.aist.imaging.api.domain.twodimensional.JavaLine2D;
 import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.core.imageprocessing.draw.AbstractDrawer;
-
-import java.util.HashSet;
-import java.util.Set;
+import science.aist.imaging.core.imageprocessing.draw.ScanlineSpans;
 
 /**
  * <p>Draw implementation for drawing a line</p>
@@ -26,8 +24,10 @@ import java.util.Set;
 public class DrawLine<I> extends AbstractDrawer<I, JavaLine2D> {
     @Override
     public void accept(ImageWrapper<I> iImageWrapper, JavaLine2D line) {
-        Set<JavaPoint2D> points = new HashSet<>(line.getBresenham());
-        addOffsetPoints(points, thickness);
-        drawPoints(iImageWrapper, points);
+        JavaPoint2D start = line.getStartPoint();
+        JavaPoint2D end = line.getEndPoint();
+        ScanlineSpans spans = new ScanlineSpans(Math.min(start.getIntY(), end.getIntY()), Math.max(start.getIntY(), end.getIntY()) + 1);
+        spans.addLine(start.getIntX(), start.getIntY(), end.getIntX(), end.getIntY());
+        drawSpans(iImageWrapper, spans);
     }
 }
@@ -14,9 +14,7 @@ import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.twodimensional.JavaPolygon2D;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.core.imageprocessing.draw.AbstractDrawer;
-
-import java.util.HashSet;
-import java.util.Set;
+import science.aist.imaging.core.imageprocessing.draw.ScanlineSpans;
 
 /**
  * <p>Draw implementation for drawing any polygon's outline</p>
@@ -27,12 +25,19 @@ import java.util.Set;
 public class DrawPolygon<I> extends AbstractDrawer<I, JavaPolygon2D> {
     @Override
     public void accept(ImageWrapper<I> iImageWrapper, JavaPolygon2D poly) {
-        Set<JavaPoint2D> bresenham = new HashSet<>();
-        for (JavaLine2D javaLine2D : poly.getContour()) {
-            bresenham.addAll(javaLine2D.getBresenham());
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (JavaPoint2D point : poly.getPoints()) {
+            minY = Math.min(minY, point.getIntY());
+            maxY = Math.max(maxY, point.getIntY());
         }
 
-        addOffsetPoints(bresenham, thickness);
-        drawPoints(iImageWrapper, bresenham);
+        ScanlineSpans spans = new ScanlineSpans(minY, maxY + 1);
+        for (JavaLine2D javaLine2D : poly.getContour()) {
+            JavaPoint2D start = javaLine2D.getStartPoint();
+            JavaPoint2D end = javaLine2D.getEndPoint();
+            spans.addLine(start.getIntX(), start.getIntY(), end.getIntX(), end.getIntY());
+        }
+        drawSpans(iImageWrapper, spans);
     }
 }
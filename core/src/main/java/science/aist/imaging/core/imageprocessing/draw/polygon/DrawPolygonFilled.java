@@ -9,13 +9,10 @@
 
 package science.aist.imaging.core.imageprocessing.draw.polygon;
 
-import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.twodimensional.JavaPolygon2D;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.core.imageprocessing.draw.AbstractDrawer;
-
-import java.util.HashSet;
-import java.util.Set;
+import science.aist.imaging.core.imageprocessing.draw.ScanlineSpans;
 
 /**
  * <p>Draw implementation for drawing any polygon filled</p>
@@ -26,8 +23,6 @@ import java.util.Set;
 public class DrawPolygonFilled<I> extends AbstractDrawer<I, JavaPolygon2D> {
     @Override
     public void accept(ImageWrapper<I> iImageWrapper, JavaPolygon2D poly) {
-        Set<JavaPoint2D> points = new HashSet<>(poly.getAreaPoints());
-        addOffsetPoints(points, thickness);
-        drawPoints(iImageWrapper, points);
+        drawSpans(iImageWrapper, ScanlineSpans.fromPolygon(poly));
     }
 }
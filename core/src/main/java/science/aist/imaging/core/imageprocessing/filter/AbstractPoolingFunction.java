@@ -9,6 +9,8 @@
 
 package science.aist.imaging.core.imageprocessing.filter;
 
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
@@ -20,11 +22,15 @@ import java.util.function.Function;
 
 /**
  * <p>Abstract Implementation of a pooling filter</p>
+ * <p>The neighborhood of every pixel is collected into a reused primitive array and passed to
+ * {@link AbstractPoolingFunction#pooling(double[], int)}. Pooling operations which can be evaluated with a sliding window
+ * (like max or min) should extend {@link AbstractSlidingWindowPoolingFunction} instead.</p>
  *
  * @author Christoph Praschl
  * @since 1.0
  */
 @RequiredArgsConstructor
+@Getter(AccessLevel.PROTECTED)
 public abstract class AbstractPoolingFunction<T, R> implements Function<ImageWrapper<T>, ImageWrapper<R>> {
     @NonNull
     protected ImageFactory<R> provider;
@@ -95,28 +101,61 @@ public abstract class AbstractPoolingFunction<T, R> implements Function<ImageWra
         int width = provide.getWidth();
         int height = provide.getHeight();
         int channels = provide.getChannels();
+        double[][] rows = readRows(wrapper);
 
         provide.applyColumnFunction((image, y) -> {
+            double[] values = new double[neighborhoodWidth * neighborhoodHeight];
+            int yFrom = Math.max(0, y - yRadius);
+            int yTo = Math.min(height - 1, y + yRadius);
             for (int x = 0; x < width; x += xStride) {
+                int xFrom = Math.max(0, x - xRadius);
+                int xTo = Math.min(width - 1, x + xRadius);
                 for (int c = 0; c < channels; c++) {
-                    List<Double> values = new ArrayList<>();
-                    for (int yOffset = -yRadius; yOffset <= yRadius; yOffset++) {
-                        for (int xOffset = -xRadius; xOffset <= xRadius; xOffset++) {
-                            int nbX = x + xOffset;
-                            int nbY = y + yOffset;
-                            if ((nbX >= 0) && (nbX < width) && (nbY >= 0) && (nbY < height)) {
-                                values.add(wrapper.getValue(nbX, nbY, c));
-                            } //range check
-                        } // xOffset
-                    } // yOffset
-                    double pooling = pooling(values);
-                    image.setValue(x, y, c, pooling);
+                    int count = 0;
+                    for (int nbY = yFrom; nbY <= yTo; nbY++) {
+                        double[] row = rows[nbY];
+                        for (int nbX = xFrom; nbX <= xTo; nbX++) {
+                            values[count++] = row[nbX * channels + c];
+                        }
+                    }
+                    image.setValue(x, y, c, pooling(values, count));
                 }
             }
         }, 0, wrapper.getHeight(), yStride, provide.supportsParallelAccess());
         return provide;
     }
 
+    /**
+     * Reads all rows of the given image
+     *
+     * @param wrapper the image
+     * @return the rows of the image with interleaved channels
+     */
+    protected static double[][] readRows(ImageWrapper<?> wrapper) {
+        double[][] rows = new double[wrapper.getHeight()][];
+        wrapper.applyColumnFunction((image, y) -> rows[y] = image.getTile(0, y, image.getWidth(), 1, null),
+                0, wrapper.getHeight(), 1, wrapper.supportsParallelAccess());
+        return rows;
+    }
+
+    /**
+     * Inner Function that is applied for all values in neighborhood.
+     * Per default the values are boxed and passed to {@link AbstractPoolingFunction#pooling(List)}. Implementations
+     * should override this method too, to avoid boxing every value.
+     *
+     * @param values used for pooling; only the first count elements are part of the neighborhood
+     * @param count  number of values in the neighborhood
+     * @return pooling result
+     * @since 2.1
+     */
+    protected double pooling(double[] values, int count) {
+        List<Double> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(values[i]);
+        }
+        return pooling(list);
+    }
+
     /**
      * Inner Function that is applied for all values in neighborhood
      *
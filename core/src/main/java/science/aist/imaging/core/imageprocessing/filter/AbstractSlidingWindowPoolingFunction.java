@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.filter;
+
+import lombok.NonNull;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+
+import java.util.List;
+
+/**
+ * <p>Abstract Implementation of a pooling filter for associative and idempotent operations like max or min.</p>
+ * <p>Such an operation can be split into a horizontal and a vertical pass, which are evaluated using the van
+ * Herk/Gil-Werman algorithm: The values are split into blocks of the neighborhood size and for every block the
+ * prefix and suffix results are calculated. Every window covers the suffix of one and the prefix of the next block,
+ * so the result is obtained with a constant number of operations per pixel, independent of the neighborhood size.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public abstract class AbstractSlidingWindowPoolingFunction<T, R> extends AbstractPoolingFunction<T, R> {
+    protected AbstractSlidingWindowPoolingFunction(@NonNull ImageFactory<R> provider) {
+        super(provider);
+    }
+
+    /**
+     * Combines two values (e.g. returns the maximum of the two values)
+     *
+     * @param a first value
+     * @param b second value
+     * @return the combined value
+     */
+    protected abstract double combine(double a, double b);
+
+    /**
+     * @return the neutral element of {@link AbstractSlidingWindowPoolingFunction#combine(double, double)}, which is used
+     * for positions outside of the image
+     */
+    protected abstract double identity();
+
+    @Override
+    protected double pooling(double[] values, int count) {
+        double res = identity();
+        for (int i = 0; i < count; i++) {
+            res = combine(res, values[i]);
+        }
+        return res;
+    }
+
+    @Override
+    protected double pooling(List<Double> values) {
+        double res = identity();
+        for (Double value : values) {
+            res = combine(res, value);
+        }
+        return res;
+    }
+
+    @Override
+    public ImageWrapper<R> apply(ImageWrapper<T> wrapper) {
+        ImageWrapper<R> provide = provider.getImage(wrapper.getHeight(), wrapper.getWidth(), wrapper.getChannelType());
+
+        int width = provide.getWidth();
+        int height = provide.getHeight();
+        int channels = provide.getChannels();
+        int rowLength = width * channels;
+        int xRadius = (getNeighborhoodWidth() - 1) / 2;
+        int yRadius = (getNeighborhoodHeight() - 1) / 2;
+        int xStride = getXStride();
+        double[][] rows = readRows(wrapper);
+
+        // horizontal pass for every row and channel
+        double[] horizontal = new double[height * rowLength];
+        PixelExecutor.forEachRow(0, height, 1, rowLength, true, y -> {
+            double[] buffer = new double[3 * (width + 2 * xRadius)];
+            for (int c = 0; c < channels; c++) {
+                slide(rows[y], c, channels, width, xRadius, horizontal, y * rowLength + c, channels, buffer);
+            }
+        });
+
+        // vertical pass for every column and channel
+        double[] result = new double[height * rowLength];
+        PixelExecutor.forEachRow(0, rowLength, 1, height, true, i -> {
+            double[] buffer = new double[3 * (height + 2 * yRadius)];
+            double[] column = new double[height];
+            for (int y = 0; y < height; y++) {
+                column[y] = horizontal[y * rowLength + i];
+            }
+            slide(column, 0, 1, height, yRadius, result, i, rowLength, buffer);
+        });
+
+        provide.applyColumnFunction((image, y) -> {
+            if (xStride == 1) {
+                double[] row = new double[rowLength];
+                System.arraycopy(result, y * rowLength, row, 0, rowLength);
+                image.setTile(0, y, width, 1, row);
+            } else {
+                for (int x = 0; x < width; x += xStride) {
+                    for (int c = 0; c < channels; c++) {
+                        image.setValue(x, y, c, result[y * rowLength + x * channels + c]);
+                    }
+                }
+            }
+        }, 0, height, getYStride(), provide.supportsParallelAccess());
+        return provide;
+    }
+
+    /**
+     * Calculates the sliding window result of length values using the van Herk/Gil-Werman algorithm
+     *
+     * @param src       the source values
+     * @param srcOffset index of the first value in src
+     * @param srcStep   distance between two values in src
+     * @param length    number of values
+     * @param radius    radius of the window
+     * @param dst       array the results are written to
+     * @param dstOffset index of the first result in dst
+     * @param dstStep   distance between two results in dst
+     * @param buffer    working memory with at least 3 * (length + 2 * radius) elements
+     */
+    private void slide(double[] src, int srcOffset, int srcStep, int length, int radius, double[] dst, int dstOffset, int dstStep, double[] buffer) {
+        int size = 2 * radius + 1;
+        int padded = length + 2 * radius;
+        int prefix = padded;
+        int suffix = 2 * padded;
+        double identity = identity();
+
+        // pad the values with the identity, so windows at the border only cover values inside of the image
+        for (int i = 0; i < padded; i++) {
+            int pos = i - radius;
+            buffer[i] = pos >= 0 && pos < length ? src[srcOffset + pos * srcStep] : identity;
+        }
+
+        for (int blockStart = 0; blockStart < padded; blockStart += size) {
+            int blockEnd = Math.min(blockStart + size, padded) - 1;
+            buffer[prefix + blockStart] = buffer[blockStart];
+            for (int i = blockStart + 1; i <= blockEnd; i++) {
+                buffer[prefix + i] = combine(buffer[prefix + i - 1], buffer[i]);
+            }
+            buffer[suffix + blockEnd] = buffer[blockEnd];
+            for (int i = blockEnd - 1; i >= blockStart; i--) {
+                buffer[suffix + i] = combine(buffer[suffix + i + 1], buffer[i]);
+            }
+        }
+
+        // the window of value i covers the padded positions i to i + size - 1
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i * dstStep] = combine(buffer[suffix + i], buffer[prefix + i + size - 1]);
+        }
+    }
+}
@@ -14,11 +14,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
 
+import java.util.Arrays;
 import java.util.function.BiFunction;
 
 /**
  * <p>Applies a given kernel to the given image wrapper. kernel y-coordinate is the first array, and x the second. access via: kernel[y][x]</p>
+ * <p>Depending on the kernel one of the following strategies is used:</p>
+ * <ul>
+ *     <li>Kernels where all elements are equal (box or mean kernels) are evaluated using running column and row sums,
+ *     which results in a constant effort per pixel independent of the kernel size.</li>
+ *     <li>Separable kernels (i.e. the kernel is the outer product of a vertical and a horizontal vector, like gauss or
+ *     sobel kernels) are evaluated with two one dimensional passes, which reduces the effort per pixel from O(r²) to
+ *     O(r). Such kernels can also be given directly using {@link ConvolveFunction#apply(ImageWrapper, double[], double[])}.</li>
+ *     <li>All other kernels are evaluated directly.</li>
+ * </ul>
+ * <p>All channels of the image are convolved independently within one pass over the neighbourhood of a pixel.</p>
+ * <p>The image is processed in bands of rows. Every band streams the source rows through a ring buffer of kernel
+ * height and writes every result row as soon as it is calculated, so the memory only depends on the kernel height and
+ * the image width.</p>
+ * <p>Pixels outside of the image are ignored, so if normalize is active the border pixels are normalized using the
+ * sum of the kernel elements which are inside the image.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -26,6 +43,15 @@ import java.util.function.BiFunction;
 @Setter
 @RequiredArgsConstructor
 public class ConvolveFunction<T, R> implements BiFunction<ImageWrapper<T>, double[][], ImageWrapper<R>> {
+    /**
+     * Relative tolerance used to decide if a kernel is separable
+     */
+    private static final double SEPARABLE_EPSILON = 1e-12;
+    /**
+     * Number of bands per thread of the {@link PixelExecutor}
+     */
+    private static final int BANDS_PER_THREAD = 4;
+
     private boolean normalize = true;
 
     private int numberOfIterations = 1;
@@ -34,41 +60,362 @@ public class ConvolveFunction<T, R> implements BiFunction<ImageWrapper<T>, doubl
     private ImageFactory<R> provider;
 
     private ImageWrapper<R> innerApply(ImageWrapper<?> imageWrapper, double[][] kernel) {
+        int yRadius = (kernel.length - 1) / 2;
+        int xRadius = (kernel[0].length - 1) / 2;
+        for (int y = 0; y <= 2 * yRadius; y++) {
+            if ((kernel[y].length - 1) / 2 != xRadius) {
+                return directApply(imageWrapper, kernel);
+            }
+        }
+
+        if (isConstant(kernel, xRadius, yRadius)) {
+            return boxApply(imageWrapper, xRadius, yRadius, kernel[0][0]);
+        }
+
+        double[][] factors = separate(kernel, xRadius, yRadius);
+        if (factors != null) {
+            return separableApply(imageWrapper, factors[0], factors[1]);
+        }
+        return directApply(imageWrapper, kernel);
+    }
+
+    /**
+     * Evaluates the kernel directly. The part of the kernel that lies inside the image is calculated once per pixel, so
+     * the inner loops do not need any range checks.
+     *
+     * @param imageWrapper the image
+     * @param kernel       the kernel
+     * @return the convolved image
+     */
+    private ImageWrapper<R> directApply(ImageWrapper<?> imageWrapper, double[][] kernel) {
         int height = imageWrapper.getHeight();
         int width = imageWrapper.getWidth();
         int channels = imageWrapper.getChannels();
-        ImageWrapper<R> resultWrapper = provider.getImage(height, width, imageWrapper.getChannelType());
+        int yRadius = (kernel.length - 1) / 2;
+        int maxXRadius = 0;
+        double kernelSum = 0.0;
+        for (int yOffset = -yRadius; yOffset <= yRadius; yOffset++) {
+            double[] kernelRow = kernel[yOffset + yRadius];
+            int xRadius = (kernelRow.length - 1) / 2;
+            maxXRadius = Math.max(maxXRadius, xRadius);
+            for (int xOffset = -xRadius; xOffset <= xRadius; xOffset++) {
+                kernelSum += kernelRow[xOffset + xRadius];
+            }
+        }
+        int borderX = maxXRadius;
+        double totalSum = kernelSum;
 
-        resultWrapper.applyColumnFunction((image, y) -> {
-            for (int x = 0; x < width; x++) {
-                for (int c = 0; c < channels; c++) {
-                    double sum = 0.0;
+        return inBands(imageWrapper, (result, from, to) -> {
+            RowRing src = new RowRing(imageWrapper, kernel.length, null);
+            src.loadRange(from - yRadius, from + yRadius - 1);
+            double[] dstRow = new double[width * channels];
+            double[] sums = new double[channels];
+            for (int y = from; y < to; y++) {
+                src.loadRange(y + yRadius, y + yRadius);
+                int yFrom = Math.max(-yRadius, -y);
+                int yTo = Math.min(yRadius, height - 1 - y);
+                for (int x = 0; x < width; x++) {
+                    boolean inside = yFrom == -yRadius && yTo == yRadius && x >= borderX && x < width - borderX;
+                    Arrays.fill(sums, 0.0);
                     double maskSum = 0.0;
-                    int yRadius = (kernel.length - 1) / 2;
-                    for (int yOffset = -yRadius; yOffset <= yRadius; yOffset++) {
-                        int xRadius = (kernel[yOffset + yRadius].length - 1) / 2;
-                        for (int xOffset = -xRadius; xOffset <= xRadius; xOffset++) {
-                            int nbX = x + xOffset;
-                            int nbY = y + yOffset;
-                            if ((nbX >= 0) && (nbX < width) && (nbY >= 0) && (nbY < height)) {
-                                sum += imageWrapper.getValue(nbX, nbY, 0) * kernel[yOffset + yRadius][xOffset + xRadius];
-                                maskSum += kernel[yOffset + yRadius][xOffset + xRadius];
-                            } //range check
-                        } // xOffset
-                    } // yOffset
-                    if (normalize) {
-                        if (maskSum == 0) {
-                            throw new IllegalStateException("KernelSum is 0 but normalizing is active");
+                    for (int yOffset = yFrom; yOffset <= yTo; yOffset++) {
+                        double[] kernelRow = kernel[yOffset + yRadius];
+                        double[] srcRow = src.get(y + yOffset);
+                        int xRadius = (kernelRow.length - 1) / 2;
+                        int xFrom = Math.max(-xRadius, -x);
+                        int xTo = Math.min(xRadius, width - 1 - x);
+                        for (int xOffset = xFrom; xOffset <= xTo; xOffset++) {
+                            double weight = kernelRow[xOffset + xRadius];
+                            int idx = (x + xOffset) * channels;
+                            for (int c = 0; c < channels; c++) {
+                                sums[c] += srcRow[idx + c] * weight;
+                            }
+                            if (normalize && !inside) {
+                                maskSum += weight;
+                            }
                         }
-                        sum *= 1.0 / maskSum;
-                    } // normalize
+                    }
+                    for (int c = 0; c < channels; c++) {
+                        dstRow[x * channels + c] = normalize(sums[c], inside ? totalSum : maskSum);
+                    }
+                }
+                result.setTile(0, y, width, 1, dstRow);
+            }
+        });
+    }
+
+    /**
+     * Evaluates a kernel with equal elements using running sums: the sums of the columns within the vertical window are
+     * updated by adding the row entering and subtracting the row leaving the window, and the sum of the horizontal
+     * window is taken from the prefix sums of these column sums.
+     *
+     * @param imageWrapper the image
+     * @param xRadius      horizontal radius of the kernel
+     * @param yRadius      vertical radius of the kernel
+     * @param value        the value of all kernel elements
+     * @return the convolved image
+     */
+    private ImageWrapper<R> boxApply(ImageWrapper<?> imageWrapper, int xRadius, int yRadius, double value) {
+        int height = imageWrapper.getHeight();
+        int width = imageWrapper.getWidth();
+        int channels = imageWrapper.getChannels();
+
+        return inBands(imageWrapper, (result, from, to) -> {
+            RowRing src = new RowRing(imageWrapper, 2 * yRadius + 1, null);
+            double[] columnSums = new double[width * channels];
+            for (int y = Math.max(0, from - yRadius); y <= Math.min(height - 1, from + yRadius - 1); y++) {
+                add(columnSums, src.load(y), 1.0);
+            }
+            // prefix[(x + 1) * channels + c] contains the sum of channel c of the column sums 0 to x
+            double[] prefix = new double[(width + 1) * channels];
+            double[] dstRow = new double[width * channels];
+            for (int y = from; y < to; y++) {
+                if (y > from && y - yRadius - 1 >= 0) {
+                    // the leaving row is removed before its slot is reused by the entering row
+                    add(columnSums, src.get(y - yRadius - 1), -1.0);
+                }
+                if (y + yRadius < height) {
+                    add(columnSums, src.load(y + yRadius), 1.0);
+                }
+                for (int i = 0; i < columnSums.length; i++) {
+                    prefix[i + channels] = prefix[i] + columnSums[i];
+                }
+
+                int y0 = Math.max(0, y - yRadius);
+                int y1 = Math.min(height - 1, y + yRadius) + 1;
+                for (int x = 0; x < width; x++) {
+                    int x0 = Math.max(0, x - xRadius);
+                    int x1 = Math.min(width - 1, x + xRadius) + 1;
+                    double maskSum = value * (x1 - x0) * (y1 - y0);
+                    for (int c = 0; c < channels; c++) {
+                        double sum = prefix[x1 * channels + c] - prefix[x0 * channels + c];
+                        dstRow[x * channels + c] = normalize(sum * value, maskSum);
+                    }
+                }
+                result.setTile(0, y, width, 1, dstRow);
+            }
+        });
+    }
+
+    private static void add(double[] sums, double[] row, double factor) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += row[i] * factor;
+        }
+    }
+
+    /**
+     * Evaluates a separable kernel with two one dimensional passes. The horizontal pass is applied to every row as soon
+     * as it is read, so only the rows of the vertical window are kept.
+     *
+     * @param imageWrapper the image
+     * @param kernelX      horizontal kernel
+     * @param kernelY      vertical kernel
+     * @return the convolved image
+     */
+    private ImageWrapper<R> separableApply(ImageWrapper<?> imageWrapper, double[] kernelX, double[] kernelY) {
+        int height = imageWrapper.getHeight();
+        int width = imageWrapper.getWidth();
+        int channels = imageWrapper.getChannels();
+        int yRadius = (kernelY.length - 1) / 2;
+        // sum of the kernel elements inside of the image only depends on the x respectively y coordinate
+        double[] xSums = partialSums(kernelX, width);
+        double[] ySums = partialSums(kernelY, height);
+
+        return inBands(imageWrapper, (result, from, to) -> {
+            RowRing horizontal = new RowRing(imageWrapper, kernelY.length, kernelX);
+            horizontal.loadRange(from - yRadius, from + yRadius - 1);
+            double[] dstRow = new double[width * channels];
+            for (int y = from; y < to; y++) {
+                horizontal.loadRange(y + yRadius, y + yRadius);
+                int yFrom = Math.max(-yRadius, -y);
+                int yTo = Math.min(yRadius, height - 1 - y);
+                Arrays.fill(dstRow, 0.0);
+                for (int offset = yFrom; offset <= yTo; offset++) {
+                    add(dstRow, horizontal.get(y + offset), kernelY[offset + yRadius]);
+                }
+                for (int x = 0; x < width; x++) {
+                    double maskSum = xSums[x] * ySums[y];
+                    for (int c = 0; c < channels; c++) {
+                        dstRow[x * channels + c] = normalize(dstRow[x * channels + c], maskSum);
+                    }
+                }
+                result.setTile(0, y, width, 1, dstRow);
+            }
+        });
+    }
+
+    /**
+     * Calculates for every position along an image axis the sum of the kernel elements which lie inside the image
+     *
+     * @param kernel one dimensional kernel
+     * @param length length of the image axis
+     * @return the sums for every position
+     */
+    private static double[] partialSums(double[] kernel, int length) {
+        int radius = (kernel.length - 1) / 2;
+        double[] sums = new double[length];
+        for (int i = 0; i < length; i++) {
+            for (int offset = Math.max(-radius, -i); offset <= Math.min(radius, length - 1 - i); offset++) {
+                sums[i] += kernel[offset + radius];
+            }
+        }
+        return sums;
+    }
+
+    private double normalize(double sum, double maskSum) {
+        if (normalize) {
+            if (maskSum == 0) {
+                throw new IllegalStateException("KernelSum is 0 but normalizing is active");
+            }
+            return sum * (1.0 / maskSum);
+        }
+        return sum;
+    }
+
+    private static boolean isConstant(double[][] kernel, int xRadius, int yRadius) {
+        double value = kernel[0][0];
+        for (int y = 0; y <= 2 * yRadius; y++) {
+            for (int x = 0; x <= 2 * xRadius; x++) {
+                if (Double.compare(kernel[y][x], value) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tries to split the kernel into a horizontal and a vertical kernel, whose outer product is the given kernel
+     *
+     * @param kernel  the kernel
+     * @param xRadius horizontal radius of the kernel
+     * @param yRadius vertical radius of the kernel
+     * @return the horizontal kernel at index 0 and the vertical kernel at index 1 or null if the kernel is not separable
+     */
+    private static double[][] separate(double[][] kernel, int xRadius, int yRadius) {
+        int pivotX = 0;
+        int pivotY = 0;
+        double max = 0.0;
+        for (int y = 0; y <= 2 * yRadius; y++) {
+            for (int x = 0; x <= 2 * xRadius; x++) {
+                if (Math.abs(kernel[y][x]) > max) {
+                    max = Math.abs(kernel[y][x]);
+                    pivotX = x;
+                    pivotY = y;
+                }
+            }
+        }
+        if (max == 0.0) {
+            return null;
+        }
+
+        double[] kernelX = new double[2 * xRadius + 1];
+        double[] kernelY = new double[2 * yRadius + 1];
+        System.arraycopy(kernel[pivotY], 0, kernelX, 0, kernelX.length);
+        for (int y = 0; y < kernelY.length; y++) {
+            kernelY[y] = kernel[y][pivotX] / kernel[pivotY][pivotX];
+        }
+        for (int y = 0; y < kernelY.length; y++) {
+            for (int x = 0; x < kernelX.length; x++) {
+                if (Math.abs(kernel[y][x] - kernelY[y] * kernelX[x]) > SEPARABLE_EPSILON * max) {
+                    return null;
+                }
+            }
+        }
+        return new double[][]{kernelX, kernelY};
+    }
+
+    /**
+     * Creates the result image and lets the given function fill it band by band. The bands are processed in parallel,
+     * if both images support parallel access.
+     *
+     * @param imageWrapper the source image which defines the size and channel type of the result
+     * @param function     function which sets the rows [from, to) of the result
+     * @return the result image
+     */
+    private ImageWrapper<R> inBands(ImageWrapper<?> imageWrapper, BandFunction<R> function) {
+        int height = imageWrapper.getHeight();
+        ImageWrapper<R> result = provider.getImage(height, imageWrapper.getWidth(), imageWrapper.getChannelType());
+        long samples = (long) height * imageWrapper.getWidth() * imageWrapper.getChannels();
+        boolean parallel = imageWrapper.supportsParallelAccess() && result.supportsParallelAccess()
+                && samples >= PixelExecutor.getSerialThreshold();
+        // every band reads the rows around its borders again, so only a few bands per thread are used
+        int bands = parallel ? Math.max(1, Math.min(height, PixelExecutor.getParallelism() * BANDS_PER_THREAD)) : 1;
+        PixelExecutor.forEachTask(bands, parallel, band ->
+                function.apply(result, (int) ((long) height * band / bands), (int) ((long) height * (band + 1) / bands)));
+        return result;
+    }
+
+    /**
+     * Function which sets the rows of a band of the result image
+     */
+    @FunctionalInterface
+    private interface BandFunction<R> {
+        /**
+         * @param result the result image
+         * @param from   first row of the band
+         * @param to     end row of the band (exclusive)
+         */
+        void apply(ImageWrapper<R> result, int from, int to);
+    }
+
+    /**
+     * Ring buffer of the rows of a vertical window of the source image with interleaved channels. Row y is stored in
+     * the slot y % size, so the buffer keeps the last size rows which were loaded. If a horizontal kernel is given,
+     * the rows are convolved with it as soon as they are read.
+     */
+    private static final class RowRing {
+        private final ImageWrapper<?> image;
+        private final double[][] rows;
+        private final double[] kernelX;
+        private final double[] src;
+
+        private RowRing(ImageWrapper<?> image, int size, double[] kernelX) {
+            this.image = image;
+            int rowLength = image.getWidth() * image.getChannels();
+            this.rows = new double[size][rowLength];
+            this.kernelX = kernelX;
+            this.src = kernelX == null ? null : new double[rowLength];
+        }
+
+        /**
+         * Loads the rows from to to (inclusive), which are within the image
+         */
+        private void loadRange(int from, int to) {
+            for (int y = Math.max(0, from); y <= Math.min(image.getHeight() - 1, to); y++) {
+                load(y);
+            }
+        }
 
-                    image.setValue(x, y, c, sum);
+        private double[] load(int y) {
+            double[] row = rows[y % rows.length];
+            int width = image.getWidth();
+            if (kernelX == null) {
+                return image.getTile(0, y, width, 1, row);
+            }
+
+            image.getTile(0, y, width, 1, src);
+            int channels = image.getChannels();
+            int xRadius = (kernelX.length - 1) / 2;
+            Arrays.fill(row, 0.0);
+            for (int x = 0; x < width; x++) {
+                int from = Math.max(-xRadius, -x);
+                int to = Math.min(xRadius, width - 1 - x);
+                int idx = x * channels;
+                for (int offset = from; offset <= to; offset++) {
+                    double weight = kernelX[offset + xRadius];
+                    int srcIdx = (x + offset) * channels;
+                    for (int c = 0; c < channels; c++) {
+                        row[idx + c] += src[srcIdx + c] * weight;
+                    }
                 }
-            } // x
-        }, 0, imageWrapper.getHeight(), 1, imageWrapper.supportsParallelAccess());
+            }
+            return row;
+        }
 
-        return resultWrapper;
+        private double[] get(int y) {
+            return rows[y % rows.length];
+        }
     }
 
     @Override
@@ -79,4 +426,21 @@ public class ConvolveFunction<T, R> implements BiFunction<ImageWrapper<T>, doubl
         }
         return returnImg;
     }
+
+    /**
+     * Applies the separable kernel, which is given by the outer product of kernelY and kernelX, using two one
+     * dimensional passes.
+     *
+     * @param imageWrapper the image
+     * @param kernelX      horizontal kernel
+     * @param kernelY      vertical kernel
+     * @return the convolved image
+     */
+    public ImageWrapper<R> apply(ImageWrapper<T> imageWrapper, double[] kernelX, double[] kernelY) {
+        ImageWrapper<R> returnImg = separableApply(imageWrapper, kernelX, kernelY);
+        for (int i = 1; i < numberOfIterations; i++) {
+            returnImg = separableApply(returnImg, kernelX, kernelY);
+        }
+        return returnImg;
+    }
 }
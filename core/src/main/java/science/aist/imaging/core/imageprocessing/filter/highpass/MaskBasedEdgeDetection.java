@@ -22,7 +22,6 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * <p>Generic implementation of edge detection for mask based edge detection operators</p>
@@ -56,7 +55,7 @@ public class MaskBasedEdgeDetection<T, R> implements ImageFunction<T, R> {
         ImageWrapper<R> resultWrapper = provider.getImage(height, width, ChannelType.GREYSCALE);
 
         final AtomicLong maxGradient = new AtomicLong(0);
-        IntStream.range(0, height).parallel().forEach(y -> {
+        resultWrapper.applyColumnFunction((image, y) -> {
             for (int x = 0; x < width; x++) {
                 final int innerY = y;
                 final int innerX = x;
@@ -71,19 +70,19 @@ public class MaskBasedEdgeDetection<T, R> implements ImageFunction<T, R> {
                         maxGradient.set(Double.doubleToLongBits(resultWrapper.getValue(x, y, 0)));
                 }
             }
-        });
+        }, 0, height, 1, resultWrapper.supportsParallelAccess());
 
         if (MathUtils.equals(Double.longBitsToDouble(maxGradient.get()), 0.0))
             throw new IllegalStateException("Max gradient is zero!");
 
         double normFactor = 255.0 / Double.longBitsToDouble(maxGradient.get());
 
-        IntStream.range(0, height).parallel().forEach(y -> {
+        resultWrapper.applyColumnFunction((image, y) -> {
             for (int x = 0; x < width; x++) {
                 double value = resultWrapper.getValue(x, y, 0);
                 resultWrapper.setValue(x, y, 0, value * normFactor);
             }
-        });
+        }, 0, height, 1, resultWrapper.supportsParallelAccess());
 
         return resultWrapper;
     }
@@ -21,6 +21,8 @@ import java.util.function.BiFunction;
 
 /**
  * <p>Implementation of a gauss filter</p>
+ * <p>If the default {@link ConvolveFunction} is used, the filter is applied as two one dimensional gauss kernels,
+ * which reduces the effort per pixel from O(radius²) to O(radius).</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -37,10 +39,37 @@ public class GaussFilterFunction<T, R> implements ImageFunction<T, R> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public ImageWrapper<R> apply(ImageWrapper<T> imageWrapper) {
+        if (convolveFunction instanceof ConvolveFunction) {
+            double[] kernel = gaussKernel1D();
+            return ((ConvolveFunction<T, R>) convolveFunction).apply(imageWrapper, kernel, kernel);
+        }
         return convolveFunction.apply(imageWrapper, gaussKernel());
     }
 
+    /**
+     * Creates a normalized one dimensional gauss kernel. As the two dimensional gauss function is the product of two
+     * one dimensional ones, the outer product of this kernel with itself is equal to {@link GaussFilterFunction#gaussKernel()}.
+     *
+     * @return the one dimensional kernel
+     */
+    private double[] gaussKernel1D() {
+        double[] kernel = new double[2 * radius + 1];
+        double sum = 0;
+        for (int x = -radius; x <= radius; x++) {
+            kernel[x + radius] = Math.exp(-((x * x) / (2.0 * sigma * sigma)));
+            sum += kernel[x + radius];
+        }
+
+        if (sum == 0) throw new IllegalStateException("Kernel sum is not allowed to be zero!");
+
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] *= 1.0 / sum;
+        }
+        return kernel;
+    }
+
     private double[][] gaussKernel() {
         int size = 2 * radius + 1;
         double sum = 0;
@@ -11,9 +11,7 @@ package science.aist.imaging.core.imageprocessing.filter.pooling;
 
 import lombok.NonNull;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
-import science.aist.imaging.core.imageprocessing.filter.AbstractPoolingFunction;
-
-import java.util.List;
+import science.aist.imaging.core.imageprocessing.filter.AbstractSlidingWindowPoolingFunction;
 
 /**
  * <p>Implementation of a max pooling filter</p>
@@ -21,14 +19,18 @@ import java.util.List;
  * @author Christoph Praschl
  * @since 1.0
  */
-public class MaxPoolingFunction<T, R> extends AbstractPoolingFunction<T, R> {
+public class MaxPoolingFunction<T, R> extends AbstractSlidingWindowPoolingFunction<T, R> {
     public MaxPoolingFunction(@NonNull ImageFactory<R> provider) {
         super(provider);
     }
 
-    @SuppressWarnings({"OptionalGetWithoutIsPresent", "java:S3655"})
     @Override
-    protected double pooling(List<Double> values) {
-        return values.stream().max(Double::compareTo).get();
+    protected double combine(double a, double b) {
+        return Math.max(a, b);
+    }
+
+    @Override
+    protected double identity() {
+        return Double.NEGATIVE_INFINITY;
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.filter.pooling;
+
+import lombok.NonNull;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.core.imageprocessing.filter.AbstractSlidingWindowPoolingFunction;
+
+/**
+ * <p>Implementation of a min pooling filter</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class MinPoolingFunction<T, R> extends AbstractSlidingWindowPoolingFunction<T, R> {
+    public MinPoolingFunction(@NonNull ImageFactory<R> provider) {
+        super(provider);
+    }
+
+    @Override
+    protected double combine(double a, double b) {
+        return Math.min(a, b);
+    }
+
+    @Override
+    protected double identity() {
+        return Double.POSITIVE_INFINITY;
+    }
+}
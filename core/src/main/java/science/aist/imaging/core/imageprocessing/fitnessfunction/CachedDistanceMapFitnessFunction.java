@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.fitnessfunction;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import science.aist.imaging.api.domain.offset.RotationOffset;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.fitnessfunction.AbstractFitnessFunction;
+import science.aist.imaging.api.typecheck.TypeChecker;
+import science.aist.imaging.core.imageprocessing.distance.AbstractDistanceMapFunction;
+import science.aist.imaging.core.imageprocessing.distance.EuclideanDistanceMapFunction;
+
+import java.util.Arrays;
+
+/**
+ * <p>Stateful distance map based fitness function (chamfer matching).</p>
+ * <p>In contrast to the {@link DistanceMapFitnessFunction} the distance map of the fixed reference image and the
+ * contour points of the moving image are calculated only once in
+ * {@link CachedDistanceMapFitnessFunction#prepare(ImageWrapper, ImageWrapper)} and kept in primitive buffers. A pose is
+ * scored by transforming the contour points of the moving image and summing up the squared distances sampled from the
+ * cached distance map at these positions, so one evaluation is linear in the number of contour points instead of the
+ * number of pixels.</p>
+ * <p>Only the images passed to {@link CachedDistanceMapFitnessFunction#prepare(ImageWrapper, ImageWrapper)} are
+ * cached, so after the content of one of them is modified in place, prepare must be called again. Any other image is
+ * evaluated without a cache.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class CachedDistanceMapFitnessFunction extends AbstractFitnessFunction implements PoseFitnessFunction {
+    private static final TypeChecker typeChecker = new TypeChecker(ChannelType.BINARY);
+
+    private final AbstractDistanceMapFunction<?> distanceMapFunction;
+
+    private volatile Prepared prepared;
+
+    public CachedDistanceMapFitnessFunction(@NonNull AbstractDistanceMapFunction<?> distanceMapFunction) {
+        this.distanceMapFunction = distanceMapFunction;
+        this.isLowerErrorValueBetter = true;
+    }
+
+    /**
+     * Calculates the distance map of the reference image and the contour points of the moving image, which are used
+     * by all following evaluations of these two images
+     *
+     * @param reference the fixed reference image
+     * @param moving    the moving image
+     */
+    @Override
+    public void prepare(@NonNull ImageWrapper<?> reference, @NonNull ImageWrapper<?> moving) {
+        typeChecker.accept(reference);
+        typeChecker.accept(moving);
+        prepared = new Prepared(new ReferenceCache(reference, distanceMapFunction),
+                new ContourCache(moving, distanceMapFunction.getContourColour()));
+    }
+
+    @Override
+    protected double applyFitness(ImageWrapper<?> imageWrapper, ImageWrapper<?> imageWrapper2, int startX, int startY, int endX, int endY, int channels) {
+        if (channels != 1) {
+            throw new IllegalArgumentException("The distance map is only calculated for a single channel, but " + channels + " channels are requested");
+        }
+        return score(getReferenceCache(imageWrapper), getContourCache(imageWrapper2), 0, 0, 0, startX, startY, endX, endY);
+    }
+
+    @Override
+    public double applyAsDouble(ImageWrapper<?> reference, ImageWrapper<?> moving, RotationOffset pose) {
+        ReferenceCache ref = getReferenceCache(reference);
+        return score(ref, getContourCache(moving), pose.getXOffset(), pose.getYOffset(), pose.getRotationalOffset(), 0, 0, ref.width, ref.height);
+    }
+
+    @Override
+    public double getBestPossibleError() {
+        return 0.0;
+    }
+
+    /**
+     * Sums up the squared distances of the transformed contour points of the moving image, which are located in the
+     * given region. Points that are transformed outside of the reference image are penalized with the largest
+     * distance of the distance map.
+     */
+    private static double score(ReferenceCache ref, ContourCache contour, double transX, double transY, double rotAngle,
+                                int startX, int startY, int endX, int endY) {
+        // inverse of the mapping used by the TransformFunction, which rotates around the center of the moving image
+        double midX = contour.width / 2.0;
+        double midY = contour.height / 2.0;
+        double radAngle = -rotAngle * Math.PI / 180.0;
+        double cosTheta = Math.cos(radAngle);
+        double sinTheta = Math.sin(radAngle);
+
+        double totalError = 0.0;
+        double[] points = contour.points;
+        for (int i = 0; i < points.length; i += 2) {
+            if (points[i] < startX || points[i + 1] < startY || points[i] >= endX || points[i + 1] >= endY) {
+                continue;
+            }
+            double posX = points[i] + transX - midX;
+            double posY = points[i + 1] + transY - midY;
+            double x = posX * cosTheta - posY * sinTheta + midX;
+            double y = posX * sinTheta + posY * cosTheta + midY;
+            if (x < -0.5 || y < -0.5 || x >= ref.width - 0.5 || y >= ref.height - 0.5) {
+                totalError += ref.outside;
+                continue;
+            }
+            double distance = ref.sample(x, y);
+            totalError += distance * distance;
+        }
+        return totalError;
+    }
+
+    private ReferenceCache getReferenceCache(ImageWrapper<?> reference) {
+        Prepared current = prepared;
+        if (current != null && current.reference.image == reference) {
+            return current.reference;
+        }
+        typeChecker.accept(reference);
+        return new ReferenceCache(reference, distanceMapFunction);
+    }
+
+    private ContourCache getContourCache(ImageWrapper<?> moving) {
+        Prepared current = prepared;
+        if (current != null && current.contour.image == moving) {
+            return current.contour;
+        }
+        typeChecker.accept(moving);
+        return new ContourCache(moving, distanceMapFunction.getContourColour());
+    }
+
+    /**
+     * Caches of the images passed to {@link CachedDistanceMapFitnessFunction#prepare(ImageWrapper, ImageWrapper)}
+     */
+    @RequiredArgsConstructor
+    private static final class Prepared {
+        private final ReferenceCache reference;
+        private final ContourCache contour;
+    }
+
+    /**
+     * Distance map of the reference image as flat row-major array
+     */
+    private static final class ReferenceCache {
+        private final ImageWrapper<?> image;
+        private final int width;
+        private final int height;
+        private final double[] distances;
+        private final double outside;
+
+        private ReferenceCache(ImageWrapper<?> image, AbstractDistanceMapFunction<?> distanceMapFunction) {
+            this.image = image;
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.distances = new double[width * height];
+
+            if (distanceMapFunction instanceof EuclideanDistanceMapFunction) {
+                double[] squared = ((EuclideanDistanceMapFunction<?>) distanceMapFunction).computeDistanceMap(image).getSquaredDistances();
+                for (int i = 0; i < squared.length; i++) {
+                    distances[i] = squared[i] == Double.MAX_VALUE ? squared[i] : Math.sqrt(squared[i]);
+                }
+            } else {
+                ImageWrapper<?> distanceMap = distanceMapFunction.apply(image);
+                distanceMap.applyColumnFunction((img, y) -> System.arraycopy(img.getRow(y, 0, null), 0, distances, y * width, width),
+                        0, height, 1, distanceMap.supportsParallelAccess());
+            }
+
+            double max = 0;
+            for (double distance : distances) {
+                if (distance != Double.MAX_VALUE && distance > max) {
+                    max = distance;
+                }
+            }
+            this.outside = max * max;
+        }
+
+        /**
+         * Bilinear interpolation of the distance map; the position must be within [-0.5, width - 0.5)
+         */
+        private double sample(double x, double y) {
+            double fx = Math.min(Math.max(x, 0), width - 1);
+            double fy = Math.min(Math.max(y, 0), height - 1);
+            int x1 = (int) fx;
+            int y1 = (int) fy;
+            int x2 = Math.min(x1 + 1, width - 1);
+            int y2 = Math.min(y1 + 1, height - 1);
+            double interX = fx - x1;
+            double interY = fy - y1;
+            double val1 = distances[y1 * width + x1] * (1.0 - interX) + distances[y1 * width + x2] * interX;
+            double val2 = distances[y2 * width + x1] * (1.0 - interX) + distances[y2 * width + x2] * interX;
+            return val1 * (1.0 - interY) + val2 * interY;
+        }
+    }
+
+    /**
+     * Contour points of the moving image stored as (x, y) pairs
+     */
+    private static final class ContourCache {
+        private final ImageWrapper<?> image;
+        private final int width;
+        private final int height;
+        private final double[] points;
+
+        private ContourCache(ImageWrapper<?> image, double contourColour) {
+            this.image = image;
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            double[] res = new double[32];
+            int size = 0;
+            double[] row = new double[width];
+            for (int y = 0; y < height; y++) {
+                image.getRow(y, 0, row);
+                for (int x = 0; x < width; x++) {
+                    if ((int) row[x] == contourColour) {
+                        if (size + 2 > res.length) {
+                            res = Arrays.copyOf(res, res.length * 2);
+                        }
+                        res[size++] = x;
+                        res[size++] = y;
+                    }
+                }
+            }
+            this.points = Arrays.copyOf(res, size);
+        }
+    }
+}
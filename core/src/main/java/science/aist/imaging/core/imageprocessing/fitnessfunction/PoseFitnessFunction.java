@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.fitnessfunction;
+
+import science.aist.imaging.api.domain.offset.RotationOffset;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+/**
+ * <p>Fitness function, which is able to score a moving image transformed by a given pose against a reference image
+ * without creating the transformed image. The pose is interpreted the same way as by the
+ * {@link science.aist.imaging.core.imageprocessing.transformation.TransformFunction}.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public interface PoseFitnessFunction {
+    /**
+     * @param reference the fixed reference image
+     * @param moving    the moving image
+     * @param pose      the transformation of the moving image
+     * @return fitness value of the transformed moving image
+     */
+    double applyAsDouble(ImageWrapper<?> reference, ImageWrapper<?> moving, RotationOffset pose);
+
+    /**
+     * Called before a series of evaluations of the given images, so an implementation is able to derive data from the
+     * images once (e.g. a distance map). Must be called again after the content of one of the images is modified.
+     * Per default nothing is done.
+     *
+     * @param reference the fixed reference image
+     * @param moving    the moving image
+     */
+    default void prepare(ImageWrapper<?> reference, ImageWrapper<?> moving) {
+    }
+}
@@ -21,7 +21,6 @@ import science.aist.seshat.Logger;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.ToDoubleFunction;
-import java.util.stream.IntStream;
 
 /**
  * <p>Normalizes a Greyscale image</p>
@@ -52,11 +51,11 @@ public class NormalizeFunction<T, R> implements ImageFunction<T, R> {
         double factor = WHITE / max;
         logger.debug("NormalizeFunction Factor: " + factor);
 
-        IntStream.range(0, height).parallel().forEach(y -> {
+        result.applyColumnFunction((image, y) -> {
             for (int x = 0; x < width; x++) {
-                result.setValue(x, y, 0, imageWrapper.getValue(x, y, 0) * factor + 0.5);
+                image.setValue(x, y, 0, imageWrapper.getValue(x, y, 0) * factor + 0.5);
             }
-        });
+        }, 0, height, 1, result.supportsParallelAccess());
 
         return result;
     }
@@ -9,18 +9,30 @@
 
 package science.aist.imaging.core.imageprocessing.houghspace;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 /**
  * <p>This class is used as a result for the houghspace</p>
+ * <p>The accumulator is stored in dense primitive tiles of {@link HoughSpaceLines#TILE_SIZE} x
+ * {@link HoughSpaceLines#TILE_SIZE} cells with all rotations of a cell stored next to each other. A tile is only
+ * allocated as soon as one of its cells is set, so the memory depends on the area which is covered by votes (e.g. the
+ * tiles along the inner cross) and every access is a simple array lookup. For parallel voting see
+ * {@link HoughSpaceLines#vote(int, int, double, double, double, int, ObjIntConsumer)}.</p>
  *
  * @author Andreas Pointner
  * @author Gerald Zwettler
@@ -28,10 +40,29 @@ import java.util.Map;
  */
 @Getter
 public class HoughSpaceLines {
+    private static final int TILE_SHIFT = 3;
     /**
-     * internal representation of the hough space
+     * width and height of a tile of the hough space in cells
      */
-    private final Map<JavaPoint2D, double[]> houghSpace;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * internal representation of the hough space; tiles[tileY * tilesX + tileX][(cellY * TILE_SIZE + cellX) *
+     * numOfRotations + rotationIdx], null for tiles without any value
+     */
+    @Getter(AccessLevel.NONE)
+    private final double[][] tiles;
+    /**
+     * number of tiles in x direction
+     */
+    @Getter(AccessLevel.NONE)
+    private final int tilesX;
+    /**
+     * cells which were set, with the index y * width + x
+     */
+    @Getter(AccessLevel.NONE)
+    private final BitSet setCells;
     /**
      * width of the original image (as well as of the hough Space, but this will maybe not hold every pixel value
      */
@@ -52,6 +83,11 @@ public class HoughSpaceLines {
      * getRotation steps in degrees
      */
     private final double rotationStep;
+    /**
+     * number of rotations
+     */
+    @Getter(AccessLevel.NONE)
+    private final int numOfRotations;
     /**
      * the x-coordinate of the best value
      */
@@ -86,12 +122,44 @@ public class HoughSpaceLines {
         this.minRotation = minRotation;
         this.maxRotation = maxRotation;
         this.rotationStep = rotationSteps;
+        this.numOfRotations = (int) ((maxRotation - minRotation) / rotationSteps + 0.5);
+        this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = new double[tilesX * ((height + TILE_MASK) >> TILE_SHIFT)][];
+        this.setCells = new BitSet();
+    }
 
-        // the first value specifies the initial capacity of the hash map, we already know, how many elements we are going to
-        // put into the hash map, which is width + height. (when using inner cross only)
-        // "The load factor is a measure of how full the hash table is allowed to get before its capacity is automatically increased."
-        // We don't want a resizing of the hash map to be more efficient, therefore we set the second value to 1.
-        houghSpace = new HashMap<>(width + height + 1, 1);
+    /**
+     * Creates a hough space by voting in parallel using the {@link PixelExecutor}. The elements are split into one
+     * slice per parallel task and every slice votes into its own partial hough space, which are merged at the end. So
+     * the voter does not need any synchronization and at most {@link PixelExecutor#getParallelism()} partial hough
+     * spaces exist.
+     *
+     * @param width         width of the source image
+     * @param height        height of the source image
+     * @param maxRotation   end getRotation of the lines
+     * @param minRotation   start getRotation of the lines
+     * @param rotationSteps getRotation steps in degrees
+     * @param count         number of voting elements (e.g. number of edge pixels)
+     * @param voter         adds the votes of the element with the given index to the given (partial) hough space
+     *                      using {@link HoughSpaceLines#addHoughSpaceValue(int, int, int, double)}
+     * @return the merged hough space
+     */
+    public static HoughSpaceLines vote(int width, int height, double maxRotation, double minRotation, double rotationSteps,
+                                       int count, @NonNull ObjIntConsumer<HoughSpaceLines> voter) {
+        int parts = Math.max(1, Math.min(count, PixelExecutor.getParallelism()));
+        HoughSpaceLines[] partials = new HoughSpaceLines[parts];
+        PixelExecutor.forEachTask(parts, true, part -> {
+            HoughSpaceLines partial = new HoughSpaceLines(width, height, maxRotation, minRotation, rotationSteps);
+            int end = (int) ((long) count * (part + 1) / parts);
+            for (int i = (int) ((long) count * part / parts); i < end; i++) {
+                voter.accept(partial, i);
+            }
+            partials[part] = partial;
+        });
+        for (int part = 1; part < parts; part++) {
+            partials[0].merge(partials[part]);
+        }
+        return partials[0];
     }
 
     /**
@@ -103,20 +171,58 @@ public class HoughSpaceLines {
      * @param value       value
      */
     public void setHoughSpaceValue(int x, int y, int rotationIdx, double value) {
-        JavaPoint2D jp = new JavaPoint2D(x, y);
-        double[] arr;
-        if (!houghSpace.containsKey(jp)) {
-            arr = new double[getNumOfRotations()];
-            houghSpace.put(jp, arr);
-        } else {
-            arr = houghSpace.get(jp);
+        int idx = index(x, y, rotationIdx);
+        tile(x, y)[idx] = value;
+        updateBest(x, y, rotationIdx, value);
+    }
+
+    /**
+     * adds a vote to the hough space
+     *
+     * @param x           x-coordinate
+     * @param y           y-coordinate
+     * @param rotationIdx getRotation index
+     * @param weight      weight of the vote
+     */
+    public void addHoughSpaceValue(int x, int y, int rotationIdx, double weight) {
+        double[] tile = tile(x, y);
+        int idx = index(x, y, rotationIdx);
+        tile[idx] += weight;
+        updateBest(x, y, rotationIdx, tile[idx]);
+    }
+
+    /**
+     * adds all values of the other hough space to this one
+     *
+     * @param other hough space with the same dimensions
+     */
+    public void merge(@NonNull HoughSpaceLines other) {
+        if (other.width != width || other.height != height || other.numOfRotations != numOfRotations) {
+            throw new IllegalArgumentException("Hough spaces have different dimensions");
         }
-        arr[rotationIdx] = value;
-        if (value > getBestWeight()) {
-            bestWeight = value;
-            bestX = x;
-            bestY = y;
-            bestRidx = rotationIdx;
+        for (int t = 0; t < tiles.length; t++) {
+            double[] src = other.tiles[t];
+            if (src == null) {
+                continue;
+            }
+            double[] dst = tiles[t];
+            if (dst == null) {
+                dst = new double[src.length];
+                tiles[t] = dst;
+            }
+            for (int i = 0; i < src.length; i++) {
+                dst[i] += src[i];
+            }
+        }
+        setCells.or(other.setCells);
+        for (int i = other.setCells.nextSetBit(0); i >= 0; i = other.setCells.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+            double[] tile = tiles[tileIndex(x, y)];
+            int base = index(x, y, 0);
+            for (int rad = 0; rad < numOfRotations; rad++) {
+                updateBest(x, y, rad, tile[base + rad]);
+            }
         }
     }
 
@@ -129,9 +235,10 @@ public class HoughSpaceLines {
      * @return return value
      */
     public double getHoughSpaceValue(int x, int y, int rotationIdx) {
-        if (!houghSpace.containsKey(new JavaPoint2D(x, y)))
+        if (x < 0 || x >= width || y < 0 || y >= height)
             return 0.0;
-        return houghSpace.get(new JavaPoint2D(x, y))[rotationIdx];
+        double[] tile = tiles[tileIndex(x, y)];
+        return tile == null ? 0.0 : tile[index(x, y, rotationIdx)];
     }
 
     /**
@@ -144,24 +251,11 @@ public class HoughSpaceLines {
      * @return returns an array with [0] = x; [1] = y; [2] = getRotation
      */
     public double[] getBestXYradInSector(int xMin, int xMax, int yMin, int yMax) {
-        double[] returnArr = new double[3];
-        double currBest = Double.MIN_VALUE;
-        for (int x = xMin; x <= xMax; x++) {
-            for (int y = yMin; y <= yMax; y++) {
-                if (houghSpace.containsKey(new JavaPoint2D(x, y))) {
-                    for (int rad = 0; rad < getNumOfRotations(); rad++) {
-                        double currFitness = getHoughSpaceValue(x, y, rad);
-                        if (currFitness > currBest) {
-                            currBest = currFitness;
-                            returnArr[0] = x;
-                            returnArr[1] = y;
-                            returnArr[2] = rad * getRotationStep() + getMinRotation();
-                        }
-                    }
-                }
-            }
+        double[] best = getXBest(1, xMin, xMax, yMin, yMax, 0)[0];
+        if (best[0] == Double.MIN_VALUE) {
+            return new double[3];
         }
-        return returnArr;
+        return new double[]{best[1], best[2], best[3]};
     }
 
     /**
@@ -176,39 +270,8 @@ public class HoughSpaceLines {
      */
     public double[] getXBestXYradInSector(int best, int xMin, int xMax, int yMin, int yMax) {
         if (best < 1) throw new IllegalArgumentException("Best cannot be smaller than 1");
-        double[][] bestRes = new double[best][4];
-
-        for (int i = 0; i < best; i++) {
-            for (int j = 0; j < 4; j++) {
-                bestRes[i][j] = Double.MIN_VALUE;
-            }
-        }
-
-        for (int x = xMin; x <= xMax; x++) {
-            for (int y = yMin; y <= yMax; y++) {
-                if (houghSpace.containsKey(new JavaPoint2D(x, y))) {
-                    for (int rad = 0; rad < getNumOfRotations(); rad++) {
-                        double currFitness = getHoughSpaceValue(x, y, rad);
-                        if (currFitness > bestRes[best - 1][0]) {
-                            int idx = 0;
-                            for (int i = best - 1; i >= 0; i--) {
-                                if (currFitness > bestRes[i][0])
-                                    idx = i;
-                            }
-                            for (int i = best - 1; i > idx; i--) {
-                                System.arraycopy(bestRes[i - 1], 0, bestRes[i], 0, 4);
-                            }
-                            bestRes[idx][0] = currFitness;
-                            bestRes[idx][1] = x;
-                            bestRes[idx][2] = y;
-                            bestRes[idx][3] = rad * getRotationStep() + getMinRotation();
-                        }
-                    }
-                }
-            }
-        }
-
-        return new double[]{bestRes[best - 1][1], bestRes[best - 1][2], bestRes[best - 1][3]};
+        double[] res = getXBest(best, xMin, xMax, yMin, yMax, 0)[best - 1];
+        return new double[]{res[1], res[2], res[3]};
     }
 
     /**
@@ -225,11 +288,13 @@ public class HoughSpaceLines {
     public double[] getBestXYradInSectorForRotation(int xMin, int xMax, int yMin, int yMax, double rotationMin, double rotationMax) {
         double[] returnArr = new double[3];
         double currBest = Double.MIN_VALUE;
-        for (int x = xMin; x <= xMax; x++) {
-            for (int y = yMin; y <= yMax; y++) {
-                if (houghSpace.containsKey(new JavaPoint2D(x, y))) {
-                    for (int rad = 0; rad < getNumOfRotations(); rad++) {
-                        double currFitness = getHoughSpaceValue(x, y, rad);
+        for (int x = Math.max(xMin, 0); x <= Math.min(xMax, width - 1); x++) {
+            for (int y = Math.max(yMin, 0); y <= Math.min(yMax, height - 1); y++) {
+                double[] tile = tiles[tileIndex(x, y)];
+                if (tile != null) {
+                    int base = index(x, y, 0);
+                    for (int rad = 0; rad < numOfRotations; rad++) {
+                        double currFitness = tile[base + rad];
                         double radVal = rad * getRotationStep() + getMinRotation();
                         if (radVal > rotationMax) radVal -= 180;
                         else if (radVal < rotationMin) radVal += 180;
@@ -247,11 +312,217 @@ public class HoughSpaceLines {
         return returnArr;
     }
 
+    /**
+     * Finds the peaks of the whole hough space in a single pass. A value is only a peak, if it is the maximum within
+     * the neighbourhood of +/- suppressionRadius in x, y and rotation direction (non-maximum suppression).
+     *
+     * @param count             maximum number of peaks
+     * @param suppressionRadius radius of the non-maximum suppression; 0 disables the suppression
+     * @return the peaks in descending order with [0] = x; [1] = y; [2] = getRotation; [3] = weight
+     */
+    public List<double[]> getPeaks(int count, int suppressionRadius) {
+        if (count < 1) throw new IllegalArgumentException("Count cannot be smaller than 1");
+        if (suppressionRadius < 0) throw new IllegalArgumentException("Suppression radius cannot be negative");
+        double[][] best = getXBest(count, 0, width - 1, 0, height - 1, suppressionRadius);
+        List<double[]> res = new ArrayList<>(count);
+        for (double[] b : best) {
+            if (b[0] == Double.MIN_VALUE) {
+                break;
+            }
+            res.add(new double[]{b[1], b[2], b[3], b[0]});
+        }
+        return res;
+    }
+
+    /**
+     * Collects the best values of the sector using a bounded min-heap, so every value of the sector is only visited
+     * once. Equal values are ordered by x, y and rotation.
+     *
+     * @param best              number of values
+     * @param xMin              start search x-coordinate (inclusive)
+     * @param xMax              end search x-coordinate (inclusive)
+     * @param yMin              start search y-coordinate (inclusive)
+     * @param yMax              end search y-coordinate (inclusive)
+     * @param suppressionRadius radius of the non-maximum suppression; 0 disables the suppression
+     * @return the best values with [0] = weight; [1] = x; [2] = y; [3] = getRotation; unused entries are filled with
+     * {@link Double#MIN_VALUE}
+     */
+    private double[][] getXBest(int best, int xMin, int xMax, int yMin, int yMax, int suppressionRadius) {
+        double[] heapValues = new double[best];
+        long[] heapKeys = new long[best];
+        int size = 0;
+
+        for (int y = Math.max(yMin, 0); y <= Math.min(yMax, height - 1); y++) {
+            for (int x = Math.max(xMin, 0); x <= Math.min(xMax, width - 1); x++) {
+                double[] tile = tiles[tileIndex(x, y)];
+                if (tile == null) {
+                    // skip the rest of the row of the tile
+                    x |= TILE_MASK;
+                    continue;
+                }
+                int base = index(x, y, 0);
+                for (int rad = 0; rad < numOfRotations; rad++) {
+                    double currFitness = tile[base + rad];
+                    if (currFitness <= Double.MIN_VALUE) {
+                        continue;
+                    }
+                    long key = ((long) x * height + y) * numOfRotations + rad;
+                    if (size == best && !isBetter(currFitness, key, heapValues[0], heapKeys[0])) {
+                        continue;
+                    }
+                    if (suppressionRadius > 0 && !isLocalMaximum(x, y, rad, currFitness, key, suppressionRadius)) {
+                        continue;
+                    }
+                    if (size < best) {
+                        size = siftUp(heapValues, heapKeys, size, currFitness, key);
+                    } else {
+                        siftDown(heapValues, heapKeys, size, currFitness, key);
+                    }
+                }
+            }
+        }
+
+        double[][] res = new double[best][4];
+        for (int i = size - 1; i >= 0; i--) {
+            long key = heapKeys[0];
+            int rad = (int) (key % numOfRotations);
+            long xy = key / numOfRotations;
+            res[i][0] = heapValues[0];
+            res[i][1] = (double) (xy / height);
+            res[i][2] = (double) (xy % height);
+            res[i][3] = rad * getRotationStep() + getMinRotation();
+            // remove the root by moving the last element to the top
+            siftDown(heapValues, heapKeys, i, heapValues[i], heapKeys[i]);
+        }
+        for (int i = size; i < best; i++) {
+            for (int j = 0; j < 4; j++) {
+                res[i][j] = Double.MIN_VALUE;
+            }
+        }
+        return res;
+    }
+
+    private boolean isLocalMaximum(int x, int y, int rad, double value, long key, int radius) {
+        for (int ny = Math.max(y - radius, 0); ny <= Math.min(y + radius, height - 1); ny++) {
+            for (int nx = Math.max(x - radius, 0); nx <= Math.min(x + radius, width - 1); nx++) {
+                double[] tile = tiles[tileIndex(nx, ny)];
+                if (tile == null) {
+                    continue;
+                }
+                int base = index(nx, ny, 0);
+                for (int nr = Math.max(rad - radius, 0); nr <= Math.min(rad + radius, numOfRotations - 1); nr++) {
+                    long nKey = ((long) nx * height + ny) * numOfRotations + nr;
+                    if (nKey != key && isBetter(tile[base + nr], nKey, value, key)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the first entry is ranked before the second one
+     */
+    private static boolean isBetter(double value, long key, double otherValue, long otherKey) {
+        return value > otherValue || (value == otherValue && key < otherKey);
+    }
+
+    private static int siftUp(double[] values, long[] keys, int size, double value, long key) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!isBetter(values[parent], keys[parent], value, key)) {
+                break;
+            }
+            values[i] = values[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        values[i] = value;
+        keys[i] = key;
+        return size + 1;
+    }
+
+    private static void siftDown(double[] values, long[] keys, int size, double value, long key) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isBetter(values[child], keys[child], values[child + 1], keys[child + 1])) {
+                child++;
+            }
+            if (!isBetter(value, key, values[child], keys[child])) {
+                break;
+            }
+            values[i] = values[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        if (size > 0) {
+            values[i] = value;
+            keys[i] = key;
+        }
+    }
+
+    private int tileIndex(int x, int y) {
+        return (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    }
+
+    private int index(int x, int y, int rotationIdx) {
+        return (((y & TILE_MASK) << TILE_SHIFT) + (x & TILE_MASK)) * numOfRotations + rotationIdx;
+    }
+
+    /**
+     * @return the tile of the given cell, which is allocated if necessary; marks the cell as set
+     */
+    private double[] tile(int x, int y) {
+        int t = tileIndex(x, y);
+        double[] tile = tiles[t];
+        if (tile == null) {
+            tile = new double[TILE_SIZE * TILE_SIZE * numOfRotations];
+            tiles[t] = tile;
+        }
+        setCells.set(y * width + x);
+        return tile;
+    }
+
+    private void updateBest(int x, int y, int rotationIdx, double value) {
+        if (value > getBestWeight()) {
+            bestWeight = value;
+            bestX = x;
+            bestY = y;
+            bestRidx = rotationIdx;
+        }
+    }
+
+    /**
+     * Creates a map of all set cells of the hough space. The map and the arrays of the rotations are copies, so changing
+     * them does not change the hough space.
+     *
+     * @return map from the position (x, y) to the values of all rotations
+     * @deprecated creates a map entry for every set cell, use
+     * {@link HoughSpaceLines#getHoughSpaceValue(int, int, int)} instead
+     */
+    @Deprecated
+    public Map<JavaPoint2D, double[]> getHoughSpace() {
+        Map<JavaPoint2D, double[]> res = new HashMap<>();
+        for (int i = setCells.nextSetBit(0); i >= 0; i = setCells.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+            int base = index(x, y, 0);
+            res.put(new JavaPoint2D(x, y), Arrays.copyOfRange(tiles[tileIndex(x, y)], base, base + numOfRotations));
+        }
+        return res;
+    }
+
     /**
      * @return number of getRotation (maxRotation - minRotation) / rotationStep + 0.5
      */
     public int getNumOfRotations() {
-        return (int) ((maxRotation - minRotation) / rotationStep + 0.5);
+        return numOfRotations;
     }
 
     /**
@@ -265,21 +536,21 @@ public class HoughSpaceLines {
     public <T> ImageWrapper<T> toImage(final int expoScale, @NonNull ImageFactory<T> provider) {
         final ImageWrapper<T> ji = provider.getImage(height, width, ChannelType.GREYSCALE);
 
-        // convert the hough space into java image
-        houghSpace.forEach((p, dA) -> {
+        // convert the hough space into java image; cells without any value are not modified
+        double totalMax = 0;
+        for (int i = setCells.nextSetBit(0); i >= 0; i = setCells.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+            double[] tile = tiles[tileIndex(x, y)];
+            int base = index(x, y, 0);
             double max = -1;
-            for (double val : dA)
-                if (val > max)
-                    max = val;
+            for (int rad = 0; rad < numOfRotations; rad++)
+                if (tile[base + rad] > max)
+                    max = tile[base + rad];
             // create exponential scale to find out higher values more easy
             max = Math.pow(max, expoScale);
-            ji.setValue(p.getIntX(), p.getIntY(), 0, max);
-        });
-
-        double totalMax = 0;
-        // find total max
-        for (JavaPoint2D p : houghSpace.keySet()) {
-            double val = ji.getValue(p.getIntX(), p.getIntY(), 0);
+            ji.setValue(x, y, 0, max);
+            double val = ji.getValue(x, y, 0);
             if (val > totalMax)
                 totalMax = val;
         }
@@ -287,9 +558,10 @@ public class HoughSpaceLines {
         // scale colors, so that max value = 255
         if (Math.abs(totalMax) < 0.000001 || totalMax == 0) return ji;
         double scale = 255 / totalMax;
-        for (JavaPoint2D p : houghSpace.keySet()) {
-            double val = ji.getValue(p.getIntX(), p.getIntY(), 0) * scale;
-            ji.setValue(p.getIntX(), p.getIntY(), 0, val);
+        for (int i = setCells.nextSetBit(0); i >= 0; i = setCells.nextSetBit(i + 1)) {
+            int x = i % width;
+            int y = i / width;
+            ji.setValue(x, y, 0, ji.getValue(x, y, 0) * scale);
         }
 
         return ji;
@@ -12,6 +12,8 @@ package science.aist.imaging.core.imageprocessing.operator;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import science.aist.imaging.api.PointwiseImageFunction;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 
@@ -110,6 +112,45 @@ public abstract class AbstractOperator<I> implements BinaryOperator<ImageWrapper
         return result;
     }
 
+    /**
+     * <p>Binds the scalar value, so the operator can be chained (and fused) with other image functions</p>
+     *
+     * @param scalar scalar value to be applied
+     * @return image function that applies the operator with the scalar value on a new image created by
+     * {@link AbstractOperator#provider}
+     * @throws IllegalStateException if no {@link AbstractOperator#provider} was set
+     */
+    public PointwiseImageFunction<I, I> withScalar(double scalar) {
+        if (provider == null) {
+            throw new IllegalStateException("An image provider is needed to create the result images");
+        }
+        ImageFactory<I> factory = provider;
+        return new PointwiseImageFunction<I, I>() {
+            @Override
+            public ImageWrapper<I> apply(ImageWrapper<I> imageWrapper) {
+                return AbstractOperator.this.apply(imageWrapper, scalar);
+            }
+
+            @Override
+            public ChannelType getResultChannelType(ChannelType inputType) {
+                return inputType;
+            }
+
+            @Override
+            public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+                int length = width * inputType.getNumberOfChannels();
+                for (int i = 0; i < length; i++) {
+                    dst[i] = execute(src[i], scalar);
+                }
+            }
+
+            @Override
+            public ImageFactory<I> getProvider() {
+                return factory;
+            }
+        };
+    }
+
     /**
      * Checks the given mask
      * @param mask to be checked
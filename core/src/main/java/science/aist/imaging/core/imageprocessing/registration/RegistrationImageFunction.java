@@ -9,74 +9,370 @@
 
 package science.aist.imaging.core.imageprocessing.registration;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import science.aist.imaging.api.domain.offset.RotationOffset;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 import science.aist.imaging.api.fitnessfunction.AbstractFitnessFunction;
+import science.aist.imaging.core.imageprocessing.fitnessfunction.PoseFitnessFunction;
+import science.aist.imaging.core.imageprocessing.fitnessfunction.SSEFitnessFunction;
 import science.aist.imaging.core.imageprocessing.transformation.TransformFunction;
 import science.aist.jack.math.MathUtils;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
  * <p>Registers two images</p>
+ * <p>By default all (2 * stepsPerDimension + 1)³ translations and rotations are evaluated. If pyramidLevels is set
+ * to a value &gt; 0, a coarse-to-fine search is used instead: Gaussian pyramids of both images are created, the
+ * top level is searched on a coarse grid and every finer level only refines the neighbourhood of the best
+ * candidates of the previous level. On the coarse levels the candidates of a {@link SSEFitnessFunction} are scored
+ * with the sum of squared differences, which is sampled on the fly (bilinear interpolation like the
+ * {@link TransformFunction}) without creating transformed images. Any other fitness function is evaluated on the
+ * pyramid levels of the images. The candidates of the original resolution are always scored with the fitness function
+ * itself. As a region of interest of the fitness function refers to the original resolution, the full search is used
+ * if the fitness function has a region of interest.</p>
+ * <p>If the fitness function is a {@link PoseFitnessFunction} (e.g. the
+ * {@link science.aist.imaging.core.imageprocessing.fitnessfunction.CachedDistanceMapFitnessFunction}), the poses are
+ * scored directly by the fitness function instead of creating the transformed images.</p>
  *
  * @author Christoph Praschl
  * @since 1.0
  */
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class RegistrationImageFunction<T, R> implements BiFunction<ImageWrapper<T>, ImageWrapper<R>, RotationOffset> {
-    private final Object synchronizer = new Object();
     private final double stepSize;
     private final double rotSize;
     private final int stepsPerDimension;
     private final AbstractFitnessFunction fitnessFunction;
     private final TransformFunction<R> imageTransformer;
 
-    private static double getDouble(AtomicLong val) {
-        return Double.longBitsToDouble(val.get());
-    }
+    /**
+     * Number of pyramid levels above the original resolution; 0 evaluates every candidate on the original images
+     */
+    @Setter
+    private int pyramidLevels = 0;
 
-    private static void setDoubleToAtomicLong(AtomicLong val, double toSet) {
-        val.set(Double.doubleToLongBits(toSet));
-    }
+    /**
+     * Number of best candidates of a pyramid level, whose neighbourhood is refined on the next finer level
+     */
+    @Setter
+    private int candidatesPerLevel = 3;
 
     @Override
     public RotationOffset apply(ImageWrapper<T> ref, ImageWrapper<R> test) {
-        final AtomicLong bestTx = new AtomicLong(0);
-        final AtomicLong bestTy = new AtomicLong(0);
-        final AtomicLong bestRot = new AtomicLong(0);
-        final AtomicLong bestError = new AtomicLong(Double.doubleToLongBits(fitnessFunction.applyAsDouble(ref, test)));
+        prepare(ref, test);
+        double initialError = fitnessFunction.applyAsDouble(ref, test);
+        RotationOffset initial = new RotationOffset(0, 0, initialError, 0);
 
-        if (MathUtils.equals(Double.longBitsToDouble(bestError.get()), fitnessFunction.getBestPossibleError())) {
-            return new RotationOffset(getDouble(bestTx), getDouble(bestTy), getDouble(bestError), getDouble(bestRot));
+        if (MathUtils.equals(initialError, fitnessFunction.getBestPossibleError())) {
+            return initial;
         }
 
-        IntStream.rangeClosed(-stepsPerDimension, stepsPerDimension).parallel().forEach(x -> {
+        RotationOffset best = pyramidLevels > 0 && fitnessFunction.getRoi() == null ? pyramidSearch(ref, test) : bruteForceSearch(ref, test);
+        return best != null && isBetter(best.getFailure(), initialError) ? best : initial;
+    }
+
+    private boolean isBetter(double error, double other) {
+        return fitnessFunction.isLowerErrorValueBetter() ? error < other : error > other;
+    }
+
+    /**
+     * Lets a {@link PoseFitnessFunction} derive its data from the images, which are evaluated next
+     */
+    private void prepare(ImageWrapper<?> ref, ImageWrapper<?> test) {
+        if (fitnessFunction instanceof PoseFitnessFunction) {
+            ((PoseFitnessFunction) fitnessFunction).prepare(ref, test);
+        }
+    }
+
+    /**
+     * Scores the test image transformed by the given offset; a {@link PoseFitnessFunction} is evaluated directly on
+     * the pose, otherwise the transformed image is created
+     */
+    private double evaluate(ImageWrapper<?> ref, ImageWrapper<?> test, RotationOffset offset) {
+        if (fitnessFunction instanceof PoseFitnessFunction) {
+            return ((PoseFitnessFunction) fitnessFunction).applyAsDouble(ref, test, offset);
+        }
+        return fitnessFunction.applyAsDouble(ref, imageTransformer.apply(test, offset));
+    }
+
+    private RotationOffset bruteForceSearch(ImageWrapper<T> ref, ImageWrapper<R> test) {
+        // every task keeps its own best candidate, which are reduced at the end
+        RotationOffset[] bests = new RotationOffset[2 * stepsPerDimension + 1];
+        PixelExecutor.forEachTask(bests.length, true, i -> {
+            RotationOffset best = null;
             for (int y = -stepsPerDimension; y <= stepsPerDimension; y++) {
                 for (int r = -stepsPerDimension; r <= stepsPerDimension; r++) {
-                    double tx = x * stepSize;
+                    double tx = (i - stepsPerDimension) * stepSize;
                     double ty = y * stepSize;
                     double rot = r * rotSize;
 
-                    ImageWrapper<R> transformedImg = imageTransformer.apply(test, new RotationOffset(tx, ty, rot));
+                    double currError = evaluate(ref, test, new RotationOffset(tx, ty, rot));
+                    if (best == null || isBetter(currError, best.getFailure())) {
+                        best = new RotationOffset(tx, ty, currError, rot);
+                    }
+                }
+            }
+            bests[i] = best;
+        });
 
-                    double currError = fitnessFunction.applyAsDouble(ref, transformedImg);
-                    synchronized (synchronizer) {
-                        if ((fitnessFunction.isLowerErrorValueBetter() && currError < getDouble(bestError)) || (!fitnessFunction.isLowerErrorValueBetter() && currError > getDouble(bestError))) {
-                            setDoubleToAtomicLong(bestError, currError);
-                            setDoubleToAtomicLong(bestTx, tx);
-                            setDoubleToAtomicLong(bestTy, ty);
-                            setDoubleToAtomicLong(bestRot, rot);
+        RotationOffset best = null;
+        for (RotationOffset candidate : bests) {
+            if (best == null || isBetter(candidate.getFailure(), best.getFailure())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private RotationOffset pyramidSearch(ImageWrapper<T> ref, ImageWrapper<R> test) {
+        List<double[]> refPyramid = createPyramid(ref, pyramidLevels);
+        List<double[]> testPyramid = createPyramid(test, pyramidLevels);
+        // the sampled sum of squared differences ranks the candidates the same way as the SSE fitness function
+        boolean sampled = fitnessFunction.getClass() == SSEFitnessFunction.class;
+        double background = imageTransformer.getInterpolation().getBackgroundColor();
+
+        // candidates are given as grid indices (x, y, rotation) of the original search space
+        List<int[]> candidates = new ArrayList<>();
+        int topStep = 1 << pyramidLevels;
+        for (int x = -stepsPerDimension; x <= stepsPerDimension; x++) {
+            for (int y = -stepsPerDimension; y <= stepsPerDimension; y++) {
+                for (int r = -stepsPerDimension; r <= stepsPerDimension; r++) {
+                    if (x % topStep == 0 && y % topStep == 0 && r % topStep == 0) {
+                        candidates.add(new int[]{x, y, r});
+                    }
+                }
+            }
+        }
+
+        double bestError = 0.0;
+        for (int level = pyramidLevels; level >= 0; level--) {
+            if (level < pyramidLevels) {
+                candidates = refine(candidates, 1 << level);
+            }
+            double scale = 1.0 / (1 << level);
+            ToDoubleFunction<int[]> score;
+            if (level == 0) {
+                prepare(ref, test);
+                score = c -> evaluate(ref, test, toOffset(c, 1));
+            } else if (sampled) {
+                Level refLevel = new Level(refPyramid.get(level), levelSize(ref.getWidth(), level), levelSize(ref.getHeight(), level));
+                Level testLevel = new Level(testPyramid.get(level), levelSize(test.getWidth(), level), levelSize(test.getHeight(), level));
+                // the transform function rotates around the center of the test image
+                double midX = test.getWidth() / 2.0 * scale;
+                double midY = test.getHeight() / 2.0 * scale;
+                score = c -> sampledError(refLevel, testLevel, c, scale, midX, midY, background);
+            } else {
+                ImageWrapper<double[]> refLevel = levelImage(refPyramid.get(level), ref, level);
+                ImageWrapper<double[]> testLevel = levelImage(testPyramid.get(level), test, level);
+                prepare(refLevel, testLevel);
+                score = c -> evaluate(refLevel, testLevel, toOffset(c, scale));
+            }
+            List<int[]> scored = candidates;
+            double[] errors = new double[scored.size()];
+            PixelExecutor.forEachTask(errors.length, true, i -> errors[i] = score.applyAsDouble(scored.get(i)));
+            int[] ranking = rank(errors, level == 0 ? 1 : candidatesPerLevel);
+            bestError = errors[ranking[0]];
+            candidates = Arrays.stream(ranking).mapToObj(scored::get).collect(Collectors.toList());
+        }
+
+        // the last level scored the candidates on the original resolution, so the error of the best one is known
+        RotationOffset offset = toOffset(candidates.get(0), 1);
+        return new RotationOffset(offset.getXOffset(), offset.getYOffset(), bestError, offset.getRotationalOffset());
+    }
+
+    private RotationOffset toOffset(int[] candidate, double scale) {
+        return new RotationOffset(candidate[0] * stepSize * scale, candidate[1] * stepSize * scale, candidate[2] * rotSize);
+    }
+
+    /**
+     * @return the indices of the best errors ordered by the error
+     */
+    private int[] rank(double[] errors, int keep) {
+        Comparator<Integer> byError = Comparator.comparingDouble(i -> errors[i]);
+        return IntStream.range(0, errors.length).boxed()
+                .sorted(fitnessFunction.isLowerErrorValueBetter() ? byError : byError.reversed())
+                .limit(keep)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Wraps a pyramid level, so it can be scored by the fitness function. Binary images stay binary, so e.g. the
+     * contour of a distance map based fitness function is still found.
+     */
+    private static ImageWrapper<double[]> levelImage(double[] level, ImageWrapper<?> image, int levelIdx) {
+        ChannelType type = image.getChannelType() == ChannelType.BINARY ? ChannelType.BINARY : ChannelType.GREYSCALE;
+        int width = levelSize(image.getWidth(), levelIdx);
+        int height = levelSize(image.getHeight(), levelIdx);
+        double[] values = level;
+        if (type == ChannelType.BINARY) {
+            double threshold = type.getMaxVal()[0] / 2.0;
+            values = new double[level.length];
+            for (int i = 0; i < level.length; i++) {
+                values[i] = level[i] >= threshold ? type.getMaxVal()[0] : type.getMinVal()[0];
+            }
+        }
+        ImageWrapper<double[]> res = ImageFactoryFactory.getImageFactory(double[].class).getImage(height, width, type);
+        res.setTile(0, 0, width, height, values);
+        return res;
+    }
+
+    /**
+     * Creates the candidates of the next finer level, which are the neighbours of the given candidates in the distance
+     * of step grid indices
+     */
+    private List<int[]> refine(List<int[]> candidates, int step) {
+        int size = 2 * stepsPerDimension + 1;
+        Set<Long> visited = new HashSet<>();
+        List<int[]> res = new ArrayList<>();
+        for (int[] c : candidates) {
+            for (int dx = -step; dx <= step; dx += step) {
+                for (int dy = -step; dy <= step; dy += step) {
+                    for (int dr = -step; dr <= step; dr += step) {
+                        int x = c[0] + dx;
+                        int y = c[1] + dy;
+                        int r = c[2] + dr;
+                        if (Math.abs(x) <= stepsPerDimension && Math.abs(y) <= stepsPerDimension && Math.abs(r) <= stepsPerDimension
+                                && visited.add(((long) (x + stepsPerDimension) * size + (y + stepsPerDimension)) * size + (r + stepsPerDimension))) {
+                            res.add(new int[]{x, y, r});
                         }
                     }
                 }
             }
-        });
+        }
+        return res;
+    }
+
+    /**
+     * Calculates the sum of squared differences between the reference and the test image transformed by the given
+     * candidate within the area of both images. The test image is sampled the same way as the
+     * {@link TransformFunction} does.
+     */
+    private double sampledError(Level ref, Level test, int[] candidate, double scale, double midX, double midY,
+                                double background) {
+        double transX = candidate[0] * stepSize * scale;
+        double transY = candidate[1] * stepSize * scale;
+        double radAngle = -candidate[2] * rotSize * Math.PI / 180.0;
+        double cosTheta = Math.cos(radAngle);
+        double sinTheta = Math.sin(radAngle);
+        int width = Math.min(ref.width, test.width);
+        int height = Math.min(ref.height, test.height);
+
+        double totalError = 0.0;
+        for (int y = 0; y < height; y++) {
+            double posY = y - midY;
+            for (int x = 0; x < width; x++) {
+                double posX = x - midX;
+                double srcX = posX * cosTheta + posY * sinTheta + midX - transX;
+                double srcY = -posX * sinTheta + posY * cosTheta + midY - transY;
+                double diff = sample(test.values, test.width, test.height, srcX, srcY, background) - ref.values[y * ref.width + x];
+                totalError += diff * diff;
+            }
+        }
+        return totalError;
+    }
+
+    private static double sample(double[] image, int width, int height, double idxX, double idxY, double background) {
+        int x1 = (int) idxX;
+        int y1 = (int) idxY;
+        if (x1 < 0 || y1 < 0 || x1 >= width || y1 >= height) {
+            return background;
+        }
+        if (x1 + 1 >= width || y1 + 1 >= height) {
+            return image[y1 * width + x1];
+        }
+        double interX = idxX - x1;
+        double interY = idxY - y1;
+        int idx = y1 * width + x1;
+        double val1 = image[idx] * (1.0 - interX) + image[idx + 1] * interX;
+        double val2 = image[idx + width] * (1.0 - interX) + image[idx + width + 1] * interX;
+        return val1 * (1.0 - interY) + val2 * interY;
+    }
+
+    private static int levelSize(int size, int level) {
+        for (int i = 0; i < level; i++) {
+            size = (size + 1) / 2;
+        }
+        return size;
+    }
 
-        return new RotationOffset(getDouble(bestTx), getDouble(bestTy), getDouble(bestError), getDouble(bestRot));
+    /**
+     * Creates a Gaussian pyramid of the first channel of the image. Every level is smoothed with the binomial kernel
+     * [1 4 6 4 1] / 16 and subsampled by a factor of 2.
+     *
+     * @param image  the image
+     * @param levels number of levels above the original resolution
+     * @return the levels as flat row-major arrays, index 0 is the original resolution
+     */
+    private static List<double[]> createPyramid(ImageWrapper<?> image, int levels) {
+        int imageWidth = image.getWidth();
+        double[] base = new double[imageWidth * image.getHeight()];
+        image.applyColumnFunction((img, y) -> System.arraycopy(img.getRow(y, 0, null), 0, base, y * imageWidth, imageWidth),
+                0, image.getHeight(), 1, image.supportsParallelAccess());
+
+        int width = imageWidth;
+        int height = image.getHeight();
+        List<double[]> pyramid = new ArrayList<>(levels + 1);
+        pyramid.add(base);
+        for (int level = 1; level <= levels; level++) {
+            double[] src = pyramid.get(level - 1);
+            int w = width;
+            int h = height;
+            int nw = (width + 1) / 2;
+            int nh = (height + 1) / 2;
+
+            // horizontal smoothing and subsampling
+            double[] tmp = new double[nw * h];
+            PixelExecutor.forEachRow(0, h, 1, nw, true, y -> {
+                for (int x = 0; x < nw; x++) {
+                    tmp[y * nw + x] = binomial(src, y * w, 1, w, 2 * x);
+                }
+            });
+            // vertical smoothing and subsampling
+            double[] dst = new double[nw * nh];
+            PixelExecutor.forEachRow(0, nh, 1, nw, true, y -> {
+                for (int x = 0; x < nw; x++) {
+                    dst[y * nw + x] = binomial(tmp, x, nw, h, 2 * y);
+                }
+            });
+            pyramid.add(dst);
+            width = nw;
+            height = nh;
+        }
+        return pyramid;
+    }
+
+    /**
+     * Applies the binomial kernel [1 4 6 4 1] / 16 at position i of the given line, where the border is replicated
+     */
+    private static double binomial(double[] line, int offset, int step, int length, int i) {
+        double sum = 6 * line[offset + i * step];
+        sum += 4 * (line[offset + Math.max(i - 1, 0) * step] + line[offset + Math.min(i + 1, length - 1) * step]);
+        sum += line[offset + Math.max(i - 2, 0) * step] + line[offset + Math.min(i + 2, length - 1) * step];
+        return sum / 16.0;
     }
 
+    /**
+     * A pyramid level with its size
+     */
+    @RequiredArgsConstructor
+    private static final class Level {
+        private final double[] values;
+        private final int width;
+        private final int height;
+    }
 }
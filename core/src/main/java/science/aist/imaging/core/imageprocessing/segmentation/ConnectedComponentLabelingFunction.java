@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.segmentation;
+
+import lombok.NonNull;
+import lombok.Setter;
+import science.aist.imaging.api.domain.NeighborType;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.api.typecheck.TypeChecker;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * <p>Connected component labeling of binary images using union-find.</p>
+ * <p>The image is split into horizontal bands, which are labeled in parallel: every foreground pixel is merged with
+ * its already visited neighbors, where the root of a component is always its first pixel in raster order. Afterwards
+ * the borders of the bands are merged. In a second pass the roots are replaced by consecutive labels (in raster order)
+ * and the statistics of every label are accumulated in primitive arrays (see {@link ConnectedComponents}).</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+@Setter
+public class ConnectedComponentLabelingFunction implements Function<ImageWrapper<?>, ConnectedComponents> {
+    private static final TypeChecker typeChecker = new TypeChecker(ChannelType.BINARY);
+    private static final int MIN_BAND_HEIGHT = 16;
+
+    /**
+     * Defines which pixels are connected
+     */
+    @NonNull
+    private NeighborType neighborType = NeighborType.N8;
+
+    /**
+     * Value of the foreground pixels
+     */
+    private double foregroundColor = 255;
+
+    @Override
+    public ConnectedComponents apply(ImageWrapper<?> imageWrapper) {
+        typeChecker.accept(imageWrapper);
+        int width = imageWrapper.getWidth();
+        int height = imageWrapper.getHeight();
+        boolean diagonal = neighborType == NeighborType.N8;
+
+        boolean[] foreground = new boolean[width * height];
+        imageWrapper.applyColumnFunction((image, y) -> {
+            double[] row = image.getRow(y, 0, null);
+            for (int x = 0; x < width; x++) {
+                foreground[y * width + x] = row[x] == foregroundColor;
+            }
+        }, 0, height, 1, imageWrapper.supportsParallelAccess());
+
+        int[] parent = new int[width * height];
+        int processors = PixelExecutor.getParallelism();
+        int bandHeight = Math.max(MIN_BAND_HEIGHT, (height + processors - 1) / processors);
+        int bands = (height + bandHeight - 1) / bandHeight;
+
+        // first pass: every band is processed independently, so only parent entries of the band are modified
+        PixelExecutor.forEachTask(bands, true, band -> {
+            int startY = band * bandHeight;
+            int endY = Math.min(startY + bandHeight, height);
+            for (int y = startY; y < endY; y++) {
+                for (int x = 0; x < width; x++) {
+                    int idx = y * width + x;
+                    if (!foreground[idx]) {
+                        continue;
+                    }
+                    parent[idx] = idx;
+                    if (x > 0 && foreground[idx - 1]) {
+                        union(parent, idx - 1, idx);
+                    }
+                    if (y > startY) {
+                        mergeUpperRow(parent, foreground, width, x, y, diagonal);
+                    }
+                }
+            }
+        });
+
+        // merge the borders of the bands
+        for (int band = 1; band < bands; band++) {
+            int y = band * bandHeight;
+            for (int x = 0; x < width; x++) {
+                if (foreground[y * width + x]) {
+                    mergeUpperRow(parent, foreground, width, x, y, diagonal);
+                }
+            }
+        }
+
+        // second pass: consecutive labels and statistics
+        int[] labels = new int[width * height];
+        int capacity = 16;
+        int[] area = new int[capacity];
+        int[] minX = new int[capacity];
+        int[] minY = new int[capacity];
+        int[] maxX = new int[capacity];
+        int[] maxY = new int[capacity];
+        long[] sumX = new long[capacity];
+        long[] sumY = new long[capacity];
+        long[] sumXX = new long[capacity];
+        long[] sumXY = new long[capacity];
+        long[] sumYY = new long[capacity];
+        int count = 0;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int idx = y * width + x;
+                if (!foreground[idx]) {
+                    continue;
+                }
+                int root = find(parent, idx);
+                int label;
+                if (root == idx) {
+                    label = ++count;
+                    if (label >= capacity) {
+                        capacity *= 2;
+                        area = Arrays.copyOf(area, capacity);
+                        minX = Arrays.copyOf(minX, capacity);
+                        minY = Arrays.copyOf(minY, capacity);
+                        maxX = Arrays.copyOf(maxX, capacity);
+                        maxY = Arrays.copyOf(maxY, capacity);
+                        sumX = Arrays.copyOf(sumX, capacity);
+                        sumY = Arrays.copyOf(sumY, capacity);
+                        sumXX = Arrays.copyOf(sumXX, capacity);
+                        sumXY = Arrays.copyOf(sumXY, capacity);
+                        sumYY = Arrays.copyOf(sumYY, capacity);
+                    }
+                    minX[label] = x;
+                    minY[label] = y;
+                    maxX[label] = x;
+                    maxY[label] = y;
+                } else {
+                    // the root is the first pixel of the component, so it is already labeled
+                    label = labels[root];
+                    minX[label] = Math.min(minX[label], x);
+                    maxX[label] = Math.max(maxX[label], x);
+                    maxY[label] = y;
+                }
+                labels[idx] = label;
+                area[label]++;
+                sumX[label] += x;
+                sumY[label] += y;
+                sumXX[label] += (long) x * x;
+                sumXY[label] += (long) x * y;
+                sumYY[label] += (long) y * y;
+            }
+        }
+
+        return new ConnectedComponents(width, height, labels, count, area, minX, minY, maxX, maxY, sumX, sumY, sumXX, sumXY, sumYY);
+    }
+
+    private static void mergeUpperRow(int[] parent, boolean[] foreground, int width, int x, int y, boolean diagonal) {
+        int idx = y * width + x;
+        int up = idx - width;
+        if (foreground[up]) {
+            union(parent, up, idx);
+        }
+        if (diagonal) {
+            if (x > 0 && foreground[up - 1]) {
+                union(parent, up - 1, idx);
+            }
+            if (x < width - 1 && foreground[up + 1]) {
+                union(parent, up + 1, idx);
+            }
+        }
+    }
+
+    private static int find(int[] parent, int idx) {
+        while (parent[idx] != idx) {
+            // path halving
+            parent[idx] = parent[parent[idx]];
+            idx = parent[idx];
+        }
+        return idx;
+    }
+
+    /**
+     * Merges the components of both pixels; the smaller root becomes the root of the merged component
+     */
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.segmentation;
+
+import lombok.Getter;
+import lombok.NonNull;
+import science.aist.imaging.api.domain.RecognizedObject;
+import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
+import science.aist.imaging.api.domain.twodimensional.JavaRectangle2D;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Result of the {@link ConnectedComponentLabelingFunction}.</p>
+ * <p>Contains the label image as flat row-major int[] (0 = background, 1..count = objects) and the statistics of every
+ * label (area, bounding box and the raw moments up to second order) in primitive arrays indexed by the label. So
+ * filtering objects by their statistics does not require to touch the pixels; {@link RecognizedObject}s are only
+ * created on request.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class ConnectedComponents {
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    /**
+     * label of every pixel; y * width + x
+     */
+    @Getter
+    private final int[] labels;
+    /**
+     * number of labels (without background)
+     */
+    @Getter
+    private final int count;
+
+    private final int[] area;
+    private final int[] minX;
+    private final int[] minY;
+    private final int[] maxX;
+    private final int[] maxY;
+    private final long[] sumX;
+    private final long[] sumY;
+    private final long[] sumXX;
+    private final long[] sumXY;
+    private final long[] sumYY;
+
+    ConnectedComponents(int width, int height, int[] labels, int count, int[] area, int[] minX, int[] minY, int[] maxX, int[] maxY,
+                        long[] sumX, long[] sumY, long[] sumXX, long[] sumXY, long[] sumYY) {
+        this.width = width;
+        this.height = height;
+        this.labels = labels;
+        this.count = count;
+        this.area = area;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.sumX = sumX;
+        this.sumY = sumY;
+        this.sumXX = sumXX;
+        this.sumXY = sumXY;
+        this.sumYY = sumYY;
+    }
+
+    /**
+     * @param x x-coordinate of the pixel
+     * @param y y-coordinate of the pixel
+     * @return label of the pixel (0 for background)
+     */
+    public int getLabel(int x, int y) {
+        return labels[y * width + x];
+    }
+
+    /**
+     * @param label the label (1..count)
+     * @return number of pixels of the object
+     */
+    public int getArea(int label) {
+        return area[label];
+    }
+
+    /**
+     * @param label the label (1..count)
+     * @return bounding box of the object (bottom right point exclusive, so a single pixel has a size of 1x1)
+     */
+    public JavaRectangle2D getBoundingBox(int label) {
+        return new JavaRectangle2D(minX[label], minY[label], maxX[label] + 1, maxY[label] + 1);
+    }
+
+    /**
+     * @param label the label (1..count)
+     * @return center of mass of the object
+     */
+    public JavaPoint2D getCentroid(int label) {
+        return new JavaPoint2D((double) sumX[label] / area[label], (double) sumY[label] / area[label]);
+    }
+
+    /**
+     * @param label the label (1..count)
+     * @return the normalized central moments of second order [mu20, mu11, mu02]
+     */
+    public double[] getCentralMoments(int label) {
+        double a = area[label];
+        double cx = sumX[label] / a;
+        double cy = sumY[label] / a;
+        return new double[]{sumXX[label] / a - cx * cx, sumXY[label] / a - cx * cy, sumYY[label] / a - cy * cy};
+    }
+
+    /**
+     * @param label the label (1..count)
+     * @return orientation of the main axis of the object in radians
+     */
+    public double getOrientation(int label) {
+        double[] mu = getCentralMoments(label);
+        return 0.5 * Math.atan2(2 * mu[1], mu[0] - mu[2]);
+    }
+
+    /**
+     * @param minArea minimum number of pixels
+     * @return all labels with at least the given area
+     */
+    public int[] getLabels(int minArea) {
+        int[] res = new int[count];
+        int size = 0;
+        for (int label = 1; label <= count; label++) {
+            if (area[label] >= minArea) {
+                res[size++] = label;
+            }
+        }
+        return Arrays.copyOf(res, size);
+    }
+
+    /**
+     * Creates the recognized object of the given label. The coordinates are collected within the bounding box of the
+     * label.
+     *
+     * @param label     the label (1..count)
+     * @param fromImage the image the object was found in
+     * @param <T>       type of the image
+     * @param <V>       type of the object's value
+     * @return the recognized object with the label as id
+     */
+    public <T, V> RecognizedObject<T, V> getRecognizedObject(int label, T fromImage) {
+        List<JavaPoint2D> coordinates = new ArrayList<>(area[label]);
+        for (int y = minY[label]; y <= maxY[label]; y++) {
+            for (int x = minX[label]; x <= maxX[label]; x++) {
+                if (labels[y * width + x] == label) {
+                    coordinates.add(new JavaPoint2D(x, y));
+                }
+            }
+        }
+        RecognizedObject<T, V> object = new RecognizedObject<>(fromImage, coordinates, 0);
+        object.setId(label);
+        return object;
+    }
+
+    /**
+     * @param fromImage the image the objects were found in
+     * @param minArea   minimum number of pixels of an object
+     * @param <T>       type of the image
+     * @param <V>       type of the objects' value
+     * @return the recognized objects with at least the given area
+     */
+    public <T, V> List<RecognizedObject<T, V>> getRecognizedObjects(T fromImage, int minArea) {
+        int[] filtered = getLabels(minArea);
+        List<RecognizedObject<T, V>> res = new ArrayList<>(filtered.length);
+        for (int label : filtered) {
+            res.add(getRecognizedObject(label, fromImage));
+        }
+        return res;
+    }
+
+    /**
+     * Creates an image containing the label of every pixel. The provider must be able to store all labels (0 to
+     * {@link #getCount()}), e.g. an 8 bit image can hold at most 255 objects and a 2 byte image at most 32767.
+     *
+     * @param provider the provider to create the resulting image
+     * @param <T>      type of the resulting image
+     * @return greyscale image containing the labels
+     * @throws IllegalArgumentException if the image created by the provider can not hold the highest label, as
+     *                                  different objects would end up with the same value
+     */
+    public <T> ImageWrapper<T> toImage(@NonNull ImageFactory<T> provider) {
+        ImageWrapper<T> result = provider.getImage(height, width, ChannelType.GREYSCALE);
+        if (count > 0) {
+            // the value is overwritten by the labels below
+            result.setValue(0, 0, 0, count);
+            if (result.getValue(0, 0, 0) != count) {
+                throw new IllegalArgumentException("Image of type " + provider.getSupportedType().getSimpleName() +
+                        " can not hold " + count + " labels");
+            }
+        }
+        result.applyColumnFunction((image, y) -> {
+            double[] row = new double[width];
+            for (int x = 0; x < width; x++) {
+                row[x] = labels[y * width + x];
+            }
+            image.setRow(y, 0, row);
+        }, 0, height, 1, result.supportsParallelAccess());
+        return result;
+    }
+}
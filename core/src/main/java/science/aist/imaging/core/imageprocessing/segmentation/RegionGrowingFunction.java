@@ -18,15 +18,20 @@ import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
 import science.aist.imaging.api.typecheck.TypeChecker;
-import science.aist.jack.math.MathUtils;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * <p>Implementation of Region Growing</p>
+ * <p>The region is grown using a scanline flood fill: starting from a pixel the whole horizontal run of accepted
+ * pixels is taken at once and only one pixel per run of the rows above and below is pushed to the work stack (as
+ * packed int index). Accepted and visited pixels are stored in bitsets, so the input image is read only once and not
+ * modified. The seeds are processed in parallel; every pixel is claimed atomically in the visited bitset, so
+ * overlapping regions are only processed once.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -37,8 +42,6 @@ public class RegionGrowingFunction<T, R> implements ImageFunction<T, R> {
     private static final TypeChecker typeChecker = new TypeChecker(ChannelType.GREYSCALE);
     private static final double BG_VAL = 0;
     private static final double FG_VAL = 255;
-    private static final double UNINITIALIZED = -1;
-    private static final int NB_ARR_RADIUS = 1;
 
     private List<JavaPoint2D> seedPoints;
     private int lowerThresh = 127;
@@ -53,58 +56,127 @@ public class RegionGrowingFunction<T, R> implements ImageFunction<T, R> {
         typeChecker.accept(imageWrapper);
         int height = imageWrapper.getHeight();
         int width = imageWrapper.getWidth();
-        ImageWrapper<R> resultImageWrapper = provider.getImage(height, width, ChannelType.BINARY);
+        // every row starts with a new word, so rows can be written in parallel
+        int wordsPerRow = (width + 63) >> 6;
 
-        resultImageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, 0, UNINITIALIZED));
-
-        Deque<JavaPoint2D> stack = new ArrayDeque<>();
-
-        // first add the seeds:
-        for (JavaPoint2D pos : seedPoints) {
-            int x = pos.getIntX();
-            int y = pos.getIntY();
-            if (x >= 0 && x < width && y >= 0 && y < height) {
-                double currVal = imageWrapper.getValue(x, y, 0);
-                if (lowerThresh <= currVal && currVal <= upperThresh) {
-                    imageWrapper.setValue(x, y, 0, FG_VAL);
-                    stack.push(pos);
-                } else {
-                    imageWrapper.setValue(x, y, 0, BG_VAL);
+        long[] accepted = new long[wordsPerRow * height];
+        imageWrapper.applyColumnFunction((image, y) -> {
+            double[] row = image.getRow(y, 0, null);
+            for (int x = 0; x < width; x++) {
+                if (lowerThresh <= row[x] && row[x] <= upperThresh) {
+                    accepted[y * wordsPerRow + (x >> 6)] |= 1L << x;
                 }
             }
+        }, 0, height, 1, imageWrapper.supportsParallelAccess());
+
+        AtomicLongArray visited = new AtomicLongArray(wordsPerRow * height);
+        int diagonal = neighborType == NeighborType.N8 ? 1 : 0;
+
+        JavaPoint2D[] seeds = seedPoints.toArray(new JavaPoint2D[0]);
+        PixelExecutor.forEachTask(seeds.length, true, i -> {
+            int x = seeds[i].getIntX();
+            int y = seeds[i].getIntY();
+            if (x < 0 || x >= width || y < 0 || y >= height || !isSet(accepted, wordsPerRow, x, y)) {
+                return;
+            }
+            IntStack stack = new IntStack();
+            stack.push(y * width + x);
+            while (stack.size > 0) {
+                int idx = stack.pop();
+                fillSpan(idx % width, idx / width, width, height, wordsPerRow, diagonal, accepted, visited, stack);
+            }
+        });
+
+        ImageWrapper<R> resultImageWrapper = provider.getImage(height, width, ChannelType.BINARY);
+        resultImageWrapper.applyColumnFunction((image, y) -> {
+            double[] row = new double[width];
+            for (int x = 0; x < width; x++) {
+                row[x] = (visited.get(y * wordsPerRow + (x >> 6)) >>> x & 1L) != 0 ? FG_VAL : BG_VAL;
+            }
+            image.setRow(y, 0, row);
+        }, 0, height, 1, resultImageWrapper.supportsParallelAccess());
+
+        return resultImageWrapper;
+    }
+
+    /**
+     * Claims the run of accepted pixels containing (x, y) and pushes the runs of the neighbouring rows
+     */
+    private static void fillSpan(int x, int y, int width, int height, int wordsPerRow, int diagonal,
+                                 long[] accepted, AtomicLongArray visited, IntStack stack) {
+        if (!claim(visited, wordsPerRow, x, y)) {
+            // already processed by this or another seed
+            return;
+        }
+        int left = x;
+        while (left > 0 && isSet(accepted, wordsPerRow, left - 1, y) && claim(visited, wordsPerRow, left - 1, y)) {
+            left--;
+        }
+        int right = x;
+        while (right < width - 1 && isSet(accepted, wordsPerRow, right + 1, y) && claim(visited, wordsPerRow, right + 1, y)) {
+            right++;
         }
 
-        while (!stack.isEmpty()) {
-            JavaPoint2D currProcessingPos = stack.pop();
-            // process neighbors
-            for (int xOffset = -NB_ARR_RADIUS; xOffset <= NB_ARR_RADIUS; xOffset++) {
-                for (int yOffset = -NB_ARR_RADIUS; yOffset <= NB_ARR_RADIUS; yOffset++) {
-                    int nbX = currProcessingPos.getIntX() + xOffset;
-                    int nbY = currProcessingPos.getIntY() + yOffset;
-
-                    if (neighborType.getMask()[yOffset + NB_ARR_RADIUS][xOffset + NB_ARR_RADIUS] // check if process neighbor
-                            && nbX >= 0 && nbX < width && nbY >= 0 && nbY < height // check if in bounds
-                            && MathUtils.equals(resultImageWrapper.getValue(nbX, nbY, 0), UNINITIALIZED)// check if not yet processed
-                    ) {
-                        double currVal = imageWrapper.getValue(nbX, nbY, 0);
-                        if (lowerThresh <= currVal && currVal <= upperThresh) {
-                            resultImageWrapper.setValue(nbX, nbY, 0, FG_VAL);
-                            stack.push(new JavaPoint2D(nbX, nbY));
-                        } else {
-                            resultImageWrapper.setValue(nbX, nbY, 0, BG_VAL);
-                        }
-                    }
+        int from = Math.max(left - diagonal, 0);
+        int to = Math.min(right + diagonal, width - 1);
+        for (int nbY = y - 1; nbY <= y + 1; nbY += 2) {
+            if (nbY < 0 || nbY >= height) {
+                continue;
+            }
+            boolean inRun = false;
+            for (int nbX = from; nbX <= to; nbX++) {
+                boolean candidate = isSet(accepted, wordsPerRow, nbX, nbY) && !isVisited(visited, wordsPerRow, nbX, nbY);
+                if (candidate && !inRun) {
+                    stack.push(nbY * width + nbX);
                 }
+                inRun = candidate;
             }
         }
+    }
+
+    private static boolean isSet(long[] bits, int wordsPerRow, int x, int y) {
+        return (bits[y * wordsPerRow + (x >> 6)] >>> x & 1L) != 0;
+    }
+
+    private static boolean isVisited(AtomicLongArray bits, int wordsPerRow, int x, int y) {
+        return (bits.get(y * wordsPerRow + (x >> 6)) >>> x & 1L) != 0;
+    }
 
-        // finally cleanup
-        resultImageWrapper.applyFunction((image, x, y, c) -> {
-            if (MathUtils.equals(image.getValue(x, y, 0), UNINITIALIZED)) {
-                image.setValue(x, y, 0, BG_VAL);
+    /**
+     * Atomically sets the bit of the pixel
+     *
+     * @return true if the bit was not set before
+     */
+    private static boolean claim(AtomicLongArray bits, int wordsPerRow, int x, int y) {
+        int word = y * wordsPerRow + (x >> 6);
+        long mask = 1L << x;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
             }
-        });
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
 
-        return resultImageWrapper;
+    /**
+     * Growable stack of packed pixel indices
+     */
+    private static final class IntStack {
+        private int[] data = new int[64];
+        private int size = 0;
+
+        private void push(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        private int pop() {
+            return data[--size];
+        }
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.segmentation.morph;
+
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+
+/**
+ * <p>Bit-packed implementation of the binary morphological operations.</p>
+ * <p>Every row of a binary image is packed into a long[], where pixel x is stored in bit {@code x % 64} of word
+ * {@code x / 64}. An arbitrary structuring element is decomposed into its set elements; each of them is applied as
+ * a shifted row, which is combined with the result using a word-wide OR (dilation) or AND (erosion). So 64 pixels are
+ * processed with a few shift and logical operations and the rows are processed in parallel.</p>
+ * <p>The structuring element is given as boolean[y][x] with an odd size and is centered on the processed pixel.
+ * Pixels outside of the image are ignored, i.e. they are treated as background for dilation and as foreground for
+ * erosion.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public final class BinaryMorphology {
+    /**
+     * The structuring element that contains the pixel and its 4 direct neighbors
+     */
+    public static final boolean[][] CROSS = new boolean[][]{
+            {false, true, false},
+            {true, true, true},
+            {false, true, false}
+    };
+
+    private BinaryMorphology() {
+    }
+
+    /**
+     * Packs the first channel of the given image
+     *
+     * @param image        the image
+     * @param isForeground decides which values are foreground pixels
+     * @return the packed rows of the image
+     */
+    public static long[][] pack(ImageWrapper<?> image, DoublePredicate isForeground) {
+        int width = image.getWidth();
+        long[][] bits = new long[image.getHeight()][words(width)];
+        image.applyColumnFunction((img, y) -> {
+            double[] row = img.getRow(y, 0, null);
+            long[] packed = bits[y];
+            for (int x = 0; x < width; x++) {
+                if (isForeground.test(row[x])) {
+                    packed[x >> 6] |= 1L << x;
+                }
+            }
+        }, 0, image.getHeight(), 1, image.supportsParallelAccess());
+        return bits;
+    }
+
+    /**
+     * Writes the packed rows to all channels of the given image
+     *
+     * @param bits       the packed rows
+     * @param image      the target image with the same size as the packed rows
+     * @param foreground value of foreground pixels
+     * @param background value of background pixels
+     */
+    public static void unpack(long[][] bits, ImageWrapper<?> image, double foreground, double background) {
+        int width = image.getWidth();
+        int channels = image.getChannels();
+        image.applyColumnFunction((img, y) -> {
+            double[] row = new double[width * channels];
+            long[] packed = bits[y];
+            for (int x = 0; x < width; x++) {
+                double value = (packed[x >> 6] >>> x & 1L) != 0 ? foreground : background;
+                for (int c = 0; c < channels; c++) {
+                    row[x * channels + c] = value;
+                }
+            }
+            img.setTile(0, y, width, 1, row);
+        }, 0, image.getHeight(), 1, image.supportsParallelAccess());
+    }
+
+    /**
+     * A pixel of the result is set, if at least one of the pixels covered by the structuring element is set
+     *
+     * @param bits               the packed rows
+     * @param width              width of the image
+     * @param structuringElement the structuring element
+     * @return the dilated rows
+     */
+    public static long[][] dilate(long[][] bits, int width, boolean[][] structuringElement) {
+        return morph(bits, width, structuringElement, false);
+    }
+
+    /**
+     * A pixel of the result is set, if all of the pixels covered by the structuring element are set
+     *
+     * @param bits               the packed rows
+     * @param width              width of the image
+     * @param structuringElement the structuring element
+     * @return the eroded rows
+     */
+    public static long[][] erode(long[][] bits, int width, boolean[][] structuringElement) {
+        return morph(bits, width, structuringElement, true);
+    }
+
+    /**
+     * Erosion followed by a dilation
+     *
+     * @param bits               the packed rows
+     * @param width              width of the image
+     * @param structuringElement the structuring element
+     * @return the opened rows
+     */
+    public static long[][] open(long[][] bits, int width, boolean[][] structuringElement) {
+        return dilate(erode(bits, width, structuringElement), width, structuringElement);
+    }
+
+    /**
+     * Dilation followed by an erosion
+     *
+     * @param bits               the packed rows
+     * @param width              width of the image
+     * @param structuringElement the structuring element
+     * @return the closed rows
+     */
+    public static long[][] close(long[][] bits, int width, boolean[][] structuringElement) {
+        return erode(dilate(bits, width, structuringElement), width, structuringElement);
+    }
+
+    /**
+     * Mirrors the structuring element at its center
+     *
+     * @param structuringElement the structuring element
+     * @return the mirrored structuring element
+     */
+    public static boolean[][] reflect(boolean[][] structuringElement) {
+        int height = structuringElement.length;
+        int width = structuringElement[0].length;
+        boolean[][] res = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                res[height - 1 - y][width - 1 - x] = structuringElement[y][x];
+            }
+        }
+        return res;
+    }
+
+    private static long[][] morph(long[][] bits, int width, boolean[][] structuringElement, boolean erode) {
+        int height = bits.length;
+        int words = words(width);
+        int yRadius = (structuringElement.length - 1) / 2;
+        int xRadius = (structuringElement[0].length - 1) / 2;
+        // mask of the valid bits within the last word of a row
+        long lastWordMask = width % 64 == 0 ? -1L : (1L << width) - 1;
+
+        long[][] res = new long[height][words];
+        PixelExecutor.forEachRow(0, height, 1, width, true, y -> {
+            long[] row = res[y];
+            if (erode) {
+                Arrays.fill(row, -1L);
+            }
+            for (int yOffset = -yRadius; yOffset <= yRadius; yOffset++) {
+                int nbY = y + yOffset;
+                if (nbY < 0 || nbY >= height) {
+                    // rows outside of the image neither add foreground (dilate) nor remove it (erode)
+                    continue;
+                }
+                boolean[] elementRow = structuringElement[yOffset + yRadius];
+                long[] source = bits[nbY];
+                for (int xOffset = -xRadius; xOffset <= xRadius; xOffset++) {
+                    if (!elementRow[xOffset + xRadius]) {
+                        continue;
+                    }
+                    for (int w = 0; w < words; w++) {
+                        long shifted = shiftedWord(source, w, xOffset, erode, lastWordMask);
+                        if (erode) {
+                            row[w] &= shifted;
+                        } else {
+                            row[w] |= shifted;
+                        }
+                    }
+                }
+            }
+            if (words > 0) {
+                row[words - 1] &= lastWordMask;
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Calculates word w of the row shifted by offset pixels, i.e. bit x of the result is bit x + offset of the row
+     *
+     * @param row          the packed row
+     * @param w            index of the word
+     * @param offset       the shift in pixels
+     * @param fill         value of the pixels outside of the row
+     * @param lastWordMask mask of the valid bits of the last word
+     * @return the shifted word
+     */
+    private static long shiftedWord(long[] row, int w, int offset, boolean fill, long lastWordMask) {
+        int start = (w << 6) + offset;
+        int q = Math.floorDiv(start, 64);
+        int r = Math.floorMod(start, 64);
+        long low = word(row, q, fill, lastWordMask) >>> r;
+        return r == 0 ? low : low | word(row, q + 1, fill, lastWordMask) << (64 - r);
+    }
+
+    private static long word(long[] row, int index, boolean fill, long lastWordMask) {
+        if (index < 0 || index >= row.length) {
+            return fill ? -1L : 0L;
+        }
+        if (fill && index == row.length - 1) {
+            return row[index] | ~lastWordMask;
+        }
+        return row[index];
+    }
+
+    private static int words(int width) {
+        return (width + 63) >> 6;
+    }
+}
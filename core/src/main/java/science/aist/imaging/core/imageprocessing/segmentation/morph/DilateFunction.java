@@ -20,6 +20,7 @@ import science.aist.jack.math.MathUtils;
 
 /**
  * <p>Implementation of Dilation</p>
+ * <p>The image is processed bit-packed using {@link BinaryMorphology}.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -29,40 +30,17 @@ public class DilateFunction<T, R> implements ImageFunction<T, R> {
     private static final TypeChecker TYPE_CHECKER = new TypeChecker(ChannelType.BINARY);
     private static final double PIXEL_SET = 255;
     private static final double PIXEL_UNSET = 0;
-    private static final double[][] DILATION_MASK = new double[][]{
-            {PIXEL_UNSET, PIXEL_SET, PIXEL_UNSET},
-            {PIXEL_SET, PIXEL_SET, PIXEL_SET},
-            {PIXEL_UNSET, PIXEL_SET, PIXEL_UNSET}
-    };
-    private static final int RADIUS = 1;
     @NonNull
     private ImageFactory<R> provider;
 
     @Override
-    @SuppressWarnings("java:S1119")
     public ImageWrapper<R> apply(ImageWrapper<T> imageWrapper) {
         TYPE_CHECKER.accept(imageWrapper);
         int height = imageWrapper.getHeight();
         int width = imageWrapper.getWidth();
         ImageWrapper<R> resultWrapper = provider.getImage(height, width, ChannelType.BINARY);
-        resultWrapper.applyFunction((image, x, y, c) -> {
-            resultWrapper.setValue(x, y, 0, PIXEL_UNSET);
-            offset:
-            for (int xOffset = -RADIUS; xOffset <= RADIUS; xOffset++) {
-                for (int yOffset = -RADIUS; yOffset <= RADIUS; yOffset++) {
-                    int nbX = x + xOffset;
-                    int nbY = y + yOffset;
-                    if (nbX >= 0 && nbX < width && nbY >= 0 && nbY < height &&
-                            MathUtils.equals(imageWrapper.getValue(nbX, nbY, 0), PIXEL_SET) &&
-                            DILATION_MASK[yOffset + RADIUS][xOffset + RADIUS] == PIXEL_SET) {
-                        resultWrapper.setValue(x, y, 0, PIXEL_SET);
-                        break offset;
-                    }
-                }
-            }
-        });
-
+        long[][] bits = BinaryMorphology.pack(imageWrapper, v -> MathUtils.equals(v, PIXEL_SET));
+        BinaryMorphology.unpack(BinaryMorphology.dilate(bits, width, BinaryMorphology.CROSS), resultWrapper, PIXEL_SET, PIXEL_UNSET);
         return resultWrapper;
     }
 }
-
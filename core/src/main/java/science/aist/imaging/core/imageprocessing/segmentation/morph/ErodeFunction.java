@@ -19,6 +19,7 @@ import science.aist.imaging.api.typecheck.TypeChecker;
 
 /**
  * <p>Implementation of Erosion</p>
+ * <p>The image is processed bit-packed using {@link BinaryMorphology}.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -29,12 +30,6 @@ public class ErodeFunction<T, R> implements ImageFunction<T, R> {
     private static final TypeChecker TYPE_CHECKER = new TypeChecker(ChannelType.BINARY);
     private static final int PIXEL_SET = 255;
     private static final int PIXEL_UNSET = 0;
-    private static final short[][] EROSION_MASK = new short[][]{
-            {PIXEL_UNSET, PIXEL_SET, PIXEL_UNSET},
-            {PIXEL_SET, PIXEL_SET, PIXEL_SET},
-            {PIXEL_UNSET, PIXEL_SET, PIXEL_UNSET}
-    };
-    private static final int RADIUS = 1;
     @NonNull
     private final ImageFactory<R> provider;
 
@@ -44,31 +39,8 @@ public class ErodeFunction<T, R> implements ImageFunction<T, R> {
         int height = imageWrapper.getHeight();
         int width = imageWrapper.getWidth();
         ImageWrapper<R> resultWrapper = provider.getImage(height, width, ChannelType.BINARY);
-
-        resultWrapper.applyFunction((image, x, y, c) -> {
-            int cnt = 0;
-            int total = 0;
-
-            for (int xOffset = -RADIUS; xOffset <= RADIUS; xOffset++) {
-                for (int yOffset = -RADIUS; yOffset <= RADIUS; yOffset++) {
-                    int nbX = x + xOffset;
-                    int nbY = y + yOffset;
-                    if (nbX >= 0 && nbX < width && nbY >= 0 && nbY < height) {
-                        total++;
-                        if (imageWrapper.getValue(nbX, nbY, 0) >= EROSION_MASK[yOffset + RADIUS][xOffset + RADIUS]) {
-                            cnt++;
-                        }
-                    }
-                }
-            }
-
-            if (cnt == total) {
-                image.setValue(x, y, 0, PIXEL_SET);
-            } else {
-                image.setValue(x, y, 0, PIXEL_UNSET);
-            }
-        });
-
+        long[][] bits = BinaryMorphology.pack(imageWrapper, v -> v >= PIXEL_SET);
+        BinaryMorphology.unpack(BinaryMorphology.erode(bits, width, BinaryMorphology.CROSS), resultWrapper, PIXEL_SET, PIXEL_UNSET);
         return resultWrapper;
     }
 }
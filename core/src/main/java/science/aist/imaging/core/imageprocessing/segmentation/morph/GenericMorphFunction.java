@@ -27,6 +27,7 @@ import java.util.function.Predicate;
 /**
  * Generic implementation of a morph function that allows to dilate/erode any foreground colors (not limited to binary!)
  * Use the isBackgroundFunction to determine if a pixel is a foreground or a background pixel.
+ * Images with {@link ChannelType#BINARY} are processed bit-packed using {@link BinaryMorphology}.
  *
  * @param <T> Type of input image
  * @param <P> Type of output image
@@ -85,29 +86,35 @@ public class GenericMorphFunction<T, P> implements ImageFunction<T, P> {
         ImageWrapper<P> res = tProvider.getImage(height, width, i.getChannelType());
         i.copyTo(res);
 
+        if (i.getChannelType() == ChannelType.BINARY && applyBinary(i, res)) {
+            return res;
+        }
+
         int nHeight = (neighborMask.getHeight() - 1) / 2;
         int nWidth = (neighborMask.getWidth() - 1) / 2;
         short[][][] mask = neighborMask.getImage();
 
+        // the background function only depends on the input image, so evaluate it once per pixel
+        boolean[][] background = new boolean[height][width];
+        i.applyColumnFunction((image, y) -> {
+            for (int x = 0; x < width; x++) {
+                background[y][x] = isBackgroundFunction.test(new Color(image.getValues(x, y)));
+            }
+        }, 0, height, 1, i.supportsParallelAccess());
+
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
-                double[] values = i.getValues(x, y);
                 // check if current values are foreground pixels
-                if (Boolean.FALSE.equals(isBackgroundFunction.test(new Color(values)))) {
+                if (!background[y][x]) {
+                    double[] values = i.getValues(x, y);
                     // check all neighbors of the current pixel if they are background pixels
                     // iterate the neighbors
-                    for (int xOffset = -nWidth; xOffset <= nWidth; xOffset++) {
-                        for (int yOffset = -nHeight; yOffset <= nHeight; yOffset++) {
+                    for (int xOffset = Math.max(-nWidth, -x); xOffset <= Math.min(nWidth, width - 1 - x); xOffset++) {
+                        for (int yOffset = Math.max(-nHeight, -y); yOffset <= Math.min(nHeight, height - 1 - y); yOffset++) {
                             // check if the current neighbor should be looked up according to the selected mask
-                            // also check if the current position is inside of the image
-                            if (mask[yOffset + nHeight][xOffset + nWidth][0] != 0 &&
-                                    x + xOffset >= 0 && x + xOffset < width &&
-                                    y + yOffset >= 0 && y + yOffset < height) {
-                                double[] neighbor = i.getValues(x + xOffset, y + yOffset);
-                                // if the neighbor pixel is currently a background pixel set it to a foreground pixel for dilation
-                                if (Boolean.TRUE.equals(isBackgroundFunction.test(new Color(neighbor)))) {
-                                    res.setValues(x + xOffset, y + yOffset, values);
-                                }
+                            // if the neighbor pixel is currently a background pixel set it to a foreground pixel for dilation
+                            if (mask[yOffset + nHeight][xOffset + nWidth][0] != 0 && background[y + yOffset][x + xOffset]) {
+                                res.setValues(x + xOffset, y + yOffset, values);
                             }
                         }
                     }
@@ -116,5 +123,48 @@ public class GenericMorphFunction<T, P> implements ImageFunction<T, P> {
         }
         return res;
     }
-}
 
+    /**
+     * Morphs a binary image bit-packed using {@link BinaryMorphology}. As a binary image only contains the values 0 and
+     * 255, the background function only needs to be evaluated for these two values.
+     *
+     * @param i   the binary input image
+     * @param res the result image, which already contains a copy of the input image
+     * @return false if the image contains other values than 0 and 255 and needs to be processed by the generic path
+     */
+    private boolean applyBinary(ImageWrapper<T> i, ImageWrapper<P> res) {
+        double unset = ChannelType.BINARY.getMinVal(0);
+        double set = ChannelType.BINARY.getMaxVal(0);
+        int width = i.getWidth();
+        for (int y = 0; y < i.getHeight(); y++) {
+            for (double v : i.getRow(y, 0, null)) {
+                if (v != unset && v != set) {
+                    return false;
+                }
+            }
+        }
+
+        boolean unsetIsBackground = isBackgroundFunction.test(new Color(new double[]{unset}));
+        boolean setIsBackground = isBackgroundFunction.test(new Color(new double[]{set}));
+        if (unsetIsBackground == setIsBackground) {
+            // either there is no foreground or no background, so nothing changes
+            return true;
+        }
+        double foreground = unsetIsBackground ? set : unset;
+        double background = unsetIsBackground ? unset : set;
+
+        boolean[][] structuringElement = new boolean[neighborMask.getHeight()][neighborMask.getWidth()];
+        short[][][] mask = neighborMask.getImage();
+        for (int y = 0; y < structuringElement.length; y++) {
+            for (int x = 0; x < structuringElement[y].length; x++) {
+                structuringElement[y][x] = mask[y][x][0] != 0;
+            }
+        }
+        // a foreground pixel is spread to all pixels at its position plus the mask offset, so the result pixel looks
+        // at the mirrored mask; the foreground pixels of the input always remain
+        structuringElement[structuringElement.length / 2][structuringElement[0].length / 2] = true;
+        long[][] bits = BinaryMorphology.pack(i, v -> v == foreground);
+        BinaryMorphology.unpack(BinaryMorphology.dilate(bits, width, BinaryMorphology.reflect(structuringElement)), res, foreground, background);
+        return true;
+    }
+}
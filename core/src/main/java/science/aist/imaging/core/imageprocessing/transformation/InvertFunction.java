@@ -9,9 +9,11 @@
 
 package science.aist.imaging.core.imageprocessing.transformation;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import science.aist.imaging.api.ImageFunction;
+import science.aist.imaging.api.PointwiseImageFunction;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 
@@ -22,7 +24,8 @@ import science.aist.imaging.api.domain.wrapper.ImageWrapper;
  * @since 1.0
  */
 @RequiredArgsConstructor
-public class InvertFunction<T, R> implements ImageFunction<T, R> {
+public class InvertFunction<T, R> implements PointwiseImageFunction<T, R> {
+    @Getter
     @NonNull
     private final ImageFactory<R> provider;
 
@@ -36,4 +39,17 @@ public class InvertFunction<T, R> implements ImageFunction<T, R> {
 
         return result;
     }
+
+    @Override
+    public ChannelType getResultChannelType(ChannelType inputType) {
+        return inputType;
+    }
+
+    @Override
+    public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+        int length = width * inputType.getNumberOfChannels();
+        for (int i = 0; i < length; i++) {
+            dst[i] = 255 - src[i];
+        }
+    }
 }
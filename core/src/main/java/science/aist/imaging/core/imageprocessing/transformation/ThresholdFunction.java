@@ -9,10 +9,11 @@
 
 package science.aist.imaging.core.imageprocessing.transformation;
 
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import science.aist.imaging.api.ImageFunction;
+import science.aist.imaging.api.PointwiseImageFunction;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
@@ -26,8 +27,9 @@ import science.aist.imaging.api.typecheck.TypeChecker;
  */
 @Setter
 @RequiredArgsConstructor
-public class ThresholdFunction<T, R> implements ImageFunction<T, R> {
+public class ThresholdFunction<T, R> implements PointwiseImageFunction<T, R> {
     private static final TypeChecker typeChecker = new TypeChecker(ChannelType.GREYSCALE, ChannelType.BINARY);
+    @Getter
     @NonNull
     private final ImageFactory<R> provider;
     /**
@@ -58,11 +60,25 @@ public class ThresholdFunction<T, R> implements ImageFunction<T, R> {
         int width = imageWrapper.getWidth();
         ImageWrapper<R> result = provider.getImage(height, width, ChannelType.BINARY);
 
-        result.applyFunction((image, x, y, c) -> {
-            double val = imageWrapper.getValue(x, y, c);
-            image.setValue(x, y, c, val > lowerThresh && (upperThresh != null && val < upperThresh) || val > lowerThresh && upperThresh == null ? foreground : background);
-        });
+        result.applyFunction((image, x, y, c) -> image.setValue(x, y, c, threshold(imageWrapper.getValue(x, y, c))));
 
         return result;
     }
+
+    @Override
+    public ChannelType getResultChannelType(ChannelType inputType) {
+        typeChecker.check(inputType);
+        return ChannelType.BINARY;
+    }
+
+    @Override
+    public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+        for (int x = 0; x < width; x++) {
+            dst[x] = threshold(src[x]);
+        }
+    }
+
+    private double threshold(double val) {
+        return val > lowerThresh && (upperThresh != null && val < upperThresh) || val > lowerThresh && upperThresh == null ? foreground : background;
+    }
 }
@@ -10,6 +10,7 @@
 package science.aist.imaging.core.imageprocessing.transformation;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NonNull;
 import science.aist.imaging.api.domain.offset.RotationOffset;
 import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
@@ -37,6 +38,7 @@ public class TransformFunction<T> implements BiFunction<ImageWrapper<?>, Rotatio
     /**
      * The interpolation
      */
+    @Getter
     @NonNull
     private final AbstractInterpolationFunction interpolation;
 
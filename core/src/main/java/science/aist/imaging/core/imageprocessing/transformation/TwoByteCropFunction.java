@@ -18,7 +18,6 @@ import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 
-import java.util.stream.IntStream;
 
 /**
  * <p>Crops a given image where {@link TwoByteCropFunction#from} is the topLeft point and {@link TwoByteCropFunction#to} is the bottom right point to crop.</p>
@@ -76,14 +75,14 @@ public class TwoByteCropFunction<T, R> implements ImageFunction<T, R> {
 
         ImageWrapper<R> resultWrapper = provider.getImage(to.getIntY() - startY, to.getIntX() - startX, channelType);
 
-        IntStream.range(startY, to.getIntY()).parallel().forEach(y -> {
+        int channels = imageWrapper.getChannels();
+        resultWrapper.applyColumnFunction((image, y) -> {
             for (int x = startX; x < to.getIntX(); x++) {
-                for (int c = 0; c < imageWrapper.getChannels(); c++) {
-                    resultWrapper.setValue(x - startX, y - startY, c, imageWrapper.getValue(x, y, c));
-
+                for (int c = 0; c < channels; c++) {
+                    image.setValue(x - startX, y, c, imageWrapper.getValue(x, y + startY, c));
                 }
             }
-        });
+        }, 0, resultWrapper.getHeight(), 1, resultWrapper.supportsParallelAccess());
         return resultWrapper;
     }
 }
@@ -11,6 +11,7 @@ package science.aist.imaging.core.imageprocessing.transformation;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import science.aist.imaging.api.PointwiseImageFunction;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
@@ -45,4 +46,59 @@ public class ValueTransformationFunction<P, T> implements BiFunction<ImageWrappe
 
         return result;
     }
+
+    /**
+     * Binds the given transformation function, so it can be chained (and fused) with other image functions
+     *
+     * @param transformationFunction the transformation function, where the index is the input value
+     * @return image function that applies the transformation function
+     */
+    public PointwiseImageFunction<P, T> with(int[] transformationFunction) {
+        return new PointwiseImageFunction<P, T>() {
+            @Override
+            public ImageWrapper<T> apply(ImageWrapper<P> input) {
+                return ValueTransformationFunction.this.apply(input, transformationFunction);
+            }
+
+            @Override
+            public ChannelType getResultChannelType(ChannelType inputType) {
+                return ValueTransformationFunction.getResultChannelType(inputType);
+            }
+
+            @Override
+            public void applyToRow(double[] src, ChannelType inputType, double[] dst, int width) {
+                ValueTransformationFunction.applyToRow(transformationFunction, src, dst, width);
+            }
+
+            @Override
+            public ImageFactory<T> getProvider() {
+                return provider;
+            }
+        };
+    }
+
+    /**
+     * Checks the input type for the transformation function
+     *
+     * @param inputType channel type of the input
+     * @return channel type of the result
+     */
+    private static ChannelType getResultChannelType(ChannelType inputType) {
+        typeChecker.check(inputType);
+        return ChannelType.GREYSCALE;
+    }
+
+    /**
+     * Applies the transformation function for a single row
+     *
+     * @param transformationFunction the transformation function
+     * @param src                    the input row
+     * @param dst                    the result row
+     * @param width                  number of pixels in the row
+     */
+    private static void applyToRow(int[] transformationFunction, double[] src, double[] dst, int width) {
+        for (int x = 0; x < width; x++) {
+            dst[x] = transformationFunction[(int) (src[x] + 0.5)];
+        }
+    }
 }
@@ -16,8 +16,6 @@ import science.aist.imaging.api.domain.wrapper.ImageFactory;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.jack.general.transformer.Transformer;
 
-import java.util.stream.IntStream;
-
 /**
  * <p>Generic transformer which allows to transform between given ImageWrapper types</p>
  *
@@ -52,35 +50,12 @@ public class GenericImageWrapperTransformer<T, P> implements Transformer<ImageWr
     }
 
     /**
-     * Moves the pixel information from wrapper1 to wrapper2
+     * Moves the pixel information from wrapper1 to wrapper2 using whole rows (see {@link ImageWrapper#copyTo(ImageWrapper)})
      *
      * @param wrapper1 source of pixels
      * @param wrapper2 target of pixels
      */
     protected void transferData(ImageWrapper<?> wrapper1, ImageWrapper<?> wrapper2) {
-        if (wrapper2.supportsParallelAccess()) {
-            IntStream.range(0, wrapper1.getWidth()).parallel().forEach(x ->
-                    transferData(wrapper1, wrapper2, x)
-            );
-        } else {
-            for (int x = 0; x < wrapper1.getWidth(); x++) {
-                transferData(wrapper1, wrapper2, x);
-            }
-        }
-    }
-
-    /**
-     * Moves the pixel information from wrapper1 to wrapper2 for a given row
-     *
-     * @param wrapper1 source of pixels
-     * @param wrapper2 target of pixels
-     * @param x        row index
-     */
-    protected void transferData(ImageWrapper<?> wrapper1, ImageWrapper<?> wrapper2, int x) {
-        for (int y = 0; y < wrapper1.getHeight(); y++) {
-            for (int c = 0; c < wrapper1.getChannels(); c++) {
-                wrapper2.setValue(x, y, c, wrapper1.getValue(x, y, c));
-            }
-        }
+        wrapper1.copyTo(wrapper2);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.transformers;
+
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.FlatImage2Byte;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.jack.general.transformer.Transformer;
+
+import java.util.Arrays;
+
+/**
+ * <p>Transformer for Image2Byte to the flat, row-major FlatImage2Byte (and back). Every pixel is moved as one block of channels.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class Image2ByteToFlatImage2ByteTransformer implements Transformer<ImageWrapper<short[][][]>, ImageWrapper<short[]>> {
+
+    @Override
+    public ImageWrapper<short[][][]> transformTo(ImageWrapper<short[]> flat) {
+        int height = flat.getHeight();
+        int width = flat.getWidth();
+        int channels = flat.getChannels();
+
+        ImageWrapper<short[][][]> res = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(height, width, flat.getChannelType());
+        if (!(flat instanceof FlatImage2Byte)) {
+            // the layout of other wrappers (e.g. sub images or custom factories) is unknown, so copy them generically
+            flat.copyTo(res);
+            return res;
+        }
+        short[][][] outImage = res.getImage();
+        short[] inImage = flat.getImage();
+        FlatImage2Byte source = (FlatImage2Byte) flat;
+
+        res.applyColumnFunction((image, y) -> {
+            int idx = source.index(0, y, 0);
+            for (int x = 0; x < width; x++, idx += channels) {
+                outImage[y][x] = Arrays.copyOfRange(inImage, idx, idx + channels);
+            }
+        }, 0, height, 1, res.supportsParallelAccess());
+
+        return res;
+    }
+
+    @Override
+    public ImageWrapper<short[]> transformFrom(ImageWrapper<short[][][]> nested) {
+        int height = nested.getHeight();
+        int width = nested.getWidth();
+
+        ImageWrapper<short[]> res = ImageFactoryFactory.getImageFactory(short[].class).getImage(height, width, nested.getChannelType());
+        // the rows are read using getTile, as the backing array of views (e.g. sub images) does not start at their origin
+        res.applyColumnFunction((image, y) -> image.setTile(0, y, width, 1, nested.getTile(0, y, width, 1, null)),
+                0, height, 1, res.supportsParallelAccess() && nested.supportsParallelAccess());
+
+        return res;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.transformers;
+
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.FlatImage8Byte;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.jack.general.transformer.Transformer;
+
+import java.util.Arrays;
+
+/**
+ * <p>Transformer for Image8Byte to the flat, row-major FlatImage8Byte (and back). Every pixel is moved as one block of channels.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class Image8ByteToFlatImage8ByteTransformer implements Transformer<ImageWrapper<double[][][]>, ImageWrapper<double[]>> {
+
+    @Override
+    public ImageWrapper<double[][][]> transformTo(ImageWrapper<double[]> flat) {
+        int height = flat.getHeight();
+        int width = flat.getWidth();
+        int channels = flat.getChannels();
+
+        ImageWrapper<double[][][]> res = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(height, width, flat.getChannelType());
+        if (!(flat instanceof FlatImage8Byte)) {
+            // the layout of other wrappers (e.g. sub images or custom factories) is unknown, so copy them generically
+            flat.copyTo(res);
+            return res;
+        }
+        double[][][] outImage = res.getImage();
+        double[] inImage = flat.getImage();
+        FlatImage8Byte source = (FlatImage8Byte) flat;
+
+        res.applyColumnFunction((image, y) -> {
+            int idx = source.index(0, y, 0);
+            for (int x = 0; x < width; x++, idx += channels) {
+                outImage[y][x] = Arrays.copyOfRange(inImage, idx, idx + channels);
+            }
+        }, 0, height, 1, res.supportsParallelAccess());
+
+        return res;
+    }
+
+    @Override
+    public ImageWrapper<double[]> transformFrom(ImageWrapper<double[][][]> nested) {
+        int height = nested.getHeight();
+        int width = nested.getWidth();
+
+        ImageWrapper<double[]> res = ImageFactoryFactory.getImageFactory(double[].class).getImage(height, width, nested.getChannelType());
+        // the rows are read using getTile, as the backing array of views (e.g. sub images) does not start at their origin
+        res.applyColumnFunction((image, y) -> image.setTile(0, y, width, 1, nested.getTile(0, y, width, 1, null)),
+                0, height, 1, res.supportsParallelAccess() && nested.supportsParallelAccess());
+
+        return res;
+    }
+}
@@ -41,7 +41,17 @@ public class RGB2BGRTransformer<P, T> implements Transformer<ImageWrapper<P>, Im
         final int channels = imageWrapper.getChannels();
 
         ImageWrapper<R> resultImageWrapper = resultProvider.getImage(height, width, newType);
-        resultImageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, imageWrapper.getValue(x, y, channels - 1 - c)));
+        resultImageWrapper.applyColumnFunction((image, y) -> {
+            double[] row = imageWrapper.getTile(0, y, width, 1, null);
+            for (int idx = 0; idx < row.length; idx += channels) {
+                for (int c = 0; c < channels / 2; c++) {
+                    double tmp = row[idx + c];
+                    row[idx + c] = row[idx + channels - 1 - c];
+                    row[idx + channels - 1 - c] = tmp;
+                }
+            }
+            image.setTile(0, y, width, 1, row);
+        }, 0, height, 1, resultImageWrapper.supportsParallelAccess());
 
         return resultImageWrapper;
     }
@@ -17,7 +17,6 @@ import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.api.typecheck.TypeChecker;
 import science.aist.jack.general.transformer.Transformer;
 
-import java.util.stream.IntStream;
 
 /**
  * <p>Transforms a RGB image into a RGBA image and vice versa.</p>
@@ -47,25 +46,23 @@ public class RGB2RGBATransformer<P, T> implements Transformer<ImageWrapper<P>, I
 
         ImageWrapper<R> resultImageWrapper = resultProvider.getImage(height, width, newType);
 
-        if (resultImageWrapper.supportsParallelAccess()) {
-            IntStream.range(0, height).parallel().forEach(y -> setData(y, width, imageWrapper, resultImageWrapper, newType));
-        } else {
-            for (int y = 0; y < height; y++) {
-                setData(y, width, imageWrapper, resultImageWrapper, newType);
-            }
-        }
+        resultImageWrapper.applyColumnFunction((image, y) -> setData(y, width, imageWrapper, resultImageWrapper, newType),
+                0, height, 1, resultImageWrapper.supportsParallelAccess());
 
 
         return resultImageWrapper;
     }
 
     private static <R, I> void setData(int y, int width, ImageWrapper<I> imageWrapper, ImageWrapper<R> resultImageWrapper, ChannelType newType) {
+        double[] source = imageWrapper.getTile(0, y, width, 1, null);
+        int sourceChannels = imageWrapper.getChannels();
+        int targetChannels = newType.getNumberOfChannels();
+        double[] target = new double[width * targetChannels];
         for (int x = 0; x < width; x++) {
-            for (int c = 0; c < 3; c++) {
-                resultImageWrapper.setValue(x, y, c, imageWrapper.getValue(x, y, c));
-            }
-            if (newType == ChannelType.RGBA) resultImageWrapper.setValue(x, y, 3, 255);
+            System.arraycopy(source, x * sourceChannels, target, x * targetChannels, 3);
+            if (newType == ChannelType.RGBA) target[x * targetChannels + 3] = 255;
         }
+        resultImageWrapper.setTile(0, y, width, 1, target);
     }
 
     @Override
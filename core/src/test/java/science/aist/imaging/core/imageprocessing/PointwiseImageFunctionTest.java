@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.ImageFunction;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.api.domain.wrapper.SubImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.api.typecheck.TypeException;
+import science.aist.imaging.core.imageprocessing.contrast.GammaCorrectionFunction;
+import science.aist.imaging.core.imageprocessing.conversion.ColoredToGreyscaleFunction;
+import science.aist.imaging.core.imageprocessing.operator.AddFunction;
+import science.aist.imaging.core.imageprocessing.transformation.InvertFunction;
+import science.aist.imaging.core.imageprocessing.transformation.ThresholdFunction;
+import science.aist.imaging.core.imageprocessing.transformation.ValueTransformationFunction;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Tests the fusion of {@link science.aist.imaging.api.PointwiseImageFunction}s</p>
+ *
+ * @author Christoph Praschl
+ */
+public class PointwiseImageFunctionTest {
+    private final ImageFactory<double[][][]> factory = ImageFactoryFactory.getImageFactory(double[][][].class);
+
+    /**
+     * Factory that counts the created images
+     */
+    private ImageFactory<double[][][]> countingFactory(AtomicInteger counter) {
+        return new ImageFactory<double[][][]>() {
+            @Override
+            public ImageWrapper<double[][][]> getImage(int height, int width, ChannelType channel) {
+                counter.incrementAndGet();
+                return factory.getImage(height, width, channel);
+            }
+
+            @Override
+            public ImageWrapper<double[][][]> getImage(int height, int width, ChannelType channel, double[][][] image) {
+                counter.incrementAndGet();
+                return factory.getImage(height, width, channel, image);
+            }
+
+            @Override
+            public ImageWrapper<double[][][]> getImage(double[][][] image) {
+                counter.incrementAndGet();
+                return factory.getImage(image);
+            }
+
+            @Override
+            public Class<double[][][]> getSupportedType() {
+                return factory.getSupportedType();
+            }
+        };
+    }
+
+    @Test
+    public void testAndThenFused() {
+        // given
+        AtomicInteger created = new AtomicInteger();
+        ImageFactory<double[][][]> counting = countingFactory(created);
+        ImageWrapper<double[][][]> input = factory.getRandomImage(40, 50, ChannelType.RGB, new Random(42), 0, 255, false);
+
+        ColoredToGreyscaleFunction<double[][][], double[][][]> greyscale = new ColoredToGreyscaleFunction<>(counting);
+        GammaCorrectionFunction<double[][][], double[][][]> gamma = new GammaCorrectionFunction<>(counting);
+        gamma.setGamma(0.8);
+        AddFunction<double[][][]> add = new AddFunction<>();
+        add.setProvider(counting);
+        ThresholdFunction<double[][][], double[][][]> threshold = new ThresholdFunction<>(counting);
+        threshold.setLowerThresh(120);
+        InvertFunction<double[][][], double[][][]> invert = new InvertFunction<>(counting);
+
+        ImageWrapper<double[][][]> expected = invert.apply(threshold.apply(add.apply(gamma.apply(greyscale.apply(input)), 10.0)));
+        created.set(0);
+
+        // when
+        ImageWrapper<double[][][]> res = greyscale
+                .andThen(gamma)
+                .andThen(add.withScalar(10))
+                .andThen(threshold)
+                .andThen(invert)
+                .apply(input);
+
+        // then
+        Assert.assertEquals(created.get(), 1);
+        Assert.assertEquals(res.getChannelType(), ChannelType.BINARY);
+        Assert.assertEquals(res, expected);
+    }
+
+    @Test
+    public void testAndThenFusedAfterBoundary() {
+        // given
+        AtomicInteger created = new AtomicInteger();
+        ImageFactory<double[][][]> counting = countingFactory(created);
+        ImageWrapper<double[][][]> input = factory.getRandomImage(20, 30, ChannelType.GREYSCALE, new Random(7), 0, 255, false);
+        ImageFunction<double[][][], double[][][]> boundary = image -> image.createCopy(counting);
+        ThresholdFunction<double[][][], double[][][]> threshold = new ThresholdFunction<>(counting);
+        threshold.setLowerThresh(100);
+        InvertFunction<double[][][], double[][][]> invert = new InvertFunction<>(counting);
+
+        ImageWrapper<double[][][]> expected = invert.apply(threshold.apply(input));
+        created.set(0);
+
+        // when
+        ImageWrapper<double[][][]> res = boundary.andThen(threshold).andThen(invert).apply(input);
+
+        // then
+        Assert.assertEquals(created.get(), 2);
+        Assert.assertEquals(res, expected);
+    }
+
+    @Test
+    public void testAndThenFusedQuantizesIntermediates() {
+        // given
+        ImageFactory<short[][][]> shortFactory = ImageFactoryFactory.getImageFactory(short[][][].class);
+        ImageWrapper<double[][][]> input = factory.getRandomImage(40, 50, ChannelType.RGB, new Random(11), 0, 255, false);
+        ColoredToGreyscaleFunction<double[][][], short[][][]> greyscale = new ColoredToGreyscaleFunction<>(shortFactory);
+        int[] identity = new int[256];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+        ValueTransformationFunction<short[][][], double[][][]> transformation = new ValueTransformationFunction<>(factory);
+
+        ImageWrapper<double[][][]> expected = transformation.apply(greyscale.apply(input), identity);
+
+        // when
+        ImageWrapper<double[][][]> res = greyscale.andThen(transformation.with(identity)).apply(input);
+
+        // then
+        Assert.assertEquals(res, expected);
+    }
+
+    @Test
+    public void testAndThenFusedSequentialInput() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int serialThreshold = PixelExecutor.getSerialThreshold();
+        int bandSize = PixelExecutor.getBandSize();
+        PixelExecutor.setPool(pool);
+        PixelExecutor.setSerialThreshold(0);
+        PixelExecutor.setBandSize(1);
+        Set<Thread> readers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        ImageWrapper<double[][][]> image = factory.getRandomImage(40, 50, ChannelType.GREYSCALE, new Random(7), 0, 255, false);
+        // e.g. a wrapper around a BufferedImage, which must not be read by multiple threads
+        ImageWrapper<double[][][]> input = new SubImageWrapper<double[][][]>(image, 0, 0, 50, 40) {
+            @Override
+            public double[] getTile(int x, int y, int width, int height, double[] dst) {
+                readers.add(Thread.currentThread());
+                return super.getTile(x, y, width, height, dst);
+            }
+
+            @Override
+            public boolean supportsParallelAccess() {
+                return false;
+            }
+        };
+        InvertFunction<double[][][], double[][][]> invert = new InvertFunction<>(factory);
+        ThresholdFunction<double[][][], double[][][]> threshold = new ThresholdFunction<>(factory);
+
+        // when
+        try {
+            invert.andThen(threshold).apply(input);
+        } finally {
+            PixelExecutor.setPool(null);
+            PixelExecutor.setSerialThreshold(serialThreshold);
+            PixelExecutor.setBandSize(bandSize);
+            pool.shutdown();
+        }
+
+        // then
+        Assert.assertEquals(readers.size(), 1);
+    }
+
+    @Test(expectedExceptions = TypeException.class)
+    public void testAndThenFusedTypeCheck() {
+        // given
+        ImageWrapper<double[][][]> input = factory.getImage(10, 10, ChannelType.RGB);
+        InvertFunction<double[][][], double[][][]> invert = new InvertFunction<>(factory);
+        ThresholdFunction<double[][][], double[][][]> threshold = new ThresholdFunction<>(factory);
+
+        // when
+        invert.andThen(threshold).apply(input);
+
+        // then
+    }
+}
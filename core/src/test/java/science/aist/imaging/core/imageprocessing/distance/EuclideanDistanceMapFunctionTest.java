@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.distance;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.core.imageprocessing.BaseTestUtil;
+
+import java.util.Random;
+
+/**
+ * <p>Test class for {@link EuclideanDistanceMapFunction}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class EuclideanDistanceMapFunctionTest {
+
+    @Test
+    public void testApply() {
+        // given
+        ImageWrapper<double[][][]> greyScaleSample = BaseTestUtil.getGreyScaleSample(6, 5, new double[]{255, 255, 255, 255, 255, 255,
+                0, 0, 0, 0, 0, 255,
+                255, 255, 0, 255, 255, 255,
+                0, 0, 0, 255, 255, 255,
+                255, 255, 255, 255, 255, 255}, false);
+
+        EuclideanDistanceMapFunction<double[][][]> distanceMapFunction = new EuclideanDistanceMapFunction<>(0, ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // when
+        ImageWrapper<double[][][]> apply = distanceMapFunction.apply(greyScaleSample);
+
+        // then
+        Assert.assertEquals(apply.getValue(0, 1, 0), 0.0);
+        Assert.assertEquals(apply.getValue(5, 1, 0), 1.0);
+        Assert.assertEquals(apply.getValue(5, 0, 0), Math.sqrt(2));
+        Assert.assertEquals(apply.getValue(5, 4, 0), Math.sqrt(10));
+        Assert.assertEquals(apply.getValue(4, 3, 0), 2.0);
+    }
+
+    @Test
+    public void testComputeDistanceMap() {
+        // given
+        int width = 37;
+        int height = 23;
+        ImageWrapper<double[][][]> image = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(height, width, ChannelType.BINARY, 255);
+        Random random = new Random(42);
+        for (int i = 0; i < 12; i++) {
+            image.setValue(random.nextInt(width), random.nextInt(height), 0, 0);
+        }
+        EuclideanDistanceMapFunction<double[][][]> distanceMapFunction = new EuclideanDistanceMapFunction<>(0, ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // when
+        EuclideanDistanceMap distanceMap = distanceMapFunction.computeDistanceMap(image);
+
+        // then
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double expected = Double.MAX_VALUE;
+                for (int fy = 0; fy < height; fy++) {
+                    for (int fx = 0; fx < width; fx++) {
+                        if (image.getValue(fx, fy, 0) == 0) {
+                            expected = Math.min(expected, (x - fx) * (x - fx) + (y - fy) * (y - fy));
+                        }
+                    }
+                }
+                Assert.assertEquals(distanceMap.getSquaredDistance(x, y), expected);
+                int fx = distanceMap.getNearestFeatureX(x, y);
+                int fy = distanceMap.getNearestFeatureY(x, y);
+                Assert.assertEquals(image.getValue(fx, fy, 0), 0.0);
+                Assert.assertEquals((double) (x - fx) * (x - fx) + (y - fy) * (y - fy), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testComputeDistanceMapWithoutContour() {
+        // given
+        ImageWrapper<double[][][]> image = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(3, 4, ChannelType.BINARY, 255);
+        EuclideanDistanceMapFunction<double[][][]> distanceMapFunction = new EuclideanDistanceMapFunction<>(0, ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // when
+        EuclideanDistanceMap distanceMap = distanceMapFunction.computeDistanceMap(image);
+
+        // then
+        Assert.assertEquals(distanceMap.getDistance(2, 1), Double.MAX_VALUE);
+        Assert.assertEquals(distanceMap.getNearestFeatureX(2, 1), -1);
+    }
+}
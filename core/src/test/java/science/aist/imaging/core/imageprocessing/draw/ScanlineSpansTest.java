@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.draw;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.twodimensional.JavaLine2D;
+import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
+import science.aist.imaging.api.domain.twodimensional.JavaPolygon2D;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * <p>Test class for {@link ScanlineSpans}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class ScanlineSpansTest {
+
+    @Test
+    public void testGetSpans() {
+        // given
+        ScanlineSpans spans = new ScanlineSpans(0, 2);
+        spans.add(1, 5, 7);
+        spans.add(1, 0, 2);
+        spans.add(1, 3, 4);
+        spans.add(1, 10, 12);
+        spans.add(2, 0, 1);
+
+        // when
+        int[] row0 = spans.getSpans(0);
+        int[] row1 = spans.getSpans(1);
+        int[] row2 = spans.getSpans(2);
+
+        // then
+        Assert.assertEquals(row0, new int[0]);
+        Assert.assertEquals(row1, new int[]{0, 7, 10, 12});
+        Assert.assertEquals(row2, new int[0]);
+    }
+
+    @Test
+    public void testAddLine() {
+        // given
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50; i++) {
+            JavaLine2D line = new JavaLine2D(new JavaPoint2D(random.nextInt(30), random.nextInt(30)), new JavaPoint2D(random.nextInt(30), random.nextInt(30)));
+            ScanlineSpans spans = new ScanlineSpans(0, 30);
+
+            // when
+            spans.addLine(line.getStartPoint().getIntX(), line.getStartPoint().getIntY(), line.getEndPoint().getIntX(), line.getEndPoint().getIntY());
+
+            // then
+            Assert.assertEquals(toPoints(spans), new HashSet<>(line.getBresenham()));
+        }
+    }
+
+    @Test
+    public void testFromPolygon() {
+        // given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50; i++) {
+            int n = 3 + random.nextInt(5);
+            JavaPoint2D[] points = new JavaPoint2D[n];
+            for (int p = 0; p < n; p++) {
+                points[p] = new JavaPoint2D(random.nextInt(25), random.nextInt(25));
+            }
+            JavaPolygon2D polygon = new JavaPolygon2D(points);
+
+            // when
+            ScanlineSpans spans = ScanlineSpans.fromPolygon(polygon);
+
+            // then
+            Assert.assertEquals(toPoints(spans), new HashSet<>(polygon.getAreaPoints()));
+        }
+    }
+
+    @Test
+    public void testDilate() {
+        // given
+        ScanlineSpans spans = new ScanlineSpans(5, 6);
+        spans.add(5, 3, 4);
+
+        // when
+        ScanlineSpans dilated = spans.dilate(1);
+
+        // then
+        Assert.assertEquals(dilated.getStartY(), 4);
+        Assert.assertEquals(dilated.getEndY(), 7);
+        for (int y = 4; y < 7; y++) {
+            Assert.assertEquals(dilated.getSpans(y), new int[]{2, 5});
+        }
+    }
+
+    private Set<JavaPoint2D> toPoints(ScanlineSpans spans) {
+        Set<JavaPoint2D> res = new HashSet<>();
+        for (int y = spans.getStartY(); y < spans.getEndY(); y++) {
+            int[] row = spans.getSpans(y);
+            for (int i = 0; i < row.length; i += 2) {
+                for (int x = row[i]; x <= row[i + 1]; x++) {
+                    res.add(new JavaPoint2D(x, y));
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -45,4 +45,26 @@ public class DrawLineTest {
         }
     }
 
+    @Test
+    public void testAcceptThickness() {
+        // given
+        ImageWrapper<short[][][]> image = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(11, 11);
+        DrawLine<short[][][]> draw = new DrawLine<>();
+        draw.setColor(new double[]{1});
+        draw.setThickness(1);
+
+        // when
+        draw.accept(image, new JavaLine2D(new JavaPoint2D(5, 2), new JavaPoint2D(5, 8)));
+
+        // then
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (x >= 4 && x <= 6 && y >= 1 && y <= 9) {
+                    Assert.assertEquals((int) image.getValues(x, y)[0], 1);
+                } else {
+                    Assert.assertEquals((int) image.getValues(x, y)[0], 0);
+                }
+            }
+        }
+    }
 }
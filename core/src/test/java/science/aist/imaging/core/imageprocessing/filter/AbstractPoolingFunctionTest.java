@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.filter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+
+import java.util.List;
+
+/**
+ * <p>Test class for {@link AbstractPoolingFunction}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class AbstractPoolingFunctionTest {
+
+    @Test
+    public void testApplyListPooling() {
+        // given
+        ImageFactory<double[][][]> provider = ImageFactoryFactory.getImageFactory(double[][][].class);
+        ImageWrapper<double[][][]> image = provider.getImage(4, 5, ChannelType.GREYSCALE);
+        image.applyFunction((i, x, y, c) -> i.setValue(x, y, c, x + y * 5));
+        AbstractPoolingFunction<double[][][], double[][][]> sumPooling = new AbstractPoolingFunction<double[][][], double[][][]>(provider) {
+            @Override
+            protected double pooling(List<Double> values) {
+                return values.stream().mapToDouble(Double::doubleValue).sum();
+            }
+        };
+
+        // when
+        ImageWrapper<double[][][]> result = sumPooling.apply(image);
+
+        // then
+        Assert.assertEquals(result.getValue(0, 0, 0), 12.0);
+        Assert.assertEquals(result.getValue(2, 1, 0), 63.0);
+        Assert.assertEquals(result.getValue(4, 3, 0), 64.0);
+    }
+}
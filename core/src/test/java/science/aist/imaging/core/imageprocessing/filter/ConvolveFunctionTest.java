@@ -13,9 +13,13 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>Test class for {@link ConvolveFunction}</p>
@@ -89,4 +93,135 @@ public class ConvolveFunctionTest {
                 },
         }));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplySeparable() {
+        // given
+        ConvolveFunction<double[][][], double[][][]> convolve = new ConvolveFunction<>(ImageFactoryFactory.getImageFactory(double[][][].class));
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(5, 6, ChannelType.GREYSCALE);
+        imageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, (x * 7 + y * 3) % 11));
+        double[] kernelX = new double[]{1, 2, 1};
+        double[] kernelY = new double[]{1, 4, 6, 4, 1};
+        double[][] kernel = new double[kernelY.length][kernelX.length];
+        for (int y = 0; y < kernelY.length; y++) {
+            for (int x = 0; x < kernelX.length; x++) {
+                kernel[y][x] = kernelY[y] * kernelX[x];
+            }
+        }
+
+        // when
+        ImageWrapper<double[][][]> separable = convolve.apply(imageWrapper, kernelX, kernelY);
+        ImageWrapper<double[][][]> full = convolve.apply(imageWrapper, kernel);
+
+        // then
+        for (int y = 0; y < imageWrapper.getHeight(); y++) {
+            for (int x = 0; x < imageWrapper.getWidth(); x++) {
+                double expected = 0;
+                double maskSum = 0;
+                for (int ky = -2; ky <= 2; ky++) {
+                    for (int kx = -1; kx <= 1; kx++) {
+                        if (x + kx >= 0 && x + kx < imageWrapper.getWidth() && y + ky >= 0 && y + ky < imageWrapper.getHeight()) {
+                            expected += imageWrapper.getValue(x + kx, y + ky, 0) * kernel[ky + 2][kx + 1];
+                            maskSum += kernel[ky + 2][kx + 1];
+                        }
+                    }
+                }
+                Assert.assertEquals(separable.getValue(x, y, 0), expected / maskSum, 1e-9);
+                Assert.assertEquals(full.getValue(x, y, 0), expected / maskSum, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testApplyBox() {
+        // given
+        ConvolveFunction<double[][][], double[][][]> convolve = new ConvolveFunction<>(ImageFactoryFactory.getImageFactory(double[][][].class));
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(3, 3, ChannelType.GREYSCALE);
+        imageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, y * 3 + x));
+        double[][] kernel = new double[][]{
+                new double[]{1, 1, 1},
+                new double[]{1, 1, 1},
+                new double[]{1, 1, 1}
+        };
+
+        // when
+        ImageWrapper<double[][][]> result = convolve.apply(imageWrapper, kernel);
+
+        // then
+        Assert.assertEquals(result.getValue(1, 1, 0), 4.0, 1e-9);
+        Assert.assertEquals(result.getValue(0, 0, 0), (0 + 1 + 3 + 4) / 4.0, 1e-9);
+        Assert.assertEquals(result.getValue(2, 1, 0), (1 + 2 + 4 + 5 + 7 + 8) / 6.0, 1e-9);
+    }
+
+    @Test
+    public void testApplyMultiChannel() {
+        // given
+        ConvolveFunction<double[][][], double[][][]> convolve = new ConvolveFunction<>(ImageFactoryFactory.getImageFactory(double[][][].class));
+        convolve.setNormalize(false);
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(3, 3, ChannelType.RGB);
+        imageWrapper.setValues(1, 1, new double[]{1, 2, 3});
+        double[][] kernel = new double[][]{
+                new double[]{0, 1, 0},
+                new double[]{1, 2, 0},
+                new double[]{0, 0, 0}
+        };
+
+        // when
+        ImageWrapper<double[][][]> result = convolve.apply(imageWrapper, kernel);
+
+        // then
+        Assert.assertEquals(result.getValues(1, 1), new double[]{2, 4, 6});
+        Assert.assertEquals(result.getValues(1, 2), new double[]{1, 2, 3});
+        Assert.assertEquals(result.getValues(2, 1), new double[]{1, 2, 3});
+        Assert.assertEquals(result.getValues(0, 1), new double[]{0, 0, 0});
+    }
+
+    @Test
+    public void testApplyInBands() {
+        // given
+        ConvolveFunction<double[][][], double[][][]> convolve = new ConvolveFunction<>(ImageFactoryFactory.getImageFactory(double[][][].class));
+        ImageWrapper<double[][][]> imageWrapper = ImageFactoryFactory.getImageFactory(double[][][].class).getRandomImage(23, 17, ChannelType.RGB, new Random(5), 0, 255, false);
+        // integer values like in real images, so the running sums of the box kernel do not depend on the bands
+        imageWrapper.applyFunction((image, x, y, c) -> image.setValue(x, y, c, Math.floor(image.getValue(x, y, c))));
+        double[][] box = new double[][]{
+                new double[]{1, 1, 1, 1, 1},
+                new double[]{1, 1, 1, 1, 1},
+                new double[]{1, 1, 1, 1, 1}
+        };
+        double[][] separable = new double[][]{
+                new double[]{1, 2, 1},
+                new double[]{2, 4, 2},
+                new double[]{1, 2, 1}
+        };
+        double[][] direct = new double[][]{
+                new double[]{1, 0, 2},
+                new double[]{3, 1, 0},
+                new double[]{0, 1, 4},
+                new double[]{2, 0, 1},
+                new double[]{1, 5, 0}
+        };
+        int serialThreshold = PixelExecutor.getSerialThreshold();
+        PixelExecutor.setSerialThreshold(Integer.MAX_VALUE);
+        List<ImageWrapper<double[][][]>> expected = Arrays.asList(convolve.apply(imageWrapper, box),
+                convolve.apply(imageWrapper, separable), convolve.apply(imageWrapper, direct));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        PixelExecutor.setPool(pool);
+        PixelExecutor.setSerialThreshold(0);
+
+        // when
+        List<ImageWrapper<double[][][]>> results;
+        try {
+            results = Arrays.asList(convolve.apply(imageWrapper, box),
+                    convolve.apply(imageWrapper, separable), convolve.apply(imageWrapper, direct));
+        } finally {
+            PixelExecutor.setPool(null);
+            PixelExecutor.setSerialThreshold(serialThreshold);
+            pool.shutdown();
+        }
+
+        // then
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertTrue(Arrays.deepEquals(results.get(i).getImage(), expected.get(i).getImage()));
+        }
+    }
+}
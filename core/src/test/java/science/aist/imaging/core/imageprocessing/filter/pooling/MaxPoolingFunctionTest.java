@@ -68,5 +68,39 @@ public class MaxPoolingFunctionTest {
             }
         }
     }
+    @Test
+    public void testApplyStrideAndLargeNeighborhood() {
+        // given
+        ImageFactory<double[][][]> provider = ImageFactoryFactory.getImageFactory(double[][][].class);
+        ImageWrapper<double[][][]> provide = provider.getImage(20, 17, ChannelType.RGB);
+        Random random = new Random(42);
+        provide.applyFunction((image, x, y, c) -> image.setValue(x, y, c, random.nextInt(1000)), false);
+
+        MaxPoolingFunction<double[][][], double[][][]> maxPooling = new MaxPoolingFunction<>(provider);
+        maxPooling.setNeighborhoodWidth(7);
+        maxPooling.setNeighborhoodHeight(5);
+        maxPooling.setXStride(2);
+        maxPooling.setYStride(3);
 
+        // when
+        ImageWrapper<double[][][]> apply = maxPooling.apply(provide);
+
+        // then
+        for (int x = 0; x < provide.getWidth(); x++) {
+            for (int y = 0; y < provide.getHeight(); y++) {
+                for (int c = 0; c < provide.getChannels(); c++) {
+                    double expected = 0;
+                    if (x % 2 == 0 && y % 3 == 0) {
+                        expected = Double.NEGATIVE_INFINITY;
+                        for (int nbY = Math.max(0, y - 2); nbY <= Math.min(provide.getHeight() - 1, y + 2); nbY++) {
+                            for (int nbX = Math.max(0, x - 3); nbX <= Math.min(provide.getWidth() - 1, x + 3); nbX++) {
+                                expected = Math.max(expected, provide.getValue(nbX, nbY, c));
+                            }
+                        }
+                    }
+                    Assert.assertEquals(apply.getValue(x, y, c), expected);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.filter.pooling;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageFactory;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+
+import java.util.Random;
+
+
+/**
+ * <p>Test class for {@link MinPoolingFunction}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class MinPoolingFunctionTest {
+
+    @Test
+    public void testApply() {
+        // given
+        ImageFactory<double[][][]> provider = ImageFactoryFactory.getImageFactory(double[][][].class);
+        ImageWrapper<double[][][]> provide = provider.getImage(9, 11, ChannelType.GREYSCALE);
+        Random random = new Random(42);
+        provide.applyFunction((image, x, y, c) -> image.setValue(x, y, c, random.nextInt(1000)), false);
+
+        MinPoolingFunction<double[][][], double[][][]> minPooling = new MinPoolingFunction<>(provider);
+
+        // when
+        ImageWrapper<double[][][]> apply = minPooling.apply(provide);
+
+        // then
+        for (int x = 0; x < provide.getWidth(); x++) {
+            for (int y = 0; y < provide.getHeight(); y++) {
+                double expected = Double.POSITIVE_INFINITY;
+                for (int nbY = Math.max(0, y - 1); nbY <= Math.min(provide.getHeight() - 1, y + 1); nbY++) {
+                    for (int nbX = Math.max(0, x - 1); nbX <= Math.min(provide.getWidth() - 1, x + 1); nbX++) {
+                        expected = Math.min(expected, provide.getValue(nbX, nbY, 0));
+                    }
+                }
+                Assert.assertEquals(apply.getValue(x, y, 0), expected);
+            }
+        }
+    }
+}
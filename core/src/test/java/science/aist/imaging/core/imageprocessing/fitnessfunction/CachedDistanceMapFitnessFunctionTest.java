@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.fitnessfunction;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.offset.RotationOffset;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.core.imageprocessing.distance.EuclideanDistanceMapFunction;
+import science.aist.imaging.core.imageprocessing.interpolation.BilinearInterpolationFunction;
+import science.aist.imaging.core.imageprocessing.registration.RegistrationImageFunction;
+import science.aist.imaging.core.imageprocessing.transformation.TransformFunction;
+
+/**
+ * <p>Test class for {@link CachedDistanceMapFitnessFunction}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class CachedDistanceMapFitnessFunctionTest {
+
+    @Test
+    public void testApplyAsDouble() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(10, 8);
+        ImageWrapper<double[][][]> moving = getRectangle(10, 8);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+
+        // when
+        double same = fitnessFunction.applyAsDouble(reference, moving);
+        double shifted = fitnessFunction.applyAsDouble(reference, getRectangle(12, 8));
+
+        // then
+        Assert.assertEquals(same, 0.0);
+        // top and bottom edge: 2 * (1 + 4); left edge: 1 + 5 * 4 + 1; right edge: 7 * 4
+        Assert.assertEquals(shifted, 60.0);
+    }
+
+    @Test
+    public void testApplyAsDoublePose() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(13, 10);
+        ImageWrapper<double[][][]> moving = getRectangle(10, 8);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+
+        // when
+        double matching = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(3, 2, 0));
+        double notMatching = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 0));
+
+        // then
+        Assert.assertEquals(matching, 0.0);
+        Assert.assertTrue(notMatching > 0.0);
+    }
+
+    @Test
+    public void testPrepare() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(10, 8);
+        ImageWrapper<double[][][]> moving = getRectangle(10, 8);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+        fitnessFunction.prepare(reference, moving);
+        moving.setValue(30, 30, 0, 0);
+
+        // when
+        double cached = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 0));
+        fitnessFunction.prepare(reference, moving);
+        double prepared = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 0));
+
+        // then
+        Assert.assertEquals(cached, 0.0);
+        Assert.assertTrue(prepared > 0.0);
+    }
+
+    @Test
+    public void testWithoutPrepare() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(10, 8);
+        ImageWrapper<double[][][]> moving = getRectangle(10, 8);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+        double before = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 0));
+        moving.setValue(30, 30, 0, 0);
+
+        // when
+        double after = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 0));
+
+        // then
+        Assert.assertEquals(before, 0.0);
+        Assert.assertTrue(after > 0.0);
+    }
+
+    @Test
+    public void testRotationAroundMovingImage() {
+        // given
+        ImageWrapper<double[][][]> reference = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(40, 40, ChannelType.BINARY, 255);
+        reference.setValue(18, 7, 0, 0);
+        ImageWrapper<double[][][]> moving = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(10, 20, ChannelType.BINARY, 255);
+        moving.setValue(2, 3, 0, 0);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+
+        // when
+        double rotated = fitnessFunction.applyAsDouble(reference, moving, new RotationOffset(0, 0, 180));
+
+        // then the transform function rotates around the center (10, 5) of the moving image
+        Assert.assertEquals(rotated, 0.0, 1e-9);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testApplyFitnessMultipleChannels() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(10, 8);
+        CachedDistanceMapFitnessFunction fitnessFunction = getFitnessFunction();
+
+        // when
+        fitnessFunction.applyFitness(reference, reference, 0, 0, 40, 40, 3);
+    }
+
+    @Test
+    public void testRegistration() {
+        // given
+        ImageWrapper<double[][][]> reference = getRectangle(13, 10);
+        ImageWrapper<double[][][]> moving = getRectangle(10, 8);
+        RegistrationImageFunction<double[][][], double[][][]> registration = new RegistrationImageFunction<>(1, 1, 4, getFitnessFunction(),
+                new TransformFunction<>(new BilinearInterpolationFunction(255), ImageFactoryFactory.getImageFactory(double[][][].class)));
+
+        // when
+        RotationOffset offset = registration.apply(reference, moving);
+
+        // then
+        Assert.assertEquals(offset.getXOffset(), 3.0);
+        Assert.assertEquals(offset.getYOffset(), 2.0);
+        Assert.assertEquals(offset.getRotationalOffset(), 0.0);
+        Assert.assertEquals(offset.getFailure(), 0.0);
+    }
+
+    private CachedDistanceMapFitnessFunction getFitnessFunction() {
+        return new CachedDistanceMapFitnessFunction(new EuclideanDistanceMapFunction<>(0, ImageFactoryFactory.getImageFactory(double[][][].class)));
+    }
+
+    /**
+     * @return binary image with the outline of a 16x9 rectangle starting at the given position
+     */
+    private ImageWrapper<double[][][]> getRectangle(int startX, int startY) {
+        ImageWrapper<double[][][]> image = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(40, 40, ChannelType.BINARY, 255);
+        for (int x = startX; x < startX + 16; x++) {
+            image.setValue(x, startY, 0, 0);
+            image.setValue(x, startY + 8, 0, 0);
+        }
+        for (int y = startY; y <= startY + 8; y++) {
+            image.setValue(startX, y, 0, 0);
+            image.setValue(startX + 15, y, 0, 0);
+        }
+        return image;
+    }
+}
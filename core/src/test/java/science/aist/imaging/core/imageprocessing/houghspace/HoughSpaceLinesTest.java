@@ -12,7 +12,18 @@ package science.aist.imaging.core.imageprocessing.houghspace;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Andreas Pointner
@@ -22,6 +33,7 @@ public class HoughSpaceLinesTest {
     @AfterMethod
     void closeAllOpenedImageWrappers() {
         AbstractImageWrapper.freeAllocatedImageWrappers();
+        PixelExecutor.setPool(null);
     }
 
     /**
@@ -158,4 +170,171 @@ public class HoughSpaceLinesTest {
         // then
         Assert.assertEquals(topLeft, new double[]{1, 1, 10});
     }
+
+    /**
+     * Tests HoughSpaceLines.getXBestXYradInSector function for all ranks
+     */
+    @Test
+    void testGetXBestXYradInSectorRanking() {
+        // given
+        HoughSpaceLines hsl = new HoughSpaceLines(10, 10, 180, 0, 1);
+        hsl.setHoughSpaceValue(1, 1, 10, 3.);
+        hsl.setHoughSpaceValue(2, 2, 11, 5.);
+        hsl.setHoughSpaceValue(3, 3, 12, 3.);
+        hsl.setHoughSpaceValue(4, 4, 13, 4.);
+
+        // when
+        double[] first = hsl.getXBestXYradInSector(1, 0, 9, 0, 9);
+        double[] second = hsl.getXBestXYradInSector(2, 0, 9, 0, 9);
+        double[] third = hsl.getXBestXYradInSector(3, 0, 9, 0, 9);
+        double[] fourth = hsl.getXBestXYradInSector(4, 0, 9, 0, 9);
+        double[] fifth = hsl.getXBestXYradInSector(5, 0, 9, 0, 9);
+
+        // then
+        Assert.assertEquals(first, new double[]{2, 2, 11});
+        Assert.assertEquals(second, new double[]{4, 4, 13});
+        Assert.assertEquals(third, new double[]{1, 1, 10});
+        Assert.assertEquals(fourth, new double[]{3, 3, 12});
+        Assert.assertEquals(fifth, new double[]{Double.MIN_VALUE, Double.MIN_VALUE, Double.MIN_VALUE});
+    }
+
+    /**
+     * Tests HoughSpaceLines.vote function
+     */
+    @Test
+    void testVote() {
+        // given
+        int count = 1000;
+
+        // when
+        HoughSpaceLines hsl = HoughSpaceLines.vote(10, 10, 180, 0, 1, count, (houghSpace, i) -> {
+            houghSpace.addHoughSpaceValue(i % 10, 3, 45, 1);
+            houghSpace.addHoughSpaceValue(5, 5, 90, 1);
+        });
+
+        // then
+        Assert.assertEquals(hsl.getHoughSpaceValue(5, 5, 90), (double) count);
+        Assert.assertEquals(hsl.getHoughSpaceValue(7, 3, 45), count / 10.0);
+        Assert.assertEquals(hsl.getBestWeight(), (double) count);
+        Assert.assertEquals(hsl.getBestX(), 5);
+        Assert.assertEquals(hsl.getBestY(), 5);
+        Assert.assertEquals(hsl.getBestRidx(), 90);
+    }
+
+    /**
+     * Tests HoughSpaceLines.getPeaks function
+     */
+    @Test
+    void testGetPeaks() {
+        // given
+        HoughSpaceLines hsl = new HoughSpaceLines(10, 10, 180, 0, 1);
+        hsl.setHoughSpaceValue(2, 2, 10, 10.);
+        hsl.setHoughSpaceValue(3, 2, 10, 9.);
+        hsl.setHoughSpaceValue(2, 2, 11, 8.);
+        hsl.setHoughSpaceValue(7, 7, 90, 5.);
+
+        // when
+        List<double[]> peaks = hsl.getPeaks(3, 1);
+
+        // then
+        Assert.assertEquals(peaks.size(), 2);
+        Assert.assertEquals(peaks.get(0), new double[]{2, 2, 10, 10});
+        Assert.assertEquals(peaks.get(1), new double[]{7, 7, 90, 5});
+    }
+
+    /**
+     * Tests HoughSpaceLines.getPeaks function with neighbours in different tiles
+     */
+    @Test
+    void testGetPeaksAcrossTiles() {
+        // given
+        int border = HoughSpaceLines.TILE_SIZE;
+        HoughSpaceLines hsl = new HoughSpaceLines(3 * border + 1, 2 * border + 1, 180, 0, 1);
+        hsl.setHoughSpaceValue(border - 1, border, 10, 9.);
+        hsl.setHoughSpaceValue(border, border, 10, 10.);
+        hsl.setHoughSpaceValue(3 * border, 2 * border, 179, 5.);
+
+        // when
+        List<double[]> peaks = hsl.getPeaks(3, 1);
+
+        // then
+        Assert.assertEquals(peaks.size(), 2);
+        Assert.assertEquals(peaks.get(0), new double[]{border, border, 10, 10});
+        Assert.assertEquals(peaks.get(1), new double[]{3 * border, 2 * border, 179, 5});
+        Assert.assertEquals(hsl.getHoughSpaceValue(border - 1, border, 10), 9.);
+        Assert.assertEquals(hsl.getHoughSpaceValue(border - 1, border - 1, 10), 0.);
+    }
+
+    /**
+     * Tests HoughSpaceLines.vote function with a limited pool
+     */
+    @Test
+    void testVoteCustomPool() {
+        // given
+        ForkJoinPool pool = new ForkJoinPool(3);
+        PixelExecutor.setPool(pool);
+        Set<HoughSpaceLines> partials = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        // when
+        HoughSpaceLines hsl = HoughSpaceLines.vote(10, 10, 180, 0, 1, 1000, (houghSpace, i) -> {
+            partials.add(houghSpace);
+            houghSpace.addHoughSpaceValue(i % 10, i % 7, i % 180, 1);
+        });
+
+        // then
+        double total = 0;
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                for (int r = 0; r < 180; r++) {
+                    total += hsl.getHoughSpaceValue(x, y, r);
+                }
+            }
+        }
+        Assert.assertEquals(partials.size(), 3);
+        Assert.assertEquals(total, 1000.0);
+        Assert.assertEquals(hsl.getHoughSpaceValue(3, 3, 3), 1.0);
+        pool.shutdown();
+    }
+
+    /**
+     * Tests HoughSpaceLines.toImage function
+     */
+    @Test
+    void testToImage() {
+        // given
+        HoughSpaceLines hsl = new HoughSpaceLines(10, 10, 180, 0, 1);
+        hsl.setHoughSpaceValue(2, 2, 10, 4.);
+        hsl.setHoughSpaceValue(3, 2, 11, 2.);
+
+        // when
+        ImageWrapper<double[][][]> image = hsl.toImage(1, ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // then
+        Assert.assertEquals(image.getValue(2, 2, 0), 255.0);
+        Assert.assertEquals(image.getValue(3, 2, 0), 127.5);
+        // cells without any vote are not part of the hough space
+        Assert.assertEquals(image.getValue(4, 2, 0), 0.0);
+        Assert.assertEquals(hsl.toImage(0, ImageFactoryFactory.getImageFactory(double[][][].class)).getValue(4, 2, 0), 0.0);
+    }
+
+    /**
+     * Tests HoughSpaceLines.getHoughSpace function
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    void testGetHoughSpace() {
+        // given
+        HoughSpaceLines hsl = new HoughSpaceLines(10, 10, 180, 0, 1);
+        hsl.setHoughSpaceValue(2, 2, 10, 4.);
+        hsl.setHoughSpaceValue(7, 5, 11, 2.);
+
+        // when
+        Map<JavaPoint2D, double[]> houghSpace = hsl.getHoughSpace();
+
+        // then
+        Assert.assertEquals(houghSpace.size(), 2);
+        Assert.assertEquals(houghSpace.get(new JavaPoint2D(2, 2))[10], 4.);
+        Assert.assertEquals(houghSpace.get(new JavaPoint2D(7, 5))[11], 2.);
+        Assert.assertEquals(houghSpace.get(new JavaPoint2D(7, 5)).length, 180);
+    }
 }
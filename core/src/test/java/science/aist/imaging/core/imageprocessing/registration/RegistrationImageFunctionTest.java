@@ -15,8 +15,11 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import science.aist.imaging.api.domain.offset.RotationOffset;
 import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.api.fitnessfunction.AbstractFitnessFunction;
+import science.aist.imaging.core.imageprocessing.fitnessfunction.PoseFitnessFunction;
 import science.aist.imaging.core.imageprocessing.fitnessfunction.SSEFitnessFunction;
 import science.aist.imaging.core.imageprocessing.interpolation.BilinearInterpolationFunction;
 import science.aist.imaging.core.imageprocessing.transformation.TransformFunction;
@@ -27,6 +30,10 @@ import science.aist.imaging.core.imageprocessing.conversion.ColoredToGreyscaleFu
 import science.aist.imaging.core.imageprocessing.conversion.greyscale.GreyscaleAverageConverter;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * <p>Test class for {@link RegistrationImageFunction}</p>
@@ -108,4 +115,145 @@ public class RegistrationImageFunctionTest {
         Assert.assertEquals(apply.getYOffset(), 10.0);
         Assert.assertEquals(apply.getFailure(), 299437860.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplyPyramid() {
+        // given
+        ImageWrapper<short[][][]> input = loader
+                .andThen(bufferedImage -> ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(bufferedImage))
+                .andThen(transformerBIto8Byte::transformTo)
+                .andThen(transformer8ByteTo2Byte::transformTo)
+                .andThen(coloredToGreyscale)
+                .apply(getClass().getResourceAsStream("/logo/original.JPG"));
+
+        ImageWrapper<short[][][]> input2 = loader
+                .andThen(bufferedImage -> ImageFactoryFactory.getImageFactory(BufferedImage.class).getImage(bufferedImage))
+                .andThen(transformerBIto8Byte::transformTo)
+                .andThen(transformer8ByteTo2Byte::transformTo)
+                .andThen(coloredToGreyscale)
+                .apply(getClass().getResourceAsStream("/logo/translated2.bmp"));
+
+        RegistrationImageFunction<short[][][], short[][][]> registration2ByteImage = new RegistrationImageFunction<>(10, 10, 10, new SSEFitnessFunction(), new TransformFunction<>(new BilinearInterpolationFunction(0.0), ImageFactoryFactory.getImageFactory(short[][][].class)));
+        registration2ByteImage.setPyramidLevels(2);
+
+        // when
+        RotationOffset apply = registration2ByteImage.apply(input, input2);
+
+        // then
+        Assert.assertEquals(apply.getRotationalOffset(), 0.0);
+        Assert.assertEquals(apply.getXOffset(), -20.0);
+        Assert.assertEquals(apply.getYOffset(), 10.0);
+        Assert.assertEquals(apply.getFailure(), 299437860.0);
+    }
+
+    @Test
+    public void testApplyPyramidDifferentSizes() {
+        // given
+        ImageWrapper<short[][][]> input = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(48, 64, ChannelType.GREYSCALE);
+        input.applyFunction((image, x, y, c) -> image.setValue(x, y, c, blobs(x, y)));
+        // the test image is larger and contains the blobs moved by (20, -10)
+        ImageWrapper<short[][][]> input2 = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(60, 80, ChannelType.GREYSCALE);
+        input2.applyFunction((image, x, y, c) -> image.setValue(x, y, c, blobs(x - 20, y + 10)));
+
+        TransformFunction<short[][][]> transformFunction = new TransformFunction<>(new BilinearInterpolationFunction(0.0), ImageFactoryFactory.getImageFactory(short[][][].class));
+        RegistrationImageFunction<short[][][], short[][][]> fullSearch = new RegistrationImageFunction<>(5, 5, 4, new NegatedSADFitnessFunction(), transformFunction);
+        RegistrationImageFunction<short[][][], short[][][]> pyramidSearch = new RegistrationImageFunction<>(5, 5, 4, new NegatedSADFitnessFunction(), transformFunction);
+        pyramidSearch.setPyramidLevels(1);
+
+        // when
+        RotationOffset expected = fullSearch.apply(input, input2);
+        RotationOffset apply = pyramidSearch.apply(input, input2);
+
+        // then
+        Assert.assertEquals(expected.getXOffset(), -20.0);
+        Assert.assertEquals(expected.getYOffset(), 10.0);
+        Assert.assertEquals(expected.getRotationalOffset(), 0.0);
+        Assert.assertEquals(apply.getXOffset(), expected.getXOffset());
+        Assert.assertEquals(apply.getYOffset(), expected.getYOffset());
+        Assert.assertEquals(apply.getRotationalOffset(), expected.getRotationalOffset());
+        Assert.assertEquals(apply.getFailure(), expected.getFailure());
+    }
+
+    @Test
+    public void testApplyPyramidScoresOriginalResolutionOnce() {
+        // given
+        ImageWrapper<short[][][]> input = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(48, 64, ChannelType.GREYSCALE);
+        input.applyFunction((image, x, y, c) -> image.setValue(x, y, c, blobs(x, y)));
+        ImageWrapper<short[][][]> input2 = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(48, 64, ChannelType.GREYSCALE);
+        input2.applyFunction((image, x, y, c) -> image.setValue(x, y, c, blobs(x - 10, y + 5)));
+
+        TransformFunction<short[][][]> transformFunction = new TransformFunction<>(new BilinearInterpolationFunction(0.0), ImageFactoryFactory.getImageFactory(short[][][].class));
+        List<String> poses = Collections.synchronizedList(new ArrayList<>());
+        PoseRecordingFitnessFunction fitnessFunction = new PoseRecordingFitnessFunction(transformFunction, input, poses);
+        RegistrationImageFunction<short[][][], short[][][]> pyramidSearch = new RegistrationImageFunction<>(5, 5, 4, fitnessFunction, transformFunction);
+        pyramidSearch.setPyramidLevels(1);
+
+        // when
+        RotationOffset apply = pyramidSearch.apply(input, input2);
+
+        // then
+        Assert.assertEquals(apply.getXOffset(), -10.0);
+        Assert.assertEquals(apply.getYOffset(), 5.0);
+        Assert.assertEquals(new HashSet<>(poses).size(), poses.size());
+        Assert.assertEquals(apply.getFailure(), fitnessFunction.applyAsDouble(input, transformFunction.apply(input2, apply)));
+    }
+
+    private static double blobs(double x, double y) {
+        return 200 * Math.exp(-((x - 20) * (x - 20) + (y - 18) * (y - 18)) / 72.0)
+                + 150 * Math.exp(-((x - 44) * (x - 44) + (y - 30) * (y - 30)) / 50.0);
+    }
+
+    /**
+     * Negated sum of absolute differences within the area of both images, so higher values are better
+     */
+    private static class NegatedSADFitnessFunction extends AbstractFitnessFunction {
+        NegatedSADFitnessFunction() {
+            this.isLowerErrorValueBetter = false;
+        }
+
+        @Override
+        public double applyAsDouble(ImageWrapper<?> imageWrapper, ImageWrapper<?> imageWrapper2) {
+            return applyFitness(imageWrapper, imageWrapper2, 0, 0, Math.min(imageWrapper.getWidth(), imageWrapper2.getWidth()),
+                    Math.min(imageWrapper.getHeight(), imageWrapper2.getHeight()), 1);
+        }
+
+        @Override
+        protected double applyFitness(ImageWrapper<?> imageWrapper, ImageWrapper<?> imageWrapper2, int startX, int startY, int endX, int endY, int channels) {
+            double sum = 0;
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    sum -= Math.abs(imageWrapper.getValue(x, y, 0) - imageWrapper2.getValue(x, y, 0));
+                }
+            }
+            return sum;
+        }
+
+        @Override
+        public double getBestPossibleError() {
+            return 0;
+        }
+    }
+
+    /**
+     * Records the poses, which are scored on the original resolution of the reference image
+     */
+    private static class PoseRecordingFitnessFunction extends NegatedSADFitnessFunction implements PoseFitnessFunction {
+        private final TransformFunction<short[][][]> transformFunction;
+        private final ImageWrapper<?> reference;
+        private final List<String> poses;
+
+        PoseRecordingFitnessFunction(TransformFunction<short[][][]> transformFunction, ImageWrapper<?> reference, List<String> poses) {
+            this.transformFunction = transformFunction;
+            this.reference = reference;
+            this.poses = poses;
+        }
+
+        @Override
+        public double applyAsDouble(ImageWrapper<?> reference, ImageWrapper<?> moving, RotationOffset pose) {
+            if (reference == this.reference) {
+                poses.add(pose.getXOffset() + "/" + pose.getYOffset() + "/" + pose.getRotationalOffset());
+            }
+            return applyAsDouble(reference, transformFunction.apply(moving, pose));
+        }
+    }
+}
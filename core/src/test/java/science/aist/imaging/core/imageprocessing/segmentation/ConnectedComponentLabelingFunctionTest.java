@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.segmentation;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.NeighborType;
+import science.aist.imaging.api.domain.RecognizedObject;
+import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.core.imageprocessing.BaseTestUtil;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>Test class for {@link ConnectedComponentLabelingFunction}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class ConnectedComponentLabelingFunctionTest {
+
+    @Test
+    public void testApply() {
+        // given
+        ImageWrapper<double[][][]> image = BaseTestUtil.getGreyScaleSample(6, 4, new double[]{
+                255, 255, 0, 0, 0, 255,
+                0, 255, 0, 0, 255, 255,
+                0, 0, 255, 0, 0, 0,
+                255, 0, 0, 0, 255, 255}, false);
+        ConnectedComponentLabelingFunction labeling = new ConnectedComponentLabelingFunction();
+
+        // when
+        ConnectedComponents components = labeling.apply(image);
+
+        // then
+        Assert.assertEquals(components.getCount(), 4);
+        Assert.assertEquals(components.getLabel(0, 0), 1);
+        Assert.assertEquals(components.getLabel(2, 2), 1);
+        Assert.assertEquals(components.getLabel(5, 0), 2);
+        Assert.assertEquals(components.getLabel(0, 3), 3);
+        Assert.assertEquals(components.getLabel(4, 3), 4);
+        Assert.assertEquals(components.getLabel(3, 3), 0);
+        Assert.assertEquals(components.getArea(1), 4);
+        Assert.assertEquals(components.getBoundingBox(1).getTopLeft(), new JavaPoint2D(0, 0));
+        Assert.assertEquals(components.getBoundingBox(1).getBottomRight(), new JavaPoint2D(3, 3));
+        Assert.assertEquals(components.getCentroid(4), new JavaPoint2D(4.5, 3));
+        Assert.assertEquals(components.getCentralMoments(4), new double[]{0.25, 0, 0});
+        Assert.assertEquals(components.getLabels(2), new int[]{1, 2, 4});
+    }
+
+    @Test
+    public void testBoundingBoxSinglePixel() {
+        // given
+        ImageWrapper<double[][][]> image = BaseTestUtil.getGreyScaleSample(3, 3, new double[]{
+                0, 0, 0,
+                0, 255, 0,
+                0, 0, 0}, false);
+
+        // when
+        ConnectedComponents components = new ConnectedComponentLabelingFunction().apply(image);
+
+        // then
+        Assert.assertEquals(components.getCount(), 1);
+        Assert.assertEquals(components.getBoundingBox(1).getTopLeft(), new JavaPoint2D(1, 1));
+        Assert.assertEquals(components.getBoundingBox(1).getBottomRight(), new JavaPoint2D(2, 2));
+        Assert.assertEquals(components.getBoundingBox(1).getWidth(), 1.0);
+        Assert.assertEquals(components.getBoundingBox(1).getHeight(), 1.0);
+    }
+
+    @Test
+    public void testApplyN4() {
+        // given
+        ImageWrapper<double[][][]> image = BaseTestUtil.getGreyScaleSample(3, 3, new double[]{
+                255, 0, 255,
+                0, 255, 0,
+                255, 0, 255}, false);
+        ConnectedComponentLabelingFunction labeling = new ConnectedComponentLabelingFunction();
+        labeling.setNeighborType(NeighborType.N4);
+
+        // when
+        ConnectedComponents components = labeling.apply(image);
+
+        // then
+        Assert.assertEquals(components.getCount(), 5);
+    }
+
+    @Test
+    public void testApplyRandom() {
+        // given
+        int width = 57;
+        int height = 131;
+        Random random = new Random(3);
+        ImageWrapper<double[][][]> image = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(height, width, ChannelType.BINARY);
+        image.applyFunction((img, x, y, c) -> img.setValue(x, y, c, random.nextInt(100) < 45 ? 255 : 0), false);
+
+        for (NeighborType neighborType : NeighborType.values()) {
+            ConnectedComponentLabelingFunction labeling = new ConnectedComponentLabelingFunction();
+            labeling.setNeighborType(neighborType);
+
+            // when
+            ConnectedComponents components = labeling.apply(image);
+
+            // then
+            int[] expected = floodFillLabels(image, neighborType);
+            int count = 0;
+            for (int i = 0; i < expected.length; i++) {
+                count = Math.max(count, expected[i]);
+                Assert.assertEquals(components.getLabels()[i], expected[i]);
+            }
+            Assert.assertEquals(components.getCount(), count);
+        }
+    }
+
+    @Test
+    public void testGetRecognizedObjects() {
+        // given
+        ImageWrapper<double[][][]> image = BaseTestUtil.getGreyScaleSample(4, 2, new double[]{
+                255, 255, 0, 255,
+                0, 255, 0, 0}, false);
+        ConnectedComponents components = new ConnectedComponentLabelingFunction().apply(image);
+
+        // when
+        List<RecognizedObject<ImageWrapper<double[][][]>, Double>> objects = components.getRecognizedObjects(image, 2);
+
+        // then
+        Assert.assertEquals(objects.size(), 1);
+        Assert.assertEquals(objects.get(0).getId(), 1);
+        Assert.assertEquals(objects.get(0).getCoordinates().size(), 3);
+        Assert.assertTrue(objects.get(0).getCoordinates().contains(new JavaPoint2D(1, 1)));
+    }
+
+    @Test
+    public void testToImage() {
+        // given
+        ConnectedComponents components = new ConnectedComponentLabelingFunction().apply(getSeparatedPixels(300));
+
+        // when
+        ImageWrapper<double[][][]> labels = components.toImage(ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // then
+        Assert.assertEquals(labels.getValue(0, 0, 0), 1.0);
+        Assert.assertEquals(labels.getValue(1, 0, 0), 0.0);
+        Assert.assertEquals(labels.getValue(598, 0, 0), 300.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testToImageTooManyLabels() {
+        // given
+        ConnectedComponents components = new ConnectedComponentLabelingFunction().apply(getSeparatedPixels(256));
+
+        // when
+        components.toImage(ImageFactoryFactory.getImageFactory(byte[].class));
+
+        // then
+    }
+
+    /**
+     * @return a single row image with the given number of objects consisting of one pixel each
+     */
+    private ImageWrapper<double[][][]> getSeparatedPixels(int count) {
+        double[] values = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            values[i * 2] = 255;
+        }
+        return BaseTestUtil.getGreyScaleSample(values.length, 1, values, false);
+    }
+
+    /**
+     * Reference implementation, which labels the components in raster order of their first pixel
+     */
+    private int[] floodFillLabels(ImageWrapper<double[][][]> image, NeighborType neighborType) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] labels = new int[width * height];
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (image.getValue(x, y, 0) != 255 || labels[y * width + x] != 0) {
+                    continue;
+                }
+                count++;
+                Deque<int[]> stack = new ArrayDeque<>();
+                stack.push(new int[]{x, y});
+                labels[y * width + x] = count;
+                while (!stack.isEmpty()) {
+                    int[] p = stack.pop();
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            int nx = p[0] + dx;
+                            int ny = p[1] + dy;
+                            if (neighborType.getMask()[dy + 1][dx + 1] && nx >= 0 && ny >= 0 && nx < width && ny < height
+                                    && image.getValue(nx, ny, 0) == 255 && labels[ny * width + nx] == 0) {
+                                labels[ny * width + nx] = count;
+                                stack.push(new int[]{nx, ny});
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+}
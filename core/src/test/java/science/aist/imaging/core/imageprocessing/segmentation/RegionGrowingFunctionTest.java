@@ -16,9 +16,11 @@ import science.aist.imaging.api.domain.NeighborType;
 import science.aist.imaging.api.domain.twodimensional.JavaPoint2D;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.core.imageprocessing.BaseTestUtil;
 import science.aist.imaging.core.imageprocessing.transformation.ThresholdFunction;
 import science.aist.imaging.core.storage.Image2ByteInputStreamLoader;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 /**
@@ -71,4 +73,34 @@ public class RegionGrowingFunctionTest {
         // then
         Assert.assertTrue(imageCompare.applyAsBoolean(compare, result));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplyMultipleSeeds() {
+        // given
+        RegionGrowingFunction<double[][][], double[][][]> growing = new RegionGrowingFunction<>(ImageFactoryFactory.getImageFactory(double[][][].class));
+        growing.setNeighborType(NeighborType.N4);
+        growing.setSeedPoints(Arrays.asList(new JavaPoint2D(0, 0), new JavaPoint2D(4, 0), new JavaPoint2D(1, 1), new JavaPoint2D(2, 3)));
+        ImageWrapper<double[][][]> input = BaseTestUtil.getGreyScaleSample(5, 4, new double[]{
+                200, 200, 0, 0, 200,
+                0, 200, 0, 200, 200,
+                0, 0, 0, 0, 0,
+                200, 0, 50, 200, 200});
+        ImageWrapper<double[][][]> copy = input.createCopy(ImageFactoryFactory.getImageFactory(double[][][].class));
+
+        // when
+        ImageWrapper<double[][][]> result = growing.apply(input);
+
+        // then
+        double[] expected = new double[]{
+                255, 255, 0, 0, 255,
+                0, 255, 0, 255, 255,
+                0, 0, 0, 0, 0,
+                0, 0, 0, 0, 0};
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 5; x++) {
+                Assert.assertEquals(result.getValue(x, y, 0), expected[y * 5 + x]);
+            }
+        }
+        Assert.assertTrue(imageCompare.applyAsBoolean(copy, input));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.segmentation.morph;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+
+import java.util.Random;
+
+/**
+ * <p>Test class for {@link BinaryMorphology}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class BinaryMorphologyTest {
+    private static final boolean[][] ELEMENT = new boolean[][]{
+            {true, false, false, true, false},
+            {false, true, true, true, false},
+            {false, false, true, false, true}
+    };
+
+    private ImageWrapper<short[][][]> getRandomImage(int width, int height) {
+        ImageWrapper<short[][][]> image = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(height, width, ChannelType.BINARY);
+        Random random = new Random(42);
+        image.applyFunction((img, x, y, c) -> img.setValue(x, y, c, random.nextInt(4) == 0 ? 0 : 255), false);
+        return image;
+    }
+
+    private boolean naive(ImageWrapper<short[][][]> image, int x, int y, boolean erode) {
+        for (int yOffset = -1; yOffset <= 1; yOffset++) {
+            for (int xOffset = -2; xOffset <= 2; xOffset++) {
+                int nbX = x + xOffset;
+                int nbY = y + yOffset;
+                if (ELEMENT[yOffset + 1][xOffset + 2] && nbX >= 0 && nbX < image.getWidth() && nbY >= 0 && nbY < image.getHeight()) {
+                    boolean set = image.getValue(nbX, nbY, 0) == 255;
+                    if (erode && !set) {
+                        return false;
+                    }
+                    if (!erode && set) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return erode;
+    }
+
+    @Test
+    public void testErode() {
+        // given
+        ImageWrapper<short[][][]> image = getRandomImage(150, 7);
+        long[][] bits = BinaryMorphology.pack(image, v -> v == 255);
+
+        // when
+        long[][] eroded = BinaryMorphology.erode(bits, image.getWidth(), ELEMENT);
+
+        // then
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Assert.assertEquals((eroded[y][x >> 6] >>> x & 1L) != 0, naive(image, x, y, true), "x=" + x + ", y=" + y);
+            }
+        }
+    }
+
+    @Test
+    public void testDilate() {
+        // given
+        ImageWrapper<short[][][]> image = getRandomImage(128, 9);
+        image.applyFunction((img, x, y, c) -> img.setValue(x, y, c, 255 - img.getValue(x, y, c)), false);
+        long[][] bits = BinaryMorphology.pack(image, v -> v == 255);
+
+        // when
+        long[][] dilated = BinaryMorphology.dilate(bits, image.getWidth(), ELEMENT);
+
+        // then
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Assert.assertEquals((dilated[y][x >> 6] >>> x & 1L) != 0, naive(image, x, y, false), "x=" + x + ", y=" + y);
+            }
+        }
+    }
+
+    @Test
+    public void testOpenClose() {
+        // given
+        ImageWrapper<short[][][]> image = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(5, 70, ChannelType.BINARY);
+        image.applyFunction((img, x, y, c) -> img.setValue(x, y, c, x >= 60 && x <= 66 && y >= 1 && y <= 3 ? 255 : 0), false);
+        image.setValue(10, 2, 0, 255);
+        image.setValue(63, 2, 0, 0);
+        long[][] bits = BinaryMorphology.pack(image, v -> v == 255);
+
+        // when
+        long[][] opened = BinaryMorphology.open(bits, image.getWidth(), BinaryMorphology.CROSS);
+        long[][] closed = BinaryMorphology.close(bits, image.getWidth(), BinaryMorphology.CROSS);
+        ImageWrapper<short[][][]> result = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(5, 70, ChannelType.BINARY);
+        BinaryMorphology.unpack(closed, result, 255, 0);
+
+        // then
+        Assert.assertEquals(opened[2][0] & (1L << 10), 0L);
+        Assert.assertNotEquals(opened[2][0] & (1L << 61), 0L);
+        Assert.assertEquals(result.getValue(63, 2, 0), 255.0);
+        Assert.assertEquals(result.getValue(10, 2, 0), 255.0);
+        Assert.assertEquals(result.getValue(11, 2, 0), 0.0);
+    }
+}
@@ -94,4 +94,25 @@ public class GenericMorphFunctionTest {
         }
     }
 
+    @Test
+    public void testApplyBinary() {
+        // given
+        ImageWrapper<short[][][]> image = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(5, 80, ChannelType.BINARY, 255);
+        image.setValue(64, 2, 0, 0);
+        image.setValue(0, 0, 0, 0);
+
+        GenericMorphFunction<short[][][], short[][][]> morphfunction = new GenericMorphFunction<>(ImageFactoryFactory.getImageFactory(short[][][].class));
+        morphfunction.setNeighborMask(NeighborType.N4.getImageMask());
+
+        // when
+        ImageWrapper<short[][][]> apply = morphfunction.apply(image);
+
+        // then
+        for (int y = 0; y < apply.getHeight(); y++) {
+            for (int x = 0; x < apply.getWidth(); x++) {
+                boolean foreground = Math.abs(x - 64) + Math.abs(y - 2) <= 1 || x + y <= 1;
+                Assert.assertEquals(apply.getValue(x, y, 0), foreground ? 0.0 : 255.0, "x=" + x + ", y=" + y);
+            }
+        }
+    }
 }
@@ -12,6 +12,7 @@ package science.aist.imaging.core.imageprocessing.transformation;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import science.aist.imaging.api.compare.GenericImageCompareFunction;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 import science.aist.imaging.core.storage.Image2ByteInputStreamLoader;
@@ -42,4 +43,23 @@ public class GammaCorrectionFunctionTest {
         // then
         Assert.assertTrue(imageCompare.applyAsBoolean(compare, result));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplyToRowAfterGammaChanged() {
+        // given
+        GammaCorrectionFunction<short[][][], short[][][]> function = new GammaCorrectionFunction<>(ImageFactoryFactory.getImageFactory(short[][][].class));
+        double[] src = {0, 64, 255};
+        double[] first = new double[3];
+        double[] second = new double[3];
+        function.setGamma(.5);
+        function.applyToRow(src, ChannelType.GREYSCALE, first, 3);
+
+        // when
+        function.setGamma(2);
+        function.applyToRow(src, ChannelType.GREYSCALE, second, 3);
+
+        // then
+        Assert.assertEquals(first, new double[]{0, 128, 255});
+        Assert.assertEquals(second, new double[]{0, 16, 255});
+    }
+}
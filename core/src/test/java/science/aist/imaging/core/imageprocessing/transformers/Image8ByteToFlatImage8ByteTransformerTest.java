@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.core.imageprocessing.transformers;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.SubImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+
+import java.util.Random;
+
+/**
+ * <p>Tests for {@link Image8ByteToFlatImage8ByteTransformer} and {@link Image2ByteToFlatImage2ByteTransformer}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class Image8ByteToFlatImage8ByteTransformerTest {
+    private static final int width = 50;
+    private static final int height = 40;
+
+    @AfterMethod
+    void closeAllOpenedImageWrappers() {
+        AbstractImageWrapper.freeAllocatedImageWrappers();
+    }
+
+    @Test
+    public void testTransformFrom() {
+        // given
+        ImageWrapper<double[][][]> nested = ImageFactoryFactory.getImageFactory(double[][][].class).getRandomImage(height, width, ChannelType.RGB, new Random(13), 0, 255, false);
+        Image8ByteToFlatImage8ByteTransformer transformer = new Image8ByteToFlatImage8ByteTransformer();
+
+        // when
+        ImageWrapper<double[]> flat = transformer.transformFrom(nested);
+
+        // then
+        Assert.assertEquals(flat.getChannelType(), ChannelType.RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(flat.getValue(x, y, c), nested.getValue(x, y, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTransformTo() {
+        // given
+        ImageWrapper<double[]> flat = ImageFactoryFactory.getImageFactory(double[].class).getRandomImage(height, width, ChannelType.RGB, new Random(13), 0, 255, false);
+        Image8ByteToFlatImage8ByteTransformer transformer = new Image8ByteToFlatImage8ByteTransformer();
+
+        // when
+        ImageWrapper<double[][][]> nested = transformer.transformTo(flat);
+
+        // then
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(nested.getValue(x, y, c), flat.getValue(x, y, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTransformToSubImage() {
+        // given
+        ImageWrapper<double[]> flat = ImageFactoryFactory.getImageFactory(double[].class).getRandomImage(height, width, ChannelType.RGB, new Random(13), 0, 255, false);
+        ImageWrapper<double[]> sub = new SubImageWrapper<>(flat, 5, 10, 20, 15);
+        Image8ByteToFlatImage8ByteTransformer transformer = new Image8ByteToFlatImage8ByteTransformer();
+
+        // when
+        ImageWrapper<double[][][]> nested = transformer.transformTo(sub);
+
+        // then
+        Assert.assertEquals(nested.getWidth(), 20);
+        Assert.assertEquals(nested.getHeight(), 15);
+        for (int y = 0; y < 15; y++) {
+            for (int x = 0; x < 20; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(nested.getValue(x, y, c), flat.getValue(x + 5, y + 10, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTransformFromSubImage() {
+        // given
+        ImageWrapper<double[][][]> nested = ImageFactoryFactory.getImageFactory(double[][][].class).getRandomImage(height, width, ChannelType.RGB, new Random(13), 0, 255, false);
+        ImageWrapper<double[][][]> sub = new SubImageWrapper<>(nested, 5, 10, 20, 15);
+        Image8ByteToFlatImage8ByteTransformer transformer = new Image8ByteToFlatImage8ByteTransformer();
+
+        // when
+        ImageWrapper<double[]> flat = transformer.transformFrom(sub);
+
+        // then
+        Assert.assertEquals(flat.getWidth(), 20);
+        Assert.assertEquals(flat.getHeight(), 15);
+        for (int y = 0; y < 15; y++) {
+            for (int x = 0; x < 20; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(flat.getValue(x, y, c), nested.getValue(x + 5, y + 10, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTwoByteTransformFromSubImage() {
+        // given
+        ImageWrapper<short[][][]> nested = ImageFactoryFactory.getImageFactory(short[][][].class).getRandomImage(height, width, ChannelType.RGB, new Random(13), 0, 255, false);
+        ImageWrapper<short[][][]> sub = new SubImageWrapper<>(nested, 5, 10, 20, 15);
+        Image2ByteToFlatImage2ByteTransformer transformer = new Image2ByteToFlatImage2ByteTransformer();
+
+        // when
+        ImageWrapper<short[]> flat = transformer.transformFrom(sub);
+
+        // then
+        Assert.assertEquals(flat.getWidth(), 20);
+        Assert.assertEquals(flat.getHeight(), 15);
+        for (int y = 0; y < 15; y++) {
+            for (int x = 0; x < 20; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(flat.getValue(x, y, c), nested.getValue(x + 5, y + 10, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTwoByteRoundTrip() {
+        // given
+        ImageWrapper<short[][][]> nested = ImageFactoryFactory.getImageFactory(short[][][].class).getRandomImage(height, width, ChannelType.GREYSCALE, new Random(13), 0, 255, false);
+        Image2ByteToFlatImage2ByteTransformer transformer = new Image2ByteToFlatImage2ByteTransformer();
+
+        // when
+        ImageWrapper<short[][][]> res = transformer.transformTo(transformer.transformFrom(nested));
+
+        // then
+        Assert.assertEquals(res, nested);
+    }
+}
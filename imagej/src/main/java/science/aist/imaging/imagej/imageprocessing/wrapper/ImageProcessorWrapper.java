@@ -76,6 +76,78 @@ public class ImageProcessorWrapper extends AbstractImageWrapper<ImageProcessor>
         }
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        int width = getWidth();
+        double[] res = dst == null ? new double[width] : dst;
+        int[] row = new int[width];
+        image.getRow(0, y, row, width);
+        boolean color = image instanceof ColorProcessor;
+        int shift = 16 - 8 * channel;
+        for (int x = 0; x < width; x++) {
+            res[x] = color ? (row[x] >> shift) & 0xff : row[x];
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        int[] row = new int[width];
+        if (image instanceof ColorProcessor) {
+            image.getRow(0, y, row, width);
+            int shift = 16 - 8 * channel;
+            for (int x = 0; x < width; x++) {
+                row[x] = (row[x] & ~(0xff << shift)) + ((int) src[x] << shift);
+            }
+        } else {
+            for (int x = 0; x < width; x++) {
+                row[x] = (int) src[x];
+            }
+        }
+        image.putRow(0, y, row, width);
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int[] row = new int[width];
+        boolean color = image instanceof ColorProcessor;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            image.getRow(x, j, row, width);
+            for (int i = 0; i < width; i++) {
+                if (color) {
+                    res[idx++] = (row[i] & 0xff0000) >> 16;
+                    res[idx++] = (row[i] & 0xff00) >> 8;
+                    res[idx++] = row[i] & 0xff;
+                } else {
+                    res[idx++] = row[i];
+                }
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int[] row = new int[width];
+        boolean color = image instanceof ColorProcessor;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            for (int i = 0; i < width; i++) {
+                if (color) {
+                    row[i] = ((int) src[idx] << 16) + ((int) src[idx + 1] << 8) + (int) src[idx + 2];
+                    idx += 3;
+                } else {
+                    row[i] = (int) src[idx++];
+                }
+            }
+            image.putRow(x, j, row, width);
+        }
+    }
+
     @Override
     public Class<ImageProcessor> getSupportedType() {
         return ImageProcessor.class;
@@ -50,6 +50,55 @@ public class ImageStackWrapper extends AbstractImageWrapper<ImageStack> {
         image.setVoxel(x, y, channel, val);
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        int width = getWidth();
+        double[] res = dst == null ? new double[width] : dst;
+        float[] voxels = image.getVoxels(0, y, channel, width, 1, 1, null);
+        for (int x = 0; x < width; x++) {
+            res[x] = voxels[x];
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        float[] voxels = new float[width];
+        for (int x = 0; x < width; x++) {
+            voxels[x] = (float) src[x];
+        }
+        image.setVoxels(0, y, channel, width, 1, 1, voxels);
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        // the stack returns the voxels slice by slice, so they need to be interleaved
+        float[] voxels = image.getVoxels(x, y, 0, width, height, channels, null);
+        int sliceSize = width * height;
+        for (int c = 0; c < channels; c++) {
+            for (int i = 0; i < sliceSize; i++) {
+                res[i * channels + c] = voxels[c * sliceSize + i];
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        int sliceSize = width * height;
+        float[] voxels = new float[sliceSize * channels];
+        for (int c = 0; c < channels; c++) {
+            for (int i = 0; i < sliceSize; i++) {
+                voxels[c * sliceSize + i] = (float) src[i * channels + c];
+            }
+        }
+        image.setVoxels(x, y, 0, width, height, channels, voxels);
+    }
+
     @Override
     public Class<ImageStack> getSupportedType() {
         return ImageStack.class;
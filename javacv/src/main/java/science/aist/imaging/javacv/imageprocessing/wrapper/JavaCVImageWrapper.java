@@ -51,6 +51,66 @@ public class JavaCVImageWrapper extends AbstractImageWrapper<Mat> {
         }
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        int width = getWidth();
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width] : dst;
+        int[] row = new int[width * channels];
+        try (UByteRawIndexer dstIdx = image.createIndexer()) {
+            dstIdx.get(y, 0, row, 0, row.length);
+        }
+        for (int x = 0; x < width; x++) {
+            res[x] = row[x * channels + channel];
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        int channels = getChannels();
+        int[] row = new int[width * channels];
+        try (UByteRawIndexer dstIdx = image.createIndexer()) {
+            dstIdx.get(y, 0, row, 0, row.length);
+            for (int x = 0; x < width; x++) {
+                row[x * channels + channel] = (int) src[x];
+            }
+            dstIdx.put(y, 0, row, 0, row.length);
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int rowLength = width * getChannels();
+        double[] res = dst == null ? new double[rowLength * height] : dst;
+        int[] row = new int[rowLength];
+        try (UByteRawIndexer dstIdx = image.createIndexer()) {
+            for (int j = 0; j < height; j++) {
+                // the channels of a row are stored consecutively, so the whole row segment can be read at once
+                dstIdx.get(y + j, x, row, 0, rowLength);
+                for (int i = 0; i < rowLength; i++) {
+                    res[j * rowLength + i] = row[i];
+                }
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int rowLength = width * getChannels();
+        int[] row = new int[rowLength];
+        try (UByteRawIndexer dstIdx = image.createIndexer()) {
+            for (int j = 0; j < height; j++) {
+                for (int i = 0; i < rowLength; i++) {
+                    row[i] = (int) src[j * rowLength + i];
+                }
+                dstIdx.put(y + j, x, row, 0, rowLength);
+            }
+        }
+    }
+
     @Override
     public Class<Mat> getSupportedType() {
         return Mat.class;
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * <p>Base class for readers, which read the mesh into an {@link IndexedMesh}. All model based read methods are
+ * converted from the indexed mesh, so files and streams are read with the memory mapped and binary aware
+ * {@link #readIndexed(File)} and {@link #readIndexed(InputStream)}.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public abstract class AbstractIndexedMeshReader implements MeshReader {
+    @Override
+    public Optional<JavaModel3D> read(File file) {
+        return readIndexed(file).map(IndexedMesh::toModel);
+    }
+
+    @Override
+    public Optional<JavaModel3D> read(InputStream inputStream) {
+        return readIndexed(inputStream).map(IndexedMesh::toModel);
+    }
+
+    @Override
+    public Optional<JavaModel3D> read(BufferedReader reader) {
+        return readIndexed(reader).map(IndexedMesh::toModel);
+    }
+
+    @Override
+    public abstract Optional<IndexedMesh> readIndexed(BufferedReader reader);
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>Sequential access to binary mesh data, which is either a single buffer or a file mapped in windows</p>
+ * <p>A byte buffer can address at most 2 GB, so larger files are mapped window by window while they are read. Before
+ * reading a value the caller requests the number of bytes it needs with {@link #ensure(int)}, which maps the next
+ * window if the current one does not contain them anymore, and reads the value with the relative methods of the
+ * returned buffer.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class MappedWindows {
+    /**
+     * Default size of a window
+     */
+    public static final int WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private ByteBuffer window;
+    /**
+     * Offset of the first byte of the window in the file
+     */
+    private long windowOffset;
+    private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+    private MappedWindows(FileChannel channel, long size, int windowSize, ByteBuffer window) {
+        this.channel = channel;
+        this.size = size;
+        this.windowSize = windowSize;
+        this.window = window;
+    }
+
+    /**
+     * @param buffer the whole mesh data starting at the position of the buffer
+     * @return windows consisting of a duplicate of the given buffer
+     */
+    public static MappedWindows of(ByteBuffer buffer) {
+        return new MappedWindows(null, buffer.remaining(), buffer.remaining(), buffer.duplicate());
+    }
+
+    /**
+     * @param channel the file containing the mesh data
+     * @return windows of {@link #WINDOW_SIZE} mapped from the file
+     * @throws IOException if the file can not be mapped
+     */
+    public static MappedWindows of(FileChannel channel) throws IOException {
+        return of(channel, WINDOW_SIZE);
+    }
+
+    /**
+     * @param channel    the file containing the mesh data
+     * @param windowSize the size of a window in bytes
+     * @return windows of the given size mapped from the file
+     * @throws IOException if the file can not be mapped
+     */
+    public static MappedWindows of(FileChannel channel, int windowSize) throws IOException {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        MappedWindows windows = new MappedWindows(channel, channel.size(), windowSize, null);
+        windows.map(0, 0);
+        return windows;
+    }
+
+    /**
+     * Sets the byte order used by the buffers returned by {@link #ensure(int)}
+     *
+     * @param order the byte order
+     * @return this windows
+     */
+    public MappedWindows order(ByteOrder order) {
+        this.order = order;
+        window.order(order);
+        return this;
+    }
+
+    /**
+     * @return number of bytes between the current position and the end of the data
+     */
+    public long remaining() {
+        return channel == null ? window.remaining() : size - windowOffset - window.position();
+    }
+
+    /**
+     * Maps the next window, if the current window contains less than the given number of bytes after the current
+     * position. The returned buffer only contains fewer bytes, if the end of the data is reached.
+     *
+     * @param bytes number of bytes, which are read next
+     * @return the current window positioned at the current position
+     */
+    public ByteBuffer ensure(int bytes) {
+        if (window.remaining() < bytes && channel != null) {
+            map(windowOffset + window.position(), bytes);
+        }
+        return window;
+    }
+
+    /**
+     * Skips the given number of bytes
+     *
+     * @param bytes number of bytes to skip
+     * @throws BufferUnderflowException if less bytes remain
+     */
+    public void skip(long bytes) {
+        if (bytes > remaining()) {
+            throw new BufferUnderflowException();
+        }
+        if (bytes <= window.remaining()) {
+            window.position(window.position() + (int) bytes);
+        } else {
+            map(windowOffset + window.position() + bytes, 0);
+        }
+    }
+
+    private void map(long position, int bytes) {
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(windowSize, bytes), size - position)).order(order);
+            windowOffset = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
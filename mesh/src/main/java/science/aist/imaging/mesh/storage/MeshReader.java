@@ -9,20 +9,47 @@
 
 package science.aist.imaging.mesh.storage;
 
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.seshat.Logger;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 
 /**
  * <p>Interface for reading a mesh from a file</p>
+ * <p>By default the model based read methods decode files and streams as UTF-8 and pass them to
+ * {@link #read(BufferedReader)}. The built-in implementations extend {@link AbstractIndexedMeshReader}: they read the
+ * mesh into an {@link IndexedMesh} and the {@link JavaModel3D} returned by the read methods is converted from it (see
+ * {@link IndexedMesh#toModel()}). If the polygons of the model are only iterated,
+ * {@code readIndexed(...).map(IndexedMesh::asModel)} provides a view, which does not create them all at once.</p>
+ * <p>Readers supporting a binary variant of their format implement {@link #isBinary(ByteBuffer)} and
+ * {@link #readBinary(ByteBuffer)}. Files are memory mapped for the detection and decoding, streams are checked
+ * based on their first {@link #HEADER_SIZE} bytes. Text based files are read with {@link #readText(CharSequence)},
+ * which allows implementations to split large files into chunks and to parse them in parallel.</p>
+ * <p>A buffer can not address more than 2 GB. Larger binary files are mapped in windows and passed to
+ * {@link #readBinary(MappedWindows)}, larger text based files are decoded while they are read by
+ * {@link #readIndexed(BufferedReader)}.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
 public interface MeshReader {
+    /**
+     * Number of bytes of a stream, which are used to detect a binary mesh
+     */
+    int HEADER_SIZE = 1024;
+
+    /**
+     * Minimal number of characters of a chunk of a text based mesh, which is parsed in parallel
+     */
+    int CHUNK_SIZE = 1 << 22;
+
     /**
      * Reads a given mesh from a given file defined by its path
      * @param path path to the file
@@ -65,5 +92,116 @@ public interface MeshReader {
      * @param reader accesing the mesh data
      * @return the read mesh or empty if read operation was not successful
      */
-    Optional<JavaModel3D> read(BufferedReader  reader);
+    Optional<JavaModel3D> read(BufferedReader reader);
+
+    /**
+     * Reads a given mesh from a given file defined by its path
+     * @param path path to the file
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readIndexed(String path) {
+        return readIndexed(new File(path));
+    }
+
+    /**
+     * Reads a given mesh from a given file
+     * @param file containing the mesh
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readIndexed(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return isBinary(buffer.duplicate()) ? readBinary(buffer) : readText(MeshTokenizer.ascii(buffer));
+            }
+
+            if (isBinary(channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE))) {
+                return readBinary(MappedWindows.of(channel));
+            }
+            return readIndexed(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1)));
+        } catch (IOException | UncheckedIOException e) {
+            Logger.getInstance(this.getClass()).debug("Could not read the file: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads a given mesh from a given inputstream
+     * @param inputStream containing the mesh
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readIndexed(InputStream inputStream) {
+        try (BufferedInputStream stream = new BufferedInputStream(inputStream, Math.max(HEADER_SIZE, 8192))) {
+            stream.mark(HEADER_SIZE);
+            byte[] header = new byte[HEADER_SIZE];
+            int length = 0;
+            int read;
+            while (length < HEADER_SIZE && (read = stream.read(header, length, HEADER_SIZE - length)) != -1) {
+                length += read;
+            }
+            stream.reset();
+
+            if (isBinary(ByteBuffer.wrap(header, 0, length))) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] chunk = new byte[8192];
+                while ((read = stream.read(chunk)) != -1) {
+                    content.write(chunk, 0, read);
+                }
+                return readBinary(ByteBuffer.wrap(content.toByteArray()));
+            }
+            return readIndexed(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            Logger.getInstance(this.getClass()).debug("Could not read the input stream: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks if the given data contains a mesh in the binary variant of the format
+     * @param buffer the whole mesh data or (when reading from a stream) the first {@link #HEADER_SIZE} bytes of it
+     * @return true iff the mesh must be read with {@link #readBinary(ByteBuffer)}
+     */
+    default boolean isBinary(ByteBuffer buffer) {
+        return false;
+    }
+
+    /**
+     * Reads a given mesh stored in the binary variant of the format
+     * @param buffer containing the whole mesh data
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readBinary(ByteBuffer buffer) {
+        Logger.getInstance(this.getClass()).debug("Binary meshes are not supported");
+        return Optional.empty();
+    }
+
+    /**
+     * Reads a given mesh stored in the binary variant of the format, which is accessed in windows. This is used for
+     * files larger than 2 GB, which can not be mapped into a single buffer.
+     * @param data containing the whole mesh data
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readBinary(MappedWindows data) {
+        Logger.getInstance(this.getClass()).debug("Binary meshes larger than 2 GB are not supported");
+        return Optional.empty();
+    }
+
+    /**
+     * Reads a given mesh stored in the text variant of the format
+     * @param content the whole mesh data (e.g. a memory mapped file, see {@link MeshTokenizer#ascii(ByteBuffer)})
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readText(CharSequence content) {
+        return readIndexed(new BufferedReader(MeshTokenizer.reader(content)));
+    }
+
+    /**
+     * Reads a given mesh from a given reader. By default the model read with {@link #read(BufferedReader)} is
+     * converted, merging only identical points.
+     * @param reader accesing the mesh data
+     * @return the read mesh or empty if read operation was not successful
+     */
+    default Optional<IndexedMesh> readIndexed(BufferedReader reader) {
+        return read(reader).map(model -> IndexedMesh.of(model, 0));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Tokenizer for text based mesh files</p>
+ * <p>The tokenizer walks line by line over a character sequence (e.g. a line of a reader or a memory mapped file, see
+ * {@link #ascii(ByteBuffer)}) and splits the current line at spaces and tabs. Numbers are parsed in place, so no
+ * strings are created for the tokens.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class MeshTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CharSequence data;
+    private int end;
+    private int next;
+    private int position;
+    private int lineEnd;
+
+    /**
+     * Creates a tokenizer for the whole sequence
+     *
+     * @param data the content
+     */
+    public MeshTokenizer(CharSequence data) {
+        this(data, 0, data.length());
+    }
+
+    /**
+     * Creates a tokenizer for a part of the sequence
+     *
+     * @param data  the content
+     * @param start index of the first character (must be the start of a line)
+     * @param end   index after the last character
+     */
+    public MeshTokenizer(CharSequence data, int start, int end) {
+        reset(data, start, end);
+    }
+
+    /**
+     * Uses the tokenizer for a new sequence
+     *
+     * @param data the content
+     * @return this tokenizer
+     */
+    public MeshTokenizer reset(CharSequence data) {
+        return reset(data, 0, data.length());
+    }
+
+    private MeshTokenizer reset(CharSequence data, int start, int end) {
+        this.data = data;
+        this.end = end;
+        this.next = start;
+        this.position = start;
+        this.lineEnd = start;
+        return this;
+    }
+
+    /**
+     * Moves to the next line
+     *
+     * @return false if there are no more lines
+     */
+    public boolean nextLine() {
+        if (next >= end) {
+            return false;
+        }
+        position = next;
+        lineEnd = position;
+        while (lineEnd < end && data.charAt(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        next = lineEnd + 1;
+        return true;
+    }
+
+    /**
+     * @return index of the first character after the current line (i.e. the start of the next line)
+     */
+    public int getLineEnd() {
+        return Math.min(next, end);
+    }
+
+    /**
+     * @return true iff the current line contains another token
+     */
+    public boolean hasNext() {
+        skipWhitespace();
+        return position < lineEnd;
+    }
+
+    /**
+     * Consumes the next token if it is equal to the given keyword (ignoring the case)
+     *
+     * @param keyword the keyword
+     * @return true iff the next token is the keyword
+     */
+    public boolean nextIs(String keyword) {
+        skipWhitespace();
+        int tokenEnd = tokenEnd();
+        if (tokenEnd - position != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toLowerCase(data.charAt(position + i)) != Character.toLowerCase(keyword.charAt(i))) {
+                return false;
+            }
+        }
+        position = tokenEnd;
+        return true;
+    }
+
+    /**
+     * Checks the first character of the next token without consuming it
+     *
+     * @param c the character
+     * @return true iff the next token starts with the given character
+     */
+    public boolean nextStartsWith(char c) {
+        skipWhitespace();
+        return position < lineEnd && data.charAt(position) == c;
+    }
+
+    /**
+     * Skips the next token
+     */
+    public void skip() {
+        skipWhitespace();
+        position = tokenEnd();
+    }
+
+    /**
+     * @return the next token
+     * @throws IllegalStateException if the line contains no more tokens
+     */
+    public String next() {
+        if (!hasNext()) {
+            throw new IllegalStateException("Missing token in line: " + line());
+        }
+        int start = position;
+        position = tokenEnd();
+        return data.subSequence(start, position).toString();
+    }
+
+    /**
+     * @return the current line without leading and trailing whitespace
+     */
+    public String line() {
+        int start = position;
+        while (start > 0 && data.charAt(start - 1) != '\n') {
+            start--;
+        }
+        return data.subSequence(start, lineEnd).toString().trim();
+    }
+
+    /**
+     * Parses the leading integer of the next token (e.g. 2 of the OBJ face element 2/5/3) and skips the rest of it
+     *
+     * @return the integer
+     * @throws NumberFormatException if the token does not start with an integer
+     */
+    public int nextInt() {
+        skipWhitespace();
+        int tokenEnd = tokenEnd();
+        int i = position;
+        boolean negative = i < tokenEnd && data.charAt(i) == '-';
+        if (negative || (i < tokenEnd && data.charAt(i) == '+')) {
+            i++;
+        }
+        int start = i;
+        long value = 0;
+        while (i < tokenEnd && isDigit(data.charAt(i)) && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (data.charAt(i) - '0');
+            i++;
+        }
+        if (i == start || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Invalid integer: " + data.subSequence(position, tokenEnd));
+        }
+        position = tokenEnd;
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses the next token as double. Decimal numbers with up to 15 significant digits are parsed in place (exactly
+     * as {@link Double#parseDouble(String)} does), other numbers are delegated to {@link Double#parseDouble(String)}.
+     *
+     * @return the double
+     * @throws NumberFormatException if the token is not a number
+     */
+    public double nextDouble() {
+        skipWhitespace();
+        int tokenEnd = tokenEnd();
+        int i = position;
+        boolean negative = i < tokenEnd && data.charAt(i) == '-';
+        if (negative || (i < tokenEnd && data.charAt(i) == '+')) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < tokenEnd && isDigit(data.charAt(i))) {
+            anyDigit = true;
+            if (mantissa != 0 || data.charAt(i) != '0') {
+                mantissa = mantissa * 10 + (data.charAt(i) - '0');
+                digits++;
+            }
+            i++;
+        }
+        if (i < tokenEnd && data.charAt(i) == '.') {
+            i++;
+            while (i < tokenEnd && isDigit(data.charAt(i))) {
+                anyDigit = true;
+                if (mantissa != 0 || data.charAt(i) != '0') {
+                    mantissa = mantissa * 10 + (data.charAt(i) - '0');
+                    digits++;
+                }
+                exponent--;
+                i++;
+            }
+        }
+        if (anyDigit && i < tokenEnd && (data.charAt(i) == 'e' || data.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = i < tokenEnd && data.charAt(i) == '-';
+            if (negativeExponent || (i < tokenEnd && data.charAt(i) == '+')) {
+                i++;
+            }
+            int start = i;
+            int value = 0;
+            while (i < tokenEnd && isDigit(data.charAt(i)) && value < 10000) {
+                value = value * 10 + (data.charAt(i) - '0');
+                i++;
+            }
+            exponent = i == start ? Integer.MIN_VALUE : exponent + (negativeExponent ? -value : value);
+        }
+
+        if (anyDigit && i == tokenEnd && digits <= 15 && exponent >= -22 && exponent <= 22) {
+            // both the mantissa and the power of ten are exact doubles, so a single operation rounds correctly
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            position = tokenEnd;
+            return negative ? -value : value;
+        }
+        String token = data.subSequence(position, tokenEnd).toString();
+        position = tokenEnd;
+        return Double.parseDouble(token);
+    }
+
+    private int tokenEnd() {
+        int i = position;
+        while (i < lineEnd && !isWhitespace(data.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private void skipWhitespace() {
+        while (position < lineEnd && isWhitespace(data.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Splits the sequence at line boundaries into chunks, which can be tokenized in parallel
+     *
+     * @param data         the content
+     * @param start        index of the first character (must be the start of a line)
+     * @param minChunkSize minimal number of characters of a chunk
+     * @return the start of every chunk followed by the end of the sequence
+     */
+    public static int[] chunks(CharSequence data, int start, int minChunkSize) {
+        int length = data.length() - start;
+        int numberOfChunks = Math.max(1, Math.min(PixelExecutor.getParallelism() * 4, length / Math.max(1, minChunkSize)));
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(start);
+        for (int i = 1; i < numberOfChunks; i++) {
+            int boundary = Math.max(start + (int) ((long) length * i / numberOfChunks), boundaries.get(boundaries.size() - 1));
+            while (boundary < data.length() && data.charAt(boundary - 1) != '\n') {
+                boundary++;
+            }
+            if (boundary < data.length() && boundary > boundaries.get(boundaries.size() - 1)) {
+                boundaries.add(boundary);
+            }
+        }
+        boundaries.add(data.length());
+        return boundaries.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Creates a character sequence view of the given ASCII (or ISO-8859-1) encoded content without copying it
+     *
+     * @param buffer the content (e.g. a memory mapped file)
+     * @return the view
+     */
+    public static CharSequence ascii(ByteBuffer buffer) {
+        return new AsciiSequence(buffer.duplicate(), 0, buffer.remaining());
+    }
+
+    /**
+     * Creates a reader of the given content, which reads the characters from the sequence without copying it
+     *
+     * @param data the content
+     * @return the reader
+     */
+    public static Reader reader(CharSequence data) {
+        return new SequenceReader(data);
+    }
+
+    /**
+     * Reader of a character sequence
+     */
+    private static final class SequenceReader extends Reader {
+        private final CharSequence data;
+        private int position = 0;
+
+        private SequenceReader(CharSequence data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (position >= data.length()) {
+                return -1;
+            }
+            int count = Math.min(len, data.length() - position);
+            for (int i = 0; i < count; i++) {
+                cbuf[off + i] = data.charAt(position + i);
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release, the sequence is owned by the caller
+        }
+    }
+
+    /**
+     * Character sequence view of a byte buffer
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        private AsciiSequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(buffer.position() + offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
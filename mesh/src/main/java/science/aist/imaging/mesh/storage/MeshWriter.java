@@ -9,6 +9,7 @@
 
 package science.aist.imaging.mesh.storage;
 
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.seshat.Logger;
 
@@ -17,6 +18,8 @@ import java.nio.charset.StandardCharsets;
 
 /**
  * <p>Interface for writing a mesh to a file</p>
+ * <p>The built-in implementations write {@link IndexedMesh}es; a {@link JavaModel3D} is converted into an indexed
+ * mesh before (see {@link IndexedMesh#of(JavaModel3D, double)}).</p>
  *
  * @author Christoph Praschl
  * @since 1.2
@@ -70,4 +73,55 @@ public interface MeshWriter {
      */
     boolean write(JavaModel3D mesh, Writer writer);
 
-}
\ No newline at end of file
+    /**
+     * Write a given mesh to a file defined by its path
+     * @param mesh to be written
+     * @param path path to the file
+     * @return true iff write operation was successful
+     */
+    default boolean write(IndexedMesh mesh, String path) {
+        return write(mesh, new File(path));
+    }
+
+    /**
+     * Write a given mesh to a file
+     * @param mesh to be written
+     * @param file to which mesh should be written
+     * @return true iff write operation was successful
+     */
+    default boolean write(IndexedMesh mesh, File file){
+        try(OutputStream stream = new FileOutputStream(file)) {
+            return write(mesh, stream);
+        } catch (IOException e) {
+            Logger.getInstance(this.getClass()).debug("Could not write to file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write a given mesh to a given outputstream
+     * @param mesh to be written
+     * @param outputStream to be written to
+     * @return true iff write operation was successful
+     */
+    default boolean write(IndexedMesh mesh, OutputStream outputStream) {
+        try (OutputStreamWriter fileWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+            return write(mesh, fileWriter);
+        } catch (IOException e) {
+            Logger.getInstance(this.getClass()).debug("Could not write to outputStream: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write a given mesh using the given writer. By default the mesh is written with
+     * {@link #write(JavaModel3D, Writer)}.
+     * @param mesh to be written
+     * @param writer writer used to store mesh
+     * @return true iff write operation was successful
+     */
+    default boolean write(IndexedMesh mesh, Writer writer) {
+        return write(mesh.asModel(), writer);
+    }
+
+}
@@ -9,100 +9,125 @@
 
 package science.aist.imaging.mesh.storage.obj;
 
-import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
-import science.aist.imaging.mesh.storage.MeshReader;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.mesh.storage.AbstractIndexedMeshReader;
+import science.aist.imaging.mesh.storage.MeshTokenizer;
 import science.aist.seshat.Logger;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
  * <p>MeshReader implementation for OBJ files</p>
  * <p>Based on OBJ definition by <a href="http://paulbourke.net/dataformats/obj/">Paul Bourke</a></p>
  * <p>Note: The reader currently only supports text based OBJ mesh files, not binaries!</p>
+ * <p>Large files are split into chunks of lines, which are parsed in parallel. Relative (negative) face indices are
+ * resolved with the number of vertices defined before the chunk.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
-public class ObjReader implements MeshReader {
+public class ObjReader extends AbstractIndexedMeshReader {
     private static final Logger logger = Logger.getInstance(ObjReader.class);
 
     @Override
-    public Optional<JavaModel3D> read(BufferedReader reader) {
-        List<JavaPoint3D> points = new ArrayList<>();
-        List<JavaPolygon3D> polygons = new ArrayList<>();
+    public Optional<IndexedMesh> readIndexed(BufferedReader reader) {
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        MeshTokenizer tokenizer = new MeshTokenizer("");
         try {
             String line;
             while ((line = reader.readLine()) != null) {
-                line = line.trim().replace("\t", " ").replaceAll(" +", " ");
-                if(line.isEmpty()){
-                    continue;
-                }
+                parse(tokenizer.reset(line), builder, 0);
+            }
 
-                String[] splits = line.split(" ");
-                int len = splits.length;
+            return Optional.of(builder.build());
+        } catch (IOException e) {
+            logger.debug("Problem when reading obj file: " + e.getMessage());
+            return Optional.empty();
+        }
 
-                if (line.startsWith("v ")) {
-                    if (len > 2) {
-                        // element at index 0 is line identifier, which we are not interested
-                        double x = Double.parseDouble(splits[1]);
-                        double y = Double.parseDouble(splits[2]);
-                        double z = 0;
-                        if (len > 3) {
-                            z = Double.parseDouble(splits[3]);
-                        }
-                        points.add(new JavaPoint3D(x, y, z));
 
-                    } else {
-                        throw new IllegalStateException("Found invalid vertex definition: " + line);
-                    }
+    }
 
+    @Override
+    public Optional<IndexedMesh> readText(CharSequence content) {
+        int[] chunks = MeshTokenizer.chunks(content, 0, CHUNK_SIZE);
+        int numberOfChunks = chunks.length - 1;
+
+        // number of vertices defined before every chunk
+        int[] vertexOffsets = new int[numberOfChunks];
+        if (numberOfChunks > 1) {
+            int[] counts = new int[numberOfChunks];
+            PixelExecutor.forEachTask(numberOfChunks, true, i -> counts[i] = countVertices(new MeshTokenizer(content, chunks[i], chunks[i + 1])));
+            for (int i = 1; i < numberOfChunks; i++) {
+                vertexOffsets[i] = vertexOffsets[i - 1] + counts[i - 1];
+            }
+        }
 
-                } else if (line.startsWith("f ")) {
-                    if(splits.length < 2){
-                        throw new IllegalStateException("Found invalid face definition: " + line);
-                    }
+        IndexedMesh.Builder[] parts = new IndexedMesh.Builder[numberOfChunks];
+        PixelExecutor.forEachTask(numberOfChunks, true, i -> {
+            parts[i] = IndexedMesh.builder();
+            parse(new MeshTokenizer(content, chunks[i], chunks[i + 1]), parts[i], vertexOffsets[i]);
+        });
+        return Optional.of(IndexedMesh.concat(Arrays.asList(parts)));
+    }
 
-                    List<Integer> indices = new ArrayList<>();
-                    if(line.contains("/")) {
-                        for (int i = 1; i < splits.length; i++) {
-                            String split = splits[i];
-                            String[] faceElements = split.split("/");
-                            // element 0 contains the vertex index everything else is for vectors
-                            indices.add(Integer.parseInt(faceElements[0]));
-                        }
-                    } else {
-                        for (int i = 1; i < splits.length; i++) {
-                            String split = splits[i];
-                            indices.add(Integer.parseInt(split));
-                        }
+    private static int countVertices(MeshTokenizer tokenizer) {
+        int count = 0;
+        while (tokenizer.nextLine()) {
+            if (tokenizer.nextIs("v")) {
+                count++;
+            }
+        }
+        return count;
+    }
 
+    /**
+     * Parses the vertices and faces of all lines of the tokenizer
+     *
+     * @param tokenizer    the lines
+     * @param builder      builder the vertices and faces are added to
+     * @param vertexOffset number of vertices defined before the lines, which are not contained in the builder
+     */
+    private static void parse(MeshTokenizer tokenizer, IndexedMesh.Builder builder, int vertexOffset) {
+        int[] indices = new int[8];
+        while (tokenizer.nextLine()) {
+            if (tokenizer.nextIs("v")) {
+                // the line identifier is consumed, so the coordinates follow
+                if (!tokenizer.hasNext()) {
+                    throw new IllegalStateException("Found invalid vertex definition: " + tokenizer.line());
+                }
+                double x = tokenizer.nextDouble();
+                if (!tokenizer.hasNext()) {
+                    throw new IllegalStateException("Found invalid vertex definition: " + tokenizer.line());
+                }
+                double y = tokenizer.nextDouble();
+                double z = tokenizer.hasNext() ? tokenizer.nextDouble() : 0;
+                builder.addVertex(x, y, z);
+            } else if (tokenizer.nextIs("f")) {
+                int length = 0;
+                while (tokenizer.hasNext()) {
+                    // the leading number of an element is the vertex index everything else is for vectors
+                    int index = tokenizer.nextInt();
+                    if (length == indices.length) {
+                        indices = Arrays.copyOf(indices, length * 2);
                     }
-
-                    List<JavaPoint3D> polygonPoints = new ArrayList<>();
-                    for (Integer index : indices) {
-                        if(index > 0){
-                            polygonPoints.add(points.get(index - 1)); // OBJ does not use index 0; so index 1 is the first element
-                        } else {
-                            // a negative index defines reversed point order
-                            polygonPoints.add(points.get(points.size() - index));
-                        }
+                    if (index > 0) {
+                        indices[length++] = index - 1; // OBJ does not use index 0; so index 1 is the first element
+                    } else {
+                        // a negative index references the vertices relative to the end of the current vertex list
+                        indices[length++] = vertexOffset + builder.getNumberOfVertices() + index;
                     }
-                    polygons.add(new JavaPolygon3D(polygonPoints));
+                }
+                if (length == 3) {
+                    builder.addTriangle(indices[0], indices[1], indices[2]);
+                } else if (length > 0) {
+                    builder.addFace(Arrays.copyOf(indices, length));
                 }
             }
-
-            return Optional.of(new JavaModel3D(polygons));
-        } catch (IOException e) {
-            logger.debug("Problem when reading obj file: " + e.getMessage());
-            return Optional.empty();
         }
-
-
     }
 }
@@ -9,16 +9,14 @@
 
 package science.aist.imaging.mesh.storage.off;
 
-import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
-import science.aist.imaging.mesh.storage.MeshReader;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.mesh.storage.AbstractIndexedMeshReader;
+import science.aist.imaging.mesh.storage.MeshTokenizer;
 import science.aist.seshat.Logger;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -29,90 +27,93 @@ import java.util.Optional;
  * @author Christoph Praschl
  * @since 1.2
  */
-public class OffReader implements MeshReader {
+public class OffReader extends AbstractIndexedMeshReader {
     private static final Logger logger = Logger.getInstance(OffReader.class);
 
     @Override
-    public Optional<JavaModel3D> read(BufferedReader reader) {
+    public Optional<IndexedMesh> readIndexed(BufferedReader reader) {
         try {
-
+            OffParser parser = new OffParser();
+            MeshTokenizer tokenizer = new MeshTokenizer("");
             String line;
             while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim();
-                if (!trimmed.startsWith("#") && trimmed.toLowerCase().startsWith("off")) {
-                    // find the start of the off file defined by the OFF string
-                    break;
-                }
-            }
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim();
-                if (!trimmed.startsWith("#") && !trimmed.isEmpty()) {
-                    // ignore comment and blank lines
-                    break;
-                }
-            }
-
-            if (line == null) {
-                throw new IllegalStateException("Off file is empty");
+                parser.parse(tokenizer.reset(line));
             }
+            return parser.build();
+        } catch (IOException e) {
+            logger.debug("Problem when reading obj file: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
 
-            String[] numberOfElements = line.trim().replace("\t", " ").replaceAll(" +", " ").split(" ");
-            int numberOfVertices = Integer.parseInt(numberOfElements[0]);
-            int numberOfFaces = Integer.parseInt(numberOfElements[1]);
-
-            List<JavaPoint3D> points = new ArrayList<>();
-            List<JavaPolygon3D> polygons = new ArrayList<>();
-
-            int currentLine = 0;
-            boolean readVertices = true;
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim().replace("\t", " ").replaceAll(" +", " ");
+    @Override
+    public Optional<IndexedMesh> readText(CharSequence content) {
+        OffParser parser = new OffParser();
+        parser.parse(new MeshTokenizer(content));
+        return parser.build();
+    }
 
-                // ignore comment
-                if (trimmed.startsWith("#") || trimmed.isEmpty()) {
+    /**
+     * Parses the lines of an OFF file
+     */
+    private static final class OffParser {
+        private final IndexedMesh.Builder builder = IndexedMesh.builder();
+        private boolean offDefined = false;
+        private boolean sizeDefined = false;
+        private int numberOfVertices = 0;
+        private int numberOfFaces = 0;
+        private int numberOfReadFaces = 0;
+        private int currentLine = 0;
+        private int[] indices = new int[8];
+
+        private void parse(MeshTokenizer tokenizer) {
+            while (tokenizer.nextLine()) {
+                // ignore comment and blank lines
+                if (!tokenizer.hasNext() || tokenizer.nextStartsWith('#')) {
                     continue;
                 }
 
-                String[] splits = trimmed.split(" ");
-                int len = splits.length;
-
-                if (readVertices) {
-                    if (len > 1) {
-                        double x = Double.parseDouble(splits[0]);
-                        double y = Double.parseDouble(splits[1]);
-                        double z = 0;
-                        if (len > 2) {
-                            z = Double.parseDouble(splits[2]);
-                        }
-                        points.add(new JavaPoint3D(x, y, z));
-                    } else {
-                        throw new IllegalStateException("Found invalid vertex definition: " + line);
+                if (!offDefined) {
+                    // find the start of the off file defined by the OFF string
+                    offDefined = tokenizer.next().toLowerCase().startsWith("off");
+                } else if (!sizeDefined) {
+                    numberOfVertices = tokenizer.nextInt();
+                    numberOfFaces = tokenizer.nextInt();
+                    sizeDefined = true;
+                } else if (currentLine++ < numberOfVertices) {
+                    if (!tokenizer.hasNext()) {
+                        throw new IllegalStateException("Found invalid vertex definition: " + tokenizer.line());
                     }
-
-                    if (currentLine == numberOfVertices - 1) {
-                        readVertices = false;
+                    double x = tokenizer.nextDouble();
+                    if (!tokenizer.hasNext()) {
+                        throw new IllegalStateException("Found invalid vertex definition: " + tokenizer.line());
                     }
+                    double y = tokenizer.nextDouble();
+                    double z = tokenizer.hasNext() ? tokenizer.nextDouble() : 0;
+                    builder.addVertex(x, y, z);
                 } else {
-                    int numOfVertices = Integer.parseInt(splits[0]);
-                    List<JavaPoint3D> polygonPoints = new ArrayList<>();
+                    int numOfVertices = tokenizer.nextInt();
+                    if (indices.length < numOfVertices) {
+                        indices = new int[numOfVertices];
+                    }
                     for (int i = 0; i < numOfVertices; i++) {
-                        polygonPoints.add(points.get(Integer.parseInt(splits[i + 1])));
+                        indices[i] = tokenizer.nextInt();
                     }
-                    polygons.add(new JavaPolygon3D(polygonPoints));
+                    builder.addFace(Arrays.copyOf(indices, numOfVertices));
+                    numberOfReadFaces++;
                 }
-
-                currentLine++;
             }
+        }
 
-            if(polygons.size() != numberOfFaces){
+        private Optional<IndexedMesh> build() {
+            if (!sizeDefined) {
+                throw new IllegalStateException("Off file is empty");
+            }
+            if (numberOfReadFaces != numberOfFaces) {
                 logger.debug("Something went wrong parsing the file: Number of read polygons does not match off header");
                 return Optional.empty();
             }
-
-            return Optional.of(new JavaModel3D(polygons));
-        } catch (IOException e) {
-            logger.debug("Problem when reading obj file: " + e.getMessage());
-            return Optional.empty();
+            return Optional.of(builder.build());
         }
     }
 }
@@ -10,18 +10,13 @@
 package science.aist.imaging.mesh.storage.off;
 
 import lombok.Setter;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
 import science.aist.imaging.mesh.storage.MeshWriter;
 import science.aist.seshat.Logger;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.OptionalInt;
-import java.util.stream.IntStream;
 
 /**
  * <p>MeshWriter implementation for OFF files</p>
@@ -41,57 +36,37 @@ public class OffWriter implements MeshWriter {
 
     @Override
     public boolean write(JavaModel3D mesh, Writer writer) {
+        return write(IndexedMesh.of(mesh, epsilon), writer);
+    }
+
+    @Override
+    public boolean write(IndexedMesh mesh, Writer writer) {
         try {
             String lineSeperator = System.getProperty("line.separator");
 
-            List<JavaPoint3D> points = new ArrayList<>();
-            for (JavaPoint3D point : mesh.getPoints()) {
-                if (points.stream().parallel().noneMatch(javaPoint3D -> javaPoint3D.positionalEqual(point, epsilon))) {
-                    points.add(point);
-                }
-            }
-
-            List<List<Integer>> polygonIndices = new ArrayList<>();
-            List<JavaPolygon3D> meshMesh = mesh.getMesh();
-            int numOfEdges = 0;
-            for (int i = 0; i < meshMesh.size(); i++) {
-                JavaPolygon3D polygon = meshMesh.get(i);
-                List<Integer> indices = new ArrayList<>();
-                for (JavaPoint3D point : polygon.getPoints()) {
-                    OptionalInt first = IntStream.range(0, points.size()).parallel().filter(value -> points.get(value).positionalEqual(point, epsilon)).findFirst();
-                    if (first.isPresent()) {
-                        indices.add(first.getAsInt());
-                    } else {
-                        throw new IllegalStateException("Could not write polygon: " + i);
-                    }
-                    numOfEdges++;
-                }
-                polygonIndices.add(indices);
-            }
-
             writer.append("OFF")
                     .append(lineSeperator)
-                    .append(Integer.toString(points.size()))
+                    .append(Integer.toString(mesh.getNumberOfVertices()))
                     .append(" ")
-                    .append(Integer.toString(meshMesh.size()))
+                    .append(Integer.toString(mesh.getNumberOfFaces()))
                     .append(" ")
-                    .append(Integer.toString(numOfEdges))
+                    .append(Integer.toString(mesh.getFaceIndices().length))
                     .append(lineSeperator);
 
-            for (JavaPoint3D point : points) {
-                writer.append(Double.toString(point.getX()))
+            for (int i = 0; i < mesh.getNumberOfVertices(); i++) {
+                writer.append(Double.toString(mesh.getX(i)))
                         .append(" ")
-                        .append(Double.toString(point.getY()))
+                        .append(Double.toString(mesh.getY(i)))
                         .append(" ")
-                        .append(Double.toString(point.getZ()))
+                        .append(Double.toString(mesh.getZ(i)))
                         .append(lineSeperator);
             }
 
-            for (List<Integer> indices : polygonIndices) {
-                writer.append(Integer.toString(indices.size()))
+            for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+                writer.append(Integer.toString(mesh.getFaceSize(face)))
                         .append(" ");
-                for (Integer index : indices) {
-                    writer.append(Integer.toString(index))
+                for (int corner = 0; corner < mesh.getFaceSize(face); corner++) {
+                    writer.append(Integer.toString(mesh.getVertexIndex(face, corner)))
                             .append(" ");
                 }
                 writer.append(lineSeperator);
@@ -9,136 +9,397 @@
 
 package science.aist.imaging.mesh.storage.ply;
 
-import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
-import science.aist.imaging.mesh.storage.MeshReader;
+import lombok.RequiredArgsConstructor;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.mesh.storage.AbstractIndexedMeshReader;
+import science.aist.imaging.mesh.storage.MappedWindows;
+import science.aist.imaging.mesh.storage.MeshTokenizer;
 import science.aist.seshat.Logger;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * <p>MeshReader implementation for PLY files</p>
  * <p>Based on PLY definition by <a href="http://paulbourke.net/dataformats/ply/">Paul Bourke</a></p>
- * <p>Note: The reader currently only supports text based PLY mesh files, not binaries!</p>
+ * <p>Supports text based (ascii) and binary (binary_little_endian, binary_big_endian) PLY mesh files. Binary files
+ * are decoded directly from the (memory mapped) file content; elements other than vertex and face are skipped.
+ * The body of large text based files is split into chunks of lines, which are parsed in parallel.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
-public class PlyReader implements MeshReader {
+public class PlyReader extends AbstractIndexedMeshReader {
     private static final Logger logger = Logger.getInstance(PlyReader.class);
-    private static final String COMMENT = "comment ";
 
     @Override
-    public Optional<JavaModel3D> read(BufferedReader reader) {
+    public Optional<IndexedMesh> readIndexed(BufferedReader reader) {
         try {
-            // process ply file header
+            AsciiParser parser = new AsciiParser();
+            IndexedMesh.Builder builder = IndexedMesh.builder();
+            MeshTokenizer tokenizer = new MeshTokenizer("");
+            int dataLine = 0;
             String line;
             while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim();
-                if (!trimmed.startsWith(COMMENT) && !trimmed.isEmpty() && !trimmed.toLowerCase().startsWith("ply")) {
-                    // find the start of the off file defined by the OFF string
+                tokenizer.reset(line);
+                if (parser.headerDone) {
+                    dataLine = parser.parseBody(tokenizer, builder, dataLine);
+                } else if (parser.parseHeader(tokenizer) && !parser.ascii) {
                     break;
                 }
             }
+            return parser.check(builder.build());
+        } catch (IOException e) {
+            logger.debug("Problem when reading obj file: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
 
-            if (line == null) {
-                throw new IllegalStateException("PLY file is empty");
+    @Override
+    public Optional<IndexedMesh> readText(CharSequence content) {
+        AsciiParser parser = new AsciiParser();
+        MeshTokenizer header = new MeshTokenizer(content);
+        if (!parser.parseHeader(header) || !parser.ascii) {
+            return parser.check(IndexedMesh.builder().build());
+        }
+
+        // start processing ply file body
+        int[] chunks = MeshTokenizer.chunks(content, header.getLineEnd(), CHUNK_SIZE);
+        int numberOfChunks = chunks.length - 1;
+
+        // number of data lines before every chunk, which defines if a line contains a vertex or a face
+        int[] dataLineOffsets = new int[numberOfChunks];
+        if (numberOfChunks > 1) {
+            int[] counts = new int[numberOfChunks];
+            PixelExecutor.forEachTask(numberOfChunks, true, i -> counts[i] = countDataLines(new MeshTokenizer(content, chunks[i], chunks[i + 1])));
+            for (int i = 1; i < numberOfChunks; i++) {
+                dataLineOffsets[i] = dataLineOffsets[i - 1] + counts[i - 1];
             }
+        }
 
-            String[] formatDefinition = line.replace("\t", " ").trim().replaceAll(" +", " ").split(" ");
+        IndexedMesh.Builder[] parts = new IndexedMesh.Builder[numberOfChunks];
+        PixelExecutor.forEachTask(numberOfChunks, true, i -> {
+            parts[i] = IndexedMesh.builder();
+            parser.parseBody(new MeshTokenizer(content, chunks[i], chunks[i + 1]), parts[i], dataLineOffsets[i]);
+        });
+        return parser.check(IndexedMesh.concat(Arrays.asList(parts)));
+    }
 
-            if (!"format".equalsIgnoreCase(formatDefinition[0]) &&
-                    !"ascii".equalsIgnoreCase(formatDefinition[1])) {
-                logger.debug("PlyReader only supports ASCII based ply files");
-                return Optional.empty();
+    private static int countDataLines(MeshTokenizer tokenizer) {
+        int count = 0;
+        while (tokenizer.nextLine()) {
+            if (tokenizer.hasNext() && !tokenizer.nextIs("comment")) {
+                count++;
             }
+        }
+        return count;
+    }
 
-            int numOfVertices = 0;
-            List<String> vertexDefinition = new ArrayList<>();
-            boolean inVertexDefinition = false;
-            int numOfFaces = 0;
+    @Override
+    public boolean isBinary(ByteBuffer buffer) {
+        int length = Math.min(buffer.remaining(), HEADER_SIZE);
+        byte[] bytes = new byte[length];
+        buffer.duplicate().get(bytes);
+        for (String line : new String(bytes, StandardCharsets.ISO_8859_1).split("\n")) {
+            String[] splits = line.trim().replaceAll("\\s+", " ").split(" ");
+            if (splits.length > 1 && "format".equalsIgnoreCase(splits[0])) {
+                return splits[1].toLowerCase().startsWith("binary_");
+            } else if ("end_header".equalsIgnoreCase(splits[0])) {
+                break;
+            }
+        }
+        return false;
+    }
 
+    @Override
+    public Optional<IndexedMesh> readBinary(ByteBuffer buffer) {
+        return readBinary(MappedWindows.of(buffer));
+    }
 
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim().replace("\t", " ").replaceAll(" +", " ").toLowerCase();
-                if (trimmed.startsWith(COMMENT) || trimmed.isEmpty()) {
-                    continue;
-                } else if ("end_header".equalsIgnoreCase(trimmed)) {
-                    break;
-                }
+    @Override
+    public Optional<IndexedMesh> readBinary(MappedWindows data) {
+        try {
+            // process ply file header
+            List<Element> elements = readHeader(data);
+            if (elements == null) {
+                logger.debug("PLY header is not terminated by end_header");
+                return Optional.empty();
+            }
 
-                if (trimmed.startsWith("element ")) {
-                    String[] elementDefinition = trimmed.split(" ");
-                    if ("vertex".equalsIgnoreCase(elementDefinition[1])) {
-                        numOfVertices = Integer.parseInt(elementDefinition[2]);
-                        inVertexDefinition = true;
-                    } else {
-                        inVertexDefinition = false;
+            // start processing ply file body
+            IndexedMesh.Builder builder = IndexedMesh.builder();
+            for (Element element : elements) {
+                if ("vertex".equals(element.name)) {
+                    readVertices(element, data, builder);
+                } else if ("face".equals(element.name)) {
+                    readFaces(element, data, builder);
+                } else {
+                    for (int i = 0; i < element.count; i++) {
+                        skip(element.properties, data);
                     }
+                }
+            }
+            return Optional.of(builder.build());
+        } catch (RuntimeException e) {
+            // e.g. NumberFormatException or ArrayIndexOutOfBoundsException for a malformed header,
+            // BufferUnderflowException if the file is shorter than defined in the header or
+            // IllegalArgumentException if a face references a vertex, which does not exist
+            logger.debug("Something went wrong parsing the binary ply file: " + e);
+            return Optional.empty();
+        }
+    }
 
-                    if ("face".equalsIgnoreCase(elementDefinition[1])) {
-                        numOfFaces = Integer.parseInt(elementDefinition[2]);
-                    }
+    /**
+     * Reads the header and sets the byte order of the data
+     *
+     * @return the elements defined by the header or null if the header is not terminated
+     */
+    private static List<Element> readHeader(MappedWindows data) {
+        ByteOrder order = ByteOrder.LITTLE_ENDIAN;
+        List<Element> elements = new ArrayList<>();
+        String line;
+        while (!"end_header".equals(line = readLine(data))) {
+            if (line == null) {
+                return null;
+            }
+            String[] splits = line.trim().replaceAll("\\s+", " ").toLowerCase().split(" ");
+            if ("format".equals(splits[0])) {
+                order = "binary_big_endian".equals(splits[1]) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            } else if ("element".equals(splits[0])) {
+                elements.add(new Element(splits[1], Integer.parseInt(splits[2])));
+            } else if ("property".equals(splits[0]) && !elements.isEmpty()) {
+                List<Property> properties = elements.get(elements.size() - 1).properties;
+                if ("list".equals(splits[1])) {
+                    properties.add(new Property(splits[4], PlyType.of(splits[3]), PlyType.of(splits[2])));
+                } else {
+                    properties.add(new Property(splits[2], PlyType.of(splits[1]), null));
                 }
+            }
+        }
+        data.order(order);
+        return elements;
+    }
+
+    private static void readVertices(Element element, MappedWindows data, IndexedMesh.Builder builder) {
+        // slot of every property in the values array: x, y, z, nx, ny, nz or -1 if not used
+        List<String> slots = Arrays.asList("x", "y", "z", "nx", "ny", "nz");
+        int[] slotOfProperty = element.properties.stream().mapToInt(property -> property.countType == null ? slots.indexOf(property.name) : -1).toArray();
+        boolean withNormals = Arrays.stream(slotOfProperty).filter(slot -> slot >= 3).count() == 3;
 
-                if (inVertexDefinition && (trimmed.startsWith("property "))) {
-                    vertexDefinition.add(trimmed.split(" ")[2]);
+        double[] values = new double[slots.size()];
+        for (int i = 0; i < element.count; i++) {
+            for (int p = 0; p < slotOfProperty.length; p++) {
+                Property property = element.properties.get(p);
+                if (slotOfProperty[p] >= 0) {
+                    values[slotOfProperty[p]] = property.type.read(data);
+                } else {
+                    skip(property, data);
                 }
             }
+            builder.addVertex(values[0], values[1], values[2]);
+            if (withNormals) {
+                builder.addNormal(values[3], values[4], values[5]);
+            }
+        }
+    }
 
-            // start processing ply file body
-            int visitedVertices = 0;
+    private static void readFaces(Element element, MappedWindows data, IndexedMesh.Builder builder) {
+        for (int i = 0; i < element.count; i++) {
+            for (Property property : element.properties) {
+                if (property.countType == null || !("vertex_index".equals(property.name) || "vertex_indices".equals(property.name))) {
+                    skip(property, data);
+                    continue;
+                }
+                int count = (int) property.countType.read(data);
+                if (count == 3) {
+                    int a = (int) property.type.read(data);
+                    int b = (int) property.type.read(data);
+                    int c = (int) property.type.read(data);
+                    builder.addTriangle(a, b, c);
+                } else {
+                    int[] indices = new int[count];
+                    for (int j = 0; j < count; j++) {
+                        indices[j] = (int) property.type.read(data);
+                    }
+                    builder.addFace(indices);
+                }
+            }
+        }
+    }
 
-            List<JavaPoint3D> points = new ArrayList<>();
-            List<JavaPolygon3D> polygons = new ArrayList<>();
-            while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim().replace("\t", " ").replaceAll(" +", " ").toLowerCase();
-                if (trimmed.startsWith(COMMENT)) {
+    private static void skip(List<Property> properties, MappedWindows data) {
+        for (Property property : properties) {
+            skip(property, data);
+        }
+    }
+
+    private static void skip(Property property, MappedWindows data) {
+        int count = property.countType == null ? 1 : (int) property.countType.read(data);
+        data.skip((long) count * property.type.getSize());
+    }
+
+    /**
+     * @return the next header line starting at the current position of the data or null if the data ends
+     */
+    private static String readLine(MappedWindows data) {
+        if (data.remaining() == 0) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (data.remaining() > 0) {
+            char c = (char) (data.ensure(1).get() & 0xFF);
+            if (c == '\n') {
+                break;
+            }
+            if (c != '\r') {
+                line.append(c);
+            }
+        }
+        return line.toString().trim();
+    }
+
+    /**
+     * Element definition of the PLY header
+     */
+    @RequiredArgsConstructor
+    private static final class Element {
+        private final String name;
+        private final int count;
+        private final List<Property> properties = new ArrayList<>();
+    }
+
+    /**
+     * Property definition of the PLY header; list properties have a count type
+     */
+    @RequiredArgsConstructor
+    private static final class Property {
+        private final String name;
+        private final PlyType type;
+        private final PlyType countType;
+    }
+
+    /**
+     * Parses text based PLY files. After the header is parsed, the parser can be used for multiple parts of the body
+     * concurrently.
+     */
+    private static final class AsciiParser {
+        private static final List<String> SLOTS = Arrays.asList("x", "y", "z", "nx", "ny", "nz");
+
+        private boolean formatDefined = false;
+        private boolean ascii = false;
+        private boolean headerDone = false;
+        private boolean inVertexDefinition = false;
+        private int numOfVertices = 0;
+        private int numOfFaces = 0;
+        private final List<String> vertexDefinition = new ArrayList<>();
+        // slot of every vertex property: x, y, z, nx, ny, nz or -1 if not used
+        private int[] slotOfProperty;
+        private boolean withNormals;
+
+        /**
+         * Parses header lines until the end of the header
+         *
+         * @return true iff the header is complete or the format is not supported
+         */
+        private boolean parseHeader(MeshTokenizer tokenizer) {
+            while (tokenizer.nextLine()) {
+                if (!tokenizer.hasNext() || tokenizer.nextIs("comment")) {
                     continue;
                 }
-                String[] splits = trimmed.split(" ");
-
-                if (visitedVertices < numOfVertices) {
-                    double x = 0;
-                    double y = 0;
-                    double z = 0;
-                    for (int i = 0; i < vertexDefinition.size(); i++) {
-                        String s = vertexDefinition.get(i);
-                        if ("x".equalsIgnoreCase(s)) {
-                            x = Double.parseDouble(splits[i]);
-                        } else if ("y".equalsIgnoreCase(s)) {
-                            y = Double.parseDouble(splits[i]);
-                        } else if ("z".equalsIgnoreCase(s)) {
-                            z = Double.parseDouble(splits[i]);
-                        }
+                if (!formatDefined) {
+                    if (tokenizer.nextIs("ply")) {
+                        continue;
+                    }
+                    formatDefined = true;
+                    ascii = tokenizer.nextIs("format") && tokenizer.nextIs("ascii");
+                    if (!ascii) {
+                        logger.debug("PlyReader only supports ASCII and binary ply files: " + tokenizer.line());
+                        return true;
                     }
-                    points.add(new JavaPoint3D(x, y, z));
+                } else if (tokenizer.nextIs("end_header")) {
+                    slotOfProperty = vertexDefinition.stream().mapToInt(SLOTS::indexOf).toArray();
+                    withNormals = vertexDefinition.containsAll(SLOTS.subList(3, 6));
+                    headerDone = true;
+                    return true;
+                } else if (tokenizer.nextIs("element")) {
+                    inVertexDefinition = tokenizer.nextIs("vertex");
+                    if (inVertexDefinition) {
+                        numOfVertices = tokenizer.nextInt();
+                    } else if (tokenizer.nextIs("face")) {
+                        numOfFaces = tokenizer.nextInt();
+                    }
+                } else if (inVertexDefinition && tokenizer.nextIs("property")) {
+                    tokenizer.skip(); // type of the property
+                    vertexDefinition.add(tokenizer.next().toLowerCase());
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Parses the vertices and faces of the given body lines
+         *
+         * @param dataLine number of the data lines before the given lines
+         * @return number of the data lines before the next line
+         */
+        private int parseBody(MeshTokenizer tokenizer, IndexedMesh.Builder builder, int dataLine) {
+            double[] values = new double[SLOTS.size()];
+            int[] indices = new int[8];
+            while (tokenizer.nextLine()) {
+                if (!tokenizer.hasNext() || tokenizer.nextIs("comment")) {
+                    continue;
+                }
 
-                    visitedVertices++;
+                if (dataLine++ < numOfVertices) {
+                    for (int slot : slotOfProperty) {
+                        if (slot >= 0) {
+                            values[slot] = tokenizer.nextDouble();
+                        } else {
+                            tokenizer.skip();
+                        }
+                    }
+                    builder.addVertex(values[0], values[1], values[2]);
+                    if (withNormals) {
+                        builder.addNormal(values[3], values[4], values[5]);
+                    }
                 } else {
-                    List<JavaPoint3D> polygonPoints = new ArrayList<>();
-                    for (int i = 1; i < splits.length; i++) {
-                        String split = splits[i];
-                        polygonPoints.add(points.get(Integer.parseInt(split)));
+                    int count = tokenizer.nextInt();
+                    if (count == 3) {
+                        builder.addTriangle(tokenizer.nextInt(), tokenizer.nextInt(), tokenizer.nextInt());
+                        continue;
+                    }
+                    if (indices.length < count) {
+                        indices = new int[count];
+                    }
+                    for (int i = 0; i < count; i++) {
+                        indices[i] = tokenizer.nextInt();
                     }
-                    polygons.add(new JavaPolygon3D(polygonPoints));
+                    builder.addFace(Arrays.copyOf(indices, count));
                 }
             }
+            return dataLine;
+        }
 
-            if (numOfFaces != polygons.size()) {
-                logger.debug("Something went wrong parsing the file: Number of read polygons does not match ply header. Expected " + numOfFaces + " but found " + polygons.size());
+        private Optional<IndexedMesh> check(IndexedMesh mesh) {
+            if (!formatDefined) {
+                throw new IllegalStateException("PLY file is empty");
+            }
+            if (!ascii) {
                 return Optional.empty();
             }
-
-            return Optional.of(new JavaModel3D(polygons));
-        } catch (IOException e) {
-            logger.debug("Problem when reading obj file: " + e.getMessage());
-            return Optional.empty();
+            if (numOfFaces != mesh.getNumberOfFaces()) {
+                logger.debug("Something went wrong parsing the file: Number of read polygons does not match ply header. Expected " + numOfFaces + " but found " + mesh.getNumberOfFaces());
+                return Optional.empty();
+            }
+            return Optional.of(mesh);
         }
     }
 }
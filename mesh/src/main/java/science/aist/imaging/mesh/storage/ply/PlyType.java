@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage.ply;
+
+import science.aist.imaging.mesh.storage.MappedWindows;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Scalar types of binary PLY files</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+enum PlyType {
+    CHAR(1),
+    UCHAR(1),
+    SHORT(2),
+    USHORT(2),
+    INT(4),
+    UINT(4),
+    FLOAT(4),
+    DOUBLE(8);
+
+    private final int size;
+
+    PlyType(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return number of bytes of a value
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Reads a value at the current position of the buffer
+     *
+     * @param buffer the buffer
+     * @return the value
+     */
+    double read(ByteBuffer buffer) {
+        switch (this) {
+            case CHAR:
+                return buffer.get();
+            case UCHAR:
+                return buffer.get() & 0xFF;
+            case SHORT:
+                return buffer.getShort();
+            case USHORT:
+                return buffer.getShort() & 0xFFFF;
+            case INT:
+                return buffer.getInt();
+            case UINT:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            case FLOAT:
+                return buffer.getFloat();
+            default:
+                return buffer.getDouble();
+        }
+    }
+
+    /**
+     * Reads a value at the current position of the data
+     *
+     * @param data the data
+     * @return the value
+     */
+    double read(MappedWindows data) {
+        return read(data.ensure(size));
+    }
+
+    /**
+     * @param name name of the type in the header (e.g. uchar or uint8)
+     * @return the type
+     * @throws IllegalStateException if the type is unknown
+     */
+    static PlyType of(String name) {
+        switch (name.toLowerCase()) {
+            case "char":
+            case "int8":
+                return CHAR;
+            case "uchar":
+            case "uint8":
+                return UCHAR;
+            case "short":
+            case "int16":
+                return SHORT;
+            case "ushort":
+            case "uint16":
+                return USHORT;
+            case "int":
+            case "int32":
+                return INT;
+            case "uint":
+            case "uint32":
+                return UINT;
+            case "float":
+            case "float32":
+                return FLOAT;
+            case "double":
+            case "float64":
+                return DOUBLE;
+            default:
+                throw new IllegalStateException("Unknown PLY type: " + name);
+        }
+    }
+}
@@ -10,28 +10,31 @@
 package science.aist.imaging.mesh.storage.ply;
 
 import lombok.Setter;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
 import science.aist.imaging.mesh.storage.MeshWriter;
 import science.aist.seshat.Logger;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.OptionalInt;
-import java.util.stream.IntStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 
 /**
  * <p>MeshWriter implementation for PLY files</p>
  * <p>Based on PLY definition by <a href="http://paulbourke.net/dataformats/ply/">Paul Bourke</a></p>
+ * <p>With {@link #setBinary(boolean)} binary_little_endian PLY files are written to streams and files.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
 public class PlyWriter implements MeshWriter {
     private static final Logger logger = Logger.getInstance(PlyWriter.class);
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Delta definition to define if a point is equal to another one
@@ -39,71 +42,138 @@ public class PlyWriter implements MeshWriter {
     @Setter
     private double epsilon = 0.0001;
 
+    /**
+     * Flag if binary PLY should be written to streams and files; a {@link Writer} always receives ascii PLY
+     */
+    @Setter
+    private boolean binary = false;
+
     @Override
     public boolean write(JavaModel3D mesh, Writer writer) {
-        try {
-            String lineSeperator = System.getProperty("line.separator");
+        return write(IndexedMesh.of(mesh, epsilon), writer);
+    }
 
-            List<JavaPoint3D> points = new ArrayList<>();
-            for (JavaPoint3D point : mesh.getPoints()) {
-                if (points.stream().parallel().noneMatch(javaPoint3D -> javaPoint3D.positionalEqual(point, epsilon))) {
-                    points.add(point);
+    @Override
+    public boolean write(JavaModel3D mesh, OutputStream outputStream) {
+        return write(IndexedMesh.of(mesh, epsilon), outputStream);
+    }
+
+    @Override
+    public boolean write(IndexedMesh mesh, OutputStream outputStream) {
+        if (!binary) {
+            return MeshWriter.super.write(mesh, outputStream);
+        }
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            StringBuilder header = new StringBuilder();
+            appendHeader(mesh, header, "binary_little_endian", "\n");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.write(ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.US_ASCII)));
+
+            double[] normals = mesh.getNormals();
+            for (int i = 0; i < mesh.getNumberOfVertices(); i++) {
+                if (buffer.remaining() < 24) {
+                    flush(buffer, channel);
+                }
+                buffer.putFloat((float) mesh.getX(i)).putFloat((float) mesh.getY(i)).putFloat((float) mesh.getZ(i));
+                if (normals != null) {
+                    buffer.putFloat((float) normals[i * 3]).putFloat((float) normals[i * 3 + 1]).putFloat((float) normals[i * 3 + 2]);
                 }
             }
 
-            List<List<Integer>> polygonIndices = new ArrayList<>();
-            List<JavaPolygon3D> meshMesh = mesh.getMesh();
-            for (int i = 0; i < meshMesh.size(); i++) {
-                JavaPolygon3D polygon = meshMesh.get(i);
-                List<Integer> indices = new ArrayList<>();
-                for (JavaPoint3D point : polygon.getPoints()) {
-                    OptionalInt first = IntStream.range(0, points.size()).parallel().filter(value -> points.get(value).positionalEqual(point, epsilon)).findFirst();
-                    if (first.isPresent()) {
-                        indices.add(first.getAsInt());
-                    } else {
-                        throw new IllegalStateException("Could not write polygon: " + i);
-                    }
+            for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+                int size = mesh.getFaceSize(face);
+                if (size > 255) {
+                    throw new IllegalStateException("Could not write polygon with more than 255 vertices: " + face);
+                }
+                if (buffer.remaining() < 1 + size * 4) {
+                    flush(buffer, channel);
+                }
+                buffer.put((byte) size);
+                for (int corner = 0; corner < size; corner++) {
+                    buffer.putInt(mesh.getVertexIndex(face, corner));
                 }
-                polygonIndices.add(indices);
             }
+            flush(buffer, channel);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Could not create mesh file: " + e.getMessage());
+            return false;
+        }
+    }
 
-            // write ply header
-            writer.append("ply")
-                    .append(lineSeperator)
-                    .append("format ascii 1.0")
-                    .append(lineSeperator)
-                    .append("element vertex ")
-                    .append(Integer.toString(points.size()))
-                    .append(lineSeperator)
-                    .append("property float x")
-                    .append(lineSeperator)
-                    .append("property float y")
-                    .append(lineSeperator)
-                    .append("property float z")
-                    .append(lineSeperator)
-                    .append("element face ")
-                    .append(Integer.toString(meshMesh.size()))
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void appendHeader(IndexedMesh mesh, Appendable writer, String format, String lineSeperator) throws IOException {
+        writer.append("ply")
+                .append(lineSeperator)
+                .append("format ")
+                .append(format)
+                .append(" 1.0")
+                .append(lineSeperator)
+                .append("element vertex ")
+                .append(Integer.toString(mesh.getNumberOfVertices()))
+                .append(lineSeperator)
+                .append("property float x")
+                .append(lineSeperator)
+                .append("property float y")
+                .append(lineSeperator)
+                .append("property float z")
+                .append(lineSeperator);
+        if (mesh.hasNormals()) {
+            writer.append("property float nx")
                     .append(lineSeperator)
-                    .append("property list uchar int vertex_index")
+                    .append("property float ny")
                     .append(lineSeperator)
-                    .append("end_header")
+                    .append("property float nz")
                     .append(lineSeperator);
+        }
+        writer.append("element face ")
+                .append(Integer.toString(mesh.getNumberOfFaces()))
+                .append(lineSeperator)
+                .append("property list uchar int vertex_index")
+                .append(lineSeperator)
+                .append("end_header")
+                .append(lineSeperator);
+    }
+
+    @Override
+    public boolean write(IndexedMesh mesh, Writer writer) {
+        try {
+            String lineSeperator = System.getProperty("line.separator");
+
+            // write ply header
+            appendHeader(mesh, writer, "ascii", lineSeperator);
 
             // write ply body
-            for (JavaPoint3D point : points) {
-                writer.append(Double.toString(point.getX()))
+            double[] normals = mesh.getNormals();
+            for (int i = 0; i < mesh.getNumberOfVertices(); i++) {
+                writer.append(Double.toString(mesh.getX(i)))
                         .append(" ")
-                        .append(Double.toString(point.getY()))
+                        .append(Double.toString(mesh.getY(i)))
                         .append(" ")
-                        .append(Double.toString(point.getZ()))
-                        .append(lineSeperator);
+                        .append(Double.toString(mesh.getZ(i)));
+                if (normals != null) {
+                    writer.append(" ")
+                            .append(Double.toString(normals[i * 3]))
+                            .append(" ")
+                            .append(Double.toString(normals[i * 3 + 1]))
+                            .append(" ")
+                            .append(Double.toString(normals[i * 3 + 2]));
+                }
+                writer.append(lineSeperator);
             }
 
-            for (List<Integer> indices : polygonIndices) {
-                writer.append(Integer.toString(indices.size()))
+            for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+                writer.append(Integer.toString(mesh.getFaceSize(face)))
                 .append(" ");
-                for (Integer index : indices) {
-                    writer.append(Integer.toString(index))
+                for (int corner = 0; corner < mesh.getFaceSize(face); corner++) {
+                    writer.append(Integer.toString(mesh.getVertexIndex(face, corner)))
                             .append(" ");
                 }
                 writer.append(lineSeperator);
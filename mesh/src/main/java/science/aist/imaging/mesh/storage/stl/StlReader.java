@@ -9,83 +9,219 @@
 
 package science.aist.imaging.mesh.storage.stl;
 
-import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
-import science.aist.imaging.mesh.storage.MeshReader;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.wrapper.PixelExecutor;
+import science.aist.imaging.mesh.storage.AbstractIndexedMeshReader;
+import science.aist.imaging.mesh.storage.MappedWindows;
+import science.aist.imaging.mesh.storage.MeshTokenizer;
 import science.aist.seshat.Logger;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * <p>MeshReader implementation for Stl files</p>
  * Based on STL file definition by <a href="http://paulbourke.net/dataformats/stl/">Paul Bourke</a>
- * <p>Note: The reader currently only supports text based STL mesh files, not binaries!</p>
+ * <p>Supports text based and binary STL mesh files. Binary files are detected by their size, which is defined by the
+ * number of triangles in the header, or (for streams) by a header not starting with "solid" or containing
+ * non-text bytes.</p>
+ * <p>As STL does not share vertices between facets, identical vertices are merged while reading. Large text based
+ * files are split into chunks of whole facets, which are parsed in parallel before the vertices are merged.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
-public class StlReader implements MeshReader {
+public class StlReader extends AbstractIndexedMeshReader {
     private static final Logger logger = Logger.getInstance(StlReader.class);
+    private static final int HEADER_LENGTH = 80;
+    private static final int TRIANGLE_LENGTH = 50;
 
     @Override
-    public Optional<JavaModel3D> read(BufferedReader reader) {
+    public Optional<IndexedMesh> readIndexed(BufferedReader reader) {
         try {
             String line;
-            boolean inFaceDefinition = false;
-            boolean inLoop = false;
-
-            List<JavaPolygon3D> polygons = new ArrayList<>();
-            List<JavaPoint3D> currentPoints = new ArrayList<>();
+            FacetParser parser = new FacetParser();
+            MeshTokenizer tokenizer = new MeshTokenizer("");
             while ((line = reader.readLine()) != null) {
-                String trimmed = line.trim().replace("\t", " ").replaceAll(" +", " ").toLowerCase();
-                if(trimmed.isEmpty()){
+                parser.parse(tokenizer.reset(line));
+            }
+            return Optional.of(merge(Collections.singletonList(parser.builder)));
+        } catch (IOException e) {
+            logger.debug("Problem when reading obj file: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<IndexedMesh> readText(CharSequence content) {
+        int[] chunks = MeshTokenizer.chunks(content, 0, CHUNK_SIZE);
+        // a chunk must not split a facet, so the boundaries are moved behind the next endfacet
+        for (int i = 1; i < chunks.length - 1; i++) {
+            MeshTokenizer tokenizer = new MeshTokenizer(content, Math.max(chunks[i], chunks[i - 1]), content.length());
+            chunks[i] = content.length();
+            while (tokenizer.nextLine()) {
+                if (tokenizer.nextIs("endfacet")) {
+                    chunks[i] = tokenizer.getLineEnd();
+                    break;
+                }
+            }
+        }
+
+        IndexedMesh.Builder[] parts = new IndexedMesh.Builder[chunks.length - 1];
+        PixelExecutor.forEachTask(parts.length, true, i -> {
+            FacetParser parser = new FacetParser();
+            parser.parse(new MeshTokenizer(content, chunks[i], chunks[i + 1]));
+            parts[i] = parser.builder;
+        });
+        return Optional.of(merge(Arrays.asList(parts)));
+    }
+
+    /**
+     * Merges the identical vertices of the given parts, which contain the vertices of every facet separately
+     */
+    private static IndexedMesh merge(List<IndexedMesh.Builder> parts) {
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        for (IndexedMesh.Builder part : parts) {
+            IndexedMesh mesh = part.build();
+            int[] vertices = new int[mesh.getNumberOfVertices()];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = builder.addUniqueVertex(mesh.getX(i), mesh.getY(i), mesh.getZ(i));
+            }
+            for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+                if (mesh.getFaceSize(face) == 3) {
+                    builder.addTriangle(vertices[mesh.getVertexIndex(face, 0)], vertices[mesh.getVertexIndex(face, 1)], vertices[mesh.getVertexIndex(face, 2)]);
                     continue;
                 }
+                int[] indices = new int[mesh.getFaceSize(face)];
+                for (int corner = 0; corner < indices.length; corner++) {
+                    indices[corner] = vertices[mesh.getVertexIndex(face, corner)];
+                }
+                builder.addFace(indices);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean isBinary(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int length = data.remaining();
+        if (length >= HEADER_LENGTH + 4) {
+            long numberOfTriangles = data.getInt(data.position() + HEADER_LENGTH) & 0xFFFFFFFFL;
+            if (HEADER_LENGTH + 4 + numberOfTriangles * TRIANGLE_LENGTH == length) {
+                return true;
+            }
+        }
 
+        // text based files start with "solid" and do not contain any zero bytes
+        int start = data.position();
+        while (start < data.limit() && Character.isWhitespace(data.get(start))) {
+            start++;
+        }
+        String solid = "solid";
+        if (data.limit() - start < solid.length()) {
+            return false;
+        }
+        for (int i = 0; i < solid.length(); i++) {
+            if (Character.toLowerCase(data.get(start + i)) != solid.charAt(i)) {
+                return true;
+            }
+        }
+        for (int i = start; i < Math.min(data.limit(), start + HEADER_SIZE); i++) {
+            if (data.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<IndexedMesh> readBinary(ByteBuffer buffer) {
+        return readBinary(MappedWindows.of(buffer));
+    }
+
+    @Override
+    public Optional<IndexedMesh> readBinary(MappedWindows data) {
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < HEADER_LENGTH + 4) {
+            logger.debug("Binary STL file is too short");
+            return Optional.empty();
+        }
+        data.skip(HEADER_LENGTH);
+        long numberOfTriangles = data.ensure(4).getInt() & 0xFFFFFFFFL;
+        if (numberOfTriangles * TRIANGLE_LENGTH > data.remaining()) {
+            logger.debug("Binary STL file is too short for " + numberOfTriangles + " triangles");
+            return Optional.empty();
+        }
+
+        try {
+            IndexedMesh.Builder builder = IndexedMesh.builder();
+            for (long i = 0; i < numberOfTriangles; i++) {
+                ByteBuffer triangle = data.ensure(TRIANGLE_LENGTH);
+                // the facet normal (first 12 bytes) and the attribute byte count (last 2 bytes) are ignored
+                int vertex = triangle.position() + 12;
+                int a = builder.addUniqueVertex(triangle.getFloat(vertex), triangle.getFloat(vertex + 4), triangle.getFloat(vertex + 8));
+                int b = builder.addUniqueVertex(triangle.getFloat(vertex + 12), triangle.getFloat(vertex + 16), triangle.getFloat(vertex + 20));
+                int c = builder.addUniqueVertex(triangle.getFloat(vertex + 24), triangle.getFloat(vertex + 28), triangle.getFloat(vertex + 32));
+                builder.addTriangle(a, b, c);
+                triangle.position(triangle.position() + TRIANGLE_LENGTH);
+            }
+            return Optional.of(builder.build());
+        } catch (RuntimeException e) {
+            logger.debug("Something went wrong parsing the binary stl file: " + e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses the facets of text based STL files. The vertices of every facet are added separately and merged afterwards.
+     */
+    private static final class FacetParser {
+        private final IndexedMesh.Builder builder = IndexedMesh.builder();
+        private boolean inFaceDefinition = false;
+        private boolean inLoop = false;
+        private int[] currentPoints = new int[4];
+        private int numberOfCurrentPoints = 0;
+
+        private void parse(MeshTokenizer tokenizer) {
+            while (tokenizer.nextLine()) {
                 if (!inFaceDefinition) {
-                    if (trimmed.startsWith("solid ")) {
-                        // find the start of the stl file defined by the Stl string
-                        continue;
-                    } else if (trimmed.startsWith("facet ")) {
-                        inFaceDefinition = true;
-                    } else if (trimmed.startsWith("endsolid ")) {
-                        // find the end of the stl file defined by the Stl string
-                        break;
+                    // everything outside of a facet (e.g. the solid and endsolid lines) is ignored
+                    inFaceDefinition = tokenizer.nextIs("facet");
+                } else if (inLoop && tokenizer.nextIs("vertex")) {
+                    if (!tokenizer.hasNext()) {
+                        throw new IllegalStateException("Found illegal vertex defintion: " + tokenizer.line());
                     }
-                } else {
-                    if (inLoop && trimmed.startsWith("vertex")) {
-                        String[] splits = trimmed.split(" ");
-                        int len = splits.length;
-                        if (len < 3) {
-                            throw new IllegalStateException("Found illegal vertex defintion: " + trimmed);
-                        }
-                        double x = Double.parseDouble(splits[1]);
-                        double y = Double.parseDouble(splits[2]);
-                        double z = 0;
-
-                        if (len > 3) {
-                            z = Double.parseDouble(splits[3]);
-                        }
-                        currentPoints.add(new JavaPoint3D(x,y,z));
-                    } else if (trimmed.startsWith("outer loop")) {
-                        inLoop = true;
-                    } else if (trimmed.startsWith("endloop")) {
-                        polygons.add(new JavaPolygon3D(currentPoints));
-                        currentPoints = new ArrayList<>();
-                        inLoop = false;
+                    double x = tokenizer.nextDouble();
+                    if (!tokenizer.hasNext()) {
+                        throw new IllegalStateException("Found illegal vertex defintion: " + tokenizer.line());
                     }
+                    double y = tokenizer.nextDouble();
+                    double z = tokenizer.hasNext() ? tokenizer.nextDouble() : 0;
+                    if (numberOfCurrentPoints == currentPoints.length) {
+                        currentPoints = Arrays.copyOf(currentPoints, numberOfCurrentPoints * 2);
+                    }
+                    currentPoints[numberOfCurrentPoints++] = builder.addVertex(x, y, z);
+                } else if (tokenizer.nextIs("outer")) {
+                    inLoop = true;
+                } else if (tokenizer.nextIs("endloop")) {
+                    if (numberOfCurrentPoints == 3) {
+                        builder.addTriangle(currentPoints[0], currentPoints[1], currentPoints[2]);
+                    } else {
+                        builder.addFace(Arrays.copyOf(currentPoints, numberOfCurrentPoints));
+                    }
+                    numberOfCurrentPoints = 0;
+                    inLoop = false;
+                } else if (tokenizer.nextIs("endfacet")) {
+                    inFaceDefinition = false;
                 }
             }
-            return Optional.of(new JavaModel3D(polygons));
-        } catch (IOException e) {
-            logger.debug("Problem when reading obj file: " + e.getMessage());
-            return Optional.empty();
         }
     }
-
 }
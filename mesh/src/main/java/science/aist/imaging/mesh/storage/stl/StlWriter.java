@@ -10,14 +10,19 @@
 package science.aist.imaging.mesh.storage.stl;
 
 import lombok.Setter;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPoint3D;
-import science.aist.imaging.api.domain.threedimensional.JavaPolygon3D;
 import science.aist.imaging.mesh.storage.MeshWriter;
 import science.aist.seshat.Logger;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
@@ -25,12 +30,17 @@ import java.util.Locale;
 /**
  * <p>MeshWriter implementation for Stl files</p>
  * Based on STL file definition by <a href="http://paulbourke.net/dataformats/stl/">Paul Bourke</a>
+ * <p>With {@link #setBinary(boolean)} binary STL files are written to streams and files. The facets of binary files
+ * contain their normal and polygons with more than three vertices are split into a triangle fan.</p>
  *
  * @author Christoph Praschl
  * @since 1.2
  */
 public class StlWriter implements MeshWriter {
     private static final Logger logger = Logger.getInstance(StlWriter.class);
+    private static final int HEADER_LENGTH = 80;
+    private static final int TRIANGLE_LENGTH = 50;
+    private static final int BUFFER_SIZE = 1 << 16;
 
     /**
      * Formatter definition for formating the point coordinates
@@ -38,9 +48,95 @@ public class StlWriter implements MeshWriter {
     @Setter
     private DecimalFormat formatter = new DecimalFormat("0.######E0####", new DecimalFormatSymbols(Locale.ENGLISH));
 
+    /**
+     * Flag if binary STL should be written to streams and files; a {@link Writer} always receives text based STL
+     */
+    @Setter
+    private boolean binary = false;
+
 
     @Override
     public boolean write(JavaModel3D mesh, Writer writer) {
+        // only identical points are merged, as every facet is written with its own vertices anyway
+        return write(IndexedMesh.of(mesh, 0), writer);
+    }
+
+    @Override
+    public boolean write(JavaModel3D mesh, OutputStream outputStream) {
+        return write(IndexedMesh.of(mesh, 0), outputStream);
+    }
+
+    @Override
+    public boolean write(IndexedMesh mesh, OutputStream outputStream) {
+        if (!binary) {
+            return MeshWriter.super.write(mesh, outputStream);
+        }
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            writeBinary(mesh, channel);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Could not create mesh file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeBinary(IndexedMesh mesh, WritableByteChannel channel) throws IOException {
+        long numberOfTriangles = 0;
+        for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+            numberOfTriangles += Math.max(0, mesh.getFaceSize(face) - 2);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] header = "binary stl".getBytes(StandardCharsets.US_ASCII);
+        buffer.put(header).put(new byte[HEADER_LENGTH - header.length]).putInt((int) numberOfTriangles);
+
+        for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+            int a = mesh.getVertexIndex(face, 0);
+            for (int corner = 2; corner < mesh.getFaceSize(face); corner++) {
+                if (buffer.remaining() < TRIANGLE_LENGTH) {
+                    flush(buffer, channel);
+                }
+                int b = mesh.getVertexIndex(face, corner - 1);
+                int c = mesh.getVertexIndex(face, corner);
+                putNormal(mesh, a, b, c, buffer);
+                putVertex(mesh, a, buffer);
+                putVertex(mesh, b, buffer);
+                putVertex(mesh, c, buffer);
+                buffer.putShort((short) 0);
+            }
+        }
+        flush(buffer, channel);
+    }
+
+    private static void putNormal(IndexedMesh mesh, int a, int b, int c, ByteBuffer buffer) {
+        double ux = mesh.getX(b) - mesh.getX(a);
+        double uy = mesh.getY(b) - mesh.getY(a);
+        double uz = mesh.getZ(b) - mesh.getZ(a);
+        double vx = mesh.getX(c) - mesh.getX(a);
+        double vy = mesh.getY(c) - mesh.getY(a);
+        double vz = mesh.getZ(c) - mesh.getZ(a);
+        double nx = uy * vz - uz * vy;
+        double ny = uz * vx - ux * vz;
+        double nz = ux * vy - uy * vx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        double factor = length == 0 ? 0 : 1 / length;
+        buffer.putFloat((float) (nx * factor)).putFloat((float) (ny * factor)).putFloat((float) (nz * factor));
+    }
+
+    private static void putVertex(IndexedMesh mesh, int vertex, ByteBuffer buffer) {
+        buffer.putFloat((float) mesh.getX(vertex)).putFloat((float) mesh.getY(vertex)).putFloat((float) mesh.getZ(vertex));
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public boolean write(IndexedMesh mesh, Writer writer) {
         try {
             String lineSeperator = System.getProperty("line.separator");
 
@@ -49,8 +145,8 @@ public class StlWriter implements MeshWriter {
                   .append(lineSeperator);
 
             String doubleSpace = "  ";
-            for (JavaPolygon3D poly : mesh.getMesh()) {
-                if(poly.getSize() > 3){
+            for (int face = 0; face < mesh.getNumberOfFaces(); face++) {
+                if(mesh.getFaceSize(face) > 3){
                     logger.debug("Writing non-triangle polygon. Note this is not supported by classic stl.");
                 }
                 writer.append(doubleSpace)
@@ -59,16 +155,17 @@ public class StlWriter implements MeshWriter {
                         .append(doubleSpace)
                         .append("outer loop ")
                         .append(lineSeperator);
-                for (JavaPoint3D point : poly.getPoints()) {
+                for (int corner = 0; corner < mesh.getFaceSize(face); corner++) {
+                    int vertex = mesh.getVertexIndex(face, corner);
                     writer.append(doubleSpace)
                             .append(doubleSpace)
                             .append("vertex")
                             .append(" ")
-                            .append(formatter.format(point.getX()))
+                            .append(formatter.format(mesh.getX(vertex)))
                             .append(" ")
-                            .append(formatter.format(point.getY()))
+                            .append(formatter.format(mesh.getY(vertex)))
                             .append(" ")
-                            .append(formatter.format(point.getZ()))
+                            .append(formatter.format(mesh.getZ(vertex)))
                             .append(lineSeperator);
                 }
                 writer.append(doubleSpace)
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.jack.persistence.filesystem.FileUtils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Test class for {@link MappedWindows}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class MappedWindowsTest {
+
+    /**
+     * @return a file containing the ints 0 to 99 in little endian order
+     */
+    private Path createFile() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(400).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 100; i++) {
+            buffer.putInt(i);
+        }
+        Path path = FileUtils.createTempFile("windowtest", ".bin");
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    @Test
+    public void testEnsure() throws IOException {
+        // given
+        Path path = createFile();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedWindows windows = MappedWindows.of(channel, 10).order(ByteOrder.LITTLE_ENDIAN);
+            windows.skip(2);
+            windows.ensure(2).getShort();
+
+            // when
+            int[] values = new int[99];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = windows.ensure(4).getInt();
+            }
+
+            // then
+            for (int i = 0; i < values.length; i++) {
+                Assert.assertEquals(values[i], i + 1);
+            }
+            Assert.assertEquals(windows.remaining(), 0L);
+        }
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        // given
+        Path path = createFile();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedWindows windows = MappedWindows.of(channel, 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            // when
+            windows.skip(4 * 42);
+
+            // then
+            Assert.assertEquals(windows.remaining(), 4L * 58);
+            Assert.assertEquals(windows.ensure(4).getInt(), 42);
+        }
+        Files.deleteIfExists(path);
+    }
+
+    @Test(expectedExceptions = BufferUnderflowException.class)
+    public void testSkipAfterEnd() {
+        // given
+        MappedWindows windows = MappedWindows.of(ByteBuffer.allocate(8));
+
+        // when
+        windows.skip(9);
+
+        // then
+    }
+}
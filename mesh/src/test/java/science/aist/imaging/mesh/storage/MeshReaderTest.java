@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
+import science.aist.imaging.mesh.storage.obj.ObjReader;
+import science.aist.jack.persistence.filesystem.FileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>Test class for {@link MeshReader}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class MeshReaderTest extends BaseMeshStorageTest {
+
+    @Test
+    public void testReadIndexedWithModelReader() {
+        // given
+        ObjReader objReader = new ObjReader();
+        // reader, which only implements the model based read method
+        MeshReader reader = objReader::read;
+        InputStream inputStream = MeshReaderTest.class.getResourceAsStream("/objtest.obj");
+
+        // when
+        Optional<IndexedMesh> read = reader.readIndexed(inputStream);
+
+        // then
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getNumberOfVertices(), 8);
+        Assert.assertEquals(read.get().getNumberOfFaces(), 12);
+    }
+
+    @Test
+    public void testReadWithModelReader() {
+        // given
+        ObjReader objReader = new ObjReader();
+        MeshReader reader = objReader::read;
+        InputStream inputStream = MeshReaderTest.class.getResourceAsStream("/objtest.obj");
+
+        // when
+        Optional<JavaModel3D> read = reader.read(inputStream);
+
+        // then
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getMesh().size(), 12);
+        checkCubePoints(read.get());
+    }
+
+    @Test
+    public void testReadFileWithModelReader() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("meshtest", ".txt");
+        Files.write(path, "w\u00fcrfel".getBytes(StandardCharsets.UTF_8));
+        JavaModel3D cube = getCube();
+        List<String> lines = new ArrayList<>();
+        // reader, which returns its own model
+        MeshReader reader = bufferedReader -> {
+            bufferedReader.lines().forEach(lines::add);
+            return Optional.of(cube);
+        };
+
+        // when
+        Optional<JavaModel3D> read = reader.read(path.toFile());
+
+        // then
+        Assert.assertTrue(read.isPresent());
+        Assert.assertSame(read.get(), cube);
+        Assert.assertEquals(lines, Collections.singletonList("w\u00fcrfel"));
+        Files.deleteIfExists(path);
+    }
+}
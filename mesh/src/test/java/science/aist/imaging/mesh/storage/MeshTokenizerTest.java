@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Test class for {@link MeshTokenizer}</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class MeshTokenizerTest {
+
+    @Test
+    public void testNextDouble() {
+        // given
+        String[] numbers = {"0", "-0.0", "1.0", "+2.5", "0.1", "-123.456", "1e3", "1.5E-7", ".25", "3.", "0.30000000000000004",
+                "123456789012345678901234567890", "4.9e-324", "1.7976931348623157e308", "NaN", "-Infinity"};
+        MeshTokenizer tokenizer = new MeshTokenizer(String.join(" \t", numbers));
+
+        // when
+        tokenizer.nextLine();
+
+        // then
+        for (String number : numbers) {
+            Assert.assertEquals(tokenizer.nextDouble(), Double.parseDouble(number), 0.0, number);
+        }
+        Assert.assertFalse(tokenizer.hasNext());
+    }
+
+    @Test
+    public void testNextInt() {
+        // given
+        MeshTokenizer tokenizer = new MeshTokenizer("f 1/2/3 -4//5 +6 7");
+
+        // when
+        tokenizer.nextLine();
+
+        // then
+        Assert.assertTrue(tokenizer.nextIs("F"));
+        Assert.assertEquals(tokenizer.nextInt(), 1);
+        Assert.assertEquals(tokenizer.nextInt(), -4);
+        Assert.assertEquals(tokenizer.nextInt(), 6);
+        Assert.assertEquals(tokenizer.nextInt(), 7);
+        Assert.assertFalse(tokenizer.hasNext());
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testNextIntInvalid() {
+        // given
+        MeshTokenizer tokenizer = new MeshTokenizer("vertex");
+        tokenizer.nextLine();
+
+        // when
+        tokenizer.nextInt();
+
+        // then
+    }
+
+    @Test
+    public void testLines() {
+        // given
+        ByteBuffer buffer = ByteBuffer.wrap("solid test\r\n\n  facet normal 0 0 1\r\nendsolid".getBytes(StandardCharsets.US_ASCII));
+        MeshTokenizer tokenizer = new MeshTokenizer(MeshTokenizer.ascii(buffer));
+
+        // when
+        tokenizer.nextLine();
+        boolean solid = tokenizer.nextIs("solid");
+        String name = tokenizer.next();
+        boolean nameIsLast = !tokenizer.hasNext();
+        tokenizer.nextLine();
+        boolean emptyLine = !tokenizer.hasNext();
+        tokenizer.nextLine();
+        boolean facet = tokenizer.nextIs("facet") && !tokenizer.nextIs("vertex") && tokenizer.nextIs("normal");
+        String facetLine = tokenizer.line();
+        tokenizer.nextLine();
+        boolean endSolid = tokenizer.nextIs("endsolid");
+
+        // then
+        Assert.assertTrue(solid);
+        Assert.assertEquals(name, "test");
+        Assert.assertTrue(nameIsLast);
+        Assert.assertTrue(emptyLine);
+        Assert.assertTrue(facet);
+        Assert.assertEquals(facetLine, "facet normal 0 0 1");
+        Assert.assertTrue(endSolid);
+        Assert.assertFalse(tokenizer.nextLine());
+    }
+
+    @Test
+    public void testChunks() {
+        // given
+        StringBuilder content = new StringBuilder("header\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append("v ").append(i).append(" 0 0\n");
+        }
+
+        // when
+        int[] chunks = MeshTokenizer.chunks(content, 7, 100);
+
+        // then
+        Assert.assertTrue(chunks.length > 2);
+        Assert.assertEquals(chunks[0], 7);
+        Assert.assertEquals(chunks[chunks.length - 1], content.length());
+        int lines = 0;
+        for (int i = 1; i < chunks.length; i++) {
+            Assert.assertTrue(chunks[i] > chunks[i - 1]);
+            Assert.assertEquals(content.charAt(chunks[i] - 1), '\n');
+            MeshTokenizer tokenizer = new MeshTokenizer(content, chunks[i - 1], chunks[i]);
+            while (tokenizer.nextLine()) {
+                Assert.assertTrue(tokenizer.nextIs("v"));
+                Assert.assertEquals(tokenizer.nextInt(), lines++);
+            }
+        }
+        Assert.assertEquals(lines, 1000);
+    }
+
+    @Test
+    public void testReader() throws IOException {
+        // given
+        CharSequence content = MeshTokenizer.ascii(ByteBuffer.wrap("v 1 2 3\nv 4 5 6\n".getBytes(StandardCharsets.US_ASCII)));
+
+        // when
+        BufferedReader reader = new BufferedReader(MeshTokenizer.reader(content));
+
+        // then
+        Assert.assertEquals(reader.readLine(), "v 1 2 3");
+        Assert.assertEquals(reader.readLine(), "v 4 5 6");
+        Assert.assertNull(reader.readLine());
+    }
+}
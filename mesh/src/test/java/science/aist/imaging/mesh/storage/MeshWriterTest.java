@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.mesh.storage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
+import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
+import science.aist.imaging.mesh.storage.obj.ObjWriter;
+
+import java.io.StringWriter;
+
+/**
+ * <p>Test class for {@link MeshWriter}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class MeshWriterTest extends BaseMeshStorageTest {
+
+    @Test
+    public void testWriteIndexedWithModelWriter() {
+        // given
+        ObjWriter objWriter = new ObjWriter();
+        // writer, which only implements the model based write method
+        MeshWriter writer = objWriter::write;
+        JavaModel3D cube = getCube();
+        StringWriter expected = new StringWriter();
+        StringWriter res = new StringWriter();
+        objWriter.write(cube, expected);
+
+        // when
+        boolean write = writer.write(IndexedMesh.of(cube, 0), res);
+
+        // then
+        Assert.assertTrue(write);
+        Assert.assertEquals(res.toString(), expected.toString());
+    }
+}
@@ -11,10 +11,14 @@ package science.aist.imaging.mesh.storage.obj;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.imaging.mesh.storage.BaseMeshStorageTest;
+import science.aist.imaging.mesh.storage.MeshReader;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.Optional;
 
 /**
@@ -41,4 +45,49 @@ public class ObjReaderTest extends BaseMeshStorageTest {
         checkCubePoints(read.get());
     }
 
+    @Test
+    public void testReadModifiable() {
+        // given
+        InputStream inputStream = ObjReaderTest.class.getResourceAsStream("/objtest.obj");
+        ObjReader reader = new ObjReader();
+        Optional<JavaModel3D> read = reader.read(inputStream);
+        Assert.assertTrue(read.isPresent());
+
+        // when
+        read.get().getMesh().add(getCube().getMesh().get(0));
+
+        // then
+        Assert.assertEquals(read.get().getMesh().size(), 13);
+    }
+
+    @Test
+    public void testReadTextInChunks() {
+        // given
+        StringBuilder content = new StringBuilder("# strip of quads\n");
+        int numberOfQuads = 3 * MeshReader.CHUNK_SIZE / 40;
+        content.append("v 0 0 0\nv 0 1 0\n");
+        for (int i = 1; i <= numberOfQuads; i++) {
+            content.append("v ").append(i * 0.5).append(" 0 0\nv ").append(i * 0.5).append(" 1 0\n");
+            // alternate between absolute and relative indices
+            if (i % 2 == 0) {
+                content.append("f ").append(2 * i - 1).append(" ").append(2 * i + 1).append(" ").append(2 * i + 2).append(" ").append(2 * i).append("\n");
+            } else {
+                content.append("f -4/1 -2/2 -1/3 -3/4\n");
+            }
+        }
+        ObjReader reader = new ObjReader();
+
+        // when
+        Optional<IndexedMesh> parallel = reader.readText(content);
+        Optional<IndexedMesh> sequential = reader.readIndexed(new BufferedReader(new StringReader(content.toString())));
+
+        // then
+        Assert.assertTrue(parallel.isPresent());
+        Assert.assertTrue(sequential.isPresent());
+        Assert.assertEquals(parallel.get().getNumberOfFaces(), numberOfQuads);
+        Assert.assertEquals(parallel.get().getVertices(), sequential.get().getVertices());
+        Assert.assertEquals(parallel.get().getFaceOffsets(), sequential.get().getFaceOffsets());
+        Assert.assertEquals(parallel.get().getFaceIndices(), sequential.get().getFaceIndices());
+        Assert.assertEquals(parallel.get().getFaceIndices()[4 * numberOfQuads - 1], 2 * numberOfQuads - 1);
+    }
 }
@@ -11,10 +11,14 @@ package science.aist.imaging.mesh.storage.ply;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.imaging.mesh.storage.BaseMeshStorageTest;
+import science.aist.imaging.mesh.storage.MeshReader;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.Optional;
 
 /**
@@ -41,4 +45,39 @@ public class PlyReaderTest extends BaseMeshStorageTest {
         checkCubePoints(read.get());
     }
 
+    @Test
+    public void testReadTextInChunks() {
+        // given
+        int numberOfVertices = 3 * MeshReader.CHUNK_SIZE / 40;
+        int numberOfFaces = numberOfVertices - 2;
+        StringBuilder content = new StringBuilder("ply\nformat ascii 1.0\n")
+                .append("element vertex ").append(numberOfVertices).append("\n")
+                .append("property float x\nproperty float y\nproperty float z\n")
+                .append("element face ").append(numberOfFaces).append("\n")
+                .append("property list uchar int vertex_index\nend_header\n");
+        for (int i = 0; i < numberOfVertices; i++) {
+            content.append(i * 0.25).append(" ").append(i % 7).append(" 0\n");
+            // comments and empty lines do not count as data lines
+            if (i % 1000 == 0) {
+                content.append("comment vertex ").append(i).append("\n\n");
+            }
+        }
+        for (int i = 0; i < numberOfFaces; i++) {
+            content.append("3 ").append(i).append(" ").append(i + 1).append(" ").append(i + 2).append("\n");
+        }
+        PlyReader reader = new PlyReader();
+
+        // when
+        Optional<IndexedMesh> parallel = reader.readText(content);
+        Optional<IndexedMesh> sequential = reader.readIndexed(new BufferedReader(new StringReader(content.toString())));
+
+        // then
+        Assert.assertTrue(parallel.isPresent());
+        Assert.assertTrue(sequential.isPresent());
+        Assert.assertEquals(parallel.get().getNumberOfVertices(), numberOfVertices);
+        Assert.assertEquals(parallel.get().getNumberOfFaces(), numberOfFaces);
+        Assert.assertEquals(parallel.get().getVertices(), sequential.get().getVertices());
+        Assert.assertEquals(parallel.get().getFaceOffsets(), sequential.get().getFaceOffsets());
+        Assert.assertEquals(parallel.get().getFaceIndices(), sequential.get().getFaceIndices());
+    }
 }
@@ -12,13 +12,20 @@ package science.aist.imaging.mesh.storage.ply;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.imaging.mesh.storage.BaseMeshStorageTest;
+import science.aist.imaging.mesh.storage.MappedWindows;
 import science.aist.jack.persistence.filesystem.FileUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 
 /**
@@ -49,4 +56,158 @@ public class PlyTest extends BaseMeshStorageTest {
         Assert.assertEquals(cube.getMesh(), read.get().getMesh());
         Files.deleteIfExists(path);
     }
+
+    @Test
+    public void testWriteIndexedWithNormals() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("plytest", ".ply");
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        builder.addVertex(0, 0, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(1, 0, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(1, 1, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(0, 1, 0);
+        builder.addNormal(0, 0, 1);
+        IndexedMesh mesh = builder.addFace(0, 1, 2).addFace(0, 2, 3).build();
+        PlyWriter writer = new PlyWriter();
+        PlyReader reader = new PlyReader();
+
+        // when 1
+        boolean write = writer.write(mesh, path.toFile());
+
+        // when 2
+        Optional<IndexedMesh> read = reader.readIndexed(path.toFile());
+
+        // then
+        Assert.assertTrue(write);
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getVertices(), mesh.getVertices());
+        Assert.assertEquals(read.get().getFaceOffsets(), mesh.getFaceOffsets());
+        Assert.assertEquals(read.get().getFaceIndices(), mesh.getFaceIndices());
+        Assert.assertEquals(read.get().getNormals(), mesh.getNormals());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testWriteBinary() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("plytest", ".ply");
+        JavaModel3D cube = getCube();
+        PlyWriter writer = new PlyWriter();
+        writer.setBinary(true);
+        PlyReader reader = new PlyReader();
+
+        // when 1
+        boolean write = writer.write(cube, path.toFile());
+
+        // when 2
+        Optional<JavaModel3D> read = reader.read(path.toFile());
+
+        // then
+        Assert.assertTrue(write);
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(cube.getMesh(), read.get().getMesh());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testReadBinaryStreamWithNormals() {
+        // given
+        IndexedMesh.Builder builder = IndexedMesh.builder();
+        builder.addVertex(0, 0, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(1, 0, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(1, 1, 0);
+        builder.addNormal(0, 0, 1);
+        builder.addVertex(0, 1, 0);
+        builder.addNormal(0, 0, 1);
+        IndexedMesh mesh = builder.addFace(0, 1, 2, 3).build();
+        PlyWriter writer = new PlyWriter();
+        writer.setBinary(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(mesh, outputStream);
+        PlyReader reader = new PlyReader();
+
+        // when
+        Optional<IndexedMesh> read = reader.readIndexed(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // then
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getVertices(), mesh.getVertices());
+        Assert.assertEquals(read.get().getFaceOffsets(), mesh.getFaceOffsets());
+        Assert.assertEquals(read.get().getFaceIndices(), mesh.getFaceIndices());
+        Assert.assertEquals(read.get().getNormals(), mesh.getNormals());
+    }
+
+    @Test
+    public void testReadBinaryInWindows() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("plytest", ".ply");
+        PlyWriter writer = new PlyWriter();
+        writer.setBinary(true);
+        writer.write(getCube(), path.toFile());
+        PlyReader reader = new PlyReader();
+        Optional<IndexedMesh> expected = reader.readIndexed(path.toFile());
+
+        // when
+        Optional<IndexedMesh> read;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read = reader.readBinary(MappedWindows.of(channel, 7));
+        }
+
+        // then
+        Assert.assertTrue(expected.isPresent());
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getVertices(), expected.get().getVertices());
+        Assert.assertEquals(read.get().getFaceOffsets(), expected.get().getFaceOffsets());
+        Assert.assertEquals(read.get().getFaceIndices(), expected.get().getFaceIndices());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testReadBinaryWithInvalidIndex() {
+        // given
+        IndexedMesh mesh = IndexedMesh.ofTriangles(new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0}, new int[]{0, 1, 2, 0, 2, 3});
+        PlyWriter writer = new PlyWriter();
+        writer.setBinary(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(mesh, outputStream);
+        byte[] data = outputStream.toByteArray();
+        // the last index of the last face (little endian int) references a vertex, which does not exist
+        data[data.length - 4] = 9;
+        PlyReader reader = new PlyReader();
+
+        // when
+        Optional<IndexedMesh> read = reader.readIndexed(new ByteArrayInputStream(data));
+
+        // then
+        Assert.assertFalse(read.isPresent());
+    }
+
+    @Test
+    public void testReadBinaryWithMalformedElementCount() throws IOException {
+        testReadBinaryWithMalformedHeader("ply\nformat binary_little_endian 1.0\nelement vertex abc\nend_header\n");
+    }
+
+    @Test
+    public void testReadBinaryWithTruncatedProperty() throws IOException {
+        testReadBinaryWithMalformedHeader("ply\nformat binary_little_endian 1.0\nelement face 1\nproperty list uchar\nend_header\n");
+    }
+
+    private void testReadBinaryWithMalformedHeader(String header) throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("plytest", ".ply");
+        Files.write(path, header.getBytes(StandardCharsets.US_ASCII));
+        PlyReader reader = new PlyReader();
+
+        // when
+        Optional<IndexedMesh> read = reader.readIndexed(path.toFile());
+
+        // then
+        Assert.assertFalse(read.isPresent());
+        Files.deleteIfExists(path);
+    }
 }
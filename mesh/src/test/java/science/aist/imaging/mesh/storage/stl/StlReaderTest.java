@@ -11,10 +11,14 @@ package science.aist.imaging.mesh.storage.stl;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.imaging.mesh.storage.BaseMeshStorageTest;
+import science.aist.imaging.mesh.storage.MeshReader;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.Optional;
 
 /**
@@ -41,4 +45,32 @@ public class StlReaderTest extends BaseMeshStorageTest {
         checkCubePoints(read.get());
     }
 
+    @Test
+    public void testReadTextInChunks() {
+        // given
+        StringBuilder content = new StringBuilder("solid strip\n");
+        int numberOfFacets = 3 * MeshReader.CHUNK_SIZE / 150;
+        for (int i = 0; i < numberOfFacets; i++) {
+            // neighbouring facets share two vertices, which must be merged across the chunks
+            content.append("facet normal 0 0 1\n outer loop\n")
+                    .append("  vertex ").append(i).append(" 0 0\n")
+                    .append("  vertex ").append(i + 1).append(" ").append(i % 2).append(" 0\n")
+                    .append("  vertex ").append(i + 2).append(" 0 0\n")
+                    .append(" endloop\nendfacet\n");
+        }
+        content.append("endsolid strip\n");
+        StlReader reader = new StlReader();
+
+        // when
+        Optional<IndexedMesh> parallel = reader.readText(content);
+        Optional<IndexedMesh> sequential = reader.readIndexed(new BufferedReader(new StringReader(content.toString())));
+
+        // then
+        Assert.assertTrue(parallel.isPresent());
+        Assert.assertTrue(sequential.isPresent());
+        Assert.assertEquals(parallel.get().getNumberOfFaces(), numberOfFacets);
+        Assert.assertEquals(parallel.get().getVertices(), sequential.get().getVertices());
+        Assert.assertEquals(parallel.get().getFaceOffsets(), sequential.get().getFaceOffsets());
+        Assert.assertEquals(parallel.get().getFaceIndices(), sequential.get().getFaceIndices());
+    }
 }
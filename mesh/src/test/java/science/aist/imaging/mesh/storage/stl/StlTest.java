@@ -12,13 +12,19 @@ package science.aist.imaging.mesh.storage.stl;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.threedimensional.IndexedMesh;
 import science.aist.imaging.api.domain.threedimensional.JavaModel3D;
 import science.aist.imaging.mesh.storage.BaseMeshStorageTest;
+import science.aist.imaging.mesh.storage.MappedWindows;
 import science.aist.jack.persistence.filesystem.FileUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Optional;
 
 /**
@@ -49,4 +55,73 @@ public class StlTest extends BaseMeshStorageTest {
         Assert.assertEquals(cube.getMesh(), read.get().getMesh());
         Files.deleteIfExists(path);
     }
+
+    @Test
+    public void testWriteBinary() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("stltest", ".stl");
+        JavaModel3D cube = getCube();
+        StlWriter writer = new StlWriter();
+        writer.setBinary(true);
+        StlReader reader = new StlReader();
+
+        // when 1
+        boolean write = writer.write(cube, path.toFile());
+
+        // when 2
+        Optional<IndexedMesh> read = reader.readIndexed(path.toFile());
+
+        // then
+        Assert.assertTrue(write);
+        Assert.assertEquals(Files.size(path), 84L + 12 * 50);
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getNumberOfVertices(), 8);
+        Assert.assertEquals(cube.getMesh(), read.get().asModel().getMesh());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testReadBinaryStream() {
+        // given
+        IndexedMesh quad = new IndexedMesh(new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0}, new int[]{0, 4}, new int[]{0, 1, 2, 3});
+        StlWriter writer = new StlWriter();
+        writer.setBinary(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(quad, outputStream);
+        StlReader reader = new StlReader();
+
+        // when
+        Optional<IndexedMesh> read = reader.readIndexed(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // then
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getNumberOfFaces(), 2);
+        Assert.assertEquals(read.get().getFaceIndices(), new int[]{0, 1, 2, 0, 2, 3});
+        Assert.assertEquals(read.get().getVertices(), quad.getVertices());
+    }
+
+    @Test
+    public void testReadBinaryInWindows() throws IOException {
+        // given
+        Path path = FileUtils.createTempFile("stltest", ".stl");
+        StlWriter writer = new StlWriter();
+        writer.setBinary(true);
+        writer.write(getCube(), path.toFile());
+        StlReader reader = new StlReader();
+        Optional<IndexedMesh> expected = reader.readIndexed(path.toFile());
+
+        // when
+        Optional<IndexedMesh> read;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the windows are smaller than a triangle and do not align with the triangles
+            read = reader.readBinary(MappedWindows.of(channel, 33));
+        }
+
+        // then
+        Assert.assertTrue(expected.isPresent());
+        Assert.assertTrue(read.isPresent());
+        Assert.assertEquals(read.get().getVertices(), expected.get().getVertices());
+        Assert.assertEquals(read.get().getFaceIndices(), expected.get().getFaceIndices());
+        Files.deleteIfExists(path);
+    }
 }
@@ -10,10 +10,15 @@
 package science.aist.imaging.nd4j.imageprocessing.wrapper;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
 
+import java.util.Arrays;
+
 /**
  * <p>Implementation of a {@link ImageWrapper} for Deeplearning4j's {@link INDArray}</p>
  *
@@ -56,6 +61,55 @@ public class INDArrayWrapper extends AbstractImageWrapper<INDArray> {
             image.putScalar(new int[]{y, x, channel}, val);
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        double[] row = image.get(NDArrayIndex.point(y), NDArrayIndex.all(), NDArrayIndex.point(channel)).dup('c').data().asDouble();
+        if (dst == null) {
+            return row;
+        }
+        System.arraycopy(row, 0, dst, 0, row.length);
+        return dst;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        long width = image.shape()[1];
+        INDArray row = Nd4j.create(Arrays.copyOf(src, (int) width), new long[]{width}, 'c').castTo(image.dataType());
+        image.put(new INDArrayIndex[]{NDArrayIndex.point(y), NDArrayIndex.all(), NDArrayIndex.point(channel)}, row);
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        // a c-ordered copy of the [height, width, channels] segment is exactly the interleaved tile layout
+        double[] tile = image.get(tileIndices(x, y, width, height)).dup('c').data().asDouble();
+        if (dst == null) {
+            return tile;
+        }
+        System.arraycopy(tile, 0, dst, 0, tile.length);
+        return dst;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        long channels = image.shape()[2];
+        int length = (int) (width * height * channels);
+        INDArray tile = Nd4j.create(Arrays.copyOf(src, length), new long[]{height, width, channels}, 'c').castTo(image.dataType());
+        image.put(tileIndices(x, y, width, height), tile);
+    }
+
+    /**
+     * Creates the indices selecting all channels of the given image segment
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @return indices of the segment
+     */
+    private static INDArrayIndex[] tileIndices(int x, int y, int width, int height) {
+        return new INDArrayIndex[]{NDArrayIndex.interval(y, y + height), NDArrayIndex.interval(x, x + width), NDArrayIndex.all()};
+    }
+
     @Override
     public Class<INDArray> getSupportedType() {
         return INDArray.class;
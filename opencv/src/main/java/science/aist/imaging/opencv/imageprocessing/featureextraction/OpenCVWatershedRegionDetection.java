@@ -16,12 +16,13 @@ import org.opencv.core.*;
 import org.opencv.imgproc.Imgproc;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * Use watershed algorithm to isolate objects from each other.
  * Isolates object, then transforms them into recognized objects containing coordinates.
+ * The objects are extracted from the watershed markers with {@link Imgproc#connectedComponentsWithStats}, and their
+ * coordinates are collected in a single pass over the label image.
  * <p>
  * Suggestion from: https://stackoverflow.com/questions/19273161/watershed-in-opencv-android
  *
@@ -29,81 +30,12 @@ import java.util.List;
  * @author Andreas Pointner
  * @since 1.0
  */
-@SuppressWarnings({"ALL", "squid:S4165", "squid:S3878", "squid:S2184"})
 public class OpenCVWatershedRegionDetection implements RegionDetection<Mat, Double> {
 
     /**
-     * Searchs neighboring pixels for a specific grey value.
-     * If said required grey value is given, will continue search at position of found pixel.
-     * This way, can find bigger objects made of these values.
-     *
-     * @param object object to create
-     * @param image  image containing pixel values
-     * @param x      x-coordinate
-     * @param y      y-coordinate
-     * @return object filled with pixel coordinates
+     * Marker value of the pixels belonging to an object after the watershed
      */
-    private static RecognizedObject searchForObject(RecognizedObject object, Mat image, int x, int y) {
-
-        //add the data for the first found coordinate
-        object.getCoordinates().add(new JavaPoint2D(x, y));
-
-        //remove the information of the start point, so we don't find it again
-        image.put(y, x, new double[]{0.0});
-
-        //create array for coordinates we still have to look through
-        LinkedHashSet<JavaPoint2D> coordinates = new LinkedHashSet<>();
-
-        //add the first neighboring pixels according to the diagram at the top
-        coordinates = findNeighbors(coordinates, x, y, image);
-
-        while (!coordinates.isEmpty()) {
-            JavaPoint2D currentCoordinate = coordinates.iterator().next();
-            object.getCoordinates().add(currentCoordinate);
-
-            //add neighboring coordinates
-            coordinates = findNeighbors(coordinates, currentCoordinate.getIntX(), currentCoordinate.getIntY(), image);
-
-            //remove the current coordinate, both from array as well as from image
-            coordinates.remove(currentCoordinate);
-            //remove values from the image, so we don't analyze it again
-            image.put(currentCoordinate.getIntY(), currentCoordinate.getIntX(), new double[]{0.0});
-        }
-
-        return object;
-    }
-
-    /**
-     * Method for finding neighboring pixels with the correct grey value.
-     * Will look into the four cardinal directions.
-     *
-     * @param coordinates current list of pixels, that we still have to look through
-     * @param x           x-coordinate
-     * @param y           y-coordinate
-     * @param image       image containing color information
-     * @return list with additional pixels to search through
-     */
-    private static LinkedHashSet<JavaPoint2D> findNeighbors(LinkedHashSet<JavaPoint2D> coordinates, int x, int y, Mat image) {
-
-        //right
-        if (x + 1 < image.width() && image.get(y, x + 1)[0] == 128.0) {
-            coordinates.add(new JavaPoint2D(x + 1, y));
-        }
-        //left
-        if (x - 1 >= 0 && image.get(y, x - 1)[0] == 128.0) {
-            coordinates.add(new JavaPoint2D(x - 1, y));
-        }
-        //up
-        if (y + 1 < image.height() && image.get(y + 1, x)[0] == 128.0) {
-            coordinates.add(new JavaPoint2D(x, y + 1));
-        }
-        //down
-        if (y - 1 >= 0 && image.get(y - 1, x)[0] == 128.0) {
-            coordinates.add(new JavaPoint2D(x, y - 1));
-        }
-
-        return coordinates;
-    }
+    private static final int OBJECT_MARKER = 128;
 
     @Override
     public List<RecognizedObject<Mat, Double>> recognizeRegion(Mat image, double threshold) {
@@ -111,6 +43,10 @@ public class OpenCVWatershedRegionDetection implements RegionDetection<Mat, Doub
         Mat foreground = new Mat(image.size(), CvType.CV_8U);
         Mat background = new Mat(image.size(), CvType.CV_8U);
         Mat markers = new Mat(image.size(), CvType.CV_8U, new Scalar(0));
+        Mat objectMask = new Mat();
+        Mat labels = new Mat();
+        Mat stats = new Mat();
+        Mat centroids = new Mat();
 
         try {
 
@@ -133,39 +69,51 @@ public class OpenCVWatershedRegionDetection implements RegionDetection<Mat, Doub
             //apply watershed and try to find different objects
             markers.convertTo(markers, CvType.CV_32S);
             Imgproc.watershed(image, markers);
-            markers.convertTo(markers, CvType.CV_8U);
 
             //now find different objects
-            //colors: 0 = background, 128 = object, 255 = separating line
-            List<RecognizedObject<Mat, Double>> objects = new ArrayList<>();
-
-            for (int y = 0; y < markers.height(); y++) {
-                for (int x = 0; x < markers.width(); x++) {
-                    //check if we found an object at this position
-                    if (markers.get(y, x)[0] == 128.0) {
-                        RecognizedObject<Mat, Double> newObject = new RecognizedObject<>();
-                        newObject.setFromImage(image);
-                        newObject.setThresholdUsed(threshold);
-                        newObject.setCoordinates(new ArrayList<>());
-                        objects.add(searchForObject(newObject, markers, x, y));
-                    }
+            //markers: -1 = separating line, 128 = object, everything else = background
+            Core.compare(markers, new Scalar(OBJECT_MARKER), objectMask, Core.CMP_EQ);
+            //4-connectivity, as the objects are separated by the one pixel wide lines of the watershed
+            int numberOfLabels = Imgproc.connectedComponentsWithStats(objectMask, labels, stats, centroids, 4, CvType.CV_32S);
+
+            int[] statistics = new int[numberOfLabels * stats.cols()];
+            stats.get(0, 0, statistics);
+            int[] labelBuffer = new int[(int) labels.total()];
+            labels.get(0, 0, labelBuffer);
+
+            //collect the coordinates of all objects in one pass; the objects are ordered by their first pixel
+            List<RecognizedObject<Mat, Double>> objects = new ArrayList<>(numberOfLabels - 1);
+            @SuppressWarnings("unchecked")
+            RecognizedObject<Mat, Double>[] objectOfLabel = new RecognizedObject[numberOfLabels];
+            int width = labels.width();
+            for (int i = 0; i < labelBuffer.length; i++) {
+                int label = labelBuffer[i];
+                if (label == 0) {
+                    continue;
                 }
+                RecognizedObject<Mat, Double> object = objectOfLabel[label];
+                if (object == null) {
+                    object = new RecognizedObject<>();
+                    object.setFromImage(image);
+                    object.setThresholdUsed(threshold);
+                    object.setCoordinates(new ArrayList<>(statistics[label * stats.cols() + Imgproc.CC_STAT_AREA]));
+                    object.setId(objects.size());
+                    objectOfLabel[label] = object;
+                    objects.add(object);
+                }
+                object.getCoordinates().add(new JavaPoint2D(i % width, i / width));
             }
 
-            //set ids for the objects
-            int id = 0;
-            for (RecognizedObject<Mat, Double> object : objects) {
-                object.setId(id);
-                id++;
-            }
-
-
             return objects;
         } finally {
             foreground.release();
             background.release();
             markers.release();
             greyscale.release();
+            objectMask.release();
+            labels.release();
+            stats.release();
+            centroids.release();
         }
     }
 }
@@ -15,15 +15,25 @@ import science.aist.imaging.api.ImageFunction;
 import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 import science.aist.imaging.opencv.imageprocessing.domain.OpenCVThresholdType;
 import science.aist.imaging.opencv.imageprocessing.threshold.OpenCVThresholdFunction;
+import lombok.AccessLevel;
 import lombok.Setter;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
 import org.opencv.imgproc.Imgproc;
 import science.aist.imaging.opencv.imageprocessing.averaging.AbstractAveragingFilter;
 
 /**
  * <p>Function for removing the background for the given image based on the background model created with e.g. an {@link AbstractAveragingFilter}</p>
+ * <p>A pixel is marked as foreground, if its distance to the model exceeds the threshold in at least two of the color
+ * spaces HSV (hue), LUV (u and v) and BGR. The distances are calculated with matrix operations and the color
+ * conversions of the model are calculated once and cached. If the pixels of the model are changed in place (e.g. a
+ * model, which is continuously updated by an {@link AbstractAveragingFilter}), {@link #modelChanged()} must be called
+ * afterwards, otherwise the cached conversions of the previous pixels are used.</p>
+ * <p>If a learning rate &gt; 0 is set, the background pixels of every processed image are blended into the model
+ * (exponentially weighted running average), so the model adapts to e.g. slow illumination changes of a camera stream.
+ * In this case the function keeps state between calls and must not be shared between threads.</p>
  *
  * @author Christoph Praschl
  * @since 1.0
@@ -32,11 +42,24 @@ import science.aist.imaging.opencv.imageprocessing.averaging.AbstractAveragingFi
 public class OpenCVBackgroundSubtraction implements ImageFunction<Mat, Mat> {
     private ImageFunction<Mat, Mat> thresholdFunction;
 
+    @Setter(AccessLevel.NONE)
     private ImageWrapper<Mat> model;
     private double hsvDistanceThreshold = 10.0;
     private double luvDistanceThreshold = 20.0;
     private double bgrDistanceThreshold = 60.0;
 
+    /**
+     * Weight of the current image when the model is updated: model = (1 - learningRate) * model + learningRate * image.
+     * 0 (default) keeps the given model unchanged.
+     */
+    private double learningRate = 0.0;
+
+    /**
+     * The model and its color conversions, which are created lazily for the current model
+     */
+    @Setter(AccessLevel.NONE)
+    private BackgroundModel backgroundModel;
+
     public OpenCVBackgroundSubtraction() {
         OpenCVThresholdFunction thresholdFunctionInner = new OpenCVThresholdFunction();
         thresholdFunctionInner.setThresh(1);
@@ -53,60 +76,58 @@ public class OpenCVBackgroundSubtraction implements ImageFunction<Mat, Mat> {
         this.model = model;
     }
 
-    private static Mat partDistance(Mat model, Mat image, double v, ChannelType channelType) {
-        Mat outModel = Mat.zeros(model.size(), model.type());
-        Mat outImage = Mat.zeros(model.size(), model.type());
-        int[] channels;
-
-        if (channelType == ChannelType.HSV) {
-            Imgproc.cvtColor(model, outModel, Imgproc.COLOR_BGR2HSV);
-            Imgproc.cvtColor(image, outImage, Imgproc.COLOR_BGR2HSV);
-            channels = new int[]{0};
-        } else if (channelType == ChannelType.LUV) {
-            Imgproc.cvtColor(model, outModel, Imgproc.COLOR_BGR2Luv);
-            Imgproc.cvtColor(image, outImage, Imgproc.COLOR_BGR2Luv);
-            channels = new int[]{1, 2};
-        } else {
-            model.copyTo(outModel);
-            image.copyTo(outImage);
-            channels = new int[]{0, 1, 2};
-        }
+    /**
+     * Sets a new model, which also resets the running average of the previous model
+     *
+     * @param model created with e.g. an {@link AbstractAveragingFilter}
+     */
+    public synchronized void setModel(ImageWrapper<Mat> model) {
+        this.model = model;
+        modelChanged();
+    }
 
-        Mat mat = calcPartDistance(outModel, outImage, channels);
-        outImage.release();
-        outModel.release();
-
-        Mat res = Mat.zeros(model.size(), CvType.CV_8UC1);
-        for (int x = 0; x < model.width(); x++) {
-            for (int y = 0; y < model.height(); y++) {
-                double d = mat.get(y, x)[0];
-                if (d <= v) {
-                    res.put(y, x, 0);
-                } else {
-                    res.put(y, x, 1);
-                }
-            }
+    /**
+     * Discards the cached color conversions, so they are calculated from the pixels of the model with the next call.
+     * Must be called after the model was changed in place. This also resets the running average.
+     */
+    public synchronized void modelChanged() {
+        if (backgroundModel != null) {
+            backgroundModel.release();
+            backgroundModel = null;
         }
-
-        mat.release();
-
-        return res;
     }
 
-    private static Mat calcPartDistance(Mat model, Mat image, int[] channels) {
-        Mat res = Mat.zeros(model.size(), CvType.CV_32FC1);
-        for (int x = 0; x < model.width(); x++) {
-            for (int y = 0; y < model.height(); y++) {
-                double value = 0;
-                for (int channel : channels) {
-                    double v = model.get(y, x)[channel] - image.get(y, x)[channel];
-                    value += v * v;
-                }
-                res.put(y, x, Math.sqrt(value));
-            }
+    /**
+     * Increments the votes of all pixels, where the euclidean distance between model and image over the given channels
+     * is bigger than the threshold
+     *
+     * @param model     the model
+     * @param image     the image in the same color space as the model
+     * @param channels  the channels used for the distance
+     * @param threshold the distance threshold
+     * @param votes     CV_8UC1 mat containing the votes per pixel
+     */
+    private static void vote(Mat model, Mat image, int[] channels, double threshold, Mat votes) {
+        Mat diff = new Mat();
+        Core.absdiff(model, image, diff);
+
+        // squared distance, which is compared with the squared threshold, so no square root is needed
+        Mat squaredDistance = Mat.zeros(model.size(), CvType.CV_32FC1);
+        Mat channel = new Mat();
+        for (int c : channels) {
+            Core.extractChannel(diff, channel, c);
+            channel.convertTo(channel, CvType.CV_32F);
+            Imgproc.accumulateSquare(channel, squaredDistance);
         }
 
-        return res;
+        Mat exceeds = new Mat();
+        Core.compare(squaredDistance, new Scalar(threshold < 0 ? -1 : threshold * threshold), exceeds, Core.CMP_GT);
+        Core.add(votes, Scalar.all(1), votes, exceeds);
+
+        diff.release();
+        channel.release();
+        squaredDistance.release();
+        exceeds.release();
     }
 
     @Override
@@ -121,20 +142,81 @@ public class OpenCVBackgroundSubtraction implements ImageFunction<Mat, Mat> {
         }
 
         Mat image = imageWrapper.getImage();
+        BackgroundModel background = getBackgroundModel();
+
+        Mat votes = Mat.zeros(image.size(), CvType.CV_8UC1);
+        Mat converted = new Mat();
+        Imgproc.cvtColor(image, converted, Imgproc.COLOR_BGR2HSV);
+        vote(background.hsv, converted, new int[]{0}, hsvDistanceThreshold, votes);
+        Imgproc.cvtColor(image, converted, Imgproc.COLOR_BGR2Luv);
+        vote(background.luv, converted, new int[]{1, 2}, luvDistanceThreshold, votes);
+        vote(background.bgr, image, new int[]{0, 1, 2}, bgrDistanceThreshold, votes);
+        converted.release();
+
+        if (learningRate > 0) {
+            background.update(image, votes, learningRate);
+        }
+
+        return thresholdFunction.apply(ImageFactoryFactory.getImageFactory(Mat.class).getImage(votes));
+    }
+
+    private synchronized BackgroundModel getBackgroundModel() {
+        if (backgroundModel == null) {
+            backgroundModel = new BackgroundModel(model.getImage());
+        }
+        return backgroundModel;
+    }
+
+    /**
+     * <p>Copy of the model in the used color spaces</p>
+     */
+    private static final class BackgroundModel {
+        private final Mat bgr = new Mat();
+        private final Mat hsv = new Mat();
+        private final Mat luv = new Mat();
+        /**
+         * Floating point model, which is updated with the running average
+         */
+        private Mat average;
+
+        private BackgroundModel(Mat model) {
+            model.copyTo(bgr);
+            convert();
+        }
 
-        Mat hsv = partDistance(model.getImage(), image, hsvDistanceThreshold, ChannelType.HSV);
-        Mat luv = partDistance(model.getImage(), image, luvDistanceThreshold, ChannelType.LUV);
-        Mat bgr = partDistance(model.getImage(), image, bgrDistanceThreshold, ChannelType.BGR);
+        private void convert() {
+            Imgproc.cvtColor(bgr, hsv, Imgproc.COLOR_BGR2HSV);
+            Imgproc.cvtColor(bgr, luv, Imgproc.COLOR_BGR2Luv);
+        }
 
-        Mat sum = Mat.zeros(image.size(), CvType.CV_8UC1);
-        Core.add(hsv, luv, sum);
-        Core.add(sum, bgr, sum);
+        /**
+         * Blends the background pixels (i.e. pixels with at most one vote) of the image into the model
+         *
+         * @param image        the current image
+         * @param votes        the votes of the image
+         * @param learningRate weight of the image
+         */
+        private void update(Mat image, Mat votes, double learningRate) {
+            if (average == null) {
+                average = new Mat();
+                bgr.convertTo(average, CvType.CV_32F);
+            }
+            Mat backgroundMask = new Mat();
+            Core.compare(votes, new Scalar(1), backgroundMask, Core.CMP_LE);
+            Imgproc.accumulateWeighted(image, average, learningRate, backgroundMask);
+            backgroundMask.release();
 
-        hsv.release();
-        luv.release();
-        bgr.release();
+            average.convertTo(bgr, bgr.type());
+            convert();
+        }
 
-        return thresholdFunction.apply(ImageFactoryFactory.getImageFactory(Mat.class).getImage(sum));
+        private void release() {
+            bgr.release();
+            hsv.release();
+            luv.release();
+            if (average != null) {
+                average.release();
+            }
+        }
     }
-
 }
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.opencv.imageprocessing.objectdetection;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.opencv.core.*;
+import org.opencv.features2d.DescriptorMatcher;
+import org.opencv.features2d.Feature2D;
+import org.opencv.features2d.ORB;
+import org.opencv.imgproc.Imgproc;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.RectangleWrapper;
+import science.aist.imaging.opencv.imageprocessing.conversion.OpenCVBGR2GrayscaleFunction;
+import science.aist.imaging.opencv.imageprocessing.wrapper.OpenCVRectangleWrapper;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * <p>Feature based detection of many reference objects at once (e.g. a library of products).</p>
+ * <p>The descriptors of all reference objects are added to one matcher, which is trained once (see {@link #train()}).
+ * A query image is converted, its keypoints are detected and described only once and all of its descriptors are
+ * matched against all reference objects with a single call. Every match is assigned to the reference object it
+ * belongs to and for every object with enough fitting matches the bounding box of the matched keypoints is returned.
+ * The fitting matches are selected like in {@link OpenCVFeaturebasedObjectDetector}.</p>
+ * <p>The default matcher is a brute force hamming matcher for binary descriptors (e.g. ORB). For large libraries an
+ * approximate matcher (e.g. a FLANN based matcher configured with an LSH index) can be set.</p>
+ * <p>The descriptors of the index can be stored with {@link #save(OutputStream)} and restored with
+ * {@link #load(InputStream)}, so the reference images do not need to be processed again on startup.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class OpenCVFeatureIndex {
+    private static final int FILE_VERSION = 1;
+
+    @Setter
+    @NonNull
+    private Feature2D detector = ORB.create();
+
+    /**
+     * The matcher is trained with the descriptors of all reference objects. Changing it requires a new {@link #train()}
+     */
+    @Setter
+    @NonNull
+    private DescriptorMatcher matcher = DescriptorMatcher.create(DescriptorMatcher.BRUTEFORCE_HAMMING);
+
+    @Setter
+    @NonNull
+    private OpenCVBGR2GrayscaleFunction grayscaleFunction = new OpenCVBGR2GrayscaleFunction();
+
+    @Setter
+    @Getter
+    private int minNumberMatchingFeatures = 10;
+
+    @Setter
+    @Getter
+    private double threshold = 2.0;
+
+    private final List<String> labels = new ArrayList<>();
+    private final List<Mat> descriptors = new ArrayList<>();
+    private boolean trained = false;
+
+    /**
+     * Adds a reference object to the index. {@link #train()} must be called, before the object can be detected.
+     *
+     * @param label     unique label of the object
+     * @param reference image of the object
+     */
+    public void addObject(@NonNull String label, ImageWrapper<Mat> reference) {
+        Mat image = reference.getImage();
+        Mat grayscale = grayscaleFunction.apply(reference).getImage();
+        try (KeyPointsAndDescriptors features = describe(grayscale)) {
+            if (features.descriptors.empty()) {
+                throw new IllegalArgumentException("No features found in the reference image of " + label);
+            }
+            addDescriptors(label, features.descriptors.clone());
+        } finally {
+            if (grayscale != image) {
+                grayscale.release();
+            }
+        }
+    }
+
+    private void addDescriptors(String label, Mat objectDescriptors) {
+        if (labels.contains(label)) {
+            throw new IllegalArgumentException("Object " + label + " is already part of the index");
+        }
+        labels.add(label);
+        descriptors.add(objectDescriptors);
+        trained = false;
+    }
+
+    /**
+     * @return the labels of the objects in the index
+     */
+    public List<String> getLabels() {
+        return Collections.unmodifiableList(labels);
+    }
+
+    /**
+     * Builds the matcher for all reference objects of the index
+     */
+    public void train() {
+        matcher.clear();
+        matcher.add(descriptors);
+        matcher.train();
+        trained = true;
+    }
+
+    /**
+     * Detects all objects of the index in the given image
+     *
+     * @param image the image
+     * @return the bounding boxes of the detected objects by the label of the objects
+     */
+    public Map<String, RectangleWrapper<Rect, Point>> detect(ImageWrapper<Mat> image) {
+        if (labels.isEmpty()) {
+            throw new IllegalStateException("No reference objects are added to the index");
+        }
+        if (!trained) {
+            train();
+        }
+
+        Map<String, RectangleWrapper<Rect, Point>> result = new LinkedHashMap<>();
+        Mat src = image.getImage();
+        Mat grayscale = grayscaleFunction.apply(image).getImage();
+        try (KeyPointsAndDescriptors features = describe(grayscale)) {
+            if (features.descriptors.empty()) {
+                return result;
+            }
+
+            MatOfDMatch matches = new MatOfDMatch();
+            matcher.match(features.descriptors, matches);
+            List<DMatch> matchList = matches.toList();
+            matches.release();
+
+            // group the matches by the reference object they belong to
+            List<List<DMatch>> matchesPerObject = new ArrayList<>(labels.size());
+            for (int i = 0; i < labels.size(); i++) {
+                matchesPerObject.add(new ArrayList<>());
+            }
+            for (DMatch match : matchList) {
+                matchesPerObject.get(match.imgIdx).add(match);
+            }
+
+            List<KeyPoint> keyPoints = features.keyPoints.toList();
+            for (int i = 0; i < labels.size(); i++) {
+                List<Point> points = fittingPoints(matchesPerObject.get(i), keyPoints);
+                if (points.size() >= minNumberMatchingFeatures) {
+                    MatOfPoint p = new MatOfPoint(points.toArray(new Point[0]));
+                    result.put(labels.get(i), new OpenCVRectangleWrapper(Imgproc.boundingRect(p)));
+                    p.release();
+                }
+            }
+        } finally {
+            if (grayscale != src) {
+                grayscale.release();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the matches based on the min/max distances of the matches of one object
+     *
+     * @param matches   the matches of one object
+     * @param keyPoints the keypoints of the query image
+     * @return the positions of the fitting matches in the query image
+     */
+    private List<Point> fittingPoints(List<DMatch> matches, List<KeyPoint> keyPoints) {
+        double maxDistance = 0.0;
+        double minDistance = 100.0;
+        for (DMatch match : matches) {
+            minDistance = Math.min(minDistance, match.distance);
+            maxDistance = Math.max(maxDistance, match.distance);
+        }
+
+        List<Point> points = new ArrayList<>();
+        for (DMatch match : matches) {
+            if (match.distance >= minDistance * threshold && match.distance <= maxDistance * (1.0 / threshold)) {
+                points.add(keyPoints.get(match.queryIdx).pt);
+            }
+        }
+        return points;
+    }
+
+    private KeyPointsAndDescriptors describe(Mat grayscale) {
+        KeyPointsAndDescriptors features = new KeyPointsAndDescriptors();
+        detector.detect(grayscale, features.keyPoints);
+        detector.compute(grayscale, features.keyPoints, features.descriptors);
+        return features;
+    }
+
+    /**
+     * Writes the labels and descriptors of all objects
+     *
+     * @param outputStream the stream the index is written to; it is not closed
+     * @throws IOException if the index could not be written
+     */
+    public void save(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(FILE_VERSION);
+        out.writeInt(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            Mat mat = descriptors.get(i);
+            out.writeUTF(labels.get(i));
+            out.writeInt(mat.rows());
+            out.writeInt(mat.cols());
+            out.writeInt(mat.type());
+            if (mat.empty()) {
+                continue;
+            }
+            Mat continuous = mat.isContinuous() ? mat : mat.clone();
+            int length = (int) continuous.total() * continuous.channels();
+            switch (CvType.depth(mat.type())) {
+                case CvType.CV_8U:
+                    byte[] bytes = new byte[length];
+                    continuous.get(0, 0, bytes);
+                    out.write(bytes);
+                    break;
+                case CvType.CV_32F:
+                    float[] floats = new float[length];
+                    continuous.get(0, 0, floats);
+                    for (float f : floats) {
+                        out.writeFloat(f);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported descriptor depth: " + CvType.depth(mat.type()));
+            }
+            if (continuous != mat) {
+                continuous.release();
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Adds the objects of a previously saved index. {@link #train()} must be called (or is called on the next
+     * detection), before the objects can be detected. The index stays unchanged, if the saved index could not be
+     * read or contains a label, which is already part of the index.
+     *
+     * @param inputStream the stream containing the index; it is not closed and not read beyond the end of the index
+     * @throws IOException if the index could not be read
+     */
+    public void load(InputStream inputStream) throws IOException {
+        // no buffering, as this would consume bytes following the index in the stream of the caller
+        DataInputStream in = new DataInputStream(inputStream);
+        int version = in.readInt();
+        if (version != FILE_VERSION) {
+            throw new IOException("Unsupported index version " + version);
+        }
+        int count = in.readInt();
+        Map<String, Mat> loaded = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                String label = in.readUTF();
+                Mat mat = readDescriptors(in);
+                Mat previous = loaded.put(label, mat);
+                if (previous != null) {
+                    previous.release();
+                    throw new IllegalArgumentException("Object " + label + " is contained multiple times in the index");
+                }
+                if (labels.contains(label)) {
+                    throw new IllegalArgumentException("Object " + label + " is already part of the index");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            loaded.values().forEach(Mat::release);
+            throw e;
+        }
+        loaded.forEach(this::addDescriptors);
+    }
+
+    private static Mat readDescriptors(DataInputStream in) throws IOException {
+        int rows = in.readInt();
+        int cols = in.readInt();
+        int type = in.readInt();
+        Mat mat = new Mat(rows, cols, type);
+        int length = rows * cols * CvType.channels(type);
+        if (length == 0) {
+            return mat;
+        }
+        try {
+            switch (CvType.depth(type)) {
+                case CvType.CV_8U:
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    mat.put(0, 0, bytes);
+                    break;
+                case CvType.CV_32F:
+                    float[] floats = new float[length];
+                    for (int j = 0; j < length; j++) {
+                        floats[j] = in.readFloat();
+                    }
+                    mat.put(0, 0, floats);
+                    break;
+                default:
+                    throw new IOException("Unsupported descriptor depth: " + CvType.depth(type));
+            }
+        } catch (IOException e) {
+            mat.release();
+            throw e;
+        }
+        return mat;
+    }
+
+    /**
+     * Removes all objects from the index
+     */
+    public void clear() {
+        descriptors.forEach(Mat::release);
+        descriptors.clear();
+        labels.clear();
+        matcher.clear();
+        trained = false;
+    }
+
+    /**
+     * Keypoints and descriptors of one image
+     */
+    private static final class KeyPointsAndDescriptors implements AutoCloseable {
+        private final MatOfKeyPoint keyPoints = new MatOfKeyPoint();
+        private final Mat descriptors = new Mat();
+
+        @Override
+        public void close() {
+            keyPoints.release();
+            descriptors.release();
+        }
+    }
+}
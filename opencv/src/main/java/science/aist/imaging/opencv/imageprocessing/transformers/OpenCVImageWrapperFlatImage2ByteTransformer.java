@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.opencv.imageprocessing.transformers;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.AbstractFlatImage;
+import science.aist.imaging.api.domain.wrapper.implementation.AbstractFlatImageFactory;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.opencv.imageprocessing.wrapper.OpenCVFactory;
+import science.aist.jack.general.transformer.Transformer;
+
+/**
+ * <p>Transformer from OpenCV Image Wrapper to a flat 2 byte image wrapper (see
+ * {@link science.aist.imaging.api.domain.wrapper.implementation.FlatImage2Byte}).</p>
+ * <p>Both directions copy the pixel data with a single native call, as the layout of a continuous CV_16S mat is
+ * identical to the flat short array. Mats with another depth are converted natively before. As the flat image stores
+ * signed values, CV_16U mats are saturated to [0, 32767] and the result of {@link #transformTo(ImageWrapper)} is a
+ * CV_16S mat.</p>
+ *
+ * @author Christoph Praschl
+ * @since 2.1
+ */
+public class OpenCVImageWrapperFlatImage2ByteTransformer implements Transformer<ImageWrapper<Mat>, ImageWrapper<short[]>> {
+    @Override
+    public ImageWrapper<Mat> transformTo(ImageWrapper<short[]> imageWrapper) {
+        int width = imageWrapper.getWidth();
+        int height = imageWrapper.getHeight();
+        int channels = imageWrapper.getChannels();
+
+        ImageWrapper<Mat> res = ((OpenCVFactory) ImageFactoryFactory.getImageFactory(Mat.class)).getImage(height, width, CvType.CV_16SC(channels), imageWrapper.getChannelType());
+        res.getImage().put(0, 0, toContinuousArray(imageWrapper));
+        return res;
+    }
+
+    @Override
+    public ImageWrapper<short[]> transformFrom(ImageWrapper<Mat> matImageWrapper) {
+        int width = matImageWrapper.getWidth();
+        int height = matImageWrapper.getHeight();
+        int channels = matImageWrapper.getChannels();
+
+        Mat image = matImageWrapper.getImage();
+        Mat source = image;
+        if (CvType.depth(image.type()) != CvType.CV_16S || !image.isContinuous()) {
+            // convertTo allocates a new, continuous mat
+            source = new Mat();
+            image.convertTo(source, CvType.CV_16S);
+        }
+
+        short[] data = new short[height * width * channels];
+        source.get(0, 0, data);
+        if (source != image) {
+            source.release();
+        }
+
+        ChannelType toUse = matImageWrapper.getChannelType();
+        if (toUse == ChannelType.UNKNOWN) {
+            toUse = channels == 1 ? ChannelType.GREYSCALE : channels == 3 ? ChannelType.UNKNOWN_3_CHANNEL : channels == 4 ? ChannelType.UNKNOWN_4_CHANNEL : ChannelType.UNKNOWN;
+        }
+
+        return ((AbstractFlatImageFactory<short[]>) ImageFactoryFactory.getImageFactory(short[].class)).getImage(height, width, toUse, data);
+    }
+
+    /**
+     * Returns the wrapped array if it contains exactly the image data, otherwise the rows are packed into a new array
+     *
+     * @param imageWrapper the image
+     * @return array containing the rows of the image without any padding
+     */
+    private static short[] toContinuousArray(ImageWrapper<short[]> imageWrapper) {
+        int rowLength = imageWrapper.getWidth() * imageWrapper.getChannels();
+        short[] data;
+        if (imageWrapper instanceof AbstractFlatImage) {
+            AbstractFlatImage<short[]> flat = (AbstractFlatImage<short[]>) imageWrapper;
+            if (flat.isContinuous()) {
+                return flat.getImage();
+            }
+            data = new short[rowLength * flat.getHeight()];
+            for (int y = 0; y < flat.getHeight(); y++) {
+                System.arraycopy(flat.getImage(), flat.index(0, y, 0), data, y * rowLength, rowLength);
+            }
+        } else {
+            double[] values = imageWrapper.getTile(0, 0, imageWrapper.getWidth(), imageWrapper.getHeight(), null);
+            data = new short[values.length];
+            for (int i = 0; i < values.length; i++) {
+                data[i] = (short) values[i];
+            }
+        }
+        return data;
+    }
+}
@@ -41,29 +41,20 @@ public class OpenCVImageWrapperImage2ByteTransformer implements Transformer<Imag
 
         ImageWrapper<Mat> res = ImageFactoryFactory.getImageFactory(Mat.class).getImage(height, width, ct);
 
+        // the values are collected in one buffer of the mat's depth (CV_8U), so they can be written with a single call
+        boolean swap = imageWrapper.getChannelType() == ChannelType.RGB || imageWrapper.getChannelType() == ChannelType.RGBA;
+        byte[] data = new byte[height * width * channels];
+        int i = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-
-                double[] colors = new double[channels];
-
-                switch (imageWrapper.getChannelType()) {
-                    case RGB:
-                    case RGBA: // We do not support BGRA yet. If we need this, we will extend it. We just drop the RGB channel
-                        for (int c = 0; c < 3; c++) {
-                            colors[2 - c] = image[y][x][c];
-                        }
-                        break;
-                    default:
-                        for (int c = 0; c < channels; c++) {
-                            colors[c] = image[y][x][c];
-                        }
-                        break;
+                short[] pixel = image[y][x];
+                for (int c = 0; c < channels; c++) {
+                    // We do not support BGRA yet. If we need this, we will extend it. We just drop the alpha channel
+                    data[i++] = saturate(pixel[swap ? 2 - c : c]);
                 }
-
-
-                res.getImage().put(y, x, colors);
             }
         }
+        res.getImage().put(0, 0, data);
 
         return res;
     }
@@ -74,26 +65,37 @@ public class OpenCVImageWrapperImage2ByteTransformer implements Transformer<Imag
         int height = matImageWrapper.getHeight();
         int channels = matImageWrapper.getChannels();
 
-        Mat image = matImageWrapper.getImage();
-
         ChannelType toUse = matImageWrapper.getChannelType();
         if (toUse == ChannelType.UNKNOWN) {
             toUse = channels == 1 ? ChannelType.GREYSCALE : channels == 3 ? ChannelType.UNKNOWN_3_CHANNEL : channels == 4 ? ChannelType.UNKNOWN_4_CHANNEL : ChannelType.UNKNOWN;
         }
 
         ImageWrapper<short[][][]> res = ImageFactoryFactory.getImageFactory(short[][][].class).getImage(height, width, toUse);
+        short[][][] resImage = res.getImage();
 
+        // read the whole mat at once instead of one native call per pixel
+        double[] data = matImageWrapper.getTile(0, 0, width, height, null);
+        int i = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 short[] colors = new short[channels];
                 for (int c = 0; c < channels; c++) {
-                    colors[c] = (short) image.get(y, x)[c];
+                    colors[c] = (short) data[i++];
                 }
-
-                res.getImage()[y][x] = colors;
+                resImage[y][x] = colors;
             }
         }
 
         return res;
     }
+
+    /**
+     * Clamps the value to the range of an unsigned byte, like OpenCV does when writing into a CV_8U mat
+     *
+     * @param value the value
+     * @return the value as (unsigned) byte
+     */
+    private static byte saturate(short value) {
+        return (byte) Math.max(0, Math.min(255, value));
+    }
 }
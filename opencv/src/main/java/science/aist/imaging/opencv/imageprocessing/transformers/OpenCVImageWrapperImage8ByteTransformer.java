@@ -17,6 +17,8 @@ import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import science.aist.jack.general.transformer.Transformer;
 
+import java.util.Arrays;
+
 /**
  * <p>Transformer from OpenCV Image Wrapper to 8 Byte image wrapper</p>
  *
@@ -34,11 +36,16 @@ public class OpenCVImageWrapperImage8ByteTransformer implements Transformer<Imag
 
         ImageWrapper<Mat> res = ((OpenCVFactory) ImageFactoryFactory.getImageFactory(Mat.class)).getImage(height, width, CvType.CV_64FC(channels));
 
+        // the values are collected in one buffer, so they can be written with a single call
+        double[] data = new double[height * width * channels];
+        int i = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                res.getImage().put(y, x, image[y][x]);
+                System.arraycopy(image[y][x], 0, data, i, channels);
+                i += channels;
             }
         }
+        res.getImage().put(0, 0, data);
 
         return res;
     }
@@ -49,8 +56,6 @@ public class OpenCVImageWrapperImage8ByteTransformer implements Transformer<Imag
         int height = matImageWrapper.getHeight();
         int channels = matImageWrapper.getChannels();
 
-        Mat image = matImageWrapper.getImage();
-
         ChannelType toUse = matImageWrapper.getChannelType();
         if (toUse == ChannelType.UNKNOWN) {
             toUse = channels == 1 ? ChannelType.GREYSCALE : channels == 3 ? ChannelType.UNKNOWN_3_CHANNEL : channels == 4 ? ChannelType.UNKNOWN_4_CHANNEL : ChannelType.UNKNOWN;
@@ -58,9 +63,15 @@ public class OpenCVImageWrapperImage8ByteTransformer implements Transformer<Imag
 
         ImageWrapper<double[][][]> res = ImageFactoryFactory.getImageFactory(double[][][].class).getImage(height, width, toUse);
 
+        double[][][] resImage = res.getImage();
+
+        // read the whole mat at once instead of one native call per pixel
+        double[] data = matImageWrapper.getTile(0, 0, width, height, null);
+        int i = 0;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                res.getImage()[y][x] = image.get(y, x);
+                resImage[y][x] = Arrays.copyOfRange(data, i, i + channels);
+                i += channels;
             }
         }
 
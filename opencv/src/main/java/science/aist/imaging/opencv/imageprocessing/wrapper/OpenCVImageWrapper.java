@@ -13,8 +13,10 @@ import science.aist.imaging.api.domain.wrapper.AbstractImageWrapper;
 import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.opencv.imageprocessing.compare.OpenCVImageCompareFunction;
 import lombok.CustomLog;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -77,6 +79,11 @@ public class OpenCVImageWrapper extends AbstractImageWrapper<Mat> {
 
     @Override
     public void setValue(int x, int y, int channel, double val) {
+        if (image.channels() == 1) {
+            // no need to read the pixel, if it only consists of the changed value
+            image.put(y, x, val);
+            return;
+        }
         double[] tmp = image.get(y, x);
         tmp[channel] = val;
         image.put(y, x, tmp);
@@ -108,6 +115,124 @@ public class OpenCVImageWrapper extends AbstractImageWrapper<Mat> {
         image.put(y, x, values);
     }
 
+    /**
+     * Reads the given image segment with as few native calls as possible: one call for the whole segment if it covers
+     * complete rows of a continuous mat, otherwise one call per row. Note that {@link Mat#get(int, int, double[])} is only
+     * allowed for CV_64F, so the values are read into a buffer of the mat's depth and converted afterwards.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param dst    array the segment is written to; if null a new array is created
+     * @return the array containing the values of the segment
+     */
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int rowLength = width * image.channels();
+        double[] res = dst == null ? new double[rowLength * height] : dst;
+        if (x == 0 && width == image.cols() && image.isContinuous()) {
+            read(y, 0, rowLength * height, res, 0);
+        } else {
+            for (int j = 0; j < height; j++) {
+                read(y + j, x, rowLength, res, j * rowLength);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sets the given image segment row by row using {@link Mat#put(int, int, double...)}, which converts the values
+     * to the depth of the mat natively.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param src    array containing the new values of the segment
+     */
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int rowLength = width * image.channels();
+        if (x == 0 && width == image.cols() && image.isContinuous() && src.length == rowLength * height) {
+            image.put(y, 0, src);
+            return;
+        }
+        double[] row = new double[rowLength];
+        for (int j = 0; j < height; j++) {
+            System.arraycopy(src, j * rowLength, row, 0, rowLength);
+            image.put(y + j, x, row);
+        }
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        int width = getWidth();
+        int channels = getChannels();
+        if (channels == 1) {
+            image.put(y, 0, src.length == width ? src : Arrays.copyOf(src, width));
+            return;
+        }
+        double[] row = getTile(0, y, width, 1, null);
+        for (int x = 0; x < width; x++) {
+            row[x * channels + channel] = src[x];
+        }
+        image.put(y, 0, row);
+    }
+
+    /**
+     * Reads length consecutive values starting at the given position of the mat into res
+     *
+     * @param row    row of the first value
+     * @param col    column of the first value
+     * @param length number of values to read
+     * @param res    array the values are written to
+     * @param offset position in res of the first value
+     */
+    private void read(int row, int col, int length, double[] res, int offset) {
+        switch (CvType.depth(image.type())) {
+            case CvType.CV_8U:
+            case CvType.CV_8S:
+                boolean unsigned = CvType.depth(image.type()) == CvType.CV_8U;
+                byte[] bytes = new byte[length];
+                image.get(row, col, bytes);
+                for (int i = 0; i < length; i++) {
+                    res[offset + i] = unsigned ? bytes[i] & 0xFF : bytes[i];
+                }
+                break;
+            case CvType.CV_16U:
+            case CvType.CV_16S:
+                boolean unsignedShort = CvType.depth(image.type()) == CvType.CV_16U;
+                short[] shorts = new short[length];
+                image.get(row, col, shorts);
+                for (int i = 0; i < length; i++) {
+                    res[offset + i] = unsignedShort ? shorts[i] & 0xFFFF : shorts[i];
+                }
+                break;
+            case CvType.CV_32S:
+                int[] ints = new int[length];
+                image.get(row, col, ints);
+                for (int i = 0; i < length; i++) {
+                    res[offset + i] = ints[i];
+                }
+                break;
+            case CvType.CV_32F:
+                float[] floats = new float[length];
+                image.get(row, col, floats);
+                for (int i = 0; i < length; i++) {
+                    res[offset + i] = floats[i];
+                }
+                break;
+            case CvType.CV_64F:
+                double[] doubles = new double[length];
+                image.get(row, col, doubles);
+                System.arraycopy(doubles, 0, res, offset, length);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported mat depth: " + CvType.depth(image.type()));
+        }
+    }
+
     @Override
     public Class<Mat> getSupportedType() {
         return Mat.class;
@@ -9,9 +9,12 @@
 
 package science.aist.imaging.opencv.imageprocessing.objectdetection;
 
+import science.aist.imaging.api.domain.wrapper.ChannelType;
 import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
 import science.aist.imaging.opencv.imageprocessing.OpenCVTest;
 import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -88,6 +91,48 @@ public class OpenCVBackgroundSubtractionTest extends OpenCVTest {
         Assert.assertNotNull(openCVBackgroundSubtraction.apply(img));
     }
 
+    @Test
+    public void testApplyRunningModel() {
+        // given
+        ImageWrapper<Mat> model = ImageFactoryFactory.getImageFactory(Mat.class).getImage(10, 10, ChannelType.BGR, new double[]{0, 0, 0});
+        ImageWrapper<Mat> frame1 = ImageFactoryFactory.getImageFactory(Mat.class).getImage(10, 10, ChannelType.BGR, new double[]{40, 0, 0});
+        ImageWrapper<Mat> frame2 = ImageFactoryFactory.getImageFactory(Mat.class).getImage(10, 10, ChannelType.BGR, new double[]{100, 0, 0});
+        OpenCVBackgroundSubtraction staticModel = new OpenCVBackgroundSubtraction(model);
+        OpenCVBackgroundSubtraction runningModel = new OpenCVBackgroundSubtraction(model);
+        runningModel.setLearningRate(1.0);
+
+        // when
+        ImageWrapper<Mat> staticResult1 = staticModel.apply(frame1);
+        ImageWrapper<Mat> staticResult2 = staticModel.apply(frame2);
+        ImageWrapper<Mat> runningResult1 = runningModel.apply(frame1);
+        ImageWrapper<Mat> runningResult2 = runningModel.apply(frame2);
+
+        // then
+        Assert.assertEquals(staticResult1.getValue(5, 5, 0), 255.0);
+        Assert.assertEquals(runningResult1.getValue(5, 5, 0), 255.0);
+        // the static model still detects the change to the original model, the running model learned frame 1
+        Assert.assertEquals(staticResult2.getValue(5, 5, 0), 0.0);
+        Assert.assertEquals(runningResult2.getValue(5, 5, 0), 255.0);
+    }
+
+    @Test
+    public void testModelChanged() {
+        // given
+        ImageWrapper<Mat> model = ImageFactoryFactory.getImageFactory(Mat.class).getImage(10, 10, ChannelType.BGR, new double[]{0, 0, 0});
+        ImageWrapper<Mat> frame = ImageFactoryFactory.getImageFactory(Mat.class).getImage(10, 10, ChannelType.BGR, new double[]{100, 0, 0});
+        OpenCVBackgroundSubtraction openCVBackgroundSubtraction = new OpenCVBackgroundSubtraction(model);
+        ImageWrapper<Mat> before = openCVBackgroundSubtraction.apply(frame);
+        model.getImage().setTo(new Scalar(100, 0, 0));
+
+        // when
+        openCVBackgroundSubtraction.modelChanged();
+        ImageWrapper<Mat> after = openCVBackgroundSubtraction.apply(frame);
+
+        // then
+        Assert.assertEquals(before.getValue(5, 5, 0), 0.0);
+        Assert.assertEquals(after.getValue(5, 5, 0), 255.0);
+    }
+
     private void test(ImageWrapper<Mat> compareImage, ImageWrapper<Mat> model, ImageWrapper<Mat> img) {
         // given + parameters :D
         OpenCVBackgroundSubtraction openCVBackgroundSubtraction = new OpenCVBackgroundSubtraction(model);
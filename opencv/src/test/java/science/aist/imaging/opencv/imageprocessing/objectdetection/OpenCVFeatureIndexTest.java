@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.opencv.imageprocessing.objectdetection;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.RectangleWrapper;
+import science.aist.imaging.opencv.imageprocessing.OpenCVTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>Tests {@link OpenCVFeatureIndex}</p>
+ *
+ * @author Christoph Praschl
+ */
+public class OpenCVFeatureIndexTest extends OpenCVTest {
+
+    private OpenCVFeatureIndex createIndex() {
+        OpenCVFeatureIndex index = new OpenCVFeatureIndex();
+        index.setMinNumberMatchingFeatures(5);
+        index.setThreshold(2.1);
+        index.addObject("cube", loadImageFromClassPath("/cubes/ref2.jpg"));
+        index.addObject("logo", loadImageFromClassPath("/logo/original.tif"));
+        return index;
+    }
+
+    @Test
+    public void testDetect() {
+        // given
+        OpenCVFeatureIndex index = createIndex();
+        ImageWrapper<Mat> img = loadImageFromClassPath("/cubes/9.jpg");
+
+        // when
+        Map<String, RectangleWrapper<Rect, Point>> res = index.detect(img);
+
+        // then
+        Assert.assertTrue(res.containsKey("cube"));
+        RectangleWrapper<Rect, Point> cube = res.get("cube");
+        // center of the cube detected by OpenCVFeaturebasedObjectDetector
+        Assert.assertTrue(cube.getTopLeftPoint().getX() <= 1969.5 && cube.getBottomRightPoint().getX() >= 1969.5);
+        Assert.assertTrue(cube.getTopLeftPoint().getY() <= 1210.5 && cube.getBottomRightPoint().getY() >= 1210.5);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        // given
+        OpenCVFeatureIndex index = createIndex();
+        ImageWrapper<Mat> img = loadImageFromClassPath("/cubes/9.jpg");
+        Map<String, RectangleWrapper<Rect, Point>> expected = index.detect(img);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.save(out);
+        OpenCVFeatureIndex loaded = new OpenCVFeatureIndex();
+        loaded.setMinNumberMatchingFeatures(5);
+        loaded.setThreshold(2.1);
+        loaded.load(new ByteArrayInputStream(out.toByteArray()));
+
+        // then
+        Assert.assertEquals(loaded.getLabels(), Arrays.asList("cube", "logo"));
+        Map<String, RectangleWrapper<Rect, Point>> res = loaded.detect(img);
+        Assert.assertEquals(res.keySet(), expected.keySet());
+        for (Map.Entry<String, RectangleWrapper<Rect, Point>> entry : expected.entrySet()) {
+            Assert.assertEquals(res.get(entry.getKey()).getRectangle(), entry.getValue().getRectangle());
+        }
+    }
+
+    @Test
+    public void testLoadDoesNotReadBeyondIndex() throws IOException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createIndex().save(out);
+        out.write(42);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        OpenCVFeatureIndex loaded = new OpenCVFeatureIndex();
+
+        // when
+        loaded.load(in);
+
+        // then
+        Assert.assertEquals(loaded.getLabels(), Arrays.asList("cube", "logo"));
+        Assert.assertEquals(in.read(), 42);
+        Assert.assertEquals(in.read(), -1);
+    }
+
+    @Test
+    public void testLoadWithExistingLabel() throws IOException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createIndex().save(out);
+        OpenCVFeatureIndex index = new OpenCVFeatureIndex();
+        index.addObject("logo", loadImageFromClassPath("/logo/original.tif"));
+
+        // when
+        try {
+            index.load(new ByteArrayInputStream(out.toByteArray()));
+            Assert.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // then
+        Assert.assertEquals(index.getLabels(), Collections.singletonList("logo"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddObjectTwice() {
+        // given
+        OpenCVFeatureIndex index = new OpenCVFeatureIndex();
+        index.addObject("cube", loadImageFromClassPath("/cubes/ref2.jpg"));
+
+        // when
+        index.addObject("cube", loadImageFromClassPath("/cubes/ref.jpg"));
+
+        // then
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testDetectEmptyIndex() {
+        // given
+        OpenCVFeatureIndex index = new OpenCVFeatureIndex();
+
+        // when
+        index.detect(loadImageFromClassPath("/cubes/9.jpg"));
+
+        // then
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.opencv.imageprocessing.transformations;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.AbstractFlatImageFactory;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.opencv.imageprocessing.OpenCVTest;
+import science.aist.imaging.opencv.imageprocessing.transformers.OpenCVImageWrapperFlatImage1ByteTransformer;
+import science.aist.imaging.opencv.imageprocessing.wrapper.OpenCVFactory;
+
+import java.util.Random;
+
+/**
+ * <p>Tests for OpenCVImageWrapperFlatImage1ByteTransformer</p>
+ *
+ * @author Christoph Praschl
+ */
+public class OpenCVImageWrapperFlatImage1ByteTransformerTest extends OpenCVTest {
+    private final OpenCVImageWrapperFlatImage1ByteTransformer transformer = new OpenCVImageWrapperFlatImage1ByteTransformer();
+
+    @Test
+    public void testCVImageToFlat1Byte() {
+        // given
+        ImageWrapper<Mat> wrapper = ImageFactoryFactory.getImageFactory(Mat.class).getRandomImage(30, 40, ChannelType.BGR, new Random(13), 0, 255, false);
+
+        // when
+        ImageWrapper<byte[]> res = transformer.transformFrom(wrapper);
+
+        // then
+        Assert.assertEquals(res.getWidth(), 40);
+        Assert.assertEquals(res.getHeight(), 30);
+        Assert.assertEquals(res.getChannelType(), ChannelType.BGR);
+        for (int y = 0; y < wrapper.getHeight(); y++) {
+            for (int x = 0; x < wrapper.getWidth(); x++) {
+                for (int c = 0; c < wrapper.getChannels(); c++) {
+                    Assert.assertEquals(res.getValue(x, y, c), wrapper.getImage().get(y, x)[c]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCVImageWithOtherDepthToFlat1Byte() {
+        // given
+        ImageWrapper<Mat> wrapper = ((OpenCVFactory) ImageFactoryFactory.getImageFactory(Mat.class)).getImage(5, 6, CvType.CV_32FC1);
+        wrapper.setValue(1, 2, 0, 17.4);
+        wrapper.setValue(3, 4, 0, 300);
+
+        // when
+        ImageWrapper<byte[]> res = transformer.transformFrom(wrapper);
+
+        // then
+        Assert.assertEquals(res.getValue(1, 2, 0), 17.0);
+        Assert.assertEquals(res.getValue(3, 4, 0), 255.0);
+        Assert.assertEquals(res.getValue(0, 0, 0), 0.0);
+    }
+
+    @Test
+    public void testFlat1ByteToCVImage() {
+        // given
+        byte[] data = new byte[4 * 3 * 3];
+        new Random(13).nextBytes(data);
+        ImageWrapper<byte[]> input = ImageFactoryFactory.getImageFactory(byte[].class).getImage(3, 4, ChannelType.RGB, data);
+
+        // when
+        ImageWrapper<Mat> res = transformer.transformTo(input);
+
+        // then
+        Assert.assertEquals(CvType.depth(res.getImage().type()), CvType.CV_8U);
+        Assert.assertEquals(res.getChannelType(), ChannelType.RGB);
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                for (int c = 0; c < 3; c++) {
+                    Assert.assertEquals(res.getValue(x, y, c), input.getValue(x, y, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPaddedFlat1ByteToCVImage() {
+        // given
+        byte[] data = new byte[]{
+                1, 2, 3, 99,
+                4, 5, 6, 99
+        };
+        ImageWrapper<byte[]> input = ((AbstractFlatImageFactory<byte[]>) ImageFactoryFactory.getImageFactory(byte[].class)).getImage(2, 3, ChannelType.GREYSCALE, data, 4, 0);
+
+        // when
+        ImageWrapper<Mat> res = transformer.transformTo(input);
+
+        // then
+        Assert.assertEquals(res.getTile(0, 0, 3, 2, null), new double[]{1, 2, 3, 4, 5, 6});
+    }
+}
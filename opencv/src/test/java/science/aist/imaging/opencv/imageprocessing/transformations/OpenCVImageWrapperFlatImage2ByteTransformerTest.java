@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 the original author or authors.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at https://mozilla.org/MPL/2.0/.
+ */
+
+package science.aist.imaging.opencv.imageprocessing.transformations;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import science.aist.imaging.api.domain.wrapper.ChannelType;
+import science.aist.imaging.api.domain.wrapper.ImageWrapper;
+import science.aist.imaging.api.domain.wrapper.implementation.AbstractFlatImageFactory;
+import science.aist.imaging.api.domain.wrapper.implementation.ImageFactoryFactory;
+import science.aist.imaging.opencv.imageprocessing.OpenCVTest;
+import science.aist.imaging.opencv.imageprocessing.transformers.OpenCVImageWrapperFlatImage2ByteTransformer;
+import science.aist.imaging.opencv.imageprocessing.wrapper.OpenCVFactory;
+
+import java.util.Random;
+
+/**
+ * <p>Tests for OpenCVImageWrapperFlatImage2ByteTransformer</p>
+ *
+ * @author Christoph Praschl
+ */
+public class OpenCVImageWrapperFlatImage2ByteTransformerTest extends OpenCVTest {
+    private final OpenCVImageWrapperFlatImage2ByteTransformer transformer = new OpenCVImageWrapperFlatImage2ByteTransformer();
+
+    @Test
+    public void testRoundTrip() {
+        // given
+        short[] data = new short[30 * 40 * 3];
+        Random random = new Random(13);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (short) (random.nextInt(65536) - 32768);
+        }
+        ImageWrapper<short[]> input = ImageFactoryFactory.getImageFactory(short[].class).getImage(30, 40, ChannelType.RGB, data);
+
+        // when
+        ImageWrapper<Mat> mat = transformer.transformTo(input);
+        ImageWrapper<short[]> res = transformer.transformFrom(mat);
+
+        // then
+        Assert.assertEquals(CvType.depth(mat.getImage().type()), CvType.CV_16S);
+        Assert.assertEquals(mat.getChannelType(), ChannelType.RGB);
+        Assert.assertEquals(res.getWidth(), 40);
+        Assert.assertEquals(res.getHeight(), 30);
+        Assert.assertEquals(res.getChannelType(), ChannelType.RGB);
+        Assert.assertEquals(res.getTile(0, 0, 40, 30, null), input.getTile(0, 0, 40, 30, null));
+    }
+
+    @Test
+    public void testCV16UImageToFlat2Byte() {
+        // given
+        ImageWrapper<Mat> wrapper = ((OpenCVFactory) ImageFactoryFactory.getImageFactory(Mat.class)).getImage(2, 3, CvType.CV_16UC1);
+        wrapper.setValue(0, 0, 0, 1000);
+        wrapper.setValue(1, 0, 0, 32767);
+        wrapper.setValue(2, 0, 0, 32768);
+        wrapper.setValue(0, 1, 0, 40000);
+        wrapper.setValue(1, 1, 0, 65535);
+
+        // when
+        ImageWrapper<short[]> res = transformer.transformFrom(wrapper);
+
+        // then
+        Assert.assertEquals(res.getTile(0, 0, 3, 2, null), new double[]{1000, 32767, 32767, 32767, 32767, 0});
+    }
+
+    @Test
+    public void testPaddedFlat2ByteToCVImage() {
+        // given
+        short[] data = new short[]{
+                1, -2, 3, 99,
+                4, 5, -6, 99
+        };
+        ImageWrapper<short[]> input = ((AbstractFlatImageFactory<short[]>) ImageFactoryFactory.getImageFactory(short[].class)).getImage(2, 3, ChannelType.GREYSCALE, data, 4, 0);
+
+        // when
+        ImageWrapper<Mat> res = transformer.transformTo(input);
+
+        // then
+        Assert.assertEquals(res.getTile(0, 0, 3, 2, null), new double[]{1, -2, 3, 4, 5, -6});
+    }
+}
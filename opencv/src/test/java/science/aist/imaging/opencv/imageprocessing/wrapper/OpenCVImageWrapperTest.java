@@ -76,4 +76,33 @@ public class OpenCVImageWrapperTest extends OpenCVTest {
         // then
         Assert.assertEquals(val, 42.0);
     }
+
+    @Test
+    void testGetTile() {
+        // given
+        ImageWrapper<Mat> image = ImageFactoryFactory.getImageFactory(Mat.class).getImage(4, 4, ChannelType.GREYSCALE);
+        image.setValue(2, 1, 0, 200);
+        image.setValue(3, 2, 0, 7);
+
+        // when
+        double[] tile = image.getTile(2, 1, 2, 2, null);
+
+        // then
+        Assert.assertEquals(tile, new double[]{200, 0, 0, 7});
+    }
+
+    @Test
+    void testSetTile() {
+        // given
+        ImageWrapper<Mat> image = ImageFactoryFactory.getImageFactory(Mat.class).getImage(4, 4, ChannelType.RGB);
+        double[] tile = {1, 2, 3, 4, 5, 6};
+
+        // when
+        image.setTile(1, 3, 2, 1, tile);
+
+        // then
+        Assert.assertEquals(image.getValues(1, 3), new double[]{1, 2, 3});
+        Assert.assertEquals(image.getValues(2, 3), new double[]{4, 5, 6});
+        Assert.assertEquals(image.getRow(3, 1, null), new double[]{0, 2, 5, 0});
+    }
 }
@@ -68,6 +68,48 @@ public class FImageWrapper extends AbstractImageWrapper<FImage> {
         image.setPixel(x, y, cval);
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        float[] row = image.pixels[y];
+        double[] res = dst == null ? new double[row.length] : dst;
+        for (int x = 0; x < row.length; x++) {
+            res[x] = row[x] * maxVal + minVal;
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        float[] row = image.pixels[y];
+        for (int x = 0; x < row.length; x++) {
+            row[x] = (float) (src[x] / maxVal - minVal);
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        double[] res = dst == null ? new double[width * height] : dst;
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            float[] row = image.pixels[j];
+            for (int i = x; i < x + width; i++) {
+                res[idx++] = row[i] * maxVal + minVal;
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int idx = 0;
+        for (int j = y; j < y + height; j++) {
+            float[] row = image.pixels[j];
+            for (int i = x; i < x + width; i++) {
+                row[i] = (float) (src[idx++] / maxVal - minVal);
+            }
+        }
+    }
+
     @Override
     public Class<FImage> getSupportedType() {
         return FImage.class;
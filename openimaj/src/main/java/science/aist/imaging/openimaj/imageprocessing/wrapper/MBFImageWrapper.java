@@ -55,6 +55,54 @@ public class MBFImageWrapper extends AbstractImageWrapper<MBFImage> {
         image.setPixel(x,y, pixel);
     }
 
+    @Override
+    public double[] getRow(int y, int channel, double[] dst) {
+        float[] row = image.getBand(channel).pixels[y];
+        double[] res = dst == null ? new double[row.length] : dst;
+        for (int x = 0; x < row.length; x++) {
+            res[x] = channelType.scaleToChannel(row[x], channel, 0, 1);
+        }
+        return res;
+    }
+
+    @Override
+    public void setRow(int y, int channel, double[] src) {
+        float[] row = image.getBand(channel).pixels[y];
+        for (int x = 0; x < row.length; x++) {
+            row[x] = (float) channelType.scaleFromChannel(src[x], channel, 0, 1);
+        }
+    }
+
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        for (int c = 0; c < channels; c++) {
+            float[][] pixels = image.getBand(c).pixels;
+            int idx = c;
+            for (int j = y; j < y + height; j++) {
+                for (int i = x; i < x + width; i++, idx += channels) {
+                    res[idx] = channelType.scaleToChannel(pixels[j][i], c, 0, 1);
+                }
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        for (int c = 0; c < channels; c++) {
+            float[][] pixels = image.getBand(c).pixels;
+            int idx = c;
+            for (int j = y; j < y + height; j++) {
+                for (int i = x; i < x + width; i++, idx += channels) {
+                    pixels[j][i] = (float) channelType.scaleFromChannel(src[idx], c, 0, 1);
+                }
+            }
+        }
+    }
+
     @Override
     public Class<MBFImage> getSupportedType() {
         return MBFImage.class;
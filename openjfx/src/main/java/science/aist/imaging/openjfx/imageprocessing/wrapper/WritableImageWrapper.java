@@ -9,6 +9,7 @@
 
 package science.aist.imaging.openjfx.imageprocessing.wrapper;
 
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
@@ -23,6 +24,11 @@ import science.aist.imaging.api.domain.wrapper.ChannelType;
  * @since 1.2
  */
 public class WritableImageWrapper extends AbstractImageWrapper<WritableImage> {
+    /**
+     * Bit shifts of red, green, blue and opacity within an ARGB pixel
+     */
+    private static final int[] SHIFTS = {16, 8, 0, 24};
+
     public WritableImageWrapper(WritableImage image, ChannelType channelType) {
         super(image);
         this.channelType = channelType;
@@ -96,6 +102,80 @@ public class WritableImageWrapper extends AbstractImageWrapper<WritableImage> {
         pixelWriter.setColor(x,y, resultColor);
     }
 
+    /**
+     * Reads the given image segment with one bulk {@link PixelReader#getPixels(int, int, int, int, javafx.scene.image.WritablePixelFormat, int[], int, int)} call.
+     * Channel 0, 1 and 2 are mapped to red, green and blue, channel 3 to the opacity.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param dst    array the segment is written to; if null a new array is created
+     * @return the array containing the values of the segment
+     */
+    @Override
+    public double[] getTile(int x, int y, int width, int height, double[] dst) {
+        int channels = getChannels();
+        double[] res = dst == null ? new double[width * height * channels] : dst;
+        int[] argb = new int[width * height];
+        image.getPixelReader().getPixels(x, y, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        int idx = 0;
+        for (int pixel : argb) {
+            for (int c = 0; c < channels; c++) {
+                res[idx++] = ((pixel >> SHIFTS[c]) & 0xff) / 255.0 * channelType.getMaxVal(c);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Sets the given image segment with one bulk {@link PixelWriter#setPixels(int, int, int, int, PixelFormat, int[], int, int)} call.
+     * Channel 0, 1 and 2 are mapped to red, green and blue, channel 3 to the opacity. Greyscale values are written to all
+     * three color components.
+     *
+     * @param x      the x-coordinate of the top left pixel of the segment
+     * @param y      the y-coordinate of the top left pixel of the segment
+     * @param width  width of the segment
+     * @param height height of the segment
+     * @param src    array containing the new values of the segment
+     */
+    @Override
+    public void setTile(int x, int y, int width, int height, double[] src) {
+        int channels = getChannels();
+        int[] argb = new int[width * height];
+        boolean grey = channelType.equals(ChannelType.GREYSCALE) || channelType.equals(ChannelType.BINARY);
+        if (!grey && channels < 4) {
+            // keep the opacity of the existing pixels
+            image.getPixelReader().getPixels(x, y, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        }
+        int idx = 0;
+        for (int i = 0; i < argb.length; i++, idx += channels) {
+            if (grey) {
+                int value = toComponent(src[idx], 0);
+                argb[i] = 0xff000000 | (value << 16) | (value << 8) | value;
+            } else {
+                int pixel = argb[i] & 0xff000000;
+                for (int c = 0; c < channels; c++) {
+                    pixel = (pixel & ~(0xff << SHIFTS[c])) | (toComponent(src[idx + c], c) << SHIFTS[c]);
+                }
+                argb[i] = pixel;
+            }
+        }
+        image.getPixelWriter().setPixels(x, y, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+    }
+
+    /**
+     * Scales the given channel value to a color component in the range [0, 255]
+     *
+     * @param val     value of the channel
+     * @param channel the channel of the value
+     * @return color component
+     */
+    private int toComponent(double val, int channel) {
+        double scaled = val / channelType.getMaxVal(channel);
+        return (int) Math.round(Math.max(0, Math.min(1, scaled)) * 255);
+    }
+
     @Override
     public Class<WritableImage> getSupportedType() {
         return WritableImage.class;
@@ -10,6 +10,7 @@
 package science.aist.imaging.pdfbox;
 
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDResources;
@@ -23,10 +24,13 @@ import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
  * <p>Extracts all Images from the pdf and returns them as a list of buffered images</p>
+ * <p>For large documents use {@link #stream(InputStream)}, which decodes the images only when they are consumed. The
+ * document itself is buffered in a temporary file instead of the heap.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -50,18 +54,38 @@ public class ExtractImagesFromPDF implements Function<InputStream, Collection<Bu
 
     @Override
     public Collection<BufferedImage> apply(InputStream inputStream) {
-        try (PDDocument document = PDDocument.load(inputStream)) {
-            return StreamSupport.stream(document.getPages().spliterator(), false)
-                    .map(PDPage::getResources)
-                    .flatMap(res -> StreamSupport
-                            .stream(res.getXObjectNames().spliterator(), false)
-                            .map(name -> getXObjectWrapper(res, name)))
-                    .filter(PDImageXObject.class::isInstance)
-                    .map(PDImageXObject.class::cast)
-                    .map(ExtractImagesFromPDF::getImageWrapper)
-                    .collect(Collectors.toList());
+        try (Stream<BufferedImage> images = stream(inputStream)) {
+            return images.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Extracts the images lazily. The returned stream must be closed to release the document.
+     *
+     * @param inputStream the pdf
+     * @return ordered stream of the images of all pages
+     */
+    public Stream<BufferedImage> stream(InputStream inputStream) {
+        PDDocument document;
+        try {
+            document = PDDocument.load(inputStream, MemoryUsageSetting.setupTempFileOnly());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        return StreamSupport.stream(document.getPages().spliterator(), false)
+                .map(PDPage::getResources)
+                .flatMap(res -> StreamSupport
+                        .stream(res.getXObjectNames().spliterator(), false)
+                        .map(name -> getXObjectWrapper(res, name)))
+                .filter(PDImageXObject.class::isInstance)
+                .map(PDImageXObject.class::cast)
+                .map(ExtractImagesFromPDF::getImageWrapper)
+                .onClose(() -> {
+                    try {
+                        document.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
     }
 }
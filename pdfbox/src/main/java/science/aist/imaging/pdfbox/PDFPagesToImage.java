@@ -11,21 +11,31 @@ package science.aist.imaging.pdfbox;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 
 import java.awt.image.BufferedImage;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.util.Collection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>Converts each page of a pdf into a buffered image</p>
+ * <p>{@link #apply(InputStream)} returns all rendered pages at once. For large documents use {@link #stream(InputStream)},
+ * which renders the pages one after another when they are consumed, so only a bounded number of pages is kept in
+ * memory. The document itself is buffered in a temporary file instead of the heap.</p>
  *
  * @author Andreas Pointner
  * @since 1.0
@@ -43,24 +53,170 @@ public class PDFPagesToImage implements Function<InputStream, Collection<Buffere
      */
     private ImageType imageType = ImageType.RGB;
 
+    /**
+     * First page to convert (zero-based, inclusive)
+     */
+    private int startPage = 0;
+
+    /**
+     * Last page to convert (zero-based, exclusive); pages after the end of the document are ignored
+     */
+    private int endPage = Integer.MAX_VALUE;
+
+    /**
+     * Number of pages rendered concurrently by {@link #stream(InputStream)}. Every worker uses its own copy of the
+     * document, and at most this number of pages is rendered ahead of the consumer.
+     */
+    private int parallelism = 1;
+
     @Override
     public Collection<BufferedImage> apply(InputStream inputStream) {
-        try (PDDocument document = PDDocument.load(inputStream)) {
-            PDFRenderer pdfRenderer = new PDFRenderer(document);
-            return IntStream
-                    .range(0, document.getNumberOfPages())
-                    .mapToObj(page -> wrapRendererImageWithDPI(pdfRenderer, page))
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        try (Stream<BufferedImage> pages = stream(inputStream)) {
+            return pages.collect(Collectors.toList());
         }
     }
 
-    private BufferedImage wrapRendererImageWithDPI(PDFRenderer renderer, int page) {
-        try {
-            return renderer.renderImageWithDPI(page, dpi, imageType);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    /**
+     * Renders the selected pages lazily. The returned stream must be closed to release the document.
+     *
+     * @param inputStream the pdf
+     * @return ordered stream of the rendered pages
+     */
+    public Stream<BufferedImage> stream(InputStream inputStream) {
+        RenderedPages pages = new RenderedPages(inputStream);
+        return StreamSupport.stream(Spliterators.spliterator(pages, pages.size(), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
+    /**
+     * <p>Iterator over the rendered pages. With a parallelism &gt; 1 the pages are rendered by a pool of workers, which
+     * take a renderer of an own document, and at most parallelism pages are rendered ahead.</p>
+     */
+    private final class RenderedPages implements Iterator<BufferedImage>, Closeable {
+        private final List<PDDocument> documents = new ArrayList<>();
+        private final BlockingQueue<PDFRenderer> renderers = new LinkedBlockingQueue<>();
+        private final Deque<Future<BufferedImage>> inFlight = new ArrayDeque<>();
+        private final float renderDpi = dpi;
+        private final ImageType renderImageType = imageType;
+        private final int workers = Math.max(1, parallelism);
+        private final int from;
+        private final int to;
+        private ExecutorService executor;
+        private Path file;
+        private int next;
+        private int submitted;
+
+        private RenderedPages(InputStream inputStream) {
+            try {
+                if (workers == 1) {
+                    documents.add(PDDocument.load(inputStream, MemoryUsageSetting.setupTempFileOnly()));
+                } else {
+                    // the input can only be read once, so it is copied to a file every worker can open
+                    file = Files.createTempFile("pdfpages", ".pdf");
+                    Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+                    for (int i = 0; i < workers; i++) {
+                        documents.add(PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly()));
+                    }
+                    executor = Executors.newFixedThreadPool(workers, r -> {
+                        Thread thread = new Thread(r, "pdf-page-renderer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            documents.forEach(document -> renderers.add(new PDFRenderer(document)));
+
+            int pages = documents.get(0).getNumberOfPages();
+            from = Math.min(Math.max(startPage, 0), pages);
+            to = Math.max(from, Math.min(endPage, pages));
+            next = from;
+            submitted = from;
+        }
+
+        private long size() {
+            return (long) to - from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        @Override
+        public BufferedImage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int page = next++;
+            if (executor == null) {
+                return render(renderers.peek(), page);
+            }
+
+            while (submitted < to && inFlight.size() < workers) {
+                int toRender = submitted++;
+                inFlight.add(executor.submit(() -> render(toRender)));
+            }
+            try {
+                return inFlight.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rendering page " + page, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException("Could not render page " + page, e.getCause());
+            }
+        }
+
+        private BufferedImage render(int page) throws InterruptedException {
+            PDFRenderer renderer = renderers.take();
+            try {
+                return render(renderer, page);
+            } finally {
+                renderers.add(renderer);
+            }
+        }
+
+        private BufferedImage render(PDFRenderer renderer, int page) {
+            try {
+                return renderer.renderImageWithDPI(page, renderDpi, renderImageType);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (executor != null) {
+                executor.shutdownNow();
+                try {
+                    // the documents must not be closed while a worker still renders
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (PDDocument document : documents) {
+                try {
+                    document.close();
+                } catch (IOException e) {
+                    // the other documents must be closed anyway
+                }
+            }
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
         }
     }
 }
@@ -17,6 +17,7 @@ import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * <p>Tests {@link ExtractImagesFromPDF}</p>
@@ -43,4 +44,19 @@ public class ExtractImagesFromPDFTest {
         Assert.assertNotNull(bufferedImages);
         Assert.assertEquals(bufferedImages.size(), 3);
     }
+
+    @Test
+    void testStream() {
+        // given
+        InputStream is = getClass().getResourceAsStream("/test.pdf");
+
+        // when
+        long count;
+        try (Stream<BufferedImage> images = new ExtractImagesFromPDF().stream(is)) {
+            count = images.count();
+        }
+
+        // then
+        Assert.assertEquals(count, 3);
+    }
 }
@@ -17,7 +17,10 @@ import java.awt.image.BufferedImage;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>Test {@link PDFPagesToImage}</p>
@@ -52,4 +55,45 @@ public class PDFPagesToImageTest {
         Assert.assertEquals(bi2.getWidth(), 4961);
     }
 
+    @Test
+    void testStreamPageRange() {
+        // given
+        InputStream is = getClass().getResourceAsStream("/test.pdf");
+        PDFPagesToImage converter = new PDFPagesToImage();
+        converter.setDpi(72);
+        converter.setStartPage(1);
+
+        // when
+        List<BufferedImage> result;
+        try (Stream<BufferedImage> pages = converter.stream(is)) {
+            result = pages.collect(Collectors.toList());
+        }
+
+        // then
+        Assert.assertEquals(result.size(), 1);
+        Assert.assertEquals(result.get(0).getHeight(), 841);
+        Assert.assertEquals(result.get(0).getWidth(), 595);
+    }
+
+    @Test
+    void testStreamParallel() {
+        // given
+        InputStream is = getClass().getResourceAsStream("/test.pdf");
+        PDFPagesToImage converter = new PDFPagesToImage();
+        converter.setDpi(72);
+        converter.setParallelism(2);
+
+        // when
+        List<BufferedImage> result;
+        try (Stream<BufferedImage> pages = converter.stream(is)) {
+            result = pages.collect(Collectors.toList());
+        }
+
+        // then
+        Assert.assertEquals(result.size(), 2);
+        for (BufferedImage page : result) {
+            Assert.assertEquals(page.getHeight(), 841);
+            Assert.assertEquals(page.getWidth(), 595);
+        }
+    }
 }